@@ -0,0 +1,129 @@
+package io.github.phantomloader.library;
+
+import io.github.phantomloader.library.platform.PlatformHelper;
+import io.github.phantomloader.library.profiling.StartupTrace;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ *     Class used by the generated initializers to load the classes of a mod on background threads while the game is still loading.
+ * </p>
+ * <p>
+ *     The annotation processor writes a manifest containing the classes reachable from the mod's entry points, registered fields, services, and config schemas to {@code META-INF/phantom/preload/<modid>.txt}.
+ *     Classes are loaded and linked, but not initialized, so that static initializers still run on the thread that first uses the class.
+ *     Classes that are only reachable from client or server entry points and services are only loaded on that side.
+ * </p>
+ * <p>
+ *     Preloading is disabled by default and can be enabled by setting the {@code phantom.preload} system property to {@code true}, for example {@code -Dphantom.preload=true}.
+ * </p>
+ *
+ * @author Nico
+ */
+public final class ClassPreloader {
+
+    /** System property used to enable preloading */
+    public static final String PROPERTY = "phantom.preload";
+    /** Whether preloading is enabled */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    /** Maximum number of threads used to load the classes of a mod */
+    private static final int MAX_THREADS = 2;
+    /** Logger used to report the time spent preloading classes */
+    private static final Logger LOGGER = Logger.getLogger("phantom");
+
+    /**
+     * <p>
+     *     Starts loading the classes listed in the manifest of the given mod on background threads and returns immediately.
+     *     Does nothing if preloading is disabled or if the mod has no manifest.
+     * </p>
+     * <p>
+     *     When all classes have been loaded, the time spent loading them is logged.
+     *     Since the main thread would otherwise have loaded these classes itself, this is an estimate of the time saved on the main thread.
+     * </p>
+     *
+     * @param mod The mod id.
+     * @param classLoader The class loader of the mod's initializer, used to read the manifest and to load the classes.
+     */
+    public static void start(String mod, ClassLoader classLoader) {
+        if(ENABLED) {
+            List<String> classes = readManifest(mod, classLoader, PlatformHelper.isClientSide());
+            if(!classes.isEmpty()) {
+                int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+                AtomicInteger remaining = new AtomicInteger(threads);
+                AtomicLong loadingTime = new AtomicLong();
+                AtomicInteger failed = new AtomicInteger();
+                long start = System.nanoTime();
+                for(int i = 0; i < threads; i++) {
+                    int offset = i;
+                    Thread thread = new Thread(() -> {
+                        long threadStart = StartupTrace.begin();
+                        // Each thread loads every n-th class so that classes of the same package are spread across threads
+                        for(int j = offset; j < classes.size(); j += threads) {
+                            long classStart = System.nanoTime();
+                            try {
+                                Class.forName(classes.get(j), false, classLoader);
+                            } catch (ClassNotFoundException | LinkageError e) {
+                                failed.incrementAndGet();
+                            }
+                            loadingTime.addAndGet(System.nanoTime() - classStart);
+                        }
+                        if(StartupTrace.ENABLED) {
+                            StartupTrace.end(mod + " preload", "preload", threadStart);
+                        }
+                        if(remaining.decrementAndGet() == 0) {
+                            LOGGER.info(String.format("Preloaded %d classes of %s in %.1f ms on %d threads, saving up to %.1f ms of class loading on the main thread%s", classes.size() - failed.get(), mod, (System.nanoTime() - start) / 1e6, threads, loadingTime.get() / 1e6, failed.get() == 0 ? "" : " (" + failed.get() + " classes could not be loaded)"));
+                        }
+                    }, "Phantom Preloader " + mod + "-" + i);
+                    thread.setDaemon(true);
+                    thread.setContextClassLoader(classLoader);
+                    thread.start();
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Reads the manifest of the given mod.
+     * </p>
+     *
+     * @param mod The mod id.
+     * @param classLoader The class loader used to read the manifest.
+     * @param clientSide Whether client classes should be included instead of server classes.
+     * @return A list containing the binary names of the classes to load, or an empty list if the manifest could not be read.
+     */
+    private static List<String> readManifest(String mod, ClassLoader classLoader, boolean clientSide) {
+        ArrayList<String> classes = new ArrayList<>();
+        String path = "META-INF/phantom/preload/" + mod + ".txt";
+        try(InputStream inputStream = classLoader.getResourceAsStream(path)) {
+            if(inputStream != null) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+                String line;
+                while((line = reader.readLine()) != null) {
+                    // Lines are in the format "<side> <binary name>"
+                    int separator = line.indexOf(' ');
+                    if(separator > 0 && !line.startsWith("#")) {
+                        String side = line.substring(0, separator);
+                        if(side.equals("common") || side.equals(clientSide ? "client" : "server")) {
+                            classes.add(line.substring(separator + 1));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read preload manifest " + path, e);
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.phantomloader.library;
+
+import io.github.phantomloader.library.platform.ClientOnlyIndex;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation used to mark a class or a method that must never be loaded or called on a dedicated server.
+ *     Nested classes of an annotated class are also client-only.
+ * </p>
+ * <pre>
+ *     {@code @ClientOnly}
+ *     public class ExampleRenderers {
+ *         ...
+ *     }
+ * </pre>
+ * <p>
+ *     The annotation processor checks that the code that runs on both sides does not reach client-only classes.
+ *     Entry points that are not on the {@link ModEntryPoint.Side#CLIENT} side, fields annotated with {@link io.github.phantomloader.library.registry.Register}, config schemas, and services that are not client services, as well as the fields and the method signatures of the classes they reach, must not use client-only classes.
+ *     Methods annotated with {@code ClientOnly} are excluded from this check, so a common class may declare client-only methods as long as they are only called from the client.
+ *     Classes annotated with Forge's {@code @OnlyIn(Dist.CLIENT)} or Fabric's {@code @Environment(EnvType.CLIENT)} are also considered client-only.
+ * </p>
+ * <p>
+ *     Services annotated with {@code ClientOnly} are only registered on the client.
+ *     The processor also generates an index of the mod's client-only classes that is read by {@link ClientOnlyIndex} on a dedicated server.
+ * </p>
+ *
+ * @author Nico
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ClientOnly {
+
+}
@@ -0,0 +1,126 @@
+package io.github.phantomloader.library;
+
+import io.github.phantomloader.library.profiling.StartupTrace;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     Class used by the generated initializers to call {@link ModEntryPoint} methods that are marked as {@link ModEntryPoint#offThread()}.
+ * </p>
+ * <p>
+ *     Off-thread entry points are called concurrently on a bounded {@link ForkJoinPool} as soon as their dependencies are completed.
+ *     The remaining entry points are called serially on the main thread, in the order computed by the annotation processor.
+ * </p>
+ *
+ * @author Nico
+ */
+public final class EntryPointExecutor {
+
+    /** Maximum number of threads used to call off-thread entry points */
+    private static final int MAX_THREADS = 4;
+
+    /** Thread pool used to call off-thread entry points, created when it is first needed */
+    private static ForkJoinPool pool;
+
+    /**
+     * <p>
+     *     Calls the given entry points.
+     * </p>
+     * <p>
+     *     Tasks must be sorted so that every task comes after its dependencies and off-thread tasks must only depend on other off-thread tasks.
+     *     This is guaranteed by the annotation processor.
+     *     This method returns after all off-thread tasks have been completed.
+     * </p>
+     *
+     * @param mainThread Function used to run the main-thread tasks, either {@code Runnable::run} or a function that enqueues work on the main thread.
+     * @param tasks The entry points to call.
+     */
+    public static void execute(Consumer<Runnable> mainThread, Task... tasks) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.length];
+        for(int i = 0; i < tasks.length; i++) {
+            Task task = tasks[i];
+            if(task.offThread()) {
+                CompletableFuture<?>[] dependencies = new CompletableFuture<?>[task.dependencies().length];
+                for(int j = 0; j < dependencies.length; j++) {
+                    dependencies[j] = futures[task.dependencies()[j]];
+                }
+                futures[i] = CompletableFuture.allOf(dependencies).thenRunAsync(() -> StartupTrace.run(task.name(), "entrypoint", task.action()), pool());
+            }
+        }
+        mainThread.accept(() -> {
+            for(Task task : tasks) {
+                if(!task.offThread()) {
+                    // Main-thread tasks are already sorted, only off-thread dependencies need to be awaited
+                    for(int dependency : task.dependencies()) {
+                        if(futures[dependency] != null) {
+                            join(tasks[dependency], futures[dependency]);
+                        }
+                    }
+                    StartupTrace.run(task.name(), "entrypoint", task.action());
+                }
+            }
+        });
+        for(int i = 0; i < tasks.length; i++) {
+            if(futures[i] != null) {
+                join(tasks[i], futures[i]);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Waits for an off-thread task to be completed and rethrows its exception if it failed.
+     * </p>
+     *
+     * @param task The task.
+     * @param future The future of the task.
+     */
+    private static void join(Task task, CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Exception in entry point " + task.name(), e.getCause());
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the thread pool used to call off-thread entry points.
+     *     Worker threads use the context class loader of the thread that created the pool, which is needed to load mod classes.
+     * </p>
+     *
+     * @return The thread pool used to call off-thread entry points.
+     */
+    private static synchronized ForkJoinPool pool() {
+        if(pool == null) {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+            pool = new ForkJoinPool(threads, forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("Phantom Entry Point Worker-" + thread.getPoolIndex());
+                thread.setContextClassLoader(classLoader);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * <p>
+     *     Record used to represent an entry point in the generated initializers.
+     * </p>
+     *
+     * @param name Name of the entry point, used in error messages.
+     * @param action Calls the entry point.
+     * @param offThread Whether this entry point may be called outside the main thread.
+     * @param dependencies Indexes of the tasks that must be completed before this one.
+     */
+    public record Task(String name, Runnable action, boolean offThread, int... dependencies) {
+
+    }
+}
@@ -31,6 +31,21 @@ import java.lang.annotation.Target;
  *     }
  * </pre>
  * <p>
+ *     Entry points of the same side are called in a deterministic order that can be changed with {@link ModEntryPoint#order()} and {@link ModEntryPoint#after()}.
+ *     Entry points that do not need the main thread may be marked with {@link ModEntryPoint#offThread()} to run them concurrently with other entry points.
+ * </p>
+ * <pre>
+ *     {@code @ModEntryPoint(side = ModEntryPoint.Side.COMMON, offThread = true)}
+ *     public static void loadData() {
+ *         ...
+ *     }
+ *
+ *     {@code @ModEntryPoint(side = ModEntryPoint.Side.COMMON, after = "loadData")}
+ *     public static void setup() {
+ *         ...
+ *     }
+ * </pre>
+ * <p>
  *     For custom entry points see {@link FabricCustomEntryPoint}.
  * </p>
  *
@@ -68,6 +83,58 @@ public @interface ModEntryPoint {
      */
     Side side() default Side.INIT;
 
+    /**
+     * <p>
+     *     Specifies the order in which entry points of the same side are called.
+     *     Entry points with a lower order are called first, entry points with the same order are sorted by name.
+     * </p>
+     * <p>
+     *     The order is only used to choose between entry points that can be called at the same time, dependencies declared with {@link ModEntryPoint#after()} are always respected.
+     * </p>
+     * <p>
+     *     Default: 0.
+     * </p>
+     *
+     * @return The order of this entry point.
+     */
+    int order() default 0;
+
+    /**
+     * <p>
+     *     Specifies the entry points that must be called before this one.
+     * </p>
+     * <p>
+     *     Entry points are referred to as {@code "method"} if they are in the same class, as {@code "Class#method"}, or as {@code "package.Class#method"}.
+     *     Entry points may depend on entry points of the same side or of a side that always comes before theirs, such as {@link Side#INIT}.
+     *     Dependencies on entry points that are not used by the current mod loader are ignored.
+     * </p>
+     * <p>
+     *     Unknown dependencies and cycles cause a compilation error.
+     * </p>
+     * <p>
+     *     Default: no dependencies.
+     * </p>
+     *
+     * @return The entry points that must be called before this one.
+     */
+    String[] after() default {};
+
+    /**
+     * <p>
+     *     Specifies that this entry point does not need to be called on the main thread.
+     * </p>
+     * <p>
+     *     Off-thread entry points are called concurrently on a bounded thread pool and are always completed before the end of their setup phase.
+     *     They must not access game state that is not thread-safe and they may only depend on other off-thread entry points of the same side.
+     * </p>
+     * <p>
+     *     Default: false.
+     * </p>
+     *
+     * @return Whether this entry point may be called outside the main thread.
+     */
+    boolean offThread() default false;
+
     /**
      * <p>
      *     Enum used to specify a mod loader with {@link ModEntryPoint#modLoader()}.
@@ -0,0 +1,60 @@
+package io.github.phantomloader.library.blockentity;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+
+/**
+ * <p>
+ *     Interface used to save the fields of a {@link PersistentBlockEntity} one at a time and to load them back.
+ *     Implementations are generated by the annotation processor for every class that declares fields annotated with {@link Persist}.
+ * </p>
+ * <p>
+ *     Fields are identified by their index, which is also the index of their bit in the dirty masks of the block entity.
+ * </p>
+ *
+ * @param <T> The block entity type.
+ *
+ * @author Nico
+ */
+public interface BlockEntityCodec<T extends PersistentBlockEntity> {
+
+    /**
+     * <p>
+     *     Returns the keys of the fields in the block entity's tag, ordered by field index.
+     * </p>
+     *
+     * @return An array containing one key per field.
+     */
+    String[] keys();
+
+    /**
+     * <p>
+     *     Returns the fields that are sent to the client.
+     * </p>
+     *
+     * @return A mask with one bit set for every field annotated with {@code @Persist(sync = true)}.
+     */
+    long syncedFields();
+
+    /**
+     * <p>
+     *     Writes the value of a field to a new tag.
+     *     The returned tag is never modified after it is created, therefore it can be reused until the field changes.
+     * </p>
+     *
+     * @param blockEntity The block entity.
+     * @param field The index of the field.
+     * @return A tag containing the value of the field or null if the value is null.
+     */
+    Tag save(T blockEntity, int field);
+
+    /**
+     * <p>
+     *     Reads the fields whose key is in the given tag.
+     * </p>
+     *
+     * @param blockEntity The block entity.
+     * @param tag The tag to read from.
+     */
+    void load(T blockEntity, CompoundTag tag);
+}
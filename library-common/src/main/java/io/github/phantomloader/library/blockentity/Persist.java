@@ -0,0 +1,63 @@
+package io.github.phantomloader.library.blockentity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation used to save a field of a {@link PersistentBlockEntity} without writing {@code saveAdditional} and {@code load} by hand.
+ *     The annotation processor generates a {@link BlockEntityCodec} that writes every annotated field to its own tag and registers it before any entry point is called.
+ * </p>
+ * <p>
+ *     The annotated field must not be {@code private}, {@code static}, or {@code final}.
+ *     Its type may be one of the following:
+ * </p>
+ * <ul>
+ *     <li>{@code boolean}, {@code byte}, {@code short}, {@code int}, {@code long}, {@code float}, and {@code double}.</li>
+ *     <li>{@code String}, {@code UUID}, {@code ResourceLocation}, {@code BlockPos}, {@code CompoundTag}, {@code ItemStack}, and enums, which are saved by name.</li>
+ *     <li>{@code byte[]}, {@code int[]}, and {@code long[]}.</li>
+ * </ul>
+ * <p>
+ *     Fields whose value is null are not saved, fields whose key is missing from the loaded tag keep their current value.
+ *     The generated codec declares one constant per field that must be passed to {@link PersistentBlockEntity#markDirty(int)} when the field changes.
+ * </p>
+ * <pre>
+ *     {@code @Persist(sync = true)}
+ *     int energy;
+ *
+ *     public void addEnergy(int amount) {
+ *         this.energy += amount;
+ *         this.markDirty(PhantomGeneratorBlockEntityNbt.ENERGY);
+ *     }
+ * </pre>
+ *
+ * @author Nico
+ */
+@Target(ElementType.FIELD)
+public @interface Persist {
+
+    /**
+     * <p>
+     *     Specifies the key of the field in the block entity's tag.
+     * </p>
+     * <p>
+     *     Default: the name of the field.
+     * </p>
+     *
+     * @return The key of the field.
+     */
+    String key() default "";
+
+    /**
+     * <p>
+     *     Specifies that the field is also sent to the client, for example because it is needed by the block entity's renderer.
+     *     Fields that are not synced are only written to the world save.
+     * </p>
+     * <p>
+     *     Default: false.
+     * </p>
+     *
+     * @return True if the field is sent to the client, otherwise false.
+     */
+    boolean sync() default false;
+}
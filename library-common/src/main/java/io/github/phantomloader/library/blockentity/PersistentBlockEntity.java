@@ -0,0 +1,188 @@
+package io.github.phantomloader.library.blockentity;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ *     Base class for block entities whose fields are saved by a generated {@link BlockEntityCodec}.
+ *     Fields annotated with {@link Persist} are saved and loaded automatically, subclasses do not need to override {@code saveAdditional} or {@code load}.
+ * </p>
+ * <p>
+ *     Every field is written to its own tag, which is kept until the field is marked as changed with {@link PersistentBlockEntity#markDirty(int)}.
+ *     When the block entity is saved, only the tags of the fields that changed are written again, the others are reused.
+ *     Fields annotated with {@code @Persist(sync = true)} are sent to the client in the update tag, and {@link PersistentBlockEntity#sync()} only sends the ones that changed since the last update.
+ * </p>
+ *
+ * @author Nico
+ */
+public abstract class PersistentBlockEntity extends BlockEntity {
+
+    /** Generated codecs, keyed by block entity class */
+    private static final ConcurrentHashMap<Class<?>, BlockEntityCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    /** The codec used to save the fields of this block entity */
+    private final BlockEntityCodec<PersistentBlockEntity> codec;
+    /** Tags of the fields written by the last save, ordered by field index */
+    private final Tag[] savedTags;
+    /** Fields whose saved tag is out of date */
+    private long dirtyFields = -1L;
+    /** Synced fields that changed since the last update packet */
+    private long unsyncedFields = 0L;
+
+    /**
+     * <p>
+     *     Constructs a persistent block entity.
+     * </p>
+     *
+     * @param type The block entity type.
+     * @param pos The position of the block entity.
+     * @param state The block state of the block entity.
+     * @throws IllegalStateException If no codec is registered for the class of this block entity.
+     */
+    public PersistentBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state) {
+        super(type, pos, state);
+        this.codec = codec(this.getClass());
+        this.savedTags = new Tag[this.codec.keys().length];
+    }
+
+    /**
+     * <p>
+     *     Registers the codec used by the given class and by its subclasses that do not declare other persistent fields.
+     *     This method is called from the generated code.
+     * </p>
+     *
+     * @param type The block entity class.
+     * @param codec The generated codec.
+     * @param <T> The block entity type.
+     */
+    public static <T extends PersistentBlockEntity> void registerCodec(Class<T> type, BlockEntityCodec<T> codec) {
+        CODECS.put(type, codec);
+    }
+
+    /**
+     * <p>
+     *     Returns the codec registered for the given class or for its closest superclass.
+     * </p>
+     *
+     * @param type The block entity class.
+     * @return The codec of the class.
+     * @throws IllegalStateException If no codec is registered for the class or its superclasses.
+     */
+    @SuppressWarnings("unchecked")
+    private static BlockEntityCodec<PersistentBlockEntity> codec(Class<?> type) {
+        for(Class<?> current = type; current != PersistentBlockEntity.class; current = current.getSuperclass()) {
+            BlockEntityCodec<?> codec = CODECS.get(current);
+            if(codec != null) {
+                return (BlockEntityCodec<PersistentBlockEntity>) codec;
+            }
+        }
+        throw new IllegalStateException("No codec registered for block entity " + type.getName() + ", make sure it declares fields annotated with @Persist");
+    }
+
+    /**
+     * <p>
+     *     Marks a field as changed so that it is written again the next time the block entity is saved or synced.
+     *     Must be called every time a field annotated with {@link Persist} changes, otherwise its previous value is saved.
+     * </p>
+     *
+     * @param field The index of the field, declared as a constant in the generated codec.
+     */
+    protected final void markDirty(int field) {
+        long bit = 1L << field;
+        this.dirtyFields |= bit;
+        this.unsyncedFields |= bit & this.codec.syncedFields();
+        this.setChanged();
+    }
+
+    /**
+     * <p>
+     *     Marks all fields as changed.
+     * </p>
+     */
+    protected final void markAllDirty() {
+        this.dirtyFields = -1L;
+        this.unsyncedFields = this.codec.syncedFields();
+        this.setChanged();
+    }
+
+    /**
+     * <p>
+     *     Sends the synced fields that changed since the last update to the clients tracking this block entity.
+     *     Does nothing on the client or if no synced field has changed.
+     * </p>
+     */
+    public void sync() {
+        if(this.level != null && !this.level.isClientSide() && this.unsyncedFields != 0) {
+            this.level.sendBlockUpdated(this.worldPosition, this.getBlockState(), this.getBlockState(), Block.UPDATE_CLIENTS);
+        }
+    }
+
+    @Override
+    protected void saveAdditional(CompoundTag tag) {
+        super.saveAdditional(tag);
+        this.writeFields(tag, -1L);
+    }
+
+    @Override
+    public void load(CompoundTag tag) {
+        super.load(tag);
+        this.codec.load(this, tag);
+        // Saved tags no longer match the values of the fields
+        this.dirtyFields = -1L;
+    }
+
+    @Override
+    public CompoundTag getUpdateTag() {
+        CompoundTag tag = new CompoundTag();
+        this.writeFields(tag, this.codec.syncedFields());
+        return tag;
+    }
+
+    @Override
+    public Packet<ClientGamePacketListener> getUpdatePacket() {
+        if(this.unsyncedFields == 0) {
+            return null;
+        }
+        CompoundTag tag = new CompoundTag();
+        this.writeFields(tag, this.unsyncedFields);
+        this.unsyncedFields = 0;
+        return ClientboundBlockEntityDataPacket.create(this, blockEntity -> tag);
+    }
+
+    /**
+     * <p>
+     *     Writes the given fields to the given tag.
+     *     Fields that have not changed since they were last written reuse their previous tag.
+     * </p>
+     *
+     * @param tag The tag to write to.
+     * @param fields A mask containing the fields to write.
+     */
+    private void writeFields(CompoundTag tag, long fields) {
+        String[] keys = this.codec.keys();
+        long stale = this.dirtyFields & fields;
+        for(int i = 0; i < keys.length; i++) {
+            long bit = 1L << i;
+            if((fields & bit) != 0) {
+                if((stale & bit) != 0) {
+                    this.savedTags[i] = this.codec.save(this, i);
+                }
+                if(this.savedTags[i] != null) {
+                    tag.put(keys[i], this.savedTags[i]);
+                }
+            }
+        }
+        this.dirtyFields &= ~stale;
+    }
+}
@@ -1,9 +1,11 @@
 package io.github.phantomloader.library.config;
 
 import io.github.phantomloader.library.ModEntryPoint;
+import io.github.phantomloader.library.services.PhantomServices;
 
 import java.util.NoSuchElementException;
-import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -19,9 +21,18 @@ import java.util.function.Supplier;
  *     <li>In Fabric, this will create a json file in the config folder.</li>
  * </ul>
  * <p>
+ *     Config files are reloaded when they are edited while the game is running.
+ *     Forge reloads its config files itself, while in Fabric the config folder is watched by a background thread that parses the edited file and swaps in all of its values at once.
+ *     Listeners added with {@link ConfigBuilder#addChangeListener(Consumer)} are notified of the options that changed.
+ *     When a file is reloaded, listeners are called on the server thread, or on the client thread for client config files and while no server is running.
+ * </p>
+ * <p>
  *     Config files are normally created from static initializers, so that options can be retrieved from anywhere in the code.
  *     After defining the config options, the config must be registered by calling {@link ConfigBuilder#register(String, ModEntryPoint.Side)}.
  * </p>
+ * <p>
+ *     Alternatively, options can be declared as fields of a class annotated with {@link ConfigSchema}, which generates the code that uses this builder.
+ * </p>
  *
  * @author Nico
  */
@@ -41,9 +52,9 @@ public interface ConfigBuilder {
      * @throws NoSuchElementException If no {@code ConfigBuilder} has been defined in {@code META-INF/services}.
      */
     static ConfigBuilder instantiate() {
-        return ServiceLoader.load(ConfigBuilder.class)
-                .findFirst()
-                .orElseThrow(() -> new NoSuchElementException("No config builder has been defined in META-INF/services. Make sure you are using the correct version of the library mod for your mod loader."));
+        return PhantomServices.factory(ConfigBuilder.class)
+                .orElseThrow(() -> new NoSuchElementException("No config builder has been defined in META-INF/services. Make sure you are using the correct version of the library mod for your mod loader."))
+                .get();
     }
 
     /**
@@ -170,6 +181,37 @@ public interface ConfigBuilder {
      */
     void endCategory();
 
+    /**
+     * <p>
+     *     Adds a listener that is called when this config file is loaded and every time it is reloaded.
+     *     The suppliers returned by this builder return the loaded values when the listener is called.
+     *     Listeners must be added before calling {@link ConfigBuilder#register(String, ModEntryPoint.Side)}.
+     * </p>
+     * <ul>
+     *     <li>In Forge, listeners are called from the {@code ModConfigEvent.Loading} event and on the game thread after the {@code ModConfigEvent.Reloading} event.</li>
+     *     <li>In Fabric, listeners are called after the json file is read and on the game thread after it is reloaded.</li>
+     * </ul>
+     *
+     * @param listener The listener to call.
+     */
+    void addLoadListener(Runnable listener);
+
+    /**
+     * <p>
+     *     Adds a listener that is called every time this config file is reloaded with the keys of the options whose value changed.
+     *     Keys of options in a category are prefixed with the names of the categories separated by dots, for example {@code "world.max_rubies"}.
+     *     The listener is called after the load listeners and is not called if no value changed.
+     *     Listeners must be added before calling {@link ConfigBuilder#register(String, ModEntryPoint.Side)}.
+     * </p>
+     * <ul>
+     *     <li>In Forge, listeners are called on the game thread after the {@code ModConfigEvent.Reloading} event.</li>
+     *     <li>In Fabric, listeners are called on the game thread after the new values have been swapped in.</li>
+     * </ul>
+     *
+     * @param listener The listener to call with an unmodifiable set of changed keys.
+     */
+    void addChangeListener(Consumer<Set<String>> listener);
+
     /**
      * <p>
      *     Registers, creates, or loads this config file.
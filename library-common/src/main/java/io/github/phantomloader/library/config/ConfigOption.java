@@ -0,0 +1,84 @@
+package io.github.phantomloader.library.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation used on the fields of a class annotated with {@link ConfigSchema} to specify additional data for a config option.
+ *     Fields that are not annotated use their name as key, have no comment, and are not in a category.
+ * </p>
+ * <pre>
+ *     {@code @ConfigOption(key = "max_rubies", category = "world", comment = "Maximum number of rubies per ore", min = 1, max = 8)}
+ *     public static volatile int maxRubies = 3;
+ * </pre>
+ *
+ * @author Nico
+ */
+@Target(ElementType.FIELD)
+public @interface ConfigOption {
+
+    /**
+     * <p>
+     *     Specifies the option's key.
+     * </p>
+     * <p>
+     *     Default: the name of the field.
+     * </p>
+     *
+     * @return The option's key.
+     */
+    String key() default "";
+
+    /**
+     * <p>
+     *     Specifies the category the option is in.
+     *     Options in the same category are grouped together regardless of where their fields are declared.
+     * </p>
+     * <p>
+     *     Default: no category.
+     * </p>
+     *
+     * @return The name of the category.
+     * @see ConfigBuilder#beginCategory(String)
+     */
+    String category() default "";
+
+    /**
+     * <p>
+     *     Specifies the comment to append before the option, one string per line.
+     * </p>
+     * <p>
+     *     Default: no comment.
+     * </p>
+     *
+     * @return The option's comment.
+     */
+    String[] comment() default {};
+
+    /**
+     * <p>
+     *     Specifies the minimum value of a numeric option.
+     *     Values that are out of range are clamped when the config is loaded.
+     * </p>
+     * <p>
+     *     Default: no minimum.
+     * </p>
+     *
+     * @return The minimum value.
+     */
+    double min() default Double.NEGATIVE_INFINITY;
+
+    /**
+     * <p>
+     *     Specifies the maximum value of a numeric option.
+     *     Values that are out of range are clamped when the config is loaded.
+     * </p>
+     * <p>
+     *     Default: no maximum.
+     * </p>
+     *
+     * @return The maximum value.
+     */
+    double max() default Double.POSITIVE_INFINITY;
+}
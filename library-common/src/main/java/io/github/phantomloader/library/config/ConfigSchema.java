@@ -0,0 +1,59 @@
+package io.github.phantomloader.library.config;
+
+import io.github.phantomloader.library.ModEntryPoint;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation used to declare a class as a config file.
+ *     The annotation processor generates the code that defines the config with a {@link ConfigBuilder} and registers it before any {@link ModEntryPoint} is called.
+ * </p>
+ * <p>
+ *     Every {@code public static} non-final field of type {@code boolean}, {@code int}, {@code long}, {@code double}, or {@code String} in the annotated class is a config option.
+ *     Options must be {@code volatile}, the annotation processor reports an error otherwise.
+ *     The value the field is initialized with is used as the option's default value.
+ *     Fields may be annotated with {@link ConfigOption} to change their key, comment, category, or range.
+ * </p>
+ * <pre>
+ *     {@code @ConfigSchema}
+ *     public class ExampleConfig {
+ *
+ *         {@code @ConfigOption(comment = "Maximum number of rubies per ore", min = 1, max = 8)}
+ *         public static volatile int maxRubies = 3;
+ *
+ *         public static volatile boolean enableRubies = true;
+ *     }
+ * </pre>
+ * <p>
+ *     The fields are set when the config file is loaded and every time it is reloaded, after values are validated.
+ *     Reading a field is a single volatile read, so options can be read from code that runs every tick on any thread.
+ * </p>
+ * <p>
+ *     All the fields of a loaded file are written within one {@link ConfigVersion}.
+ *     Options that must be consistent with each other, such as the bounds of a range, should be read together with {@link ConfigVersion#read(java.util.function.Supplier)},
+ *     which always returns values from the same version of the file.
+ * </p>
+ * <p>
+ *     Only one class per side can be annotated, since the config file is named after the mod id and the side.
+ * </p>
+ *
+ * @author Nico
+ */
+@Target(ElementType.TYPE)
+public @interface ConfigSchema {
+
+    /**
+     * <p>
+     *     Specifies whether this is a client, common, or server config file.
+     * </p>
+     * <p>
+     *     Default: {@link ModEntryPoint.Side#COMMON}.
+     * </p>
+     *
+     * @return The side of the config file.
+     * @see ConfigBuilder#register(String, ModEntryPoint.Side)
+     */
+    ModEntryPoint.Side side() default ModEntryPoint.Side.COMMON;
+}
@@ -0,0 +1,108 @@
+package io.github.phantomloader.library.config;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     Version counter of the fields of a class annotated with {@link ConfigSchema}.
+ *     Obtained with {@link ConfigVersion#of(Class)}.
+ * </p>
+ * <p>
+ *     The code generated for a schema sets all the fields of a loaded config inside {@link ConfigVersion#write(Runnable)}, which makes the version odd while the fields are written.
+ *     {@link ConfigVersion#read(Supplier)} reads several fields and reads them again if the version changed in the meantime,
+ *     so the values it returns always belong to the same version of the config file.
+ *     Reading a single field does not need a {@code ConfigVersion}, since the fields are volatile.
+ * </p>
+ * <pre>
+ *     int[] range = ConfigVersion.of(ExampleConfig.class).read(() -&gt; new int[] {ExampleConfig.minRubies, ExampleConfig.maxRubies});
+ * </pre>
+ *
+ * @author Nico
+ */
+public final class ConfigVersion {
+
+    /** Version counters by schema class */
+    private static final ClassValue<ConfigVersion> VERSIONS = new ClassValue<>() {
+        @Override
+        protected ConfigVersion computeValue(Class<?> type) {
+            return new ConfigVersion();
+        }
+    };
+
+    /** The version of the fields, odd while they are being written */
+    private volatile int version = 0;
+
+    /**
+     * <p>
+     *     Creates a {@code ConfigVersion}.
+     *     Use {@link ConfigVersion#of(Class)} instead.
+     * </p>
+     */
+    private ConfigVersion() {
+
+    }
+
+    /**
+     * <p>
+     *     Returns the version counter of the given schema.
+     * </p>
+     *
+     * @param schema The class annotated with {@link ConfigSchema}.
+     * @return The version counter of the schema, always the same object for the same class.
+     */
+    public static ConfigVersion of(Class<?> schema) {
+        return VERSIONS.get(schema);
+    }
+
+    /**
+     * <p>
+     *     Sets the fields of the schema.
+     *     Used by the generated code when the config file is loaded.
+     * </p>
+     *
+     * @param assignments Function that sets all the fields.
+     */
+    public synchronized void write(Runnable assignments) {
+        this.version++;
+        try {
+            assignments.run();
+        } finally {
+            this.version++;
+        }
+    }
+
+    /**
+     * <p>
+     *     Reads several fields of the schema, so that the values belong to the same version of the config file.
+     *     The given function may be called more than once if the config is reloaded while it runs.
+     * </p>
+     *
+     * @param reader Function that reads the fields and returns them.
+     * @return The result of the function.
+     * @param <T> The type of the result.
+     */
+    public <T> T read(Supplier<T> reader) {
+        while(true) {
+            int before = this.version;
+            if((before & 1) == 0) {
+                T result = reader.get();
+                if(this.version == before) {
+                    return result;
+                }
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the current version.
+     * </p>
+     *
+     * @return Twice the number of times the fields have been written, plus one while they are being written.
+     */
+    public int version() {
+        return this.version;
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.phantomloader.library.events;
 
+import io.github.phantomloader.library.ClientOnly;
+import io.github.phantomloader.library.services.PhantomService;
 import io.github.phantomloader.library.utils.CreativeTabsUtils;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.blockentity.BlockEntityRendererProvider;
@@ -18,7 +20,7 @@ import java.util.function.Supplier;
 /**
  * <p>
  *     Interface to be implemented to implement a client event handler.
- *     The class that implements this interface must be registered as a service in {@code META-INF/services/io.github.phantomloader.library.events.ClientEventHandler}.
+ *     The class that implements this interface must be annotated with {@link PhantomService} or registered as a service in {@code META-INF/services/io.github.phantomloader.library.events.ClientEventHandler}.
  *     See {@link java.util.ServiceLoader} for more details.
  * </p>
  * <ul>
@@ -28,6 +30,7 @@ import java.util.function.Supplier;
  *
  * @author Nico
  */
+@ClientOnly
 public interface ClientEventHandler {
 
     /**
@@ -1,5 +1,6 @@
 package io.github.phantomloader.library.events;
 
+import io.github.phantomloader.library.services.PhantomService;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.ai.attributes.AttributeSupplier;
@@ -9,7 +10,7 @@ import java.util.function.BiConsumer;
 /**
  * <p>
  *     Interface to be implemented to implement a mod event handler.
- *     The class that implements this interface must be registered as a service in {@code META-INF/services/io.github.phantomloader.library.events.ModEventHandler}.
+ *     The class that implements this interface must be annotated with {@link PhantomService} or registered as a service in {@code META-INF/services/io.github.phantomloader.library.events.ModEventHandler}.
  *     See {@link java.util.ServiceLoader} for more details.
  * </p>
  * <ul>
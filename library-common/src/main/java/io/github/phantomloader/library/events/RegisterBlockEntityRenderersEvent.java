@@ -1,5 +1,6 @@
 package io.github.phantomloader.library.events;
 
+import io.github.phantomloader.library.ClientOnly;
 import io.github.phantomloader.library.registry.ModRegistry;
 import net.minecraft.client.renderer.blockentity.BlockEntityRenderer;
 import net.minecraft.client.renderer.blockentity.BlockEntityRendererProvider;
@@ -17,6 +18,7 @@ import java.util.function.Supplier;
  *
  * @author Nico
  */
+@ClientOnly
 public interface RegisterBlockEntityRenderersEvent {
 
     /**
@@ -1,5 +1,6 @@
 package io.github.phantomloader.library.events;
 
+import io.github.phantomloader.library.ClientOnly;
 import io.github.phantomloader.library.registry.ModRegistry;
 import net.minecraft.client.renderer.entity.EntityRenderer;
 import net.minecraft.client.renderer.entity.EntityRendererProvider;
@@ -15,6 +16,7 @@ import java.util.function.Supplier;
  *
  * @author Nico
  */
+@ClientOnly
 public interface RegisterEntityRenderersEvent {
 
     /**
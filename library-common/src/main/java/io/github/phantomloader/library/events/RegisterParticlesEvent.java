@@ -1,5 +1,6 @@
 package io.github.phantomloader.library.events;
 
+import io.github.phantomloader.library.ClientOnly;
 import io.github.phantomloader.library.registry.ModRegistry;
 import net.minecraft.client.particle.ParticleProvider;
 import net.minecraft.core.particles.ParticleOptions;
@@ -14,6 +15,7 @@ import java.util.function.Supplier;
  *
  * @author Nico
  */
+@ClientOnly
 public interface RegisterParticlesEvent {
 
     /**
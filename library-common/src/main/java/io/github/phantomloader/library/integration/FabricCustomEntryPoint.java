@@ -44,7 +44,11 @@ public @interface FabricCustomEntryPoint {
      *     For example, {@code "terrablender.api.TerraBlenderApi"}.
      * </p>
      * <p>
-     *     The generated class will only implement one of the methods of this interface, therefore such interface must only have one method with no arguments like the one in {@code net.fabricmc.api.ModInitializer}.
+     *     The generated class will implement the single abstract method of this interface, like the one in {@code net.fabricmc.api.ModInitializer}, therefore such interface must only have one abstract method that returns {@code void}.
+     *     The interface only needs to be on the compile classpath.
+     * </p>
+     * <p>
+     *     If the method of the interface has parameters, its arguments will be passed to the annotated methods, which must declare the same parameters.
      * </p>
      *
      * @return The fully qualified name of the interface that will be implemented by the generated class.
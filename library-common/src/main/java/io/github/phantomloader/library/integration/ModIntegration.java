@@ -0,0 +1,45 @@
+package io.github.phantomloader.library.integration;
+
+import io.github.phantomloader.library.ModEntryPoint;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation to use along {@link ModEntryPoint} to only call an entry point if another mod is loaded.
+ *     When used on a class, it applies to every entry point declared in that class and in its nested classes.
+ * </p>
+ * <p>
+ *     The generated initializer checks if the mod is loaded right before the entry point would be called, in the same setup phase.
+ *     The class of the entry point is only loaded if the check succeeds, therefore integration classes can freely use classes from the other mod.
+ *     Integration classes are also excluded from the classes preloaded by {@link io.github.phantomloader.library.ClassPreloader}.
+ * </p>
+ * <pre>
+ *     {@code @ModIntegration("jei")}
+ *     public class JeiIntegration {
+ *
+ *         {@code @ModEntryPoint(side = ModEntryPoint.Side.CLIENT)}
+ *         public static void registerRecipes() {
+ *             ...
+ *         }
+ *     }
+ * </pre>
+ * <p>
+ *     Entry points that depend on an integration entry point with {@link ModEntryPoint#after()} are still called if the other mod is not loaded.
+ * </p>
+ *
+ * @author Nico
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ModIntegration {
+
+    /**
+     * <p>
+     *     The id of the mod that must be loaded for the entry point to be called.
+     * </p>
+     *
+     * @return A mod id.
+     */
+    String value();
+}
@@ -0,0 +1,21 @@
+package io.github.phantomloader.library.network;
+
+/**
+ * <p>
+ *     Interface that must be implemented by records annotated with {@link Packet}.
+ * </p>
+ *
+ * @author Nico
+ */
+public interface ModPacket {
+
+    /**
+     * <p>
+     *     Method called when the packet is received.
+     *     The packet is decoded on the network thread, this method is called on the main thread of the receiving side.
+     * </p>
+     *
+     * @param context Context of the received packet.
+     */
+    void handle(PacketContext context);
+}
@@ -0,0 +1,98 @@
+package io.github.phantomloader.library.network;
+
+import io.github.phantomloader.library.services.PhantomServices;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ *     Interface used to create a network channel that can be used by any loader.
+ * </p>
+ * <p>
+ *     A {@code NetworkChannel} can be instantiated with {@link NetworkChannel#instantiate()}.
+ *     The method will return an instance of a {@code NetworkChannel} for the current mod loader.
+ * </p>
+ * <ul>
+ *     <li>In Forge, this uses a {@code SimpleChannel}.</li>
+ *     <li>In Fabric, every packet uses its own channel of the Fabric networking api.</li>
+ * </ul>
+ * <p>
+ *     Channels are normally created by the code generated for records annotated with {@link Packet}.
+ *     After defining the packets, the channel must be registered by calling {@link NetworkChannel#register(String, String)}.
+ * </p>
+ *
+ * @author Nico
+ */
+public interface NetworkChannel {
+
+    /**
+     * <p>
+     *     Returns a new instance of {@link NetworkChannel} for the current mod loader.
+     * </p>
+     *
+     * @return An instance of {@code NetworkChannel} for the current mod loader.
+     * @throws NoSuchElementException If no {@code NetworkChannel} has been defined in {@code META-INF/services}.
+     */
+    static NetworkChannel instantiate() {
+        return PhantomServices.factory(NetworkChannel.class)
+                .orElseThrow(() -> new NoSuchElementException("No network channel has been defined in META-INF/services. Make sure you are using the correct version of the library mod for your mod loader."))
+                .get();
+    }
+
+    /**
+     * <p>
+     *     Defines a packet.
+     *     Packets must be defined in the same order on both sides.
+     * </p>
+     *
+     * @param name Name of the packet, unique within the channel.
+     * @param type The class of the packet.
+     * @param direction Whether the packet is sent to the server or to the client.
+     * @param codec The codec used to write and read the packet.
+     * @param <T> The packet type.
+     */
+    <T extends ModPacket> void definePacket(String name, Class<T> type, Packet.Direction direction, PacketCodec<T> codec);
+
+    /**
+     * <p>
+     *     Registers this channel.
+     *     Must be called after all packets have been defined and before any packet is sent.
+     * </p>
+     *
+     * @param mod Your mod id.
+     * @param protocol The protocol version, used by loaders that support it to refuse connections when the packets of the client and the server do not match.
+     */
+    void register(String mod, String protocol);
+
+    /**
+     * <p>
+     *     Sends a packet from the client to the server.
+     * </p>
+     *
+     * @param packet The packet to send.
+     */
+    void sendToServer(ModPacket packet);
+
+    /**
+     * <p>
+     *     Sends a packet from the server to the given player.
+     * </p>
+     *
+     * @param player The player to send the packet to.
+     * @param packet The packet to send.
+     */
+    void sendToPlayer(ServerPlayer player, ModPacket packet);
+
+    /**
+     * <p>
+     *     Sends a packet from the server to all the given players.
+     *     The packet is only encoded once.
+     * </p>
+     *
+     * @param players The players to send the packet to.
+     * @param packet The packet to send.
+     */
+    void sendToPlayers(Collection<ServerPlayer> players, ModPacket packet);
+}
@@ -0,0 +1,82 @@
+package io.github.phantomloader.library.network;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation used to declare a record as a network packet.
+ *     The annotation processor generates a {@link PacketCodec} that writes the components of the record directly to a {@code FriendlyByteBuf} and registers the packet to the mod's {@link NetworkChannel} before any entry point is called.
+ * </p>
+ * <p>
+ *     The annotated record must be public and must implement {@link ModPacket}.
+ *     Its components may be of the following types:
+ * </p>
+ * <ul>
+ *     <li>{@code boolean}, {@code byte}, {@code short}, {@code char}, {@code int}, {@code long}, {@code float}, {@code double}, and their wrapper classes. Integers and longs are written as varints.</li>
+ *     <li>{@code String}, {@code UUID}, {@code ResourceLocation}, {@code BlockPos}, {@code CompoundTag}, {@code ItemStack}, {@code Component}, and enums.</li>
+ *     <li>{@code byte[]} and {@code int[]}.</li>
+ *     <li>{@code List} and {@code Optional} of any supported type.</li>
+ *     <li>Records whose components are of a supported type.</li>
+ * </ul>
+ * <p>
+ *     Values must not be null, {@code Optional} should be used for values that may be absent.
+ *     The presence of every {@code Optional} component of the packet is written in a single varint, so that absent values only take one bit.
+ * </p>
+ * <pre>
+ *     {@code @Packet(direction = Packet.Direction.TO_CLIENT)}
+ *     public record SyncRubiesPacket(int rubies, Optional&lt;BlockPos&gt; lastOre) implements ModPacket {
+ *
+ *         {@code @Override}
+ *         public void handle(PacketContext context) {
+ *             ...
+ *         }
+ *     }
+ * </pre>
+ * <p>
+ *     Packets are sent with {@link Packets}.
+ * </p>
+ *
+ * @author Nico
+ */
+@Target(ElementType.TYPE)
+public @interface Packet {
+
+    /**
+     * <p>
+     *     Specifies the name of the packet, which must be unique within the mod.
+     * </p>
+     * <p>
+     *     Default: the name of the record in snake case, for example {@code sync_rubies_packet}.
+     * </p>
+     *
+     * @return The name of the packet.
+     */
+    String name() default "";
+
+    /**
+     * <p>
+     *     Specifies whether the packet is sent from the client to the server or from the server to the client.
+     * </p>
+     * <p>
+     *     Default: {@link Direction#TO_SERVER}.
+     * </p>
+     *
+     * @return The direction of the packet.
+     */
+    Direction direction() default Direction.TO_SERVER;
+
+    /**
+     * <p>
+     *     Enum used to specify the direction of a packet.
+     * </p>
+     *
+     * @author Nico
+     */
+    enum Direction {
+        /** Packets sent from the client and handled on the server */
+        TO_SERVER,
+        /** Packets sent from the server and handled on the client */
+        TO_CLIENT
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.phantomloader.library.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+
+/**
+ * <p>
+ *     Interface used to write a packet to a buffer and to read it back.
+ *     Implementations are generated by the annotation processor for every record annotated with {@link Packet}.
+ * </p>
+ *
+ * @param <T> The packet type.
+ *
+ * @author Nico
+ */
+public interface PacketCodec<T extends ModPacket> {
+
+    /**
+     * <p>
+     *     Writes the given packet to the given buffer.
+     * </p>
+     *
+     * @param packet The packet to write.
+     * @param buf The buffer to write to.
+     */
+    void encode(T packet, FriendlyByteBuf buf);
+
+    /**
+     * <p>
+     *     Reads a packet from the given buffer.
+     * </p>
+     *
+     * @param buf The buffer to read from.
+     * @return The packet that was read.
+     */
+    T decode(FriendlyByteBuf buf);
+}
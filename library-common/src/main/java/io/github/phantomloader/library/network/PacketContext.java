@@ -0,0 +1,24 @@
+package io.github.phantomloader.library.network;
+
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * <p>
+ *     Interface used to wrap the context of a received packet.
+ * </p>
+ *
+ * @see ModPacket#handle(PacketContext)
+ *
+ * @author Nico
+ */
+public interface PacketContext {
+
+    /**
+     * <p>
+     *     Returns the player that sent the packet.
+     * </p>
+     *
+     * @return The player that sent the packet if it was received on the server, or null if it was received on the client.
+     */
+    ServerPlayer sender();
+}
@@ -0,0 +1,93 @@
+package io.github.phantomloader.library.network;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ *     Helper class used to send packets declared with {@link Packet}.
+ * </p>
+ * <pre>
+ *     Packets.sendToPlayer(player, new SyncRubiesPacket(3, Optional.empty()));
+ * </pre>
+ *
+ * @author Nico
+ */
+public final class Packets {
+
+    /** The channels packets are registered to, one per packet class */
+    private static final ConcurrentHashMap<Class<?>, NetworkChannel> CHANNELS = new ConcurrentHashMap<>();
+
+    /**
+     * <p>
+     *     Binds a packet class to the channel it is registered to.
+     *     This method is called from the generated code after the channel has been registered.
+     * </p>
+     *
+     * @param type The class of the packet.
+     * @param channel The channel the packet is registered to.
+     */
+    public static void bind(Class<? extends ModPacket> type, NetworkChannel channel) {
+        CHANNELS.put(type, channel);
+    }
+
+    /**
+     * <p>
+     *     Sends a packet from the client to the server.
+     * </p>
+     *
+     * @param packet The packet to send.
+     * @throws IllegalStateException If the packet has not been registered.
+     */
+    public static void sendToServer(ModPacket packet) {
+        channel(packet).sendToServer(packet);
+    }
+
+    /**
+     * <p>
+     *     Sends a packet from the server to the given player.
+     * </p>
+     *
+     * @param player The player to send the packet to.
+     * @param packet The packet to send.
+     * @throws IllegalStateException If the packet has not been registered.
+     */
+    public static void sendToPlayer(ServerPlayer player, ModPacket packet) {
+        channel(packet).sendToPlayer(player, packet);
+    }
+
+    /**
+     * <p>
+     *     Sends a packet from the server to all the given players.
+     *     The packet is only encoded once.
+     * </p>
+     *
+     * @param players The players to send the packet to.
+     * @param packet The packet to send.
+     * @throws IllegalStateException If the packet has not been registered.
+     */
+    public static void sendToPlayers(Collection<ServerPlayer> players, ModPacket packet) {
+        if(!players.isEmpty()) {
+            channel(packet).sendToPlayers(players, packet);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the channel the given packet is registered to.
+     * </p>
+     *
+     * @param packet The packet.
+     * @return The channel of the packet.
+     * @throws IllegalStateException If the packet has not been registered.
+     */
+    private static NetworkChannel channel(ModPacket packet) {
+        NetworkChannel channel = CHANNELS.get(packet.getClass());
+        if(channel == null) {
+            throw new IllegalStateException("Packet " + packet.getClass().getName() + " has not been registered, make sure it is annotated with @Packet");
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.phantomloader.library.platform;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ *     Index of the classes annotated with {@link io.github.phantomloader.library.ClientOnly} that is used on a dedicated server.
+ * </p>
+ * <p>
+ *     The annotation processor writes the binary names of the mod's client-only classes to {@code META-INF/phantom/client-only/<modid>.txt}.
+ *     The generated initializers load this file on a dedicated server before any service is registered.
+ *     Services whose implementation is in the index are then ignored by {@link io.github.phantomloader.library.services.PhantomServices}, so that their classes are never loaded.
+ * </p>
+ *
+ * @author Nico
+ */
+public final class ClientOnlyIndex {
+
+    /** Binary names of the client-only classes of all the mods that have been loaded */
+    private static final HashSet<String> CLASSES = new HashSet<>();
+    /** Logger used to report errors */
+    private static final Logger LOGGER = Logger.getLogger("phantom");
+
+    /**
+     * <p>
+     *     Reads the client-only index of the given mod if the game is running on a dedicated server.
+     *     Does nothing on the client or if the mod has no index.
+     * </p>
+     *
+     * @param mod The mod id.
+     * @param classLoader The class loader of the mod's initializer, used to read the index.
+     */
+    public static void load(String mod, ClassLoader classLoader) {
+        if(PlatformHelper.isServerSide()) {
+            String path = "META-INF/phantom/client-only/" + mod + ".txt";
+            try(InputStream inputStream = classLoader.getResourceAsStream(path)) {
+                if(inputStream != null) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+                    String line;
+                    while((line = reader.readLine()) != null) {
+                        if(!line.isBlank() && !line.startsWith("#")) {
+                            add(line.trim());
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not read client-only index " + path, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if the class with the given name is client-only.
+     *     Always returns false on the client, since the index is only loaded on a dedicated server.
+     * </p>
+     *
+     * @param binaryName The binary name of the class.
+     * @return True if the class is in the index of a loaded mod, otherwise false.
+     */
+    public static synchronized boolean isClientOnly(String binaryName) {
+        return CLASSES.contains(binaryName);
+    }
+
+    /**
+     * <p>
+     *     Adds a class to the index.
+     * </p>
+     *
+     * @param binaryName The binary name of the class.
+     */
+    private static synchronized void add(String binaryName) {
+        CLASSES.add(binaryName);
+    }
+}
@@ -1,7 +1,8 @@
 package io.github.phantomloader.library.platform;
 
+import io.github.phantomloader.library.services.PhantomServices;
+
 import java.util.NoSuchElementException;
-import java.util.ServiceLoader;
 
 /**
  * <p>
@@ -17,8 +18,7 @@ import java.util.ServiceLoader;
 public class PlatformHelper {
 
     /** Instance of the current platform */
-    private static final Platform PLATFORM = ServiceLoader.load(Platform.class)
-            .findFirst()
+    private static final Platform PLATFORM = PhantomServices.provider(Platform.class)
             .orElseThrow(() -> new NoSuchElementException("No platform has been defined in META-INF/services. Make sure you are using the correct version of the library mod for your mod loader."));
 
     /**
@@ -0,0 +1,187 @@
+package io.github.phantomloader.library.profiling;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ *     Records the time taken and the memory allocated to create every registry object and writes them as a report sorted by time.
+ * </p>
+ * <p>
+ *     The audit is enabled by setting the {@code phantom.registryAudit} system property to the path of the output file, for example {@code -Dphantom.registryAudit=registry.txt}.
+ *     An empty value writes the report to {@code phantom-registry-audit.txt}.
+ *     When the audit is enabled, loader-specific registries wrap every factory with {@link RegistrationAudit#wrap(String, String, String, Supplier)}.
+ *     Allocated memory is measured with the thread allocation counters of the JVM and is reported as unknown if the JVM does not support them.
+ * </p>
+ * <p>
+ *     The report is written when mod loading is complete, at the same time as the {@link StartupTrace}.
+ * </p>
+ *
+ * @author Nico
+ */
+public final class RegistrationAudit {
+
+    /** System property used to enable the audit */
+    public static final String PROPERTY = "phantom.registryAudit";
+    /** Whether the audit is enabled */
+    public static final boolean ENABLED = System.getProperty(PROPERTY) != null;
+
+    /** Logger used to log the summary of the report and errors */
+    private static final Logger LOGGER = Logger.getLogger("phantom");
+    /** Thread bean used to read allocation counters, null if they are not supported */
+    private static final com.sun.management.ThreadMXBean THREADS = ENABLED ? allocationCounters() : null;
+    /** Objects created so far */
+    private static final ConcurrentLinkedQueue<Entry> ENTRIES = new ConcurrentLinkedQueue<>();
+
+    /**
+     * <p>
+     *     Wraps a registry object factory so that the time taken and the memory allocated by each call are recorded.
+     *     {@link io.github.phantomloader.library.registry.ThreadSafeFactory Thread-safe factories} should be wrapped before they are unwrapped by a registry.
+     *     Returns the factory itself if the audit is disabled.
+     * </p>
+     *
+     * @param mod Id of the mod registering the object.
+     * @param registry Name of the registry.
+     * @param name Registry name of the object.
+     * @param factory A supplier returning the object to register.
+     * @return A supplier that records the calls to the given factory.
+     * @param <T> The object's class.
+     */
+    public static <T> Supplier<T> wrap(String mod, String registry, String name, Supplier<T> factory) {
+        if(!ENABLED) {
+            return factory;
+        }
+        return () -> {
+            Thread thread = Thread.currentThread();
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            try {
+                return factory.get();
+            } finally {
+                long duration = System.nanoTime() - start;
+                ENTRIES.add(new Entry(mod, registry, name, duration, allocated < 0 ? -1 : allocatedBytes() - allocated, thread.getName()));
+            }
+        };
+    }
+
+    /**
+     * <p>
+     *     Returns the number of bytes allocated by the current thread.
+     * </p>
+     *
+     * @return The number of bytes allocated by the current thread or -1 if allocation counters are not supported.
+     */
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * <p>
+     *     Returns the thread bean used to read allocation counters and enables them.
+     * </p>
+     *
+     * @return The thread bean or null if allocation counters are not supported.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounters() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        LOGGER.warning("Thread allocation counters are not supported, allocated memory will not be reported in the registry audit");
+        return null;
+    }
+
+    /**
+     * <p>
+     *     Writes all the objects recorded so far to the file specified by the {@code phantom.registryAudit} system property.
+     *     The report contains the total per mod and registry followed by every object, both sorted by time.
+     *     This is called by the Phantom library when mod loading is complete, but it may be called at any time.
+     *     Does nothing if the audit is disabled.
+     * </p>
+     */
+    public static synchronized void write() {
+        if(ENABLED) {
+            Path path = Path.of(System.getProperty(PROPERTY).isBlank() ? "phantom-registry-audit.txt" : System.getProperty(PROPERTY));
+            ArrayList<Entry> entries = new ArrayList<>(ENTRIES);
+            entries.sort(Comparator.comparingLong(Entry::duration).reversed());
+            LinkedHashMap<String, long[]> totals = new LinkedHashMap<>();
+            long totalDuration = 0;
+            for(Entry entry : entries) {
+                long[] total = totals.computeIfAbsent(entry.mod() + " " + entry.registry(), key -> new long[3]);
+                total[0]++;
+                total[1] += entry.duration();
+                total[2] += Math.max(entry.allocated(), 0);
+                totalDuration += entry.duration();
+            }
+            try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+                writer.println("# " + entries.size() + " registry objects created in " + millis(totalDuration) + " ms");
+                writer.println();
+                writer.println(String.format(Locale.ROOT, "%-12s %-12s %-8s %s", "time (ms)", "alloc (KB)", "count", "mod registry"));
+                totals.entrySet().stream().sorted(Comparator.comparingLong(total -> -total.getValue()[1])).forEach(total -> writer.println(String.format(Locale.ROOT, "%-12s %-12s %-8d %s", millis(total.getValue()[1]), kilobytes(total.getValue()[2]), total.getValue()[0], total.getKey())));
+                writer.println();
+                writer.println(String.format(Locale.ROOT, "%-12s %-12s %s", "time (ms)", "alloc (KB)", "registry name [thread]"));
+                for(Entry entry : entries) {
+                    writer.println(String.format(Locale.ROOT, "%-12s %-12s %s %s:%s [%s]", millis(entry.duration()), kilobytes(entry.allocated()), entry.registry(), entry.mod(), entry.name(), entry.thread()));
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not write registry audit to " + path, e);
+                return;
+            }
+            LOGGER.info(entries.size() + " registry objects created in " + millis(totalDuration) + " ms, see " + path.toAbsolutePath() + " for details");
+        }
+    }
+
+    /**
+     * <p>
+     *     Helper function used to format a duration in milliseconds.
+     * </p>
+     *
+     * @param nanos Duration in nanoseconds.
+     * @return The duration in milliseconds with three decimals.
+     */
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * <p>
+     *     Helper function used to format a number of bytes in kilobytes.
+     * </p>
+     *
+     * @param bytes Number of bytes or -1 if unknown.
+     * @return The number of kilobytes with one decimal or {@code "?"} if unknown.
+     */
+    private static String kilobytes(long bytes) {
+        return bytes < 0 ? "?" : String.format(Locale.ROOT, "%.1f", bytes / 1024.0);
+    }
+
+    /**
+     * <p>
+     *     Record used to store the creation of a registry object.
+     * </p>
+     *
+     * @param mod Id of the mod that registered the object.
+     * @param registry Name of the registry.
+     * @param name Registry name of the object.
+     * @param duration Time taken by the factory in nanoseconds.
+     * @param allocated Bytes allocated by the factory or -1 if unknown.
+     * @param thread Name of the thread the object was created on.
+     */
+    private record Entry(String mod, String registry, String name, long duration, long allocated, String thread) {
+
+    }
+}
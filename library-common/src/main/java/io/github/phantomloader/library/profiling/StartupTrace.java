@@ -0,0 +1,163 @@
+package io.github.phantomloader.library.profiling;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ *     Records the time taken by the different phases of mod loading and writes them as a Chrome trace file.
+ *     The file can be opened with {@code chrome://tracing} or with <a href="https://ui.perfetto.dev">Perfetto</a>.
+ * </p>
+ * <p>
+ *     Tracing is enabled by setting the {@code phantom.trace} system property to the path of the output file, for example {@code -Dphantom.trace=startup.json}.
+ *     When tracing is disabled, calls to this class only check a constant and return.
+ *     Names that are built at runtime should only be built if {@link StartupTrace#ENABLED} is true, otherwise they are built for nothing.
+ * </p>
+ * <pre>
+ *     long start = StartupTrace.begin();
+ *     ...
+ *     if(StartupTrace.ENABLED) {
+ *         StartupTrace.end(mod + " name", "category", start);
+ *     }
+ * </pre>
+ *
+ * @author Nico
+ */
+public final class StartupTrace {
+
+    /** System property used to enable tracing */
+    public static final String PROPERTY = "phantom.trace";
+    /** Whether tracing is enabled */
+    public static final boolean ENABLED = System.getProperty(PROPERTY) != null;
+
+    /** Logger used to log errors */
+    private static final Logger LOGGER = Logger.getLogger("phantom");
+    /** Time at which tracing started, used as the origin of the timeline */
+    private static final long ORIGIN = System.nanoTime();
+    /** Events recorded so far */
+    private static final ConcurrentLinkedQueue<Event> EVENTS = new ConcurrentLinkedQueue<>();
+
+    static {
+        if(ENABLED) {
+            // Write events recorded after the last lifecycle event
+            Runtime.getRuntime().addShutdownHook(new Thread(StartupTrace::write, "Phantom Trace Writer"));
+        }
+    }
+
+    /**
+     * <p>
+     *     Starts timing an event.
+     * </p>
+     *
+     * @return The start time to pass to {@link StartupTrace#end(String, String, long)} or 0 if tracing is disabled.
+     */
+    public static long begin() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * <p>
+     *     Records an event that started at the given time and ends now.
+     *     Does nothing if tracing is disabled.
+     * </p>
+     *
+     * @param name Name of the event.
+     * @param category Category of the event, such as {@code "entrypoint"} or {@code "registry"}.
+     * @param start Value returned by {@link StartupTrace#begin()}.
+     */
+    public static void end(String name, String category, long start) {
+        if(ENABLED) {
+            Thread thread = Thread.currentThread();
+            EVENTS.add(new Event(name, category, start, System.nanoTime() - start, thread.getId(), thread.getName()));
+        }
+    }
+
+    /**
+     * <p>
+     *     Runs the given action and records the time it took.
+     *     Used by the generated initializers to call entry points.
+     * </p>
+     *
+     * @param name Name of the event.
+     * @param category Category of the event.
+     * @param action The action to run.
+     */
+    public static void run(String name, String category, Runnable action) {
+        if(ENABLED) {
+            long start = begin();
+            try {
+                action.run();
+            } finally {
+                end(name, category, start);
+            }
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * <p>
+     *     Writes all the events recorded so far to the file specified by the {@code phantom.trace} system property.
+     *     This is called by the Phantom library when mod loading is complete and when the game is closed, but it may be called at any time.
+     *     Does nothing if tracing is disabled.
+     * </p>
+     */
+    public static synchronized void write() {
+        if(ENABLED) {
+            Path path = Path.of(System.getProperty(PROPERTY).isBlank() ? "phantom-trace.json" : System.getProperty(PROPERTY));
+            HashMap<Long, String> threads = new HashMap<>();
+            ArrayList<String> lines = new ArrayList<>();
+            for(Event event : EVENTS) {
+                threads.put(event.threadId(), event.threadName());
+                lines.add("{\"name\":\"" + escape(event.name()) + "\",\"cat\":\"" + escape(event.category()) + "\",\"ph\":\"X\",\"pid\":1,\"tid\":" + event.threadId() + ",\"ts\":" + (event.start() - ORIGIN) / 1000.0 + ",\"dur\":" + event.duration() / 1000.0 + "}");
+            }
+            for(Map.Entry<Long, String> thread : threads.entrySet()) {
+                lines.add("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + thread.getKey() + ",\"args\":{\"name\":\"" + escape(thread.getValue()) + "\"}}");
+            }
+            try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+                writer.println("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+                writer.println(String.join(",\n", lines));
+                writer.println("]}");
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not write startup trace to " + path, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Helper function used to escape a string in json.
+     * </p>
+     *
+     * @param string The string to escape.
+     * @return The escaped string.
+     */
+    private static String escape(String string) {
+        return string.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * <p>
+     *     Record used to store a complete event.
+     * </p>
+     *
+     * @param name Name of the event.
+     * @param category Category of the event.
+     * @param start Start time in nanoseconds.
+     * @param duration Duration in nanoseconds.
+     * @param threadId Id of the thread the event was recorded on.
+     * @param threadName Name of the thread the event was recorded on.
+     */
+    private record Event(String name, String category, long start, long duration, long threadId, String threadName) {
+
+    }
+}
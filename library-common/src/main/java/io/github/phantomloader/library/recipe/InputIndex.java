@@ -0,0 +1,176 @@
+package io.github.phantomloader.library.recipe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ *     Index of values, usually recipes, by their primary input.
+ *     Used by {@link RecipeIndex} and independent of Minecraft classes.
+ * </p>
+ * <p>
+ *     Every value is added to the bucket of each of its keys.
+ *     Values without keys are wildcards and are added to every bucket, so that a lookup only has to test the values of a single bucket.
+ *     Within a bucket, values are kept in the order of the list the index was built from,
+ *     so {@link InputIndex#find(Object, Predicate)} returns the same value as a linear scan of that list.
+ * </p>
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ *
+ * @author Nico
+ */
+public final class InputIndex<K, V> {
+
+    /** Values by key, including wildcards */
+    private final HashMap<K, Object[]> buckets;
+    /** Values without keys, returned for keys without a bucket */
+    private final Object[] wildcards;
+    /** Number of indexed values */
+    private final int size;
+
+    /**
+     * <p>
+     *     Builds an index.
+     * </p>
+     *
+     * @param values The values to index, in the order in which they should be tested.
+     * @param keys Function returning the keys of a value, or an empty collection if the value matches any key.
+     */
+    public InputIndex(List<? extends V> values, Function<? super V, ? extends Collection<? extends K>> keys) {
+        // Indexes of the values in each bucket, in increasing order
+        HashMap<K, ArrayList<Integer>> indexes = new HashMap<>();
+        ArrayList<Integer> wildcards = new ArrayList<>();
+        for(int i = 0; i < values.size(); i++) {
+            Collection<? extends K> valueKeys = keys.apply(values.get(i));
+            if(valueKeys.isEmpty()) {
+                wildcards.add(i);
+            } else {
+                for(K key : valueKeys) {
+                    ArrayList<Integer> bucket = indexes.computeIfAbsent(key, k -> new ArrayList<>());
+                    // A value may have the same key twice
+                    if(bucket.isEmpty() || bucket.get(bucket.size() - 1) != i) {
+                        bucket.add(i);
+                    }
+                }
+            }
+        }
+        this.buckets = new HashMap<>(indexes.size() * 4 / 3 + 1);
+        for(Map.Entry<K, ArrayList<Integer>> bucket : indexes.entrySet()) {
+            this.buckets.put(bucket.getKey(), merge(values, bucket.getValue(), wildcards));
+        }
+        this.wildcards = merge(values, List.of(), wildcards);
+        this.size = values.size();
+    }
+
+    /**
+     * <p>
+     *     Helper function used to merge the values of a bucket with the wildcards while keeping the original order.
+     * </p>
+     *
+     * @param values All the values.
+     * @param bucket Indexes of the values of the bucket, in increasing order.
+     * @param wildcards Indexes of the wildcards, in increasing order.
+     * @return The values of the bucket and the wildcards, in the order of the given list.
+     */
+    private static Object[] merge(List<?> values, List<Integer> bucket, List<Integer> wildcards) {
+        Object[] merged = new Object[bucket.size() + wildcards.size()];
+        int b = 0, w = 0;
+        for(int i = 0; i < merged.length; i++) {
+            if(w == wildcards.size() || (b < bucket.size() && bucket.get(b) < wildcards.get(w))) {
+                merged[i] = values.get(bucket.get(b++));
+            } else {
+                merged[i] = values.get(wildcards.get(w++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * <p>
+     *     Returns the first value with the given key that satisfies the given predicate.
+     * </p>
+     *
+     * @param key The key, usually the item in the primary input slot.
+     * @param matches Predicate used to test the values, usually a call to {@code Recipe.matches}.
+     * @return The first matching value or null if no value matches.
+     */
+    @SuppressWarnings("unchecked")
+    public V find(K key, Predicate<? super V> matches) {
+        for(Object value : this.buckets.getOrDefault(key, this.wildcards)) {
+            if(matches.test((V) value)) {
+                return (V) value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p>
+     *     Returns the first value with the given key that satisfies the given predicate, testing the last value found with the given memo first.
+     * </p>
+     * <p>
+     *     Machines usually process the same recipe many times in a row, so the last match is very likely to match again.
+     *     The memo is ignored if it was last used with a different index, for example after recipes are reloaded.
+     * </p>
+     *
+     * @param key The key, usually the item in the primary input slot.
+     * @param matches Predicate used to test the values, usually a call to {@code Recipe.matches}.
+     * @param memo The memo of the machine doing the lookup.
+     * @return The first matching value or null if no value matches.
+     */
+    public V find(K key, Predicate<? super V> matches, Memo<V> memo) {
+        if(memo.index == this && memo.last != null && matches.test(memo.last)) {
+            return memo.last;
+        }
+        V value = this.find(key, matches);
+        memo.index = this;
+        memo.last = value;
+        return value;
+    }
+
+    /**
+     * <p>
+     *     Returns the number of values in this index.
+     * </p>
+     *
+     * @return The number of values this index was built from.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * <p>
+     *     The last value found by a machine.
+     *     Each machine should have its own memo, usually stored in a field of its block entity.
+     *     Memos are not thread-safe.
+     * </p>
+     *
+     * @param <V> Type of the values.
+     *
+     * @author Nico
+     */
+    public static final class Memo<V> {
+
+        /** The index the last value was found in */
+        private InputIndex<?, V> index;
+        /** The last value found */
+        private V last;
+
+        /**
+         * <p>
+         *     Forgets the last value found.
+         * </p>
+         */
+        public void clear() {
+            this.index = null;
+            this.last = null;
+        }
+    }
+}
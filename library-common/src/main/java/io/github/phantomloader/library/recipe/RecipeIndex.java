@@ -0,0 +1,182 @@
+package io.github.phantomloader.library.recipe;
+
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.level.Level;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     Cache of the recipes of a recipe type indexed by their primary input item.
+ * </p>
+ * <p>
+ *     {@code RecipeManager.getRecipeFor} tests every recipe of the given type.
+ *     A {@code RecipeIndex} groups recipes by the items accepted by their primary ingredient, including the items of ingredients that use a tag,
+ *     so that a lookup only tests the recipes that accept the item in the primary input slot.
+ *     Recipes whose primary ingredient is empty are tested for every item.
+ *     Machines can also pass an {@link InputIndex.Memo} to test the last recipe they found first.
+ * </p>
+ * <pre>
+ *     public static final Supplier&lt;RecipeType&lt;?&gt;&gt; GRINDING = REGISTRY.registerRecipeType("grinding");
+ *     public static final RecipeIndex&lt;Container, GrindingRecipe&gt; GRINDING_RECIPES = RecipeIndex.of(() -&gt; (RecipeType&lt;GrindingRecipe&gt;) GRINDING.get());
+ *     ...
+ *     private final InputIndex.Memo&lt;GrindingRecipe&gt; memo = new InputIndex.Memo&lt;&gt;();
+ *     ...
+ *     Optional&lt;GrindingRecipe&gt; recipe = GRINDING_RECIPES.getRecipeFor(this, this.level, this.memo);
+ * </pre>
+ * <p>
+ *     The index is built the first time it is used with a recipe manager, separately for the server and the client.
+ *     It is built again when the recipe manager changes, which happens when datapacks are reloaded on the server,
+ *     and after the Phantom library calls {@link RecipeIndex#invalidateAll()}, which happens when tags are loaded and when the client receives recipes.
+ * </p>
+ *
+ * @param <C> Type of the container the recipes are matched against.
+ * @param <R> Type of the recipes.
+ *
+ * @author Nico
+ */
+public final class RecipeIndex<C extends Container, R extends Recipe<C>> {
+
+    /** All the indexes created so far, invalidated when recipes or tags are loaded */
+    private static final CopyOnWriteArrayList<RecipeIndex<?, ?>> INDEXES = new CopyOnWriteArrayList<>();
+
+    /** Supplier returning the recipe type, which may not be registered yet when the index is created */
+    private final Supplier<? extends RecipeType<R>> type;
+    /** Function returning the primary ingredient of a recipe */
+    private final Function<? super R, Ingredient> input;
+    /** Function returning the item stack in the primary input slot of a container */
+    private final Function<? super C, ItemStack> stack;
+    /** Indexes of the server and of the client, null until they are first used or after they are invalidated */
+    private final AtomicReferenceArray<Built<R>> built = new AtomicReferenceArray<>(2);
+
+    /**
+     * <p>
+     *     Creates a {@code RecipeIndex}.
+     * </p>
+     *
+     * @param type Supplier returning the recipe type.
+     * @param input Function returning the primary ingredient of a recipe.
+     * @param stack Function returning the item stack in the primary input slot of a container.
+     */
+    private RecipeIndex(Supplier<? extends RecipeType<R>> type, Function<? super R, Ingredient> input, Function<? super C, ItemStack> stack) {
+        this.type = type;
+        this.input = input;
+        this.stack = stack;
+    }
+
+    /**
+     * <p>
+     *     Creates an index of the recipes of the given type.
+     *     The primary ingredient of a recipe is its first ingredient and the primary input slot of a container is its first slot.
+     * </p>
+     *
+     * @param type Supplier returning the recipe type, usually the handle returned by {@code ModRegistry.registerRecipeType}.
+     * @return The recipe index.
+     * @param <C> Type of the container the recipes are matched against.
+     * @param <R> Type of the recipes.
+     */
+    public static <C extends Container, R extends Recipe<C>> RecipeIndex<C, R> of(Supplier<? extends RecipeType<R>> type) {
+        return of(type, recipe -> recipe.getIngredients().isEmpty() ? Ingredient.EMPTY : recipe.getIngredients().get(0), container -> container.getItem(0));
+    }
+
+    /**
+     * <p>
+     *     Creates an index of the recipes of the given type.
+     * </p>
+     *
+     * @param type Supplier returning the recipe type, usually the handle returned by {@code ModRegistry.registerRecipeType}.
+     * @param input Function returning the primary ingredient of a recipe.
+     * @param stack Function returning the item stack in the primary input slot of a container.
+     * @return The recipe index.
+     * @param <C> Type of the container the recipes are matched against.
+     * @param <R> Type of the recipes.
+     */
+    public static <C extends Container, R extends Recipe<C>> RecipeIndex<C, R> of(Supplier<? extends RecipeType<R>> type, Function<? super R, Ingredient> input, Function<? super C, ItemStack> stack) {
+        RecipeIndex<C, R> index = new RecipeIndex<>(type, input, stack);
+        INDEXES.add(index);
+        return index;
+    }
+
+    /**
+     * <p>
+     *     Invalidates all the indexes so that they are built again the next time they are used.
+     *     Called by the Phantom library when tags are loaded and when the client receives recipes.
+     * </p>
+     */
+    public static void invalidateAll() {
+        for(RecipeIndex<?, ?> index : INDEXES) {
+            index.built.set(0, null);
+            index.built.set(1, null);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the first recipe that matches the given container.
+     * </p>
+     *
+     * @param container The container.
+     * @param level The level, used to get the recipe manager.
+     * @return The first matching recipe or an empty optional if no recipe matches.
+     */
+    public Optional<R> getRecipeFor(C container, Level level) {
+        return Optional.ofNullable(this.index(level).find(this.stack.apply(container).getItem(), recipe -> recipe.matches(container, level)));
+    }
+
+    /**
+     * <p>
+     *     Returns the first recipe that matches the given container, testing the last recipe found with the given memo first.
+     * </p>
+     *
+     * @param container The container.
+     * @param level The level, used to get the recipe manager.
+     * @param memo The memo of the machine doing the lookup.
+     * @return The first matching recipe or an empty optional if no recipe matches.
+     */
+    public Optional<R> getRecipeFor(C container, Level level, InputIndex.Memo<R> memo) {
+        return Optional.ofNullable(this.index(level).find(this.stack.apply(container).getItem(), recipe -> recipe.matches(container, level), memo));
+    }
+
+    /**
+     * <p>
+     *     Returns the index of the recipes of the given level's recipe manager, building it if needed.
+     * </p>
+     *
+     * @param level The level.
+     * @return The index of the recipes.
+     */
+    private InputIndex<Item, R> index(Level level) {
+        int side = level.isClientSide() ? 1 : 0;
+        RecipeManager manager = level.getRecipeManager();
+        Built<R> built = this.built.get(side);
+        if(built == null || built.manager() != manager) {
+            built = new Built<>(manager, new InputIndex<>(manager.getAllRecipesFor(this.type.get()), recipe -> Arrays.stream(this.input.apply(recipe).getItems()).map(ItemStack::getItem).distinct().toList()));
+            this.built.set(side, built);
+        }
+        return built.index();
+    }
+
+    /**
+     * <p>
+     *     Record used to store an index along with the recipe manager it was built from.
+     * </p>
+     *
+     * @param manager The recipe manager.
+     * @param index The index of the recipes.
+     * @param <R> Type of the recipes.
+     */
+    private record Built<R>(RecipeManager manager, InputIndex<Item, R> index) {
+
+    }
+}
@@ -0,0 +1,306 @@
+package io.github.phantomloader.library.registry;
+
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.FenceBlock;
+import net.minecraft.world.level.block.SlabBlock;
+import net.minecraft.world.level.block.StairBlock;
+import net.minecraft.world.level.block.WallBlock;
+import net.minecraft.world.level.block.state.BlockBehaviour;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>
+ *     Table of the blocks registered by {@link ModRegistry#registerBlockFamily(String, Supplier, List, List, boolean)}.
+ * </p>
+ * <p>
+ *     A family contains one block for each combination of a {@link Variant} and a {@link Shape}, for example red, green, and blue bricks, brick stairs, and brick slabs.
+ *     The properties of the base block are copied once per variant and shared by all the shapes of that variant.
+ *     All the blocks of the family are registered with a single {@link RegistrationTable}, and their handles are stored in a flat array indexed by variant and shape.
+ * </p>
+ * <pre>
+ *     BlockFamily bricks = REGISTRY.registerBlockFamily("bricks", () -&gt; Blocks.BRICKS,
+ *             List.of(BlockFamily.Shape.BASE, BlockFamily.Shape.STAIRS, BlockFamily.Shape.SLAB),
+ *             List.of(BlockFamily.Variant.of("red", properties -&gt; properties.mapColor(MapColor.COLOR_RED)), BlockFamily.Variant.of("blue", properties -&gt; properties.mapColor(MapColor.COLOR_BLUE))),
+ *             true
+ *     );
+ *     // red_bricks_stairs
+ *     Block stairs = bricks.get(0, 1).get();
+ * </pre>
+ *
+ * @author Nico
+ */
+public final class BlockFamily {
+
+    /** Name of the family */
+    private final String name;
+    /** Shapes of the blocks in this family */
+    private final List<Shape> shapes;
+    /** Variants of the blocks in this family */
+    private final List<Variant> variants;
+    /** Handles to the blocks, indexed by {@code variant * shapes + shape} */
+    private final RegistryHandle<Block>[] blocks;
+    /** Registry names of the blocks, with the same indexes as the handles */
+    private final String[] names;
+    /** Properties shared by the blocks of each variant, created when the first block of the variant is created */
+    private final BlockBehaviour.Properties[] properties;
+
+    /**
+     * <p>
+     *     Creates a family and the handles to its blocks.
+     *     The blocks are not registered until {@link BlockFamily#table(RegistrationTable.Type)} is registered.
+     * </p>
+     *
+     * @param name Name of the family.
+     * @param base The block whose properties are copied. Must be a registered block.
+     * @param shapes Shapes of the blocks in the family.
+     * @param variants Variants of the blocks in the family.
+     */
+    @SuppressWarnings("unchecked")
+    BlockFamily(String name, Supplier<? extends Block> base, List<Shape> shapes, List<Variant> variants) {
+        this.name = name;
+        this.shapes = List.copyOf(shapes);
+        this.variants = List.copyOf(variants);
+        this.blocks = new RegistryHandle[this.shapes.size() * this.variants.size()];
+        this.names = new String[this.blocks.length];
+        this.properties = new BlockBehaviour.Properties[this.variants.size()];
+        int baseShape = this.shapes.indexOf(Shape.BASE);
+        for(int variant = 0; variant < this.variants.size(); variant++) {
+            String prefix = this.variants.get(variant).name().isEmpty() ? "" : this.variants.get(variant).name() + "_";
+            for(int shape = 0; shape < this.shapes.size(); shape++) {
+                int index = variant * this.shapes.size() + shape;
+                int variantBase = baseShape >= 0 && shape != baseShape ? variant * this.shapes.size() + baseShape : -1;
+                int variantIndex = variant;
+                Shape blockShape = this.shapes.get(shape);
+                this.names[index] = prefix + name + blockShape.suffix();
+                this.blocks[index] = new RegistryHandle<>(() -> blockShape.constructor().apply(variantBase >= 0 ? this.blocks[variantBase].get() : base.get(), this.properties(variantIndex, base)));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the properties shared by the blocks of a variant, copying them from the base block the first time.
+     * </p>
+     *
+     * @param variant Index of the variant.
+     * @param base The base block of the family.
+     * @return The properties of the blocks of that variant.
+     */
+    private BlockBehaviour.Properties properties(int variant, Supplier<? extends Block> base) {
+        if(this.properties[variant] == null) {
+            this.properties[variant] = this.variants.get(variant).properties().apply(BlockBehaviour.Properties.copy(base.get()));
+        }
+        return this.properties[variant];
+    }
+
+    /**
+     * <p>
+     *     Creates the registration table of the given type for this family.
+     *     Blocks of the {@link Shape#BASE} shape are registered before the other shapes of their variant because they are used as the base of those shapes.
+     * </p>
+     *
+     * @param type Either {@code BLOCK} or {@code BLOCK_ITEM}.
+     * @return The registration table.
+     */
+    RegistrationTable table(RegistrationTable.Type type) {
+        String[] names = new String[this.blocks.length];
+        Supplier<?>[] entries = new Supplier<?>[this.blocks.length];
+        int baseShape = this.shapes.indexOf(Shape.BASE);
+        int i = 0;
+        for(int variant = 0; variant < this.variants.size(); variant++) {
+            int offset = variant * this.shapes.size();
+            if(baseShape >= 0) {
+                names[i] = this.names[offset + baseShape];
+                entries[i++] = this.blocks[offset + baseShape];
+            }
+            for(int shape = 0; shape < this.shapes.size(); shape++) {
+                if(shape != baseShape) {
+                    names[i] = this.names[offset + shape];
+                    entries[i++] = this.blocks[offset + shape];
+                }
+            }
+        }
+        return new RegistrationTable(type, names, entries);
+    }
+
+    /**
+     * <p>
+     *     Returns the name of this family.
+     * </p>
+     *
+     * @return The name passed to {@link ModRegistry#registerBlockFamily(String, Supplier, List, List, boolean)}.
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * <p>
+     *     Returns the shapes of the blocks in this family.
+     * </p>
+     *
+     * @return An unmodifiable list of shapes, in the order used by {@link BlockFamily#get(int, int)}.
+     */
+    public List<Shape> shapes() {
+        return this.shapes;
+    }
+
+    /**
+     * <p>
+     *     Returns the variants of the blocks in this family.
+     * </p>
+     *
+     * @return An unmodifiable list of variants, in the order used by {@link BlockFamily#get(int, int)}.
+     */
+    public List<Variant> variants() {
+        return this.variants;
+    }
+
+    /**
+     * <p>
+     *     Returns the number of blocks in this family.
+     * </p>
+     *
+     * @return The number of variants times the number of shapes.
+     */
+    public int size() {
+        return this.blocks.length;
+    }
+
+    /**
+     * <p>
+     *     Returns the handle to the block of the given variant and shape.
+     * </p>
+     *
+     * @param variant Index of the variant.
+     * @param shape Index of the shape.
+     * @return The handle to the block.
+     * @throws IndexOutOfBoundsException If the variant or the shape is out of bounds.
+     */
+    public RegistryHandle<Block> get(int variant, int shape) {
+        if(shape < 0 || shape >= this.shapes.size()) {
+            throw new IndexOutOfBoundsException("Shape index " + shape + " out of bounds for family " + this.name + " with " + this.shapes.size() + " shapes");
+        }
+        return this.blocks[variant * this.shapes.size() + shape];
+    }
+
+    /**
+     * <p>
+     *     Returns the handle to the block of the given variant and shape.
+     * </p>
+     *
+     * @param variant The variant.
+     * @param shape The shape.
+     * @return The handle to the block.
+     * @throws IllegalArgumentException If the variant or the shape is not part of this family.
+     */
+    public RegistryHandle<Block> get(Variant variant, Shape shape) {
+        int variantIndex = this.variants.indexOf(variant);
+        int shapeIndex = this.shapes.indexOf(shape);
+        if(variantIndex < 0 || shapeIndex < 0) {
+            throw new IllegalArgumentException("Family " + this.name + " has no block with variant " + variant.name() + " and shape " + shape.suffix());
+        }
+        return this.blocks[variantIndex * this.shapes.size() + shapeIndex];
+    }
+
+    /**
+     * <p>
+     *     Returns the handle to the block at the given index.
+     *     Blocks are indexed by {@code variant * shapes().size() + shape}.
+     * </p>
+     *
+     * @param index Index of the block.
+     * @return The handle to the block.
+     */
+    public RegistryHandle<Block> get(int index) {
+        return this.blocks[index];
+    }
+
+    /**
+     * <p>
+     *     Returns the registry name of the block at the given index.
+     * </p>
+     *
+     * @param index Index of the block.
+     * @return The registry name of the block, {@code <variant>_<family><suffix>}.
+     */
+    public String blockName(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * <p>
+     *     A shape of the blocks in a family.
+     * </p>
+     *
+     * @param suffix Suffix added to the name of the family, for example {@code "_stairs"}.
+     * @param constructor A function that takes the base block of the variant and the shared properties and returns the block.
+     */
+    public record Shape(String suffix, BiFunction<Block, BlockBehaviour.Properties, ? extends Block> constructor) {
+
+        /** Full blocks, with no suffix. Used as the base of the other shapes of their variant. */
+        public static final Shape BASE = new Shape("", (base, properties) -> new Block(properties));
+        /** Stairs, with the suffix {@code _stairs} */
+        public static final Shape STAIRS = new Shape("_stairs", (base, properties) -> new StairBlock(base.defaultBlockState(), properties));
+        /** Slabs, with the suffix {@code _slab} */
+        public static final Shape SLAB = new Shape("_slab", (base, properties) -> new SlabBlock(properties));
+        /** Walls, with the suffix {@code _wall} */
+        public static final Shape WALL = new Shape("_wall", (base, properties) -> new WallBlock(properties));
+        /** Fences, with the suffix {@code _fence} */
+        public static final Shape FENCE = new Shape("_fence", (base, properties) -> new FenceBlock(properties));
+
+        /**
+         * <p>
+         *     Creates a shape.
+         * </p>
+         *
+         * @param suffix Suffix added to the name of the family.
+         * @param constructor A function that takes the base block of the variant and the shared properties and returns the block.
+         * @return The shape.
+         */
+        public static Shape of(String suffix, BiFunction<Block, BlockBehaviour.Properties, ? extends Block> constructor) {
+            return new Shape(suffix, constructor);
+        }
+    }
+
+    /**
+     * <p>
+     *     A variant of the blocks in a family.
+     *     The properties function is called once per variant on a copy of the base block's properties.
+     * </p>
+     *
+     * @param name Prefix added to the name of the family, for example {@code "red"}, or an empty string.
+     * @param properties A function that modifies the copied properties and returns them.
+     */
+    public record Variant(String name, UnaryOperator<BlockBehaviour.Properties> properties) {
+
+        /**
+         * <p>
+         *     Creates a variant that uses the properties of the base block.
+         * </p>
+         *
+         * @param name Prefix added to the name of the family.
+         * @return The variant.
+         */
+        public static Variant of(String name) {
+            return new Variant(name, UnaryOperator.identity());
+        }
+
+        /**
+         * <p>
+         *     Creates a variant.
+         * </p>
+         *
+         * @param name Prefix added to the name of the family.
+         * @param properties A function that modifies the copied properties and returns them.
+         * @return The variant.
+         */
+        public static Variant of(String name, UnaryOperator<BlockBehaviour.Properties> properties) {
+            return new Variant(name, properties);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.phantomloader.library.registry;
+
+import io.github.phantomloader.library.profiling.StartupTrace;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ *     Class used by loader-specific registries to create the objects of a registry concurrently before registering them serially.
+ * </p>
+ * <p>
+ *     Registries add every factory of a registry to the batch of that registry and register the suppliers returned by {@link ConstructionBatch#add(String, Supplier)} instead of the factories.
+ *     Before the objects of the registry are registered, {@link ConstructionBatch#construct()} creates the objects of all {@link ThreadSafeFactory thread-safe factories} on a bounded {@link ForkJoinPool}.
+ *     The registry then registers them in declaration order, and the objects of other factories are created when they are registered, like when parallel construction is disabled.
+ * </p>
+ * <p>
+ *     Parallel construction is disabled by default and can be enabled by setting the {@code phantom.parallelRegistry} system property to {@code true}.
+ *     During development, setting the {@code phantom.parallelRegistry.check} system property to {@code true} also creates every object a second time on the registering thread and fails if the two runs disagree.
+ *     This finds factories that throw or return a different class depending on the thread they run on, and factories that return shared instances.
+ * </p>
+ * <p>
+ *     Objects of registries that use intrusive holders, which are blocks, items, fluids, entity types, and game events, are never created concurrently.
+ *     Their constructors add a holder to a map of the game registry that is not thread-safe,
+ *     and every object created by the check that is not registered would make the game registry fail when it is frozen.
+ *     Making the map thread-safe would not fix the check and would need a mixin into the game registry on every loader, so thread-safe factories of these registries are called on the registering thread like other factories.
+ *     Registering many blocks and items is therefore not faster with parallel construction.
+ * </p>
+ *
+ * @author Nico
+ */
+public final class ConstructionBatch {
+
+    /** System property used to enable parallel construction */
+    public static final String PROPERTY = "phantom.parallelRegistry";
+    /** Whether parallel construction is enabled */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+    /** Whether objects are also created serially to check that thread-safe factories are really thread-safe */
+    public static final boolean CHECK = ENABLED && Boolean.getBoolean(PROPERTY + ".check");
+
+    /** Logger used to log refused factories */
+    private static final Logger LOGGER = Logger.getLogger("phantom");
+    /** Maximum number of threads used to create objects */
+    private static final int MAX_THREADS = 4;
+
+    /** Thread pool used to create objects, created when it is first needed */
+    private static ForkJoinPool pool;
+
+    /** Name of the registry, used in error messages and traces */
+    private final String name;
+    /** Whether the objects of the registry create intrusive holders, in which case they are never created concurrently */
+    private final boolean intrusiveHolders;
+    /** Registry names of the objects of thread-safe factories */
+    private final ArrayList<String> names = new ArrayList<>();
+    /** Thread-safe factories in declaration order */
+    private final ArrayList<Supplier<?>> factories = new ArrayList<>();
+    /** Objects created by {@link ConstructionBatch#construct()}, null until then */
+    private Object[] objects;
+    /** Whether a thread-safe factory was refused because the registry uses intrusive holders, used to log it only once */
+    private boolean refused;
+
+    /**
+     * <p>
+     *     Creates a batch for one registry.
+     * </p>
+     *
+     * @param name Name of the registry, used in error messages and traces.
+     * @param intrusiveHolders Whether the objects of the registry create intrusive holders when they are constructed, see {@link ModRegistry#usesIntrusiveHolders(net.minecraft.resources.ResourceKey)}.
+     */
+    public ConstructionBatch(String name, boolean intrusiveHolders) {
+        this.name = name;
+        this.intrusiveHolders = intrusiveHolders;
+    }
+
+    /**
+     * <p>
+     *     Adds a factory to this batch.
+     * </p>
+     * <p>
+     *     If the factory is a {@link ThreadSafeFactory} and parallel construction is enabled, the returned supplier returns the object created by {@link ConstructionBatch#construct()}.
+     *     It falls back to calling the factory if the batch has not been constructed.
+     *     Otherwise, or if the registry uses intrusive holders, the factory itself is returned.
+     * </p>
+     *
+     * @param name Registry name of the object.
+     * @param factory A supplier returning the object to register.
+     * @return The supplier to use to register the object.
+     * @param <T> The object's class.
+     */
+    public <T> Supplier<T> add(String name, Supplier<T> factory) {
+        if(!ENABLED || !(factory instanceof ThreadSafeFactory<?>)) {
+            return factory;
+        }
+        if(this.intrusiveHolders) {
+            if(!this.refused) {
+                this.refused = true;
+                LOGGER.info("Objects of " + this.name + " are created on the registering thread because the registry uses intrusive holders");
+            }
+            return factory;
+        }
+        int index = this.factories.size();
+        this.names.add(name);
+        this.factories.add(factory);
+        return () -> this.take(index, factory);
+    }
+
+    /**
+     * <p>
+     *     Gives a hint of the number of factories that will be added to this batch.
+     * </p>
+     *
+     * @param capacity The number of factories that will be added.
+     */
+    public void ensureCapacity(int capacity) {
+        if(ENABLED) {
+            this.names.ensureCapacity(this.names.size() + capacity);
+            this.factories.ensureCapacity(this.factories.size() + capacity);
+        }
+    }
+
+    /**
+     * <p>
+     *     Creates the objects of all thread-safe factories in this batch concurrently and waits for them to be created.
+     *     Must be called before the objects are registered.
+     *     Does nothing if there are no thread-safe factories or if the batch has already been constructed.
+     * </p>
+     *
+     * @throws IllegalStateException If a factory throws an exception or if the thread-safety check fails.
+     */
+    public void construct() {
+        if(this.factories.isEmpty() || this.objects != null) {
+            return;
+        }
+        long start = StartupTrace.begin();
+        Object[] objects = new Object[this.factories.size()];
+        Throwable[] errors = new Throwable[objects.length];
+        pool().submit(() -> IntStream.range(0, objects.length).parallel().forEach(i -> {
+            try {
+                objects[i] = this.factories.get(i).get();
+            } catch (Throwable e) {
+                errors[i] = e;
+            }
+        })).join();
+        if(StartupTrace.ENABLED) {
+            StartupTrace.end("construct " + this.name, "registry", start);
+        }
+        for(int i = 0; i < errors.length; i++) {
+            if(errors[i] != null) {
+                throw new IllegalStateException("Exception while creating registry object " + this.names.get(i) + " on a worker thread", errors[i]);
+            }
+        }
+        if(CHECK) {
+            this.check(objects);
+        }
+        this.objects = objects;
+    }
+
+    /**
+     * <p>
+     *     Creates every object a second time on the current thread and compares them with the objects created concurrently.
+     * </p>
+     *
+     * @param objects The objects created concurrently.
+     * @throws IllegalStateException If a factory is not thread-safe.
+     */
+    private void check(Object[] objects) {
+        ArrayList<String> problems = new ArrayList<>();
+        IdentityHashMap<Object, String> instances = new IdentityHashMap<>();
+        for(int i = 0; i < objects.length; i++) {
+            String name = this.names.get(i);
+            String previous = instances.put(objects[i], name);
+            if(previous != null) {
+                problems.add(name + " returns the same instance as " + previous);
+            }
+            try {
+                Object object = this.factories.get(i).get();
+                if(object == objects[i]) {
+                    problems.add(name + " returns a shared instance");
+                } else if(object == null || objects[i] == null || object.getClass() != objects[i].getClass()) {
+                    problems.add(name + " returns " + className(objects[i]) + " on a worker thread but " + className(object) + " on " + Thread.currentThread().getName());
+                }
+            } catch (RuntimeException e) {
+                problems.add(name + " throws " + e + " on " + Thread.currentThread().getName() + " but not on a worker thread");
+            }
+        }
+        if(!problems.isEmpty()) {
+            throw new IllegalStateException("Thread-safety check failed for " + this.name + " factories:\n    " + String.join("\n    ", problems));
+        }
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the class name of an object in error messages.
+     * </p>
+     *
+     * @param object The object or null.
+     * @return The name of the object's class or {@code "null"}.
+     */
+    private static String className(Object object) {
+        return object == null ? "null" : object.getClass().getName();
+    }
+
+    /**
+     * <p>
+     *     Returns the object created by the factory at the given index and releases it from this batch.
+     *     Calls the factory if the batch has not been constructed.
+     * </p>
+     *
+     * @param index Index of the factory.
+     * @param factory The factory.
+     * @return The object to register.
+     * @param <T> The object's class.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T take(int index, Supplier<T> factory) {
+        Object[] objects = this.objects;
+        if(objects == null || objects[index] == null) {
+            return factory.get();
+        }
+        T object = (T) objects[index];
+        objects[index] = null;
+        return object;
+    }
+
+    /**
+     * <p>
+     *     Returns the thread pool used to create objects.
+     *     Worker threads use the context class loader of the thread that created the pool, which is needed to load mod classes.
+     * </p>
+     *
+     * @return The thread pool used to create objects.
+     */
+    private static synchronized ForkJoinPool pool() {
+        if(pool == null) {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+            pool = new ForkJoinPool(threads, forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("Phantom Registry Worker-" + thread.getPoolIndex());
+                thread.setContextClassLoader(classLoader);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,299 @@
+package io.github.phantomloader.library.registry;
+
+import net.minecraft.core.Registry;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     A registry owned by a mod, created with {@link ModRegistry#createRegistry(String, boolean)}.
+ *     Objects are registered in it with {@link ModRegistry#registerCustom(CustomRegistry, String, java.util.function.Supplier)}.
+ * </p>
+ * <p>
+ *     The registry is backed by a game registry created by the mod loader, a Forge registry created in {@code NewRegistryEvent} or a Fabric registry created with {@code FabricRegistryBuilder}.
+ *     Once all the objects are registered, the loader-specific registry freezes it into a table where each object has a dense numeric id, so that resolving an id is an array index.
+ *     Ids are assigned in the order of the registry names, so they are the same on every loader and on both sides as long as the same objects are registered.
+ * </p>
+ * <p>
+ *     Ids are only meant to be sent over the network with {@link CustomRegistry#write(FriendlyByteBuf, Object)} and {@link CustomRegistry#read(FriendlyByteBuf)}.
+ *     Adding or removing an object shifts the ids of the objects whose names come after it, so saved data must store names.
+ * </p>
+ * <pre>
+ *     public static final CustomRegistry&lt;MachineUpgrade&gt; UPGRADES = REGISTRY.createRegistry("machine_upgrade");
+ *     public static final RegistryHandle&lt;MachineUpgrade&gt; SPEED = REGISTRY.registerCustom(UPGRADES, "speed", SpeedUpgrade::new);
+ *     ...
+ *     tag.putString("Upgrade", UPGRADES.name(upgrade).toString());
+ *     ...
+ *     MachineUpgrade upgrade = UPGRADES.get(new ResourceLocation(tag.getString("Upgrade")));
+ * </pre>
+ *
+ * @param <T> Type of the registry objects.
+ *
+ * @author Nico
+ */
+public final class CustomRegistry<T> {
+
+    /** Key of the registry */
+    private final ResourceKey<Registry<T>> key;
+    /**
+     * The frozen table, null until the registry is frozen.
+     * Not volatile so that reading it is a plain field load.
+     * The table only has final fields, so it is safely published to threads that see it.
+     */
+    private Table<T> table;
+    /** Entries the table is rebuilt from after it is invalidated, null until {@link CustomRegistry#invalidate(Supplier)} is called */
+    private Supplier<? extends Collection<? extends Map.Entry<ResourceKey<T>, T>>> source;
+
+    /**
+     * <p>
+     *     Creates a {@code CustomRegistry}.
+     *     Used by the loader-specific registries.
+     * </p>
+     *
+     * @param key Key of the registry.
+     */
+    public CustomRegistry(ResourceKey<Registry<T>> key) {
+        this.key = key;
+    }
+
+    /**
+     * <p>
+     *     Returns the key of this registry.
+     *     The key can be used with {@link ModRegistry#index(String, ResourceKey)} to get the objects registered by a single mod.
+     * </p>
+     *
+     * @return The key of this registry.
+     */
+    public ResourceKey<Registry<T>> key() {
+        return this.key;
+    }
+
+    /**
+     * <p>
+     *     Builds the id table from the entries of the game registry.
+     *     Used by the loader-specific registries once all the objects are registered.
+     * </p>
+     *
+     * @param entries All the entries of the game registry.
+     */
+    public void freeze(Collection<? extends Map.Entry<ResourceKey<T>, T>> entries) {
+        ArrayList<Map.Entry<ResourceKey<T>, T>> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(entry -> entry.getKey().location().toString()));
+        Object[] objects = new Object[sorted.size()];
+        ResourceLocation[] names = new ResourceLocation[sorted.size()];
+        IdentityHashMap<Object, Integer> ids = new IdentityHashMap<>(sorted.size());
+        HashMap<ResourceLocation, Integer> byName = new HashMap<>(sorted.size() * 4 / 3 + 1);
+        for(int i = 0; i < objects.length; i++) {
+            objects[i] = sorted.get(i).getValue();
+            names[i] = sorted.get(i).getKey().location();
+            ids.put(objects[i], i);
+            byName.put(names[i], i);
+        }
+        this.table = new Table<>(objects, names, ids, byName);
+    }
+
+    /**
+     * <p>
+     *     Discards the id table so that it is built again from the given entries the next time it is used.
+     *     Used by the loader-specific registries when objects are added after the registry was frozen,
+     *     so that adding many objects only rebuilds the table once.
+     * </p>
+     *
+     * @param entries Supplier returning all the entries of the game registry.
+     */
+    public synchronized void invalidate(Supplier<? extends Collection<? extends Map.Entry<ResourceKey<T>, T>>> entries) {
+        this.source = entries;
+        this.table = null;
+    }
+
+    /**
+     * <p>
+     *     Checks if this registry has been frozen.
+     * </p>
+     *
+     * @return True if the id table has been built or can be built, otherwise false.
+     */
+    public boolean isFrozen() {
+        return this.table != null || this.source != null;
+    }
+
+    /**
+     * <p>
+     *     Returns the object with the given numeric id.
+     * </p>
+     *
+     * @param id The id of the object.
+     * @return The object or null if the id is out of bounds.
+     * @throws IllegalStateException If the registry has not been frozen yet.
+     */
+    @SuppressWarnings("unchecked")
+    public T byId(int id) {
+        Object[] objects = this.table().objects();
+        return id >= 0 && id < objects.length ? (T) objects[id] : null;
+    }
+
+    /**
+     * <p>
+     *     Returns the numeric id of the given object.
+     * </p>
+     *
+     * @param object The object.
+     * @return The id of the object, between 0 and {@link CustomRegistry#size()} excluded, or -1 if it is not in this registry.
+     * @throws IllegalStateException If the registry has not been frozen yet.
+     */
+    public int id(T object) {
+        Integer id = this.table().ids().get(object);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * <p>
+     *     Returns the object with the given name.
+     * </p>
+     *
+     * @param name Registry name of the object.
+     * @return The object or null if there is no object with that name in this registry.
+     * @throws IllegalStateException If the registry has not been frozen yet.
+     */
+    public T get(ResourceLocation name) {
+        Integer id = this.table().byName().get(name);
+        return id != null ? this.byId(id) : null;
+    }
+
+    /**
+     * <p>
+     *     Returns the name of the given object.
+     * </p>
+     *
+     * @param object The object.
+     * @return The registry name of the object or null if it is not in this registry.
+     * @throws IllegalStateException If the registry has not been frozen yet.
+     */
+    public ResourceLocation name(T object) {
+        int id = this.id(object);
+        return id >= 0 ? this.table().names()[id] : null;
+    }
+
+    /**
+     * <p>
+     *     Returns the number of objects in this registry.
+     * </p>
+     *
+     * @return The number of objects registered by all mods in this registry.
+     * @throws IllegalStateException If the registry has not been frozen yet.
+     */
+    public int size() {
+        return this.table().objects().length;
+    }
+
+    /**
+     * <p>
+     *     Returns all the objects in this registry.
+     * </p>
+     *
+     * @return An unmodifiable list of objects, indexed by id.
+     * @throws IllegalStateException If the registry has not been frozen yet.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> values() {
+        return (List<T>) Collections.unmodifiableList(Arrays.asList(this.table().objects()));
+    }
+
+    /**
+     * <p>
+     *     Writes the id of the given object to a buffer as a var int.
+     * </p>
+     *
+     * @param buf The buffer.
+     * @param object The object.
+     * @throws IllegalArgumentException If the object is not in this registry.
+     */
+    public void write(FriendlyByteBuf buf, T object) {
+        int id = this.id(object);
+        if(id < 0) {
+            throw new IllegalArgumentException("Object " + object + " is not in registry " + this.key.location());
+        }
+        buf.writeVarInt(id);
+    }
+
+    /**
+     * <p>
+     *     Reads an object written with {@link CustomRegistry#write(FriendlyByteBuf, Object)} from a buffer.
+     * </p>
+     *
+     * @param buf The buffer.
+     * @return The object.
+     * @throws IllegalArgumentException If the id does not belong to any object.
+     */
+    public T read(FriendlyByteBuf buf) {
+        int id = buf.readVarInt();
+        T object = this.byId(id);
+        if(object == null) {
+            throw new IllegalArgumentException("Invalid id " + id + " for registry " + this.key.location());
+        }
+        return object;
+    }
+
+    /**
+     * <p>
+     *     Returns the id table.
+     * </p>
+     *
+     * @return The id table.
+     * @throws IllegalStateException If the registry has not been frozen yet.
+     */
+    private Table<T> table() {
+        Table<T> table = this.table;
+        return table != null ? table : this.rebuild();
+    }
+
+    /**
+     * <p>
+     *     Builds the id table again after it was invalidated.
+     * </p>
+     *
+     * @return The id table.
+     * @throws IllegalStateException If the registry has not been frozen yet.
+     */
+    private synchronized Table<T> rebuild() {
+        if(this.table == null) {
+            if(this.source == null) {
+                throw new IllegalStateException("Registry " + this.key.location() + " has not been frozen yet");
+            }
+            this.freeze(this.source.get());
+        }
+        return this.table;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomRegistry[" + this.key.location() + "]";
+    }
+
+    /**
+     * <p>
+     *     Record used to store the frozen id table.
+     * </p>
+     *
+     * @param objects The objects, indexed by id.
+     * @param names The names of the objects, indexed by id.
+     * @param ids The ids of the objects, by identity.
+     * @param byName The ids of the objects, by name.
+     * @param <T> Type of the registry objects.
+     */
+    private record Table<T>(Object[] objects, ResourceLocation[] names, IdentityHashMap<Object, Integer> ids, HashMap<ResourceLocation, Integer> byName) {
+
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.phantomloader.library.registry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation used along {@link Register} to generate the resources of a block or an item at compile time without running the game's data generator.
+ * </p>
+ * <p>
+ *     Blocks get a blockstate, a block model, and a loot table that drops the block's item.
+ *     Items and block items get an item model.
+ *     Both get an entry in the {@code en_us} language file.
+ * </p>
+ * <pre>
+ *     {@code @Register(blockItem = true)}
+ *     {@code @DataGen(name = "Block of Ruby")}
+ *     public static final Supplier<Block> RUBY_BLOCK = ModRegistry.entry(() -> new Block(BlockBehaviour.Properties.of()));
+ *
+ *     {@code @Register}
+ *     {@code @DataGen(model = DataGen.Model.HANDHELD)}
+ *     public static final Supplier<Item> RUBY_SWORD = ModRegistry.entry(() -> new SwordItem(...));
+ * </pre>
+ * <p>
+ *     Resources are written to the directory specified by the {@code dataOutput} compiler option, which is required and must be a resource root used only for generated resources,
+ *     such as {@code src/generated/resources}, added to the resources of the mod by the build script.
+ *     Files whose content has not changed are not written again and files that are no longer generated are deleted.
+ *     The generator never overwrites or deletes files that it did not generate, and it does not write anything if the directory already contains other files.
+ * </p>
+ * <p>
+ *     The generated {@code en_us.json} file only contains the names of annotated blocks and items.
+ *     A mod can only have one {@code en_us.json} file, so if the mod also has hand-written translations they must be merged with the generated ones,
+ *     for example by a task of the build script that combines both files when resources are processed.
+ *     Otherwise, the build fails because of duplicate resources or one of the files is silently left out.
+ * </p>
+ *
+ * @author Nico
+ */
+@Target(ElementType.FIELD)
+public @interface DataGen {
+
+    /**
+     * <p>
+     *     Specifies the model of the block or item.
+     * </p>
+     * <p>
+     *     Default: {@link Model#CUBE_ALL} for blocks, {@link Model#GENERATED} for items.
+     * </p>
+     *
+     * @return The model to generate.
+     */
+    Model model() default Model.DEFAULT;
+
+    /**
+     * <p>
+     *     Specifies the texture used by the model, as a resource location without the {@code textures/} prefix and the {@code .png} extension.
+     *     The namespace defaults to the mod id.
+     *     Pillars use the texture for their sides and the texture followed by {@code _top} for their ends.
+     * </p>
+     * <p>
+     *     Default: {@code block/<name>} for blocks, {@code item/<name>} for items.
+     * </p>
+     *
+     * @return The texture of the model.
+     */
+    String texture() default "";
+
+    /**
+     * <p>
+     *     Specifies whether a block drops its item when broken.
+     *     Has no effect on items.
+     * </p>
+     * <p>
+     *     Default: true.
+     * </p>
+     *
+     * @return True to generate a loot table that drops the block's item, otherwise false.
+     */
+    boolean dropSelf() default true;
+
+    /**
+     * <p>
+     *     Specifies the English name of the block or item.
+     * </p>
+     * <p>
+     *     Default: the registry name in title case, for example {@code Ruby Block} for {@code ruby_block}.
+     * </p>
+     *
+     * @return The name used in the language file.
+     */
+    String name() default "";
+
+    /**
+     * <p>
+     *     Enum used to specify the model of a block or an item with {@link DataGen#model()}.
+     * </p>
+     *
+     * @author Nico
+     */
+    enum Model {
+        /** Uses {@link Model#CUBE_ALL} for blocks and {@link Model#GENERATED} for items */
+        DEFAULT,
+        /** A full block with the same texture on every side */
+        CUBE_ALL,
+        /** A full block that can be rotated on every axis, like logs */
+        PILLAR,
+        /** A flat item */
+        GENERATED,
+        /** A flat item held like a tool */
+        HANDHELD,
+        /** Does not generate a model or a blockstate */
+        NONE
+    }
+}
@@ -2,8 +2,12 @@ package io.github.phantomloader.library.registry;
 
 import io.github.phantomloader.library.ModEntryPoint;
 import io.github.phantomloader.library.events.ClientEventHandler;
+import io.github.phantomloader.library.profiling.RegistrationAudit;
+import io.github.phantomloader.library.services.PhantomServices;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Registry;
 import net.minecraft.core.particles.ParticleType;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceKey;
@@ -35,9 +39,11 @@ import net.minecraft.world.level.storage.loot.functions.LootItemFunctionType;
 import org.apache.commons.lang3.function.TriFunction;
 
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -61,8 +67,9 @@ public abstract class ModRegistry {
      *     Instantiates a {@link ModRegistry}.
      * </p>
      * <p>
-     *     Loads a {@link RegistryProvider} using {@link ServiceLoader} to create an instance of the registry for the current platform.
-     *     Note that a {@code RegistryProvider} must be defined in {@code META-INF/services} for this to work, therefore the library mod for the correct loader must be present at runtime.
+     *     Uses the {@link RegistryProvider} of the current platform to create an instance of the registry.
+     *     The provider is looked up once using {@link PhantomServices} and falls back to the {@code META-INF/services} files if it is not in any service index.
+     *     Note that a {@code RegistryProvider} must be defined for this to work, therefore the library mod for the correct loader must be present at runtime.
      * </p>
      *
      * @param mod Mod id of the mod needed to instantiate the {@link ModRegistry#ModRegistry(String)}
@@ -70,12 +77,126 @@ public abstract class ModRegistry {
      * @throws NoSuchElementException If no registry has been defined in {@code META-INF/services}
      */
     public static ModRegistry instantiate(String mod) {
-        return ServiceLoader.load(RegistryProvider.class)
-                .findFirst()
+        return PhantomServices.provider(RegistryProvider.class)
                 .orElseThrow(() -> new NoSuchElementException("No registry has been defined in META-INF/services. Make sure you are using the correct version of the library mod for your mod loader."))
                 .instantiate(mod);
     }
 
+    /**
+     * <p>
+     *     Creates the value of a field annotated with {@link Register}.
+     * </p>
+     * <p>
+     *     The given factory is used to create the object when the generated {@link RegistrationTable} is registered.
+     *     The returned handle returns the registered object.
+     * </p>
+     *
+     * @param factory A supplier returning the object to register.
+     * @return A handle to the registered object.
+     * @param <T> The object's class.
+     */
+    public static <T> RegistryHandle<T> entry(Supplier<? extends T> factory) {
+        return new RegistryHandle<>(factory);
+    }
+
+    /**
+     * <p>
+     *     Declares that the given factory may be called outside the main thread and concurrently with other factories.
+     * </p>
+     * <p>
+     *     The returned supplier can be passed to any {@code registerX} method or to {@link ModRegistry#entry(Supplier)}.
+     *     When parallel construction is enabled with {@code -Dphantom.parallelRegistry=true}, objects created by thread-safe factories are created concurrently on worker threads and then registered serially in declaration order.
+     *     The factory must not use objects from the same registry, must not modify shared state, and must return a new object every time it is called.
+     * </p>
+     * <p>
+     *     Blocks and items are never created in parallel, and neither are fluids, entity types, and game events.
+     *     Their factories are always called on the registering thread, even if they are declared thread-safe, so parallel construction does not speed up their registration.
+     *     Their constructors add an intrusive holder to an unsynchronized map of the game registry,
+     *     and the thread-safety check creates a second object whose holder is never registered, which makes the game registry fail when it is frozen.
+     *     Parallel construction only helps registries whose objects are expensive to create and do not use intrusive holders, such as features, structures, and particle types.
+     * </p>
+     * <pre>
+     *     {@code @Register}
+     *     public static final Supplier<Feature<?>> RUBY_VEIN = ModRegistry.entry(ModRegistry.threadSafe(() -> new RubyVeinFeature(NoneFeatureConfiguration.CODEC)));
+     * </pre>
+     *
+     * @param factory A supplier returning the object to register.
+     * @return A {@link ThreadSafeFactory} wrapping the given factory.
+     * @see ConstructionBatch
+     * @param <T> The object's class.
+     */
+    public static <T> Supplier<T> threadSafe(Supplier<? extends T> factory) {
+        return new ThreadSafeFactory<>(factory);
+    }
+
+    /** Registries whose objects create an intrusive holder in the game registry when they are constructed */
+    private static final Set<ResourceKey<?>> INTRUSIVE_HOLDER_REGISTRIES = Set.of(Registries.BLOCK, Registries.ITEM, Registries.FLUID, Registries.ENTITY_TYPE, Registries.GAME_EVENT);
+
+    /**
+     * <p>
+     *     Checks if the objects of the given registry create an intrusive holder when they are constructed.
+     *     Intrusive holders are added to a map of the game registry that is not thread-safe and every one of them must be registered before the registry is frozen,
+     *     so the objects of these registries cannot be created concurrently or created and then discarded.
+     * </p>
+     *
+     * @param registry Key of the registry.
+     * @return True if the registry uses intrusive holders, otherwise false.
+     * @see ConstructionBatch
+     */
+    public static boolean usesIntrusiveHolders(ResourceKey<?> registry) {
+        return INTRUSIVE_HOLDER_REGISTRIES.contains(registry);
+    }
+
+    /** Indexes of registered objects by mod id and by registry, shared by all the registries of a mod */
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<ResourceKey<?>, RegistryIndex<?>>> INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * <p>
+     *     Returns the index of the objects registered by the given mod in the given registry.
+     * </p>
+     * <p>
+     *     The index is populated when the objects are registered after {@link ModRegistry#register()} has been called,
+     *     and contains the objects registered by all the {@code ModRegistry} instances of the mod, including the generated {@link RegistrationTable}s.
+     * </p>
+     * <pre>
+     *     RegistryIndex&lt;Block&gt; blocks = ModRegistry.index("example_mod", Registries.BLOCK);
+     *     ResourceLocation name = blocks.name(state.getBlock());
+     * </pre>
+     *
+     * @param mod The mod id.
+     * @param registry Key of the registry, for example {@code Registries.BLOCK}.
+     * @return The index of the objects registered by the mod in that registry.
+     * @param <T> Type of the registry objects.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RegistryIndex<T> index(String mod, ResourceKey<? extends Registry<T>> registry) {
+        return (RegistryIndex<T>) INDEXES.computeIfAbsent(mod, key -> new ConcurrentHashMap<>()).computeIfAbsent(registry, key -> new RegistryIndex<>(mod));
+    }
+
+    /**
+     * <p>
+     *     Returns a hash of the id tables of all the registries the given mod registered objects in.
+     *     Clients and servers must exchange this hash during a handshake before sending the numeric ids returned by {@link RegistryIndex#id(Object)},
+     *     and fall back to registry names if the hashes differ.
+     * </p>
+     *
+     * @param mod The mod id.
+     * @return A hash that only depends on the names of the registries and of the objects registered by the mod.
+     * @see RegistryIndex#hash()
+     */
+    public static long idHash(String mod) {
+        long hash = 0;
+        ConcurrentHashMap<ResourceKey<?>, RegistryIndex<?>> indexes = INDEXES.get(mod);
+        if(indexes != null) {
+            List<ResourceKey<?>> registries = indexes.keySet().stream().filter(key -> indexes.get(key).size() > 0).sorted(Comparator.comparing(key -> key.location().toString())).toList();
+            for(ResourceKey<?> registry : registries) {
+                hash = hash * 31 + registry.location().toString().hashCode();
+                hash = hash * 31 + indexes.get(registry).hash();
+            }
+        }
+        return hash;
+    }
+
     /** Id of the mod that instantiated this registry */
     public final String mod;
 
@@ -88,6 +209,56 @@ public abstract class ModRegistry {
         this.mod = mod;
     }
 
+    /**
+     * <p>
+     *     Returns the index of the objects registered by this registry's mod in the given registry.
+     * </p>
+     *
+     * @param registry Key of the registry, for example {@code Registries.BLOCK}.
+     * @return The index of the objects registered by the mod in that registry.
+     * @see ModRegistry#index(String, ResourceKey)
+     * @param <T> Type of the registry objects.
+     */
+    public <T> RegistryIndex<T> index(ResourceKey<? extends Registry<T>> registry) {
+        return index(this.mod, registry);
+    }
+
+    /**
+     * <p>
+     *     Wraps a factory so that its calls are recorded by the {@link RegistrationAudit} if the audit is enabled.
+     *     Must be called by loader-specific registries on every factory before it is added to a {@link ConstructionBatch}.
+     * </p>
+     *
+     * @param registry Key of the registry the object is registered in.
+     * @param name Registry name of the object.
+     * @param factory A supplier returning the object to register.
+     * @return The factory to use to create the object, which is still a {@link ThreadSafeFactory} if the given factory is one.
+     * @param <T> The object's class.
+     */
+    protected <T> Supplier<T> audited(ResourceKey<? extends Registry<?>> registry, String name, Supplier<T> factory) {
+        if(!RegistrationAudit.ENABLED) {
+            return factory;
+        }
+        Supplier<T> audited = RegistrationAudit.wrap(this.mod, registry.location().toString(), name, factory);
+        return factory instanceof ThreadSafeFactory<?> ? new ThreadSafeFactory<>(audited) : audited;
+    }
+
+    /**
+     * <p>
+     *     Adds a registered object to the index of the given registry.
+     *     Must be called by loader-specific registries once the object is registered.
+     * </p>
+     *
+     * @param registry Key of the registry the object was registered in.
+     * @param name Registry name of the object.
+     * @param handle Handle to the registered object, which must be bound.
+     */
+    @SuppressWarnings("unchecked")
+    protected void addToIndex(ResourceKey<? extends Registry<?>> registry, String name, RegistryHandle<?> handle) {
+        RegistryIndex<Object> index = (RegistryIndex<Object>) INDEXES.computeIfAbsent(this.mod, key -> new ConcurrentHashMap<>()).computeIfAbsent(registry, key -> new RegistryIndex<>(this.mod));
+        index.add(name, handle.get(), handle);
+    }
+
     /**
      * <p>
      *     Registers an {@link Item}.
@@ -293,6 +464,32 @@ public abstract class ModRegistry {
         return this.registerBlockAndItem(name, () -> constructor.apply(BlockBehaviour.Properties.copy(base.get())));
     }
 
+    /**
+     * <p>
+     *     Registers a {@link BlockFamily} containing one block for each combination of the given variants and shapes.
+     * </p>
+     * <p>
+     *     Unlike {@link ModRegistry#registerBlockVariant(String, Function, Supplier)}, the properties of the base block are copied once per variant and shared by all the shapes of that variant.
+     *     All the blocks are registered with a single {@link RegistrationTable} instead of one call per block.
+     *     Blocks are named {@code <variant>_<name><suffix>}, or {@code <name><suffix>} for variants with an empty name.
+     * </p>
+     *
+     * @param name Name of the family, used in the registry name of every block.
+     * @param base The block whose properties are copied. Must be a registered block.
+     * @param shapes Shapes of the blocks in the family.
+     * @param variants Variants of the blocks in the family.
+     * @param items Whether a {@link BlockItem} should also be registered for every block.
+     * @return The table of handles to the registered blocks.
+     */
+    public BlockFamily registerBlockFamily(String name, Supplier<? extends Block> base, List<BlockFamily.Shape> shapes, List<BlockFamily.Variant> variants, boolean items) {
+        BlockFamily family = new BlockFamily(name, base, shapes, variants);
+        this.registerTable(family.table(RegistrationTable.Type.BLOCK));
+        if(items) {
+            this.registerTable(family.table(RegistrationTable.Type.BLOCK_ITEM));
+        }
+        return family;
+    }
+
     /**
      * <p>
      *     Registers a {@link BlockEntityType}.
@@ -598,11 +795,94 @@ public abstract class ModRegistry {
      */
     public abstract <T extends Fluid> Supplier<T> registerFluid(String name, Supplier<T> fluid);
 
+    /**
+     * <p>
+     *     Creates a new registry owned by this mod.
+     * </p>
+     * <p>
+     *     Uses {@code NewRegistryEvent} on Forge and {@code FabricRegistryBuilder} on Fabric.
+     *     The registry is frozen into an array-backed id table once its objects are registered, see {@link CustomRegistry}.
+     *     Must be called before {@link ModRegistry#register()}.
+     * </p>
+     *
+     * @param name Name of the registry.
+     * @param synced Whether the content of the registry should be synced from the server to the client.
+     * @return The created registry.
+     * @param <T> Type of the registry objects.
+     */
+    public abstract <T> CustomRegistry<T> createRegistry(String name, boolean synced);
+
+    /**
+     * <p>
+     *     Creates a new registry owned by this mod whose content is synced from the server to the client.
+     * </p>
+     *
+     * @param name Name of the registry.
+     * @return The created registry.
+     * @param <T> Type of the registry objects.
+     */
+    public <T> CustomRegistry<T> createRegistry(String name) {
+        return this.createRegistry(name, true);
+    }
+
+    /**
+     * <p>
+     *     Registers an object in a {@link CustomRegistry}.
+     *     The registry may have been created by a different mod.
+     * </p>
+     *
+     * @param registry The registry.
+     * @param name Registry name of the object.
+     * @param object A supplier returning the object to register.
+     * @return A handle to the registered object.
+     * @param <V> Type of the registry objects.
+     * @param <T> The object's class.
+     */
+    public abstract <V, T extends V> RegistryHandle<T> registerCustom(CustomRegistry<V> registry, String name, Supplier<T> object);
+
+    /**
+     * <p>
+     *     Registers all the objects in a {@link RegistrationTable} and binds the registered objects to their {@link RegistryHandle}.
+     * </p>
+     * <p>
+     *     Registration tables are generated from fields annotated with {@link Register} and are registered by the generated mod class.
+     *     The default implementation calls the method corresponding to the table's type for every entry.
+     *     Loader-specific registries override it to register the whole table in a single loop.
+     * </p>
+     *
+     * @param table The table to register.
+     */
+    @SuppressWarnings("unchecked")
+    public void registerTable(RegistrationTable table) {
+        for(int i = 0; i < table.size(); i++) {
+            String name = table.names()[i];
+            RegistryHandle<Object> entry = (RegistryHandle<Object>) table.entry(i);
+            switch (table.type()) {
+                case SOUND_EVENT -> entry.bind(this.registerSound(name, (Supplier<SoundEvent>) entry.factory()));
+                case FLUID -> entry.bind(this.registerFluid(name, (Supplier<Fluid>) entry.factory()));
+                case MOB_EFFECT -> entry.bind(this.registerEffect(name, (Supplier<MobEffect>) entry.factory()));
+                case BLOCK -> entry.bind(this.registerBlock(name, (Supplier<Block>) entry.factory()));
+                case ENCHANTMENT -> entry.bind(this.registerEnchantment(name, (Supplier<Enchantment>) entry.factory()));
+                case ITEM -> entry.bind(this.registerItem(name, (Supplier<Item>) entry.factory()));
+                // Block item tables contain the block entries
+                case BLOCK_ITEM -> this.registerBlockItem(name, (Supplier<? extends Block>) (Supplier<?>) entry);
+                case PARTICLE_TYPE -> entry.bind(this.registerParticles(name, (Supplier<ParticleType<?>>) entry.factory()));
+                case FEATURE -> entry.bind(this.registerFeature(name, (Supplier<Feature<?>>) entry.factory()));
+                case RECIPE_TYPE -> entry.bind(this.registerRecipeType(name, (Supplier<RecipeType<?>>) entry.factory()));
+                case RECIPE_SERIALIZER -> entry.bind(this.registerRecipeSerializer(name, (Supplier<RecipeSerializer<?>>) entry.factory()));
+                case LOOT_ITEM_FUNCTION -> entry.bind(this.registerLootItemFunction(name, (Supplier<LootItemFunctionType>) entry.factory()));
+            }
+        }
+    }
+
     /**
      * <p>
      *     Finalizes the registry process.
      *     Must be called from the method annotated with the {@link ModEntryPoint} annotation.
      * </p>
+     * <p>
+     *     Objects are added to the {@link RegistryIndex} of their registry when they are registered.
+     * </p>
      */
     public abstract void register();
 }
@@ -0,0 +1,55 @@
+package io.github.phantomloader.library.registry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation used to register the object supplied by a field without calling {@link ModRegistry} methods.
+ *     The annotation processor collects all annotated fields into a generated {@link RegistrationTable} for each registry type, which is registered by the generated mod class before any {@link io.github.phantomloader.library.ModEntryPoint} is called.
+ * </p>
+ * <p>
+ *     The annotated field must be {@code public static final}, its type must be a {@link java.util.function.Supplier} or a {@link RegistryHandle} of a registry object, and it must be initialized with {@link ModRegistry#entry(java.util.function.Supplier)}.
+ *     The registry is chosen from the type of the supplier.
+ * </p>
+ * <pre>
+ *     {@code @Register}
+ *     public static final Supplier<Block> RUBY_BLOCK = ModRegistry.entry(() -> new Block(BlockBehaviour.Properties.of()));
+ *
+ *     {@code @Register("ruby")}
+ *     public static final RegistryHandle<Item> RUBY_ITEM = ModRegistry.entry(() -> new Item(new Item.Properties()));
+ * </pre>
+ * <p>
+ *     The handle returned by {@code ModRegistry.entry} returns the registered object once it has been registered.
+ * </p>
+ *
+ * @author Nico
+ */
+@Target(ElementType.FIELD)
+public @interface Register {
+
+    /**
+     * <p>
+     *     Specifies the registry name of the object.
+     * </p>
+     * <p>
+     *     Default: the name of the field in lowercase.
+     * </p>
+     *
+     * @return The registry name of the object.
+     */
+    String value() default "";
+
+    /**
+     * <p>
+     *     Specifies that a {@link net.minecraft.world.item.BlockItem} with the same name should also be registered.
+     *     Can only be used on block fields and has the same effect as {@link ModRegistry#registerBlockAndItem(String, java.util.function.Supplier)}.
+     * </p>
+     * <p>
+     *     Default: false.
+     * </p>
+     *
+     * @return Whether a block item should be registered along with the block.
+     */
+    boolean blockItem() default false;
+}
@@ -0,0 +1,96 @@
+package io.github.phantomloader.library.registry;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     Flat table of objects to register in the same registry.
+ *     Registration tables are generated by the annotation processor from fields annotated with {@link Register} and are registered with {@link ModRegistry#registerTable(RegistrationTable)}.
+ * </p>
+ * <p>
+ *     Names and entries are stored in two arrays of the same length so that registries can register the whole table in a single loop.
+ * </p>
+ *
+ * @param type The registry in which the objects are registered.
+ * @param names The registry names of the objects.
+ * @param entries The values of the annotated fields, which must have been created with {@link ModRegistry#entry(Supplier)}.
+ *
+ * @author Nico
+ */
+public record RegistrationTable(Type type, String[] names, Supplier<?>[] entries) {
+
+    /**
+     * Creates a {@code RegistrationTable}.
+     *
+     * @param type The registry in which the objects are registered.
+     * @param names The registry names of the objects.
+     * @param entries The values of the annotated fields.
+     * @throws IllegalArgumentException If the two arrays do not have the same length.
+     */
+    public RegistrationTable {
+        if(names.length != entries.length) {
+            throw new IllegalArgumentException("Registration table for " + type + " has " + names.length + " names and " + entries.length + " entries");
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the number of objects in this table.
+     * </p>
+     *
+     * @return The number of objects in this table.
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * <p>
+     *     Returns the entry at the given index.
+     * </p>
+     *
+     * @param index Index of the entry.
+     * @return The entry at the given index.
+     * @throws IllegalArgumentException If the field was not initialized with {@link ModRegistry#entry(Supplier)}.
+     */
+    public RegistryHandle<?> entry(int index) {
+        return RegistryHandle.of(this.entries[index]);
+    }
+
+    /**
+     * <p>
+     *     Enum used to specify the registry of a {@link RegistrationTable}.
+     * </p>
+     * <p>
+     *     Tables are registered in the order of this enum, which follows the order of vanilla registries, so that fluids are registered before blocks and blocks are registered before items.
+     * </p>
+     *
+     * @author Nico
+     */
+    public enum Type {
+        /** Indicates the sound event registry */
+        SOUND_EVENT,
+        /** Indicates the fluid registry */
+        FLUID,
+        /** Indicates the mob effect registry */
+        MOB_EFFECT,
+        /** Indicates the block registry */
+        BLOCK,
+        /** Indicates the enchantment registry */
+        ENCHANTMENT,
+        /** Indicates the item registry */
+        ITEM,
+        /** Indicates block items created from the entries of a block table, registered in the item registry */
+        BLOCK_ITEM,
+        /** Indicates the particle type registry */
+        PARTICLE_TYPE,
+        /** Indicates the feature registry */
+        FEATURE,
+        /** Indicates the recipe type registry */
+        RECIPE_TYPE,
+        /** Indicates the recipe serializer registry */
+        RECIPE_SERIALIZER,
+        /** Indicates the loot item function type registry */
+        LOOT_ITEM_FUNCTION
+    }
+}
@@ -0,0 +1,215 @@
+package io.github.phantomloader.library.registry;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     Handle to a registry object, returned by all the {@code registerX} methods of {@link ModRegistry} and by {@link ModRegistry#entry(Supplier)}.
+ *     The {@code registerX} methods that existed before handles were introduced still declare {@code Supplier} as their return type,
+ *     so that mods compiled against earlier versions of the library keep working.
+ * </p>
+ * <p>
+ *     The handle is bound once when the object is registered and caches the registered object in a field.
+ *     Since the class is final and the object is cached, {@link RegistryHandle#get()} is a field load and a null check once it is inlined,
+ *     even when the handle is stored in a field of type {@code Supplier}.
+ *     Handles should be stored in {@code static final} fields so that the JIT can treat the handle itself as a constant:
+ * </p>
+ * <pre>
+ *     public static final Supplier&lt;Block&gt; RUBY_BLOCK = REGISTRY.registerBlock("ruby_block");
+ *     ...
+ *     if(state.is(RUBY_BLOCK.get())) { ... }
+ * </pre>
+ * <p>
+ *     Handles created with {@link ModRegistry#entry(Supplier)} also hold the factory used to create the object until the {@link ModRegistry} registers it.
+ * </p>
+ *
+ * @param <T> Type of the registered object.
+ *
+ * @author Nico
+ */
+public final class RegistryHandle<T> implements Supplier<T> {
+
+    /** Supplier used to create the object, null if the handle was not created with {@link ModRegistry#entry(Supplier)} */
+    private final Supplier<? extends T> factory;
+    /** Supplier returning the registered object, used by registries that register objects later */
+    private volatile Supplier<? extends T> registered;
+    /**
+     * The registered object.
+     * Not volatile so that reading it is a plain field load.
+     * It is only written with the registered object, so threads that see an old value only take the slow path.
+     */
+    private T value;
+
+    /**
+     * Creates a {@code RegistryHandle}.
+     *
+     * @param factory Supplier used to create the object or null.
+     */
+    RegistryHandle(Supplier<? extends T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * <p>
+     *     Creates a handle that is not bound yet.
+     *     Used by the loader-specific registries.
+     * </p>
+     *
+     * @return A new handle.
+     * @param <T> Type of the registered object.
+     */
+    public static <T> RegistryHandle<T> create() {
+        return new RegistryHandle<>(null);
+    }
+
+    /**
+     * <p>
+     *     Creates a handle bound to a supplier returning the registered object.
+     *     Used by the loader-specific registries.
+     * </p>
+     *
+     * @param registered A supplier returning the registered object.
+     * @return A new handle.
+     * @param <T> Type of the registered object.
+     */
+    public static <T> RegistryHandle<T> bound(Supplier<? extends T> registered) {
+        RegistryHandle<T> handle = new RegistryHandle<>(null);
+        handle.bind(registered);
+        return handle;
+    }
+
+    /**
+     * <p>
+     *     Returns the supplier used to create the object.
+     *     Used by the loader-specific registries to register the entries of a {@link RegistrationTable}.
+     * </p>
+     *
+     * @return The supplier used to create the object or null if this handle was not created with {@link ModRegistry#entry(Supplier)}.
+     */
+    public Supplier<? extends T> factory() {
+        return this.factory;
+    }
+
+    /**
+     * <p>
+     *     Binds a supplier that returns the registered object to this handle.
+     *     Used by registries that do not create objects immediately.
+     *     The object is cached the first time it is returned by the supplier.
+     * </p>
+     * <p>
+     *     The supplier must return null, and not throw, while the object has not been registered yet.
+     *     Exceptions it throws are real failures and are propagated by {@link RegistryHandle#get()} and {@link RegistryHandle#isBound()}.
+     * </p>
+     *
+     * @param registered A supplier returning the registered object.
+     * @throws IllegalStateException If this handle is already bound.
+     */
+    public synchronized void bind(Supplier<? extends T> registered) {
+        this.checkUnbound();
+        this.registered = registered;
+    }
+
+    /**
+     * <p>
+     *     Binds the registered object to this handle.
+     *     Used by registries that create objects themselves.
+     * </p>
+     *
+     * @param value The registered object.
+     * @throws IllegalStateException If this handle is already bound.
+     */
+    public synchronized void set(T value) {
+        this.checkUnbound();
+        this.value = value;
+    }
+
+    /**
+     * <p>
+     *     Checks that neither a supplier nor an object has been bound to this handle, since a handle is only bound once when the object is registered.
+     * </p>
+     *
+     * @throws IllegalStateException If this handle is already bound.
+     */
+    private void checkUnbound() {
+        if(this.registered != null || this.value != null) {
+            throw new IllegalStateException("Registry handle is already bound to " + (this.value != null ? this.value : this.registered));
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if the object has been registered.
+     * </p>
+     *
+     * @return True if {@link RegistryHandle#get()} returns the registered object, false if it would throw because the object has not been registered yet.
+     */
+    public boolean isBound() {
+        if(this.value != null) {
+            return true;
+        }
+        Supplier<? extends T> registered = this.registered;
+        if(registered == null) {
+            return false;
+        }
+        if(registered instanceof RegistryHandle<?> handle && !handle.isBound()) {
+            return false;
+        }
+        T value = registered.get();
+        if(value != null) {
+            this.value = value;
+        }
+        return value != null;
+    }
+
+    /**
+     * <p>
+     *     Returns the registered object.
+     * </p>
+     *
+     * @return The registered object.
+     * @throws IllegalStateException If the object has not been registered yet.
+     */
+    @Override
+    public T get() {
+        T value = this.value;
+        return value != null ? value : this.resolve();
+    }
+
+    /**
+     * <p>
+     *     Gets the registered object from the bound supplier and caches it.
+     *     Kept out of {@link RegistryHandle#get()} so that it stays small enough to be inlined.
+     * </p>
+     *
+     * @return The registered object.
+     * @throws IllegalStateException If the object has not been registered yet.
+     */
+    private T resolve() {
+        Supplier<? extends T> registered = this.registered;
+        if(registered == null) {
+            throw new IllegalStateException("Registry object has not been registered yet");
+        }
+        T value = registered.get();
+        if(value == null) {
+            throw new IllegalStateException("Registry object has not been registered yet");
+        }
+        this.value = value;
+        return value;
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the {@code RegistryHandle} from a field annotated with {@link Register}.
+     * </p>
+     *
+     * @param supplier The value of the field.
+     * @return The given supplier as a {@code RegistryHandle}.
+     * @throws IllegalArgumentException If the field was not initialized with {@link ModRegistry#entry(Supplier)}.
+     */
+    public static RegistryHandle<?> of(Supplier<?> supplier) {
+        if(supplier instanceof RegistryHandle<?> handle && handle.factory != null) {
+            return handle;
+        }
+        throw new IllegalArgumentException("Fields annotated with @Register must be initialized with ModRegistry.entry");
+    }
+}
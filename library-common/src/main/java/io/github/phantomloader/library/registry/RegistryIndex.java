@@ -0,0 +1,266 @@
+package io.github.phantomloader.library.registry;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *     Index of the objects registered by one mod in one registry.
+ *     Obtained with {@link ModRegistry#index(String, net.minecraft.resources.ResourceKey)}.
+ * </p>
+ * <p>
+ *     The index is populated by the loader-specific registries when objects are registered, after {@link ModRegistry#register()} has been called.
+ *     It supports looking up a handle by name, looking up the name of a registered object by identity, and iterating over the mod's objects in registration order,
+ *     without walking the game's registries and comparing namespaces.
+ * </p>
+ * <p>
+ *     The index also assigns a dense numeric id to every object, so that packets can refer to the mod's objects with a var int instead of a {@link ResourceLocation}.
+ *     Ids are assigned in the order of the registry names, so they only depend on the set of registered names and not on the order of registration or on the mod loader.
+ *     The id table is built the first time it is used after the objects have been registered, and {@link RegistryIndex#hash()} must be compared during a handshake to check that both sides use the same table.
+ * </p>
+ * <p>
+ *     Ids are only meant to be sent over the network.
+ *     An id is the position of a name among the sorted names, so adding or removing an object shifts the ids of the objects that come after it.
+ *     Saved data must store the {@link ResourceLocation} returned by {@link RegistryIndex#name(Object)},
+ *     or store a palette of names alongside the ids and map them back when the data is loaded.
+ * </p>
+ *
+ * @param <T> Type of the registry objects.
+ *
+ * @author Nico
+ */
+public final class RegistryIndex<T> {
+
+    /** Id of the mod that registered the objects */
+    private final String mod;
+    /** Handles to the registered objects by name, in registration order */
+    private final LinkedHashMap<String, RegistryHandle<? extends T>> handles = new LinkedHashMap<>();
+    /** Names of the registered objects by identity */
+    private final IdentityHashMap<Object, ResourceLocation> names = new IdentityHashMap<>();
+    /** The id table, null until it is first used or after an object is added */
+    private volatile Ids ids;
+
+    /**
+     * Creates an empty {@code RegistryIndex}.
+     *
+     * @param mod Id of the mod that registered the objects.
+     */
+    RegistryIndex(String mod) {
+        this.mod = mod;
+    }
+
+    /**
+     * <p>
+     *     Adds a registered object to this index.
+     * </p>
+     *
+     * @param name Registry name of the object.
+     * @param object The registered object.
+     * @param handle Handle to the registered object.
+     */
+    void add(String name, T object, RegistryHandle<? extends T> handle) {
+        this.handles.put(name, handle);
+        this.names.put(object, new ResourceLocation(this.mod, name));
+        this.ids = null;
+    }
+
+    /**
+     * <p>
+     *     Returns the handle to the object with the given name.
+     * </p>
+     *
+     * @param name Registry name of the object, without the mod id.
+     * @return The handle to the object or null if this mod has not registered an object with that name.
+     */
+    public RegistryHandle<? extends T> get(String name) {
+        return this.handles.get(name);
+    }
+
+    /**
+     * <p>
+     *     Returns the name of the given object.
+     *     The lookup is done by identity and does not use the game's registry.
+     * </p>
+     *
+     * @param object The object.
+     * @return The registry name of the object or null if it was not registered by this mod.
+     */
+    public ResourceLocation name(Object object) {
+        return this.names.get(object);
+    }
+
+    /**
+     * <p>
+     *     Checks if the given object was registered by this mod.
+     * </p>
+     *
+     * @param object The object.
+     * @return True if the object was registered by this mod, otherwise false.
+     */
+    public boolean contains(Object object) {
+        return this.names.containsKey(object);
+    }
+
+    /**
+     * <p>
+     *     Returns the handles to all the objects registered by this mod in this registry.
+     * </p>
+     *
+     * @return An unmodifiable map of handles by registry name, in registration order.
+     */
+    public Map<String, RegistryHandle<? extends T>> entries() {
+        return Collections.unmodifiableMap(this.handles);
+    }
+
+    /**
+     * <p>
+     *     Returns the number of objects in this index.
+     * </p>
+     *
+     * @return The number of objects registered by this mod in this registry.
+     */
+    public int size() {
+        return this.handles.size();
+    }
+
+    /**
+     * <p>
+     *     Returns the numeric id of the given object.
+     *     Ids change when objects are added or removed, so they must not be saved.
+     * </p>
+     *
+     * @param object The object.
+     * @return The id of the object, between 0 and {@link RegistryIndex#size()} excluded, or -1 if it was not registered by this mod.
+     */
+    public int id(Object object) {
+        Integer id = this.ids().ids().get(object);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * <p>
+     *     Returns the object with the given numeric id.
+     * </p>
+     *
+     * @param id The id of the object.
+     * @return The object or null if the id is out of bounds.
+     */
+    @SuppressWarnings("unchecked")
+    public T byId(int id) {
+        Object[] objects = this.ids().objects();
+        return id >= 0 && id < objects.length ? (T) objects[id] : null;
+    }
+
+    /**
+     * <p>
+     *     Writes the id of the given object to a buffer as a var int.
+     * </p>
+     *
+     * @param buf The buffer.
+     * @param object The object.
+     * @throws IllegalArgumentException If the object was not registered by this mod.
+     */
+    public void write(FriendlyByteBuf buf, Object object) {
+        int id = this.id(object);
+        if(id < 0) {
+            throw new IllegalArgumentException("Object " + object + " was not registered by " + this.mod);
+        }
+        buf.writeVarInt(id);
+    }
+
+    /**
+     * <p>
+     *     Reads an object written with {@link RegistryIndex#write(FriendlyByteBuf, Object)} from a buffer.
+     * </p>
+     *
+     * @param buf The buffer.
+     * @return The object.
+     * @throws IllegalArgumentException If the id does not belong to any object.
+     */
+    public T read(FriendlyByteBuf buf) {
+        int id = buf.readVarInt();
+        T object = this.byId(id);
+        if(object == null) {
+            throw new IllegalArgumentException("Invalid id " + id + " for a registry object of " + this.mod);
+        }
+        return object;
+    }
+
+    /**
+     * <p>
+     *     Returns a hash of the id table, which only depends on the registry names of the objects.
+     *     Two sides with the same hash assign the same ids to the same objects.
+     * </p>
+     *
+     * @return A 64-bit FNV-1a hash of the sorted registry names.
+     */
+    public long hash() {
+        return this.ids().hash();
+    }
+
+    /**
+     * <p>
+     *     Returns the id table, building it if needed.
+     * </p>
+     *
+     * @return The id table.
+     */
+    private Ids ids() {
+        Ids ids = this.ids;
+        if(ids == null) {
+            synchronized(this) {
+                ids = this.ids;
+                if(ids == null) {
+                    ids = this.buildIds();
+                    this.ids = ids;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * <p>
+     *     Builds the id table by sorting the objects by registry name.
+     * </p>
+     *
+     * @return The id table.
+     */
+    private Ids buildIds() {
+        ArrayList<String> names = new ArrayList<>(this.handles.keySet());
+        Collections.sort(names);
+        Object[] objects = new Object[names.size()];
+        IdentityHashMap<Object, Integer> ids = new IdentityHashMap<>(names.size());
+        long hash = 0xcbf29ce484222325L;
+        for(int i = 0; i < objects.length; i++) {
+            objects[i] = this.handles.get(names.get(i)).get();
+            ids.put(objects[i], i);
+            for(byte b : names.get(i).getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            }
+            // Separator so that ["ab", "c"] and ["a", "bc"] have different hashes
+            hash = (hash ^ '\n') * 0x100000001b3L;
+        }
+        return new Ids(objects, ids, hash);
+    }
+
+    /**
+     * <p>
+     *     Record used to store the id table.
+     * </p>
+     *
+     * @param objects The objects, indexed by id.
+     * @param ids The ids of the objects, by identity.
+     * @param hash Hash of the sorted registry names.
+     */
+    private record Ids(Object[] objects, IdentityHashMap<Object, Integer> ids, long hash) {
+
+    }
+}
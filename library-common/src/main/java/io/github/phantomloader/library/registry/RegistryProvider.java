@@ -1,10 +1,10 @@
 package io.github.phantomloader.library.registry;
 
-import java.util.ServiceLoader;
+import io.github.phantomloader.library.services.PhantomServices;
 
 /**
  * <p>
- *     Interface loaded using {@link ServiceLoader} to allow loader-specific modules to create their {@link ModRegistry}.
+ *     Interface loaded using {@link PhantomServices} to allow loader-specific modules to create their {@link ModRegistry}.
  * </p>
  *
  * @see ModRegistry#instantiate(String)
@@ -0,0 +1,218 @@
+package io.github.phantomloader.library.registry;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.material.FluidState;
+
+import java.util.BitSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>
+ *     A tag compiled into a bitset indexed by the global id of block states, items, or fluid states.
+ * </p>
+ * <p>
+ *     Checking if a block state is in a tag with {@code BlockState.is(TagKey)} looks up the tag in the set of tags of the block's holder.
+ *     Code that checks several tags for every block it scans can instead create a {@code TagIndex} for each tag once, for example in a {@code static final} field,
+ *     and call {@link TagIndex#contains(Object)} or {@link TagIndex#contains(int)}, which read a single bit.
+ * </p>
+ * <pre>
+ *     public static final TagIndex&lt;BlockState&gt; ORES = TagIndex.blocks(BlockTags.create(new ResourceLocation("forge", "ores")));
+ *     ...
+ *     if(ORES.contains(state)) { ... }
+ * </pre>
+ * <p>
+ *     All indexes are rebuilt by the Phantom library every time tags are loaded, when datapacks are reloaded on the server and when tags are received on the client.
+ *     An index is empty until tags are loaded for the first time.
+ * </p>
+ *
+ * @param <T> Type of the objects whose membership is checked.
+ *
+ * @author Nico
+ */
+public final class TagIndex<T> {
+
+    /** All the indexes created so far, rebuilt when tags are loaded */
+    private static final CopyOnWriteArrayList<TagIndex<?>> INDEXES = new CopyOnWriteArrayList<>();
+
+    /** The compiled tag */
+    private final TagKey<?> tag;
+    /** Function returning the global id of an object */
+    private final ToIntFunction<? super T> ids;
+    /** Function that sets the bits of the objects in the tag */
+    private final Consumer<BitSet> compiler;
+    /** Bits of the objects in the tag, indexed by global id, replaced with a new array when tags are loaded */
+    private volatile long[] bits = new long[0];
+
+    /**
+     * <p>
+     *     Creates a {@code TagIndex}.
+     * </p>
+     *
+     * @param tag The compiled tag.
+     * @param ids Function returning the global id of an object.
+     * @param compiler Function that sets the bits of the objects in the tag.
+     */
+    private TagIndex(TagKey<?> tag, ToIntFunction<? super T> ids, Consumer<BitSet> compiler) {
+        this.tag = tag;
+        this.ids = ids;
+        this.compiler = compiler;
+    }
+
+    /**
+     * <p>
+     *     Creates an index of the block states whose block is in the given tag.
+     *     Bits are indexed by {@link Block#getId(BlockState)}.
+     * </p>
+     *
+     * @param tag The block tag.
+     * @return An index that is rebuilt every time tags are loaded.
+     */
+    public static TagIndex<BlockState> blocks(TagKey<Block> tag) {
+        return register(new TagIndex<>(tag, Block::getId, bits -> {
+            for(Holder<Block> block : BuiltInRegistries.BLOCK.getTagOrEmpty(tag)) {
+                for(BlockState state : block.value().getStateDefinition().getPossibleStates()) {
+                    bits.set(Block.getId(state));
+                }
+            }
+        }));
+    }
+
+    /**
+     * <p>
+     *     Creates an index of the items in the given tag.
+     *     Bits are indexed by {@link Item#getId(Item)}.
+     * </p>
+     *
+     * @param tag The item tag.
+     * @return An index that is rebuilt every time tags are loaded.
+     */
+    public static TagIndex<Item> items(TagKey<Item> tag) {
+        return register(new TagIndex<>(tag, Item::getId, bits -> {
+            for(Holder<Item> item : BuiltInRegistries.ITEM.getTagOrEmpty(tag)) {
+                bits.set(Item.getId(item.value()));
+            }
+        }));
+    }
+
+    /**
+     * <p>
+     *     Creates an index of the fluid states whose fluid is in the given tag.
+     *     Bits are indexed by the id of the fluid state in {@link Fluid#FLUID_STATE_REGISTRY}.
+     * </p>
+     *
+     * @param tag The fluid tag.
+     * @return An index that is rebuilt every time tags are loaded.
+     */
+    public static TagIndex<FluidState> fluids(TagKey<Fluid> tag) {
+        return register(new TagIndex<>(tag, Fluid.FLUID_STATE_REGISTRY::getId, bits -> {
+            for(Holder<Fluid> fluid : BuiltInRegistries.FLUID.getTagOrEmpty(tag)) {
+                for(FluidState state : fluid.value().getStateDefinition().getPossibleStates()) {
+                    bits.set(Fluid.FLUID_STATE_REGISTRY.getId(state));
+                }
+            }
+        }));
+    }
+
+    /**
+     * <p>
+     *     Adds an index to the list of indexes to rebuild and builds it if tags are already loaded.
+     * </p>
+     *
+     * @param index The index.
+     * @return The given index.
+     * @param <T> Type of the objects whose membership is checked.
+     */
+    private static <T> TagIndex<T> register(TagIndex<T> index) {
+        INDEXES.add(index);
+        index.rebuild();
+        return index;
+    }
+
+    /**
+     * <p>
+     *     Rebuilds all the indexes from the currently loaded tags.
+     *     Called by the Phantom library every time tags are loaded.
+     * </p>
+     */
+    public static void rebuildAll() {
+        for(TagIndex<?> index : INDEXES) {
+            index.rebuild();
+        }
+    }
+
+    /**
+     * <p>
+     *     Rebuilds this index from the currently loaded tags.
+     * </p>
+     */
+    private void rebuild() {
+        BitSet bits = new BitSet();
+        this.compiler.accept(bits);
+        this.bits = bits.toLongArray();
+    }
+
+    /**
+     * <p>
+     *     Checks if the object with the given global id is in the tag.
+     * </p>
+     *
+     * @param id Global id of the object, as returned by {@link Block#getId(BlockState)} for block states.
+     * @return True if the object is in the tag, false if it is not or if the id is out of bounds.
+     */
+    public boolean contains(int id) {
+        long[] bits = this.bits;
+        int word = id >>> 6;
+        // Negative ids are shifted out of bounds
+        return word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * <p>
+     *     Checks if the given object is in the tag.
+     * </p>
+     *
+     * @param object A block state, an item, or a fluid state depending on how this index was created.
+     * @return True if the object is in the tag, otherwise false.
+     */
+    public boolean contains(T object) {
+        return this.contains(this.ids.applyAsInt(object));
+    }
+
+    /**
+     * <p>
+     *     Checks if the item of the given stack is in the tag.
+     *     Only meaningful for indexes created with {@link TagIndex#items(TagKey)}.
+     * </p>
+     *
+     * @param stack The item stack.
+     * @return True if the item is in the tag, otherwise false.
+     */
+    public boolean contains(ItemStack stack) {
+        return this.contains(Item.getId(stack.getItem()));
+    }
+
+    /**
+     * <p>
+     *     Returns the tag compiled by this index.
+     * </p>
+     *
+     * @return The tag key.
+     */
+    public TagKey<?> tag() {
+        return this.tag;
+    }
+
+    @Override
+    public String toString() {
+        return "TagIndex[" + this.tag.location() + "]";
+    }
+}
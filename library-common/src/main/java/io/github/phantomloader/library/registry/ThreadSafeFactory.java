@@ -0,0 +1,27 @@
+package io.github.phantomloader.library.registry;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ *     A supplier of registry objects that may be called outside the main thread and concurrently with other factories.
+ *     Created with {@link ModRegistry#threadSafe(Supplier)}.
+ * </p>
+ * <p>
+ *     When parallel construction is enabled, registries create the objects of thread-safe factories concurrently before registering them,
+ *     except in registries that use intrusive holders, such as blocks and items.
+ *     See {@link ConstructionBatch}.
+ * </p>
+ *
+ * @param factory The supplier returning the object to register.
+ * @param <T> The object's class.
+ *
+ * @author Nico
+ */
+public record ThreadSafeFactory<T>(Supplier<? extends T> factory) implements Supplier<T> {
+
+    @Override
+    public T get() {
+        return this.factory.get();
+    }
+}
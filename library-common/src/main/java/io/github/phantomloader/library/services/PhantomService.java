@@ -0,0 +1,37 @@
+package io.github.phantomloader.library.services;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ *     Annotation used to declare a class as a service provider for the Phantom library.
+ *     The annotation processor will add the class to a generated {@link ServiceIndex} so that it can be instantiated with a direct constructor call instead of being looked up with {@link java.util.ServiceLoader}.
+ * </p>
+ * <p>
+ *     The annotated class must be public, must have a public constructor with no arguments, and must implement at least one of the following interfaces:
+ * </p>
+ * <ul>
+ *     <li>{@link io.github.phantomloader.library.events.ModEventHandler}</li>
+ *     <li>{@link io.github.phantomloader.library.events.ClientEventHandler}</li>
+ *     <li>{@link io.github.phantomloader.library.registry.RegistryProvider}</li>
+ *     <li>{@link io.github.phantomloader.library.config.ConfigBuilder}</li>
+ *     <li>{@link io.github.phantomloader.library.network.NetworkChannel}</li>
+ *     <li>{@link io.github.phantomloader.library.platform.Platform}</li>
+ * </ul>
+ * <pre>
+ *     {@code @PhantomService}
+ *     public class ExampleClientEvents implements ClientEventHandler {
+ *         ...
+ *     }
+ * </pre>
+ * <p>
+ *     Classes declared in {@code META-INF/services} are still loaded if they are not annotated.
+ * </p>
+ *
+ * @author Nico
+ */
+@Target(ElementType.TYPE)
+public @interface PhantomService {
+
+}
@@ -0,0 +1,290 @@
+package io.github.phantomloader.library.services;
+
+import io.github.phantomloader.library.platform.ClientOnlyIndex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ *     Static index of the services used by the Phantom library.
+ * </p>
+ * <p>
+ *     Services are registered by the {@link ServiceIndex} of the current mod loader and by the service indexes generated by the annotation processor.
+ *     Registered services are instantiated with direct constructor calls.
+ * </p>
+ * <p>
+ *     {@code META-INF/services} is only read as a fallback for services that have no registration in any index.
+ *     Setting the {@code phantom.scanServices} system property to {@code true} also reads it for services that have registrations,
+ *     which is needed if a mod that does not use the annotation processor declares handlers of a service that other mods register in their index.
+ *     Implementations are compared by the names listed in the service files, so only the classes that are actually instantiated are loaded.
+ * </p>
+ *
+ * @author Nico
+ */
+public final class PhantomServices {
+
+    /** System property used to read {@code META-INF/services} even for services that have registrations */
+    public static final String SCAN_PROPERTY = "phantom.scanServices";
+    /** Whether {@code META-INF/services} is read even for services that have registrations */
+    public static final boolean SCAN = Boolean.getBoolean(SCAN_PROPERTY);
+
+    /** Fully qualified names of the service indexes provided by the Phantom library for each mod loader */
+    private static final List<String> LOADER_INDEXES = List.of(
+            "io.github.phantomloader.library.forge.ForgeServiceIndex",
+            "io.github.phantomloader.library.fabric.FabricServiceIndex"
+    );
+
+    /** Services registered from service indexes, grouped by service interface */
+    private static final HashMap<Class<?>, ArrayList<Registration<?>>> REGISTRATIONS = new HashMap<>();
+    /** Factories that have already been looked up, one per service interface */
+    private static final HashMap<Class<?>, Optional<? extends Supplier<?>>> FACTORIES = new HashMap<>();
+    /** Providers that have already been instantiated, one per service interface */
+    private static final HashMap<Class<?>, Optional<?>> PROVIDERS = new HashMap<>();
+    /** Handlers that have already been instantiated, grouped by service interface */
+    private static final HashMap<Class<?>, ArrayList<Object>> HANDLERS = new HashMap<>();
+    /** Actions that must be performed on every handler, including the ones registered later */
+    private static final HashMap<Class<?>, ArrayList<Consumer<Object>>> SUBSCRIBERS = new HashMap<>();
+    /** Logger used to report service files that cannot be read */
+    private static final Logger LOGGER = Logger.getLogger("phantom");
+
+    static {
+        for(String indexName : LOADER_INDEXES) {
+            try {
+                Class<?> indexClass = Class.forName(indexName, true, PhantomServices.class.getClassLoader());
+                ((ServiceIndex) indexClass.getDeclaredConstructor().newInstance()).registerServices();
+            } catch (ClassNotFoundException e) {
+                // The library for this mod loader is not present
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not load service index " + indexName, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Registers a service.
+     *     This method is called from the generated service indexes.
+     *     Services implemented by classes in the {@link ClientOnlyIndex} are ignored, so that they are never loaded on a dedicated server.
+     * </p>
+     *
+     * @param service The service interface.
+     * @param implementation The binary name of the class that implements the service.
+     * @param factory A supplier that creates an instance of the service, normally the constructor passed as a method reference.
+     * @param <T> The service type.
+     */
+    public static synchronized <T> void register(Class<T> service, String implementation, Supplier<? extends T> factory) {
+        if(ClientOnlyIndex.isClientOnly(implementation)) {
+            return;
+        }
+        REGISTRATIONS.computeIfAbsent(service, key -> new ArrayList<>()).add(new Registration<>(implementation, factory));
+        // Handlers may have already been instantiated if this index was registered late
+        ArrayList<Object> handlers = HANDLERS.get(service);
+        if(handlers != null && handlers.stream().noneMatch(handler -> handler.getClass().getName().equals(implementation))) {
+            Object handler = factory.get();
+            handlers.add(handler);
+            SUBSCRIBERS.getOrDefault(service, new ArrayList<>()).forEach(action -> action.accept(handler));
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns a factory for the first provider of the given service.
+     *     The factory is looked up once and cached.
+     * </p>
+     *
+     * @param service The service interface.
+     * @return A supplier that creates a new instance of the service or an empty optional if no provider has been found.
+     * @param <T> The service type.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> Optional<Supplier<? extends T>> factory(Class<T> service) {
+        return (Optional<Supplier<? extends T>>) FACTORIES.computeIfAbsent(service, key -> {
+            ArrayList<Registration<?>> registrations = REGISTRATIONS.get(service);
+            if(registrations != null && !registrations.isEmpty()) {
+                return Optional.of(registrations.get(0).factory());
+            }
+            return declaredImplementations(service).stream().filter(implementation -> !ClientOnlyIndex.isClientOnly(implementation)).findFirst().map(implementation -> constructor(service, implementation));
+        });
+    }
+
+    /**
+     * <p>
+     *     Returns the provider of the given service.
+     *     Only one provider is created per service.
+     * </p>
+     *
+     * @param service The service interface.
+     * @return The provider of the given service or an empty optional if no provider has been found.
+     * @param <T> The service type.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> Optional<T> provider(Class<T> service) {
+        Optional<?> provider = PROVIDERS.get(service);
+        if(provider == null) {
+            provider = factory(service).map(Supplier::get);
+            PROVIDERS.put(service, provider);
+        }
+        return (Optional<T>) provider;
+    }
+
+    /**
+     * <p>
+     *     Returns all the handlers of the given service, such as {@link io.github.phantomloader.library.events.ClientEventHandler}.
+     * </p>
+     * <p>
+     *     Handlers are instantiated the first time this method is called.
+     *     If no service index registered a handler of the given service, or if {@link PhantomServices#SCAN} is enabled,
+     *     the classes declared in {@code META-INF/services} that are not in any service index are also instantiated.
+     *     Classes in the {@link ClientOnlyIndex} are skipped before they are loaded, like the ones registered by service indexes.
+     * </p>
+     *
+     * @param service The service interface.
+     * @return An unmodifiable list containing an instance of every handler.
+     * @param <T> The service type.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> List<T> handlers(Class<T> service) {
+        ArrayList<Object> handlers = HANDLERS.get(service);
+        if(handlers == null) {
+            handlers = new ArrayList<>();
+            HashSet<String> indexed = new HashSet<>();
+            for(Registration<?> registration : REGISTRATIONS.getOrDefault(service, new ArrayList<>())) {
+                if(indexed.add(registration.implementation())) {
+                    handlers.add(registration.factory().get());
+                }
+            }
+            if(indexed.isEmpty() || SCAN) {
+                for(String implementation : declaredImplementations(service)) {
+                    if(!indexed.contains(implementation) && !ClientOnlyIndex.isClientOnly(implementation)) {
+                        handlers.add(constructor(service, implementation).get());
+                    }
+                }
+            }
+            HANDLERS.put(service, handlers);
+        }
+        return (List<T>) Collections.unmodifiableList(new ArrayList<>(handlers));
+    }
+
+    /**
+     * <p>
+     *     Performs the given action on all the handlers of the given service.
+     *     The action will also be performed on handlers that are registered after this method is called.
+     * </p>
+     * <p>
+     *     Useful when handlers must be called during the mod initialization, when service indexes from other mods may not have been registered yet.
+     * </p>
+     *
+     * @param service The service interface.
+     * @param action The action to perform.
+     * @param <T> The service type.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> void forEachHandler(Class<T> service, Consumer<? super T> action) {
+        handlers(service).forEach(action);
+        SUBSCRIBERS.computeIfAbsent(service, key -> new ArrayList<>()).add(handler -> action.accept((T) handler));
+    }
+
+    /**
+     * <p>
+     *     Reads the names of the implementations of the given service from the {@code META-INF/services} files of all the mods.
+     *     The classes are not loaded, so that callers can skip the classes in the {@link ClientOnlyIndex} before loading them.
+     * </p>
+     *
+     * @param service The service interface.
+     * @return The binary names of the implementations, in the order in which they are declared, without duplicates.
+     */
+    private static LinkedHashSet<String> declaredImplementations(Class<?> service) {
+        LinkedHashSet<String> implementations = new LinkedHashSet<>();
+        String path = "META-INF/services/" + service.getName();
+        try {
+            Enumeration<URL> files = classLoader().getResources(path);
+            while(files.hasMoreElements()) {
+                URL file = files.nextElement();
+                try(InputStream inputStream = file.openStream()) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+                    String line;
+                    while((line = reader.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        String name = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                        if(!name.isEmpty()) {
+                            implementations.add(name);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read service files " + path, e);
+        }
+        return implementations;
+    }
+
+    /**
+     * <p>
+     *     Loads an implementation declared in {@code META-INF/services} and returns a supplier that calls its public no-argument constructor.
+     * </p>
+     *
+     * @param service The service interface.
+     * @param implementation The binary name of the implementation.
+     * @return A supplier that creates a new instance of the implementation.
+     * @param <T> The service type.
+     * @throws IllegalStateException If the class cannot be loaded, does not implement the service, or has no public no-argument constructor.
+     */
+    private static <T> Supplier<T> constructor(Class<T> service, String implementation) {
+        Constructor<? extends T> constructor;
+        try {
+            constructor = Class.forName(implementation, false, classLoader()).asSubclass(service).getConstructor();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Could not load service " + implementation + " declared for " + service.getName(), e);
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not instantiate service " + implementation, e);
+            }
+        };
+    }
+
+    /**
+     * <p>
+     *     Returns the class loader used to read the service files and load the classes declared in them.
+     * </p>
+     *
+     * @return The context class loader of the current thread, like {@code ServiceLoader.load}, or the class loader of this class if there is none.
+     */
+    private static ClassLoader classLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : PhantomServices.class.getClassLoader();
+    }
+
+    /**
+     * <p>
+     *     Record used to store a service registered from a service index.
+     * </p>
+     *
+     * @param implementation Binary name of the class that implements the service.
+     * @param factory Supplier that creates an instance of the service.
+     * @param <T> The service type.
+     */
+    private record Registration<T>(String implementation, Supplier<? extends T> factory) {
+
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.phantomloader.library.services;
+
+/**
+ * <p>
+ *     Interface implemented by the service indexes generated by the annotation processor and by the Phantom library for each mod loader.
+ *     A service index registers its services in {@link PhantomServices} using direct constructor calls.
+ * </p>
+ *
+ * @author Nico
+ */
+public interface ServiceIndex {
+
+    /**
+     * <p>
+     *     Registers the services in this index by calling {@link PhantomServices#register(Class, String, java.util.function.Supplier)}.
+     * </p>
+     */
+    void registerServices();
+}
@@ -5,9 +5,13 @@ import io.github.phantomloader.library.events.RegisterBlockEntityRenderersEvent;
 import io.github.phantomloader.library.events.RegisterEntityRenderersEvent;
 import io.github.phantomloader.library.events.RegisterParticlesEvent;
 import io.github.phantomloader.library.fabric.renderers.BlockEntityItemRenderer;
+import io.github.phantomloader.library.profiling.RegistrationAudit;
+import io.github.phantomloader.library.profiling.StartupTrace;
+import io.github.phantomloader.library.services.PhantomServices;
 import io.github.phantomloader.library.utils.CreativeTabsUtils;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.blockrenderlayer.v1.BlockRenderLayerMap;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.particle.v1.ParticleFactoryRegistry;
 import net.fabricmc.fabric.api.client.rendering.v1.BuiltinItemRendererRegistry;
 import net.fabricmc.fabric.api.client.rendering.v1.EntityRendererRegistry;
@@ -24,7 +28,6 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 
-import java.util.ServiceLoader;
 import java.util.function.Supplier;
 
 /**
@@ -38,13 +41,23 @@ public class FabricClientInitializer implements ClientModInitializer {
 
     @Override
     public void onInitializeClient() {
-        ServiceLoader.load(ClientEventHandler.class).forEach(handler -> {
+        for(ClientEventHandler handler : PhantomServices.handlers(ClientEventHandler.class)) {
+            long start = StartupTrace.begin();
             CreativeTabsUtils.allTabKeys().forEach(resourceKey -> handler.addItemsToCreativeTab(resourceKey, item -> ItemGroupEvents.modifyEntriesEvent(resourceKey).register(listener -> listener.accept(item.get()))));
             handler.registerBlockEntityRenderers(new RegisterBlockEntityRenderersEventFabric());
             handler.registerEntityRenderers(new RegisterEntityRenderersEventFabric());
             handler.registerBlockRenderType((block, renderType) -> BlockRenderLayerMap.INSTANCE.putBlock(block.get(), renderType));
             handler.registerParticles(new RegisterParticlesEventFabric());
-        });
+            if(StartupTrace.ENABLED) {
+                StartupTrace.end(handler.getClass().getName() + "#onInitializeClient", "events", start);
+            }
+        }
+        if(StartupTrace.ENABLED) {
+            ClientLifecycleEvents.CLIENT_STARTED.register(client -> StartupTrace.write());
+        }
+        if(RegistrationAudit.ENABLED) {
+            ClientLifecycleEvents.CLIENT_STARTED.register(client -> RegistrationAudit.write());
+        }
     }
 
     /**
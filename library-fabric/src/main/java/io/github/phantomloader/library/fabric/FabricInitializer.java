@@ -1,11 +1,16 @@
 package io.github.phantomloader.library.fabric;
 
 import io.github.phantomloader.library.events.ModEventHandler;
+import io.github.phantomloader.library.profiling.RegistrationAudit;
+import io.github.phantomloader.library.profiling.StartupTrace;
+import io.github.phantomloader.library.recipe.RecipeIndex;
+import io.github.phantomloader.library.registry.TagIndex;
+import io.github.phantomloader.library.services.PhantomServices;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.object.builder.v1.entity.FabricDefaultAttributeRegistry;
 
-import java.util.ServiceLoader;
-
 /**
  * <p>
  *     Fabric initializer used by the Phantom Library mod.
@@ -17,8 +22,25 @@ public class FabricInitializer implements ModInitializer {
 
     @Override
     public void onInitialize() {
-        for(ModEventHandler handler : ServiceLoader.load(ModEventHandler.class)) {
+        // Handlers from mods whose initializer runs after this one are registered when their service index is loaded
+        PhantomServices.forEachHandler(ModEventHandler.class, handler -> {
+            long start = StartupTrace.begin();
             handler.registerEntityAttributes(FabricDefaultAttributeRegistry::register);
+            if(StartupTrace.ENABLED) {
+                StartupTrace.end(handler.getClass().getName() + "#registerEntityAttributes", "events", start);
+            }
+        });
+        // Called when datapacks are reloaded on the server and when tags are received on the client
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+            TagIndex.rebuildAll();
+            // Ingredients that use tags may accept different items, recipes received by the client are handled by ClientPacketListenerMixin
+            RecipeIndex.invalidateAll();
+        });
+        if(StartupTrace.ENABLED) {
+            ServerLifecycleEvents.SERVER_STARTED.register(server -> StartupTrace.write());
+        }
+        if(RegistrationAudit.ENABLED) {
+            ServerLifecycleEvents.SERVER_STARTED.register(server -> RegistrationAudit.write());
         }
     }
 }
@@ -0,0 +1,31 @@
+package io.github.phantomloader.library.fabric;
+
+import io.github.phantomloader.library.config.ConfigBuilder;
+import io.github.phantomloader.library.fabric.config.FabricConfigBuilder;
+import io.github.phantomloader.library.fabric.network.FabricNetworkChannel;
+import io.github.phantomloader.library.fabric.platform.FabricPlatform;
+import io.github.phantomloader.library.fabric.registry.FabricRegistryProvider;
+import io.github.phantomloader.library.network.NetworkChannel;
+import io.github.phantomloader.library.platform.Platform;
+import io.github.phantomloader.library.registry.RegistryProvider;
+import io.github.phantomloader.library.services.PhantomServices;
+import io.github.phantomloader.library.services.ServiceIndex;
+
+/**
+ * <p>
+ *     Fabric implementation of {@link ServiceIndex}.
+ *     Registers the services provided by the Phantom library for Fabric.
+ * </p>
+ *
+ * @author Nico
+ */
+public class FabricServiceIndex implements ServiceIndex {
+
+    @Override
+    public void registerServices() {
+        PhantomServices.register(RegistryProvider.class, "io.github.phantomloader.library.fabric.registry.FabricRegistryProvider", FabricRegistryProvider::new);
+        PhantomServices.register(ConfigBuilder.class, "io.github.phantomloader.library.fabric.config.FabricConfigBuilder", FabricConfigBuilder::new);
+        PhantomServices.register(NetworkChannel.class, "io.github.phantomloader.library.fabric.network.FabricNetworkChannel", FabricNetworkChannel::new);
+        PhantomServices.register(Platform.class, "io.github.phantomloader.library.fabric.platform.FabricPlatform", FabricPlatform::new);
+    }
+}
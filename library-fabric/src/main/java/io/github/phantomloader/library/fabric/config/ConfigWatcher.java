@@ -0,0 +1,127 @@
+package io.github.phantomloader.library.fabric.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ *     Watches the config files registered by {@link FabricConfigBuilder} and reloads them when they are edited.
+ * </p>
+ * <p>
+ *     A single daemon thread waits for events from a {@link WatchService} on the directories of the config files.
+ *     Since editors often write a file in several steps, the thread waits until no event has been received for a short time before reloading the files that changed.
+ *     Files are parsed on this thread, so the threads reading the config are never blocked.
+ * </p>
+ * <p>
+ *     Hot reload can be disabled by setting the {@code phantom.configWatcher} system property to {@code false}.
+ * </p>
+ *
+ * @author Nico
+ */
+final class ConfigWatcher {
+
+    /** System property used to disable the watcher */
+    static final String PROPERTY = "phantom.configWatcher";
+    /** Whether config files are watched */
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(PROPERTY, "true"));
+
+    /** Logger used to log errors */
+    private static final Logger LOGGER = Logger.getLogger("phantom");
+    /** Time to wait after the last event before reloading the files that changed */
+    private static final long DEBOUNCE_MILLIS = 200;
+    /** Functions that reload the watched files, by absolute path */
+    private static final ConcurrentHashMap<Path, Runnable> FILES = new ConcurrentHashMap<>();
+    /** Directories already registered to the watch service */
+    private static final HashSet<Path> DIRECTORIES = new HashSet<>();
+    /** The watch service, created when the first file is watched */
+    private static WatchService service;
+
+    /**
+     * <p>
+     *     Starts watching the given file.
+     *     Logs a warning if the file cannot be watched, in which case changes to it require a restart.
+     * </p>
+     *
+     * @param file The config file.
+     * @param reload Function called on the watcher thread when the file changes.
+     */
+    static synchronized void watch(Path file, Runnable reload) {
+        Path path = file.toAbsolutePath().normalize();
+        FILES.put(path, reload);
+        try {
+            if(service == null) {
+                service = path.getFileSystem().newWatchService();
+                Thread thread = new Thread(ConfigWatcher::run, "Phantom Config Watcher");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            if(DIRECTORIES.add(path.getParent())) {
+                path.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not watch config file " + file + ", changes will require a restart", e);
+        }
+    }
+
+    /**
+     * <p>
+     *     Loop of the watcher thread.
+     * </p>
+     */
+    private static void run() {
+        try {
+            while(true) {
+                LinkedHashSet<Path> changed = new LinkedHashSet<>();
+                collect(service.take(), changed);
+                WatchKey key;
+                while((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                for(Path path : changed) {
+                    Runnable reload = FILES.get(path);
+                    if(reload != null) {
+                        try {
+                            reload.run();
+                        } catch (RuntimeException e) {
+                            LOGGER.log(Level.WARNING, "Could not reload config file " + path, e);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOGGER.info("Config watcher stopped, changes to config files will require a restart");
+        }
+    }
+
+    /**
+     * <p>
+     *     Adds the files that changed according to the events of the given key.
+     *     If events were lost, all the watched files in the key's directory are added.
+     * </p>
+     *
+     * @param key The watch key.
+     * @param changed Set of changed files.
+     */
+    private static void collect(WatchKey key, LinkedHashSet<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for(WatchEvent<?> event : key.pollEvents()) {
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                FILES.keySet().stream().filter(path -> path.getParent().equals(directory)).forEach(changed::add);
+            } else if(event.context() instanceof Path name) {
+                changed.add(directory.resolve(name));
+            }
+        }
+        key.reset();
+    }
+}
@@ -1,9 +1,11 @@
 package io.github.phantomloader.library.fabric.config;
 
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import io.github.phantomloader.library.ModEntryPoint;
 import io.github.phantomloader.library.config.ConfigBuilder;
+import io.github.phantomloader.library.profiling.StartupTrace;
 import net.fabricmc.loader.api.FabricLoader;
 
 import java.io.IOException;
@@ -12,8 +14,17 @@ import java.io.Writer;
 import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.Stack;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -22,6 +33,11 @@ import java.util.logging.Logger;
  * <p>
  *     Fabric implementation of a {@link ConfigBuilder}.
  * </p>
+ * <p>
+ *     The values of all the options are stored in an array that is replaced as a whole when the config file is loaded.
+ *     The config file is watched by the {@link ConfigWatcher} and reloaded on its thread when it is edited.
+ *     After the values are swapped in, the listeners are called on the game thread, see {@link GameThreads}.
+ * </p>
  *
  * @author Nico
  */
@@ -30,10 +46,27 @@ public class FabricConfigBuilder implements ConfigBuilder {
     /** Logger used to log errors in case the config file could not be read/written*/
     private static final Logger LOGGER = Logger.getLogger("phantom");
 
-    /** Config json representation */
+    /** Config json representation with the default values, written when the config file does not exist */
     private final HashMap<String, Object> config = new HashMap<>();
     /** Stack used to implement categories */
     private final Stack<HashMap<String, Object>> currentCategory = new Stack<>();
+    /** Names of the current categories, used to build the keys of the options */
+    private final ArrayList<String> categoryNames = new ArrayList<>();
+    /** Options in the order in which they were defined */
+    private final ArrayList<Option> options = new ArrayList<>();
+    /** Listeners called after the config file is loaded */
+    private final ArrayList<Runnable> loadListeners = new ArrayList<>();
+    /** Listeners called with the keys of the changed options when the config file is reloaded */
+    private final ArrayList<Consumer<Set<String>>> changeListeners = new ArrayList<>();
+    /**
+     * Values of the options, indexed like the options, empty until the config is registered.
+     * Replaced with a new array when the config file is loaded so that readers never block and never see a partially loaded file.
+     */
+    private volatile Object[] values = new Object[0];
+    /** Path to the config file, null until the config is registered */
+    private Path configFile;
+    /** Side of the config file, null until the config is registered */
+    private ModEntryPoint.Side side;
 
     /**
      * <p>
@@ -50,62 +83,71 @@ public class FabricConfigBuilder implements ConfigBuilder {
         HashMap<String, Object> map = new HashMap<>();
         this.currentCategory.peek().put(category, map);
         this.currentCategory.push(map);
+        this.categoryNames.add(category);
+    }
+
+    /**
+     * <p>
+     *     Helper function used to define an option in the current category.
+     * </p>
+     *
+     * @param key The option's key.
+     * @param defaultValue The option's default value.
+     * @param parser Function that converts a value read from the config file to the type of the option, or returns null if the value is not valid.
+     * @return A supplier returning the value of the option from the current values.
+     * @param <T> Type of the option.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Supplier<T> option(String key, T defaultValue, Function<Object, T> parser) {
+        this.currentCategory.peek().put(key, defaultValue);
+        ArrayList<String> path = new ArrayList<>(this.categoryNames);
+        path.add(key);
+        int index = this.options.size();
+        this.options.add(new Option(List.copyOf(path), defaultValue, parser));
+        return () -> {
+            Object[] values = this.values;
+            return index < values.length ? (T) values[index] : defaultValue;
+        };
     }
 
     @Override
     public Supplier<Boolean> define(String key, boolean defaultValue, String... comment) {
-        HashMap<String, Object> category = this.currentCategory.peek();
-        category.put(key, defaultValue);
-        return () -> (Boolean) category.get(key);
+        return this.option(key, defaultValue, value -> value instanceof Boolean bool ? bool : null);
     }
 
     @Override
     public Supplier<Integer> define(String key, int defaultValue, String... comment) {
-        HashMap<String, Object> category = this.currentCategory.peek();
-        category.put(key, defaultValue);
-        return () -> (Integer) category.get(key);
+        return this.option(key, defaultValue, value -> value instanceof Number number ? number.intValue() : null);
     }
 
     @Override
     public Supplier<Integer> define(String key, int defaultValue, int min, int max, String... comment) {
-        this.define(key, defaultValue, comment);
-        HashMap<String, Object> category = this.currentCategory.peek();
-        return () -> Math.max(min, Math.min(max, (Integer) category.get(key)));
+        return this.option(key, defaultValue, value -> value instanceof Number number ? Math.max(min, Math.min(max, number.intValue())) : null);
     }
 
     @Override
     public Supplier<Double> define(String key, double defaultValue, String... comment) {
-        HashMap<String, Object> category = this.currentCategory.peek();
-        category.put(key, defaultValue);
-        return () -> (Double) category.get(key);
+        return this.option(key, defaultValue, value -> value instanceof Number number ? number.doubleValue() : null);
     }
 
     @Override
     public Supplier<Double> define(String key, double defaultValue, double min, double max, String... comment) {
-        this.define(key, defaultValue, comment);
-        HashMap<String, Object> category = this.currentCategory.peek();
-        return () -> Math.max(min, Math.min(max, (Double) category.get(key)));
+        return this.option(key, defaultValue, value -> value instanceof Number number ? Math.max(min, Math.min(max, number.doubleValue())) : null);
     }
 
     @Override
     public Supplier<Long> define(String key, long defaultValue, String... comment) {
-        HashMap<String, Object> category = this.currentCategory.peek();
-        category.put(key, defaultValue);
-        return () -> (Long) category.get(key);
+        return this.option(key, defaultValue, value -> value instanceof Number number ? number.longValue() : null);
     }
 
     @Override
     public Supplier<Long> define(String key, long defaultValue, long min, long max, String... comment) {
-        this.define(key, defaultValue, comment);
-        HashMap<String, Object> category = this.currentCategory.peek();
-        return () -> Math.max(min, Math.min(max, (Long) category.get(key)));
+        return this.option(key, defaultValue, value -> value instanceof Number number ? Math.max(min, Math.min(max, number.longValue())) : null);
     }
 
     @Override
     public Supplier<String> define(String key, String defaultValue, String... comment) {
-        HashMap<String, Object> category = this.currentCategory.peek();
-        category.put(key, defaultValue);
-        return () -> category.get(key).toString();
+        return this.option(key, defaultValue, value -> value instanceof String string ? string : null);
     }
 
     @Override
@@ -113,25 +155,148 @@ public class FabricConfigBuilder implements ConfigBuilder {
         if(!this.currentCategory.isEmpty()) {
             this.currentCategory.pop();
         }
+        if(!this.categoryNames.isEmpty()) {
+            this.categoryNames.remove(this.categoryNames.size() - 1);
+        }
+    }
+
+    @Override
+    public void addLoadListener(Runnable listener) {
+        this.loadListeners.add(listener);
+    }
+
+    @Override
+    public void addChangeListener(Consumer<Set<String>> listener) {
+        this.changeListeners.add(listener);
     }
 
     @Override
     public void register(String mod, ModEntryPoint.Side side) {
-        Path configFile = Path.of(FabricLoader.getInstance().getConfigDir().toString(), mod + "-" + side.name().toLowerCase() + ".json");
-        if(Files.exists(configFile)) {
-            try(Reader reader = Files.newBufferedReader(configFile)) {
-                Type type = new TypeToken<HashMap<String, Object>>(){}.getType();
-                HashMap<String, Object> loaded = new GsonBuilder().create().fromJson(reader, type);
-                this.config.putAll(loaded);
-            } catch (IOException e) {
-                LOGGER.log(Level.WARNING, "Could not read config file " + configFile, e);
-            }
+        long start = StartupTrace.begin();
+        this.configFile = Path.of(FabricLoader.getInstance().getConfigDir().toString(), mod + "-" + side.name().toLowerCase() + ".json");
+        this.side = side;
+        Object[] defaults = this.options.stream().map(Option::defaultValue).toArray();
+        if(Files.exists(this.configFile)) {
+            Object[] loaded = this.read(defaults);
+            this.values = loaded != null ? loaded : defaults;
         } else {
-            try(Writer writer = Files.newBufferedWriter(configFile)) {
+            this.values = defaults;
+            try(Writer writer = Files.newBufferedWriter(this.configFile)) {
                 new GsonBuilder().setPrettyPrinting().create().toJson(this.config, writer);
             } catch (IOException e) {
-                LOGGER.log(Level.WARNING, "Could not create config file " + configFile, e);
+                LOGGER.log(Level.WARNING, "Could not create config file " + this.configFile, e);
+            }
+        }
+        this.loadListeners.forEach(Runnable::run);
+        if(ConfigWatcher.ENABLED) {
+            GameThreads.track();
+            ConfigWatcher.watch(this.configFile, this::reload);
+        }
+        if(StartupTrace.ENABLED) {
+            StartupTrace.end(mod + " " + side.name().toLowerCase() + " config", "config", start);
+        }
+    }
+
+    /**
+     * <p>
+     *     Reloads the config file after it was edited.
+     *     Called on the {@link ConfigWatcher} thread.
+     *     The new values are swapped in at once, then the load listeners and the change listeners are called on the game thread,
+     *     so that the fields set by the load listeners of a {@code ConfigSchema} never change while the game is ticking.
+     *     Nothing changes if the file cannot be read or if no value changed.
+     * </p>
+     */
+    private void reload() {
+        Object[] current = this.values;
+        Object[] loaded = this.read(current);
+        if(loaded == null) {
+            return;
+        }
+        LinkedHashSet<String> changed = new LinkedHashSet<>();
+        for(int i = 0; i < loaded.length; i++) {
+            if(!Objects.equals(current[i], loaded[i])) {
+                changed.add(String.join(".", this.options.get(i).path()));
+            }
+        }
+        if(!changed.isEmpty()) {
+            this.values = loaded;
+            LOGGER.info("Reloaded config file " + this.configFile + ", changed " + changed);
+            Set<String> keys = Collections.unmodifiableSet(changed);
+            GameThreads.execute(this.side, () -> {
+                this.loadListeners.forEach(Runnable::run);
+                this.changeListeners.forEach(listener -> listener.accept(keys));
+            });
+        }
+    }
+
+    /**
+     * <p>
+     *     Reads the config file and returns the values of all the options.
+     *     Values that are missing or have a different type than the default value are replaced with the given values.
+     * </p>
+     *
+     * @param fallback Values used for options that are missing or not valid.
+     * @return The values of the options or null if the file could not be read or parsed.
+     */
+    private Object[] read(Object[] fallback) {
+        Map<?, ?> loaded;
+        try(Reader reader = Files.newBufferedReader(this.configFile)) {
+            Type type = new TypeToken<HashMap<String, Object>>(){}.getType();
+            loaded = new GsonBuilder().create().fromJson(reader, type);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read config file " + this.configFile, e);
+            return null;
+        } catch (JsonParseException e) {
+            LOGGER.warning("Could not parse config file " + this.configFile + ": " + e.getMessage());
+            return null;
+        }
+        if(loaded == null) {
+            // Empty file, which happens while some editors are saving it
+            return null;
+        }
+        Object[] values = new Object[this.options.size()];
+        for(int i = 0; i < values.length; i++) {
+            Option option = this.options.get(i);
+            Object value = lookup(loaded, option.path());
+            Object parsed = value != null ? option.parser().apply(value) : null;
+            if(value != null && parsed == null) {
+                LOGGER.warning("Invalid value " + value + " for option " + String.join(".", option.path()) + " in config file " + this.configFile);
+            }
+            values[i] = parsed != null ? parsed : fallback[i];
+        }
+        return values;
+    }
+
+    /**
+     * <p>
+     *     Helper function used to find the value of an option in the values loaded from the config file.
+     * </p>
+     *
+     * @param loaded The values loaded from the config file.
+     * @param path The names of the categories of the option followed by its key.
+     * @return The value or null if it is missing.
+     */
+    private static Object lookup(Map<?, ?> loaded, List<String> path) {
+        Object value = loaded;
+        for(String key : path) {
+            if(!(value instanceof Map<?, ?> category)) {
+                return null;
             }
+            value = category.get(key);
         }
+        return value;
+    }
+
+    /**
+     * <p>
+     *     Record used to store a config option.
+     * </p>
+     *
+     * @param path The names of the categories of the option followed by its key.
+     * @param defaultValue The option's default value.
+     * @param parser Function that converts a value read from the config file to the type of the option, or returns null if the value is not valid.
+     */
+    private record Option(List<String> path, Object defaultValue, Function<Object, ?> parser) {
+
     }
 }
@@ -0,0 +1,82 @@
+package io.github.phantomloader.library.fabric.config;
+
+import io.github.phantomloader.library.ModEntryPoint;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.Minecraft;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * <p>
+ *     Runs the listeners of a reloaded config file on the thread that reads the config.
+ * </p>
+ * <p>
+ *     Client config files are applied on the client thread.
+ *     Common and server config files are applied on the server thread while a server is running, otherwise on the client thread, or directly on a dedicated server that has not started yet.
+ *     Since the tasks run between ticks, game logic never sees a config that is only partially applied.
+ * </p>
+ *
+ * @author Nico
+ */
+final class GameThreads {
+
+    /** The running server, null if no server is running */
+    private static volatile MinecraftServer server;
+    /** Whether the server lifecycle listeners have been registered */
+    private static boolean tracking = false;
+
+    /**
+     * <p>
+     *     Starts keeping track of the running server.
+     *     Must be called during initialization, before a server can start.
+     * </p>
+     */
+    static synchronized void track() {
+        if(!tracking) {
+            ServerLifecycleEvents.SERVER_STARTING.register(started -> server = started);
+            ServerLifecycleEvents.SERVER_STOPPED.register(stopped -> server = null);
+            tracking = true;
+        }
+    }
+
+    /**
+     * <p>
+     *     Runs the given task on the thread that reads the config file of the given side.
+     * </p>
+     *
+     * @param side The side of the config file.
+     * @param task The task to run.
+     */
+    static void execute(ModEntryPoint.Side side, Runnable task) {
+        MinecraftServer server = GameThreads.server;
+        if(side != ModEntryPoint.Side.CLIENT && server != null) {
+            server.execute(task);
+        } else if(FabricLoader.getInstance().getEnvironmentType() == EnvType.CLIENT) {
+            Client.execute(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * <p>
+     *     Keeps the reference to the client out of {@link GameThreads} so that it is not loaded on a dedicated server.
+     * </p>
+     *
+     * @author Nico
+     */
+    private static final class Client {
+
+        /**
+         * <p>
+         *     Runs the given task on the client thread.
+         * </p>
+         *
+         * @param task The task to run.
+         */
+        private static void execute(Runnable task) {
+            Minecraft.getInstance().execute(task);
+        }
+    }
+}
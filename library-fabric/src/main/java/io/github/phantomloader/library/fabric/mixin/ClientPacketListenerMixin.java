@@ -0,0 +1,38 @@
+package io.github.phantomloader.library.fabric.mixin;
+
+import io.github.phantomloader.library.recipe.RecipeIndex;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.network.protocol.game.ClientboundUpdateRecipesPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * <p>
+ *     Mixin used to invalidate the {@link RecipeIndex recipe indexes} when the client receives recipes.
+ * </p>
+ * <p>
+ *     The client keeps the same recipe manager for the whole connection and replaces its recipes when the server sends them,
+ *     which happens after tags when datapacks are reloaded, so the indexes cannot rely on the manager changing or on tags being loaded.
+ *     This is the equivalent of Forge's {@code RecipesUpdatedEvent}, which Fabric does not have.
+ * </p>
+ *
+ * @author Nico
+ */
+@Mixin(ClientPacketListener.class)
+public class ClientPacketListenerMixin {
+
+    /**
+     * <p>
+     *     Invalidates the recipe indexes after the recipes of the client's recipe manager are replaced.
+     * </p>
+     *
+     * @param packet The packet containing the recipes.
+     * @param callback Callback info.
+     */
+    @Inject(method = "handleUpdateRecipes", at = @At("TAIL"))
+    private void onUpdateRecipes(ClientboundUpdateRecipesPacket packet, CallbackInfo callback) {
+        RecipeIndex.invalidateAll();
+    }
+}
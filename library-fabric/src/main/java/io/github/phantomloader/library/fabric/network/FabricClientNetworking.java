@@ -0,0 +1,50 @@
+package io.github.phantomloader.library.fabric.network;
+
+import io.github.phantomloader.library.network.ModPacket;
+import io.github.phantomloader.library.network.PacketCodec;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * <p>
+ *     Client-side part of {@link FabricNetworkChannel}.
+ *     Kept in a separate class so that client classes are never loaded on a dedicated server.
+ * </p>
+ *
+ * @author Nico
+ */
+@Environment(EnvType.CLIENT)
+final class FabricClientNetworking {
+
+    /**
+     * <p>
+     *     Registers the receiver of a packet sent to the client.
+     *     Packets are decoded on the network thread and handled on the main thread.
+     * </p>
+     *
+     * @param id The id of the packet's channel.
+     * @param codec The packet's codec.
+     * @param <T> The packet type.
+     */
+    static <T extends ModPacket> void registerReceiver(ResourceLocation id, PacketCodec<T> codec) {
+        ClientPlayNetworking.registerGlobalReceiver(id, (client, handler, buf, responseSender) -> {
+            T packet = codec.decode(buf);
+            client.execute(() -> packet.handle(() -> null));
+        });
+    }
+
+    /**
+     * <p>
+     *     Sends a packet to the server.
+     * </p>
+     *
+     * @param id The id of the packet's channel.
+     * @param buf A buffer containing the packet.
+     */
+    static void send(ResourceLocation id, FriendlyByteBuf buf) {
+        ClientPlayNetworking.send(id, buf);
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.phantomloader.library.fabric.network;
+
+import io.github.phantomloader.library.network.ModPacket;
+import io.github.phantomloader.library.network.NetworkChannel;
+import io.github.phantomloader.library.network.Packet;
+import io.github.phantomloader.library.network.PacketCodec;
+import io.github.phantomloader.library.platform.PlatformHelper;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * <p>
+ *     Fabric implementation of a {@link NetworkChannel}.
+ *     Every packet uses its own channel with the id {@code <modid>:<packet name>}.
+ * </p>
+ * <p>
+ *     Fabric does not negotiate channel versions, therefore the protocol passed to {@link FabricNetworkChannel#register(String, String)} is not used.
+ * </p>
+ *
+ * @author Nico
+ */
+public class FabricNetworkChannel implements NetworkChannel {
+
+    /** Packets defined in this channel */
+    private final ArrayList<Definition<?>> definitions = new ArrayList<>();
+    /** Registered packets, keyed by packet class */
+    private final HashMap<Class<?>, Registered<?>> packets = new HashMap<>();
+
+    @Override
+    public <T extends ModPacket> void definePacket(String name, Class<T> type, Packet.Direction direction, PacketCodec<T> codec) {
+        this.definitions.add(new Definition<>(name, type, direction, codec));
+    }
+
+    @Override
+    public void register(String mod, String protocol) {
+        for(Definition<?> definition : this.definitions) {
+            this.registerPacket(mod, definition);
+        }
+    }
+
+    /**
+     * <p>
+     *     Registers the receiver of a packet.
+     *     Packets are decoded on the network thread and handled on the main thread.
+     *     Receivers of packets sent to the client are only registered on the client.
+     * </p>
+     *
+     * @param mod The mod id.
+     * @param definition The packet's definition.
+     * @param <T> The packet type.
+     */
+    private <T extends ModPacket> void registerPacket(String mod, Definition<T> definition) {
+        ResourceLocation id = new ResourceLocation(mod, definition.name());
+        PacketCodec<T> codec = definition.codec();
+        this.packets.put(definition.type(), new Registered<>(id, codec));
+        if(definition.direction() == Packet.Direction.TO_SERVER) {
+            ServerPlayNetworking.registerGlobalReceiver(id, (server, player, handler, buf, responseSender) -> {
+                T packet = codec.decode(buf);
+                server.execute(() -> packet.handle(() -> player));
+            });
+        } else if(PlatformHelper.isClientSide()) {
+            FabricClientNetworking.registerReceiver(id, codec);
+        }
+    }
+
+    @Override
+    public void sendToServer(ModPacket packet) {
+        Registered<?> registered = this.registered(packet);
+        FabricClientNetworking.send(registered.id(), registered.encode(packet));
+    }
+
+    @Override
+    public void sendToPlayer(ServerPlayer player, ModPacket packet) {
+        Registered<?> registered = this.registered(packet);
+        ServerPlayNetworking.send(player, registered.id(), registered.encode(packet));
+    }
+
+    @Override
+    public void sendToPlayers(Collection<ServerPlayer> players, ModPacket packet) {
+        Registered<?> registered = this.registered(packet);
+        net.minecraft.network.protocol.Packet<?> vanillaPacket = ServerPlayNetworking.createS2CPacket(registered.id(), registered.encode(packet));
+        for(ServerPlayer player : players) {
+            player.connection.send(vanillaPacket);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the registered packet of the same class as the given packet.
+     * </p>
+     *
+     * @param packet The packet.
+     * @return The registered packet.
+     * @throws IllegalStateException If the packet has not been registered to this channel.
+     */
+    private Registered<?> registered(ModPacket packet) {
+        Registered<?> registered = this.packets.get(packet.getClass());
+        if(registered == null) {
+            throw new IllegalStateException("Packets cannot be sent before the network channel is registered");
+        }
+        return registered;
+    }
+
+    /**
+     * <p>
+     *     Record used to store a packet defined in this channel until the channel is registered.
+     * </p>
+     *
+     * @param name The name of the packet.
+     * @param type The class of the packet.
+     * @param direction The direction of the packet.
+     * @param codec The packet's codec.
+     * @param <T> The packet type.
+     */
+    private record Definition<T extends ModPacket>(String name, Class<T> type, Packet.Direction direction, PacketCodec<T> codec) {
+
+    }
+
+    /**
+     * <p>
+     *     Record used to store a registered packet.
+     * </p>
+     *
+     * @param id The id of the packet's channel.
+     * @param codec The packet's codec.
+     * @param <T> The packet type.
+     */
+    private record Registered<T extends ModPacket>(ResourceLocation id, PacketCodec<T> codec) {
+
+        /**
+         * <p>
+         *     Writes the given packet to a new buffer.
+         * </p>
+         *
+         * @param packet The packet, which must be of this record's packet type.
+         * @return A buffer containing the packet.
+         */
+        @SuppressWarnings("unchecked")
+        private FriendlyByteBuf encode(ModPacket packet) {
+            FriendlyByteBuf buf = PacketByteBufs.create();
+            this.codec.encode((T) packet, buf);
+            return buf;
+        }
+    }
+}
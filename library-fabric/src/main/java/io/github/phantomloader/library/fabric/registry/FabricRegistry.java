@@ -1,14 +1,24 @@
 package io.github.phantomloader.library.fabric.registry;
 
+import io.github.phantomloader.library.profiling.StartupTrace;
+import io.github.phantomloader.library.registry.ConstructionBatch;
+import io.github.phantomloader.library.registry.CustomRegistry;
 import io.github.phantomloader.library.registry.ModRegistry;
+import io.github.phantomloader.library.registry.RegistrationTable;
+import io.github.phantomloader.library.registry.RegistryHandle;
+import net.fabricmc.fabric.api.event.registry.FabricRegistryBuilder;
+import net.fabricmc.fabric.api.event.registry.RegistryAttribute;
+import net.fabricmc.fabric.api.event.registry.RegistryEntryAddedCallback;
 import net.fabricmc.fabric.api.object.builder.v1.block.entity.FabricBlockEntityTypeBuilder;
 import net.fabricmc.fabric.api.screenhandler.v1.ExtendedScreenHandlerType;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.MappedRegistry;
 import net.minecraft.core.Registry;
 import net.minecraft.core.particles.ParticleType;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.effect.MobEffect;
@@ -17,6 +27,7 @@ import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.inventory.MenuType;
+import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.CreativeModeTab;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
@@ -33,7 +44,12 @@ import net.minecraft.world.level.material.Fluid;
 import net.minecraft.world.level.storage.loot.functions.LootItemFunctionType;
 import org.apache.commons.lang3.function.TriFunction;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
@@ -43,6 +59,12 @@ import java.util.function.Supplier;
  *     Fabric implementation of {@link ModRegistry}.
  * </p>
  * <p>
+ *     Like Forge's {@code DeferredRegister}, objects are not created when they are registered.
+ *     Registrations are staged and flushed by {@link FabricRegistry#register()} in one batch per registry, in the order of {@link FabricRegistry#FLUSH_ORDER}.
+ *     Objects of {@link CustomRegistry custom registries} are flushed last, in the order in which their registries were first used.
+ *     Objects of {@link io.github.phantomloader.library.registry.ThreadSafeFactory thread-safe factories} are created concurrently before their batch is registered if parallel construction is enabled.
+ * </p>
+ * <p>
  *     Note that registries should not be instantiated directly, one should call {@link ModRegistry#instantiate(String)} from the common module instead.
  * </p>
  *
@@ -50,6 +72,40 @@ import java.util.function.Supplier;
  */
 public class FabricRegistry extends ModRegistry {
 
+    /**
+     * <p>
+     *     Order in which staged registrations are flushed.
+     *     Registries are sorted so that objects are created after the objects they need in their constructor,
+     *     for example blocks after fluids, spawn eggs after entity types, and block entity types after blocks.
+     * </p>
+     */
+    private static final List<Registry<?>> FLUSH_ORDER = List.of(
+            BuiltInRegistries.SOUND_EVENT,
+            BuiltInRegistries.FLUID,
+            BuiltInRegistries.MOB_EFFECT,
+            BuiltInRegistries.BLOCK,
+            BuiltInRegistries.ENTITY_TYPE,
+            BuiltInRegistries.ENCHANTMENT,
+            BuiltInRegistries.ITEM,
+            BuiltInRegistries.BLOCK_ENTITY_TYPE,
+            BuiltInRegistries.PARTICLE_TYPE,
+            BuiltInRegistries.FEATURE,
+            BuiltInRegistries.RECIPE_TYPE,
+            BuiltInRegistries.RECIPE_SERIALIZER,
+            BuiltInRegistries.LOOT_FUNCTION_TYPE,
+            BuiltInRegistries.MENU,
+            BuiltInRegistries.CREATIVE_MODE_TAB
+    );
+
+    /** Registrations waiting for {@link FabricRegistry#register()}, grouped by registry */
+    private final LinkedHashMap<Registry<?>, ArrayList<Staged<?>>> staged = new LinkedHashMap<>();
+    /** Objects of thread-safe factories to create before registering each registry */
+    private final HashMap<Registry<?>, ConstructionBatch> batches = new HashMap<>();
+    /** Custom registries created by this registry, frozen once the staged registrations have been flushed */
+    private final ArrayList<Custom<?>> customRegistries = new ArrayList<>();
+    /** Set to true once the staged registrations have been flushed */
+    private boolean flushed = false;
+
     /**
      * <p>
      *     Creates a {@code FabricRegistry}.
@@ -64,41 +120,72 @@ public class FabricRegistry extends ModRegistry {
         super(mod);
     }
 
+    /**
+     * <p>
+     *     Returns the list of staged registrations for the given registry or creates it.
+     * </p>
+     *
+     * @param registry The registry.
+     * @return The list of registrations staged for that registry.
+     * @throws IllegalStateException If this registry has already been registered.
+     */
+    private ArrayList<Staged<?>> staged(Registry<?> registry) {
+        if(this.flushed) {
+            throw new IllegalStateException("Cannot register new objects to " + this.mod + " registry after it has been registered");
+        }
+        return this.staged.computeIfAbsent(registry, key -> new ArrayList<>());
+    }
+
+    /**
+     * <p>
+     *     Returns the {@link ConstructionBatch} of the given registry or creates it.
+     * </p>
+     *
+     * @param registry The registry.
+     * @return The construction batch of that registry.
+     */
+    private ConstructionBatch batch(Registry<?> registry) {
+        return this.batches.computeIfAbsent(registry, key -> new ConstructionBatch(this.mod + " " + key.key().location(), usesIntrusiveHolders(key.key())));
+    }
+
     /**
      * <p>
      *     Helper function used to register objects.
+     *     The object is only created when {@link FabricRegistry#register()} is called.
      * </p>
      *
      * @param registry Which registry to use.
      * @param name Name of the object to register.
      * @param object A supplier returning the object to register.
-     * @return A supplier returning the registered object.
+     * @return A handle to the registered object.
      * @param <V> Type of the registry.
      * @param <T> Type of the object.
      */
-    private <V, T extends V> Supplier<T> register(Registry<V> registry, String name, Supplier<T> object) {
-        T registered = Registry.register(registry, new ResourceLocation(this.mod, name), object.get());
-        return () -> registered;
+    private <V, T extends V> RegistryHandle<T> register(Registry<V> registry, String name, Supplier<T> object) {
+        ArrayList<Staged<?>> batch = this.staged(registry);
+        RegistryHandle<T> handle = RegistryHandle.create();
+        batch.add(new Staged<>(name, this.batch(registry).add(name, this.audited(registry.key(), name, object)), handle));
+        return handle;
     }
 
     @Override
-    public <T extends Item> Supplier<T> registerItem(String name, Supplier<T> item) {
+    public <T extends Item> RegistryHandle<T> registerItem(String name, Supplier<T> item) {
         return this.register(BuiltInRegistries.ITEM, name, item);
     }
 
     @Override
-    public <T extends Block> Supplier<T> registerBlock(String name, Supplier<T> block) {
+    public <T extends Block> RegistryHandle<T> registerBlock(String name, Supplier<T> block) {
         return this.register(BuiltInRegistries.BLOCK, name, block);
     }
 
     @Override
-    public <T extends BlockEntity> Supplier<BlockEntityType<T>> registerBlockEntity(String name, BiFunction<BlockPos, BlockState, T> blockEntity, Set<Supplier<? extends Block>> blocks) {
+    public <T extends BlockEntity> RegistryHandle<BlockEntityType<T>> registerBlockEntity(String name, BiFunction<BlockPos, BlockState, T> blockEntity, Set<Supplier<? extends Block>> blocks) {
         // Block entity types must be created here because BlockEntityType.BlockEntitySupplier has private access in the common module
         return this.register(BuiltInRegistries.BLOCK_ENTITY_TYPE, name, () -> FabricBlockEntityTypeBuilder.create(blockEntity::apply, blocks.stream().map(Supplier::get).toArray(Block[]::new)).build());
     }
 
     @Override
-    public Supplier<CreativeModeTab> registerCreativeTab(String name, Supplier<? extends ItemLike> icon, Component title, Collection<Supplier<? extends ItemLike>> items) {
+    public RegistryHandle<CreativeModeTab> registerCreativeTab(String name, Supplier<? extends ItemLike> icon, Component title, Collection<Supplier<? extends ItemLike>> items) {
         return this.register(BuiltInRegistries.CREATIVE_MODE_TAB, name, () -> CreativeModeTab.builder(CreativeModeTab.Row.TOP, 0)
                 .title(title)
                 .icon(() -> new ItemStack(icon.get()))
@@ -108,62 +195,242 @@ public class FabricRegistry extends ModRegistry {
     }
 
     @Override
-    public <T extends Entity> Supplier<EntityType<T>> registerEntity(String name, EntityType.Builder<T> builder) {
+    public <T extends Entity> RegistryHandle<EntityType<T>> registerEntity(String name, EntityType.Builder<T> builder) {
         return this.register(BuiltInRegistries.ENTITY_TYPE, name, () -> builder.build(name));
     }
 
     @Override
-    public <T extends MobEffect> Supplier<T> registerEffect(String name, Supplier<T> effect) {
+    public <T extends MobEffect> RegistryHandle<T> registerEffect(String name, Supplier<T> effect) {
         return this.register(BuiltInRegistries.MOB_EFFECT, name, effect);
     }
 
     @Override
-    public <T extends Enchantment> Supplier<T> registerEnchantment(String name, Supplier<T> enchantment) {
+    public <T extends Enchantment> RegistryHandle<T> registerEnchantment(String name, Supplier<T> enchantment) {
         return this.register(BuiltInRegistries.ENCHANTMENT, name, enchantment);
     }
 
     @Override
-    public <T extends LootItemFunctionType> Supplier<T> registerLootItemFunction(String name, Supplier<T> lootItemFunction) {
+    public <T extends LootItemFunctionType> RegistryHandle<T> registerLootItemFunction(String name, Supplier<T> lootItemFunction) {
         return this.register(BuiltInRegistries.LOOT_FUNCTION_TYPE, name, lootItemFunction);
     }
 
     @Override
-    public <T extends Feature<?>> Supplier<T> registerFeature(String name, Supplier<T> feature) {
+    public <T extends Feature<?>> RegistryHandle<T> registerFeature(String name, Supplier<T> feature) {
         return this.register(BuiltInRegistries.FEATURE, name, feature);
     }
 
     @Override
-    public <T extends AbstractContainerMenu> Supplier<MenuType<T>> registerMenu(String name, TriFunction<Integer, Inventory, FriendlyByteBuf, T> menu) {
+    public <T extends AbstractContainerMenu> RegistryHandle<MenuType<T>> registerMenu(String name, TriFunction<Integer, Inventory, FriendlyByteBuf, T> menu) {
         return this.register(BuiltInRegistries.MENU, name, () -> new ExtendedScreenHandlerType<>(menu::apply));
     }
 
     @Override
-    public <T extends ParticleType<?>> Supplier<T> registerParticles(String name, Supplier<T> particles) {
+    public <T extends ParticleType<?>> RegistryHandle<T> registerParticles(String name, Supplier<T> particles) {
         return this.register(BuiltInRegistries.PARTICLE_TYPE, name, particles);
     }
 
     @Override
-    public <T extends RecipeSerializer<?>> Supplier<T> registerRecipeSerializer(String name, Supplier<T> recipeSerializer) {
+    public <T extends RecipeSerializer<?>> RegistryHandle<T> registerRecipeSerializer(String name, Supplier<T> recipeSerializer) {
         return this.register(BuiltInRegistries.RECIPE_SERIALIZER, name, recipeSerializer);
     }
 
     @Override
-    public <T extends RecipeType<?>> Supplier<T> registerRecipeType(String name, Supplier<T> recipeType) {
+    public <T extends RecipeType<?>> RegistryHandle<T> registerRecipeType(String name, Supplier<T> recipeType) {
         return this.register(BuiltInRegistries.RECIPE_TYPE, name, recipeType);
     }
 
     @Override
-    public <T extends SoundEvent> Supplier<T> registerSound(String name, Supplier<T> sound) {
+    public <T extends SoundEvent> RegistryHandle<T> registerSound(String name, Supplier<T> sound) {
         return this.register(BuiltInRegistries.SOUND_EVENT, name, sound);
     }
 
     @Override
-    public <T extends Fluid> Supplier<T> registerFluid(String name, Supplier<T> fluid) {
+    public <T extends Fluid> RegistryHandle<T> registerFluid(String name, Supplier<T> fluid) {
         return this.register(BuiltInRegistries.FLUID, name, fluid);
     }
 
+    @Override
+    public <T> CustomRegistry<T> createRegistry(String name, boolean synced) {
+        ResourceKey<Registry<T>> key = ResourceKey.createRegistryKey(new ResourceLocation(this.mod, name));
+        FabricRegistryBuilder<T, MappedRegistry<T>> builder = FabricRegistryBuilder.createSimple(key);
+        if(synced) {
+            builder.attribute(RegistryAttribute.SYNCED);
+        }
+        CustomRegistry<T> registry = new CustomRegistry<>(key);
+        this.customRegistries.add(new Custom<>(builder.buildAndRegister(), registry));
+        return registry;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V, T extends V> RegistryHandle<T> registerCustom(CustomRegistry<V> registry, String name, Supplier<T> object) {
+        Registry<V> game = (Registry<V>) BuiltInRegistries.REGISTRY.get(registry.key().location());
+        if(game == null) {
+            throw new IllegalArgumentException("Registry " + registry.key().location() + " has not been created");
+        }
+        return this.register(game, name, object);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void registerTable(RegistrationTable table) {
+        switch (table.type()) {
+            case SOUND_EVENT -> this.registerTable(BuiltInRegistries.SOUND_EVENT, table);
+            case FLUID -> this.registerTable(BuiltInRegistries.FLUID, table);
+            case MOB_EFFECT -> this.registerTable(BuiltInRegistries.MOB_EFFECT, table);
+            case BLOCK -> this.registerTable(BuiltInRegistries.BLOCK, table);
+            case ENCHANTMENT -> this.registerTable(BuiltInRegistries.ENCHANTMENT, table);
+            case ITEM -> this.registerTable(BuiltInRegistries.ITEM, table);
+            case BLOCK_ITEM -> {
+                // Block item tables contain the block entries, which are flushed before items
+                ArrayList<Staged<?>> items = this.staged(BuiltInRegistries.ITEM);
+                items.ensureCapacity(items.size() + table.size());
+                for(int i = 0; i < table.size(); i++) {
+                    Supplier<? extends Block> block = (Supplier<? extends Block>) table.entry(i);
+                    items.add(new Staged<Item>(table.names()[i], this.audited(BuiltInRegistries.ITEM.key(), table.names()[i], () -> new BlockItem(block.get(), new Item.Properties())), RegistryHandle.create()));
+                }
+            }
+            case PARTICLE_TYPE -> this.registerTable(BuiltInRegistries.PARTICLE_TYPE, table);
+            case FEATURE -> this.registerTable(BuiltInRegistries.FEATURE, table);
+            case RECIPE_TYPE -> this.registerTable(BuiltInRegistries.RECIPE_TYPE, table);
+            case RECIPE_SERIALIZER -> this.registerTable(BuiltInRegistries.RECIPE_SERIALIZER, table);
+            case LOOT_ITEM_FUNCTION -> this.registerTable(BuiltInRegistries.LOOT_FUNCTION_TYPE, table);
+        }
+    }
+
+    /**
+     * <p>
+     *     Helper function used to stage all the objects in a {@link RegistrationTable} in the given registry.
+     *     The size of the table is used as a capacity hint and objects are set as the value of their {@link RegistryHandle} when they are registered.
+     * </p>
+     *
+     * @param registry Which registry to use.
+     * @param table The table to register.
+     * @param <V> Type of the registry.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> void registerTable(Registry<V> registry, RegistrationTable table) {
+        ArrayList<Staged<?>> staged = this.staged(registry);
+        staged.ensureCapacity(staged.size() + table.size());
+        ConstructionBatch batch = this.batch(registry);
+        batch.ensureCapacity(table.size());
+        for(int i = 0; i < table.size(); i++) {
+            RegistryHandle<V> entry = (RegistryHandle<V>) table.entry(i);
+            staged.add(new Staged<>(table.names()[i], batch.add(table.names()[i], this.audited(registry.key(), table.names()[i], entry.factory())), entry));
+        }
+    }
+
+    /**
+     * <p>
+     *     Creates and registers all the staged objects.
+     *     Objects are registered in one batch per registry, in the order of {@link FabricRegistry#FLUSH_ORDER}, and in the order in which they were registered within a batch.
+     *     Objects of thread-safe factories are created concurrently before each batch.
+     * </p>
+     */
     @Override
     public void register() {
+        long start = StartupTrace.begin();
+        this.flushed = true;
+        for(Registry<?> registry : FLUSH_ORDER) {
+            ArrayList<Staged<?>> batch = this.staged.get(registry);
+            if(batch != null) {
+                long batchStart = StartupTrace.begin();
+                ConstructionBatch construction = this.batches.get(registry);
+                if(construction != null) {
+                    construction.construct();
+                }
+                this.flush(registry, batch);
+                if(StartupTrace.ENABLED) {
+                    StartupTrace.end(this.mod + " " + registry.key().location(), "registry", batchStart);
+                }
+            }
+        }
+        // Custom registries are not in the flush order, their objects may need objects from any vanilla registry
+        for(Map.Entry<Registry<?>, ArrayList<Staged<?>>> batch : this.staged.entrySet()) {
+            if(!FLUSH_ORDER.contains(batch.getKey())) {
+                long batchStart = StartupTrace.begin();
+                ConstructionBatch construction = this.batches.get(batch.getKey());
+                if(construction != null) {
+                    construction.construct();
+                }
+                this.flush(batch.getKey(), batch.getValue());
+                if(StartupTrace.ENABLED) {
+                    StartupTrace.end(this.mod + " " + batch.getKey().key().location(), "registry", batchStart);
+                }
+            }
+        }
+        for(Custom<?> custom : this.customRegistries) {
+            custom.freeze();
+        }
+        this.staged.clear();
+        this.batches.clear();
+        if(StartupTrace.ENABLED) {
+            StartupTrace.end(this.mod + " registry", "registry", start);
+        }
+    }
+
+    /**
+     * <p>
+     *     Helper function used to register a batch of staged objects in the given registry and add them to its index.
+     * </p>
+     *
+     * @param registry Which registry to use.
+     * @param batch The objects to register.
+     * @param <V> Type of the registry.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> void flush(Registry<V> registry, ArrayList<Staged<?>> batch) {
+        for(Staged<?> staged : batch) {
+            ((Staged<V>) staged).register(registry, this.mod);
+            this.addToIndex(registry.key(), staged.name(), staged.handle());
+        }
+    }
+
+    /**
+     * <p>
+     *     Record used to store a custom registry created by this registry.
+     * </p>
+     *
+     * @param registry The game registry.
+     * @param custom The custom registry.
+     * @param <T> Type of the registry objects.
+     */
+    private record Custom<T>(MappedRegistry<T> registry, CustomRegistry<T> custom) {
+
+        /**
+         * <p>
+         *     Freezes the custom registry and invalidates it whenever another mod adds an object to it.
+         *     The table is only built again when it is next used, not once per added object.
+         * </p>
+         */
+        private void freeze() {
+            this.custom.freeze(this.registry.entrySet());
+            RegistryEntryAddedCallback.event(this.registry).register((rawId, id, object) -> this.custom.invalidate(this.registry::entrySet));
+        }
+    }
+
+    /**
+     * <p>
+     *     Record used to store an object waiting to be registered.
+     * </p>
+     *
+     * @param name Registry name of the object.
+     * @param factory Supplier returning the object to register.
+     * @param handle Handle bound to the object once it is registered.
+     * @param <T> Type of the object.
+     */
+    private record Staged<T>(String name, Supplier<? extends T> factory, RegistryHandle<T> handle) {
 
+        /**
+         * <p>
+         *     Creates the object, registers it in the given registry, and binds it to the handle.
+         * </p>
+         *
+         * @param registry Which registry to use.
+         * @param mod Id of the mod registering the object.
+         */
+        private void register(Registry<? super T> registry, String mod) {
+            this.handle.set(Registry.register(registry, new ResourceLocation(mod, this.name), this.factory.get()));
+        }
     }
 }
@@ -0,0 +1,31 @@
+package io.github.phantomloader.library.forge;
+
+import io.github.phantomloader.library.config.ConfigBuilder;
+import io.github.phantomloader.library.forge.config.ForgeConfigBuilder;
+import io.github.phantomloader.library.forge.network.ForgeNetworkChannel;
+import io.github.phantomloader.library.forge.platform.ForgePlatform;
+import io.github.phantomloader.library.forge.registry.ForgeRegistryProvider;
+import io.github.phantomloader.library.network.NetworkChannel;
+import io.github.phantomloader.library.platform.Platform;
+import io.github.phantomloader.library.registry.RegistryProvider;
+import io.github.phantomloader.library.services.PhantomServices;
+import io.github.phantomloader.library.services.ServiceIndex;
+
+/**
+ * <p>
+ *     Forge implementation of {@link ServiceIndex}.
+ *     Registers the services provided by the Phantom library for Forge.
+ * </p>
+ *
+ * @author Nico
+ */
+public class ForgeServiceIndex implements ServiceIndex {
+
+    @Override
+    public void registerServices() {
+        PhantomServices.register(RegistryProvider.class, "io.github.phantomloader.library.forge.registry.ForgeRegistryProvider", ForgeRegistryProvider::new);
+        PhantomServices.register(ConfigBuilder.class, "io.github.phantomloader.library.forge.config.ForgeConfigBuilder", ForgeConfigBuilder::new);
+        PhantomServices.register(NetworkChannel.class, "io.github.phantomloader.library.forge.network.ForgeNetworkChannel", ForgeNetworkChannel::new);
+        PhantomServices.register(Platform.class, "io.github.phantomloader.library.forge.platform.ForgePlatform", ForgePlatform::new);
+    }
+}
@@ -2,16 +2,30 @@ package io.github.phantomloader.library.forge.config;
 
 import io.github.phantomloader.library.ModEntryPoint;
 import io.github.phantomloader.library.config.ConfigBuilder;
+import io.github.phantomloader.library.profiling.StartupTrace;
 import net.minecraftforge.common.ForgeConfigSpec;
+import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.config.ModConfig;
-
+import net.minecraftforge.fml.event.config.ModConfigEvent;
+import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * <p>
  *     Forge implementation of a {@link ConfigBuilder}.
  * </p>
+ * <p>
+ *     Forge reloads config files on its own watcher thread, the listeners of a reloaded config are called on the game thread, see {@link GameThreads}.
+ * </p>
  *
  * @author Nico
  */
@@ -19,6 +33,14 @@ public class ForgeConfigBuilder implements ConfigBuilder {
 
     /** Forge's config builder */
     private final ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
+    /** Listeners called when the config is loaded or reloaded */
+    private final ArrayList<Runnable> loadListeners = new ArrayList<>();
+    /** Listeners called with the keys of the changed options when the config is reloaded */
+    private final ArrayList<Consumer<Set<String>>> changeListeners = new ArrayList<>();
+    /** All the options defined by this builder */
+    private final ArrayList<ForgeConfigSpec.ConfigValue<?>> options = new ArrayList<>();
+    /** Values of the options when the config was last loaded, by key, used to find the options that changed */
+    private HashMap<String, Object> loaded = new HashMap<>();
 
     @Override
     public void beginCategory(String category) {
@@ -30,7 +52,7 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         if(comment != null && comment.length > 0) {
             this.builder.comment(comment);
         }
-        return this.builder.define(key, defaultValue);
+        return this.option(this.builder.define(key, defaultValue));
     }
 
     @Override
@@ -38,7 +60,7 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         if(comment != null && comment.length > 0) {
             this.builder.comment(comment);
         }
-        return this.builder.define(key, defaultValue);
+        return this.option(this.builder.define(key, defaultValue));
     }
 
     @Override
@@ -46,7 +68,7 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         if(comment != null && comment.length > 0) {
             this.builder.comment(comment);
         }
-        return this.builder.defineInRange(key, defaultValue, min, max);
+        return this.option(this.builder.defineInRange(key, defaultValue, min, max));
     }
 
     @Override
@@ -54,7 +76,7 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         if(comment != null && comment.length > 0) {
             this.builder.comment(comment);
         }
-        return this.builder.define(key, defaultValue);
+        return this.option(this.builder.define(key, defaultValue));
     }
 
     @Override
@@ -62,7 +84,7 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         if(comment != null && comment.length > 0) {
             this.builder.comment(comment);
         }
-        return this.builder.defineInRange(key, defaultValue, min, max);
+        return this.option(this.builder.defineInRange(key, defaultValue, min, max));
     }
 
     @Override
@@ -70,7 +92,7 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         if(comment != null && comment.length > 0) {
             this.builder.comment(comment);
         }
-        return this.builder.define(key, defaultValue);
+        return this.option(this.builder.define(key, defaultValue));
     }
 
     @Override
@@ -78,7 +100,7 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         if(comment != null && comment.length > 0) {
             this.builder.comment(comment);
         }
-        return this.builder.defineInRange(key, defaultValue, min, max);
+        return this.option(this.builder.defineInRange(key, defaultValue, min, max));
     }
 
     @Override
@@ -86,7 +108,21 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         if(comment != null && comment.length > 0) {
             this.builder.comment(comment);
         }
-        return this.builder.define(key, defaultValue);
+        return this.option(this.builder.define(key, defaultValue));
+    }
+
+    /**
+     * <p>
+     *     Helper function used to keep track of the defined options.
+     * </p>
+     *
+     * @param option The option returned by Forge's builder.
+     * @return The given option.
+     * @param <T> Type of the option.
+     */
+    private <T> ForgeConfigSpec.ConfigValue<T> option(ForgeConfigSpec.ConfigValue<T> option) {
+        this.options.add(option);
+        return option;
     }
 
     @Override
@@ -94,9 +130,62 @@ public class ForgeConfigBuilder implements ConfigBuilder {
         this.builder.pop();
     }
 
+    @Override
+    public void addLoadListener(Runnable listener) {
+        this.loadListeners.add(listener);
+    }
+
+    @Override
+    public void addChangeListener(Consumer<Set<String>> listener) {
+        this.changeListeners.add(listener);
+    }
+
     @Override
     public void register(String mod, ModEntryPoint.Side side) {
-        ModLoadingContext.get().registerConfig(typeFromSide(side), builder.build());
+        long start = StartupTrace.begin();
+        ForgeConfigSpec spec = this.builder.build();
+        ModLoadingContext.get().registerConfig(typeFromSide(side), spec);
+        if(!this.loadListeners.isEmpty() || !this.changeListeners.isEmpty()) {
+            IEventBus eventBus = FMLJavaModLoadingContext.get().getModEventBus();
+            eventBus.addListener((ModConfigEvent.Loading event) -> this.onConfigEvent(event, spec));
+            eventBus.addListener((ModConfigEvent.Reloading event) -> {
+                if(event.getConfig().getSpec() == spec) {
+                    GameThreads.execute(event.getConfig().getType(), () -> this.onConfigEvent(event, spec));
+                }
+            });
+        }
+        if(StartupTrace.ENABLED) {
+            StartupTrace.end(mod + " " + side.name().toLowerCase() + " config", "config", start);
+        }
+    }
+
+    /**
+     * <p>
+     *     Calls the load listeners if the loaded config is the one registered by this builder.
+     *     If the config was reloaded, also calls the change listeners with the keys of the options that changed.
+     * </p>
+     *
+     * @param event The config event.
+     * @param spec The config spec registered by this builder.
+     */
+    private void onConfigEvent(ModConfigEvent event, ForgeConfigSpec spec) {
+        if(event.getConfig().getSpec() == spec) {
+            this.loadListeners.forEach(Runnable::run);
+            HashMap<String, Object> loaded = new HashMap<>();
+            LinkedHashSet<String> changed = new LinkedHashSet<>();
+            for(ForgeConfigSpec.ConfigValue<?> option : this.options) {
+                String key = String.join(".", option.getPath());
+                loaded.put(key, option.get());
+                if(!Objects.equals(this.loaded.get(key), loaded.get(key))) {
+                    changed.add(key);
+                }
+            }
+            this.loaded = loaded;
+            if(event instanceof ModConfigEvent.Reloading && !changed.isEmpty()) {
+                Set<String> keys = Collections.unmodifiableSet(changed);
+                this.changeListeners.forEach(listener -> listener.accept(keys));
+            }
+        }
     }
 
     /**
@@ -0,0 +1,64 @@
+package io.github.phantomloader.library.forge.config;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.config.ModConfig;
+import net.minecraftforge.fml.loading.FMLEnvironment;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+/**
+ * <p>
+ *     Runs the listeners of a reloaded config file on the thread that reads the config.
+ * </p>
+ * <p>
+ *     Forge reloads config files on its own watcher thread.
+ *     Client config files are applied on the client thread.
+ *     Common and server config files are applied on the server thread while a server is running, otherwise on the client thread, or directly on a dedicated server that has not started yet.
+ *     Since the tasks run between ticks, game logic never sees a config that is only partially applied.
+ * </p>
+ *
+ * @author Nico
+ */
+final class GameThreads {
+
+    /**
+     * <p>
+     *     Runs the given task on the thread that reads config files of the given type.
+     * </p>
+     *
+     * @param type The type of the config file.
+     * @param task The task to run.
+     */
+    static void execute(ModConfig.Type type, Runnable task) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if(type != ModConfig.Type.CLIENT && server != null) {
+            server.execute(task);
+        } else if(FMLEnvironment.dist == Dist.CLIENT) {
+            Client.execute(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * <p>
+     *     Keeps the reference to the client out of {@link GameThreads} so that it is not loaded on a dedicated server.
+     * </p>
+     *
+     * @author Nico
+     */
+    private static final class Client {
+
+        /**
+         * <p>
+         *     Runs the given task on the client thread.
+         * </p>
+         *
+         * @param task The task to run.
+         */
+        private static void execute(Runnable task) {
+            Minecraft.getInstance().execute(task);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.phantomloader.library.forge.events;
+
+import io.github.phantomloader.library.recipe.RecipeIndex;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RecipesUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * <p>
+ *     Forge event handler for client game events.
+ * </p>
+ *
+ * @author Nico
+ */
+@Mod.EventBusSubscriber(value = Dist.CLIENT, modid = "phantom", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class ForgeClientEvents {
+
+    /**
+     * <p>
+     *     Forge event used to invalidate the {@link RecipeIndex recipe indexes} when the client receives recipes from the server.
+     * </p>
+     *
+     * @param event Forge event.
+     */
+    @SubscribeEvent
+    public static void onRecipesUpdated(RecipesUpdatedEvent event) {
+        RecipeIndex.invalidateAll();
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.phantomloader.library.forge.events;
+
+import io.github.phantomloader.library.recipe.RecipeIndex;
+import io.github.phantomloader.library.registry.TagIndex;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * <p>
+ *     Forge event handler for game events.
+ * </p>
+ *
+ * @author Nico
+ */
+@Mod.EventBusSubscriber(modid = "phantom", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class ForgeEvents {
+
+    /**
+     * <p>
+     *     Forge event used to rebuild the {@link TagIndex tag indexes} and invalidate the {@link RecipeIndex recipe indexes} when tags are loaded on the server or received on the client.
+     * </p>
+     *
+     * @param event Forge event.
+     */
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        TagIndex.rebuildAll();
+        // Ingredients that use tags may accept different items
+        RecipeIndex.invalidateAll();
+    }
+}
@@ -4,6 +4,8 @@ import io.github.phantomloader.library.events.ClientEventHandler;
 import io.github.phantomloader.library.events.RegisterBlockEntityRenderersEvent;
 import io.github.phantomloader.library.events.RegisterEntityRenderersEvent;
 import io.github.phantomloader.library.events.RegisterParticlesEvent;
+import io.github.phantomloader.library.profiling.StartupTrace;
+import io.github.phantomloader.library.services.PhantomServices;
 import net.minecraft.client.particle.ParticleProvider;
 import net.minecraft.client.renderer.blockentity.BlockEntityRendererProvider;
 import net.minecraft.client.renderer.entity.EntityRendererProvider;
@@ -20,8 +22,6 @@ import net.minecraftforge.event.BuildCreativeModeTabContentsEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
-import java.util.ServiceLoader;
-
 /**
  * <p>
  *     Forge event handler for client events.
@@ -32,9 +32,6 @@ import java.util.ServiceLoader;
 @Mod.EventBusSubscriber(value = Dist.CLIENT, modid = "phantom", bus = Mod.EventBusSubscriber.Bus.MOD)
 public class ModClientEvents {
 
-    /** Event handlers loaded using service loader */
-    private static final ServiceLoader<ClientEventHandler> HANDLERS = ServiceLoader.load(ClientEventHandler.class);
-
     /**
      * <p>
      *     Forge event handler.
@@ -44,8 +41,12 @@ public class ModClientEvents {
      */
     @SubscribeEvent
     public static void creativeTabEvent(BuildCreativeModeTabContentsEvent event) {
-        for(ClientEventHandler handler : HANDLERS) {
+        for(ClientEventHandler handler : PhantomServices.handlers(ClientEventHandler.class)) {
+            long start = StartupTrace.begin();
             handler.addItemsToCreativeTab(event.getTabKey(), event::accept);
+            if(StartupTrace.ENABLED) {
+                StartupTrace.end(handler.getClass().getName() + "#addItemsToCreativeTab " + event.getTabKey().location(), "events", start);
+            }
         }
     }
 
@@ -58,9 +59,13 @@ public class ModClientEvents {
      */
     @SubscribeEvent
     public static void registerRenders(EntityRenderersEvent.RegisterRenderers event) {
-        for(ClientEventHandler handler : HANDLERS) {
+        for(ClientEventHandler handler : PhantomServices.handlers(ClientEventHandler.class)) {
+            long start = StartupTrace.begin();
             handler.registerBlockEntityRenderers(new RegisterBlockEntityRenderersEventForge(event));
             handler.registerEntityRenderers(new RegisterEntityRenderersEventForge(event));
+            if(StartupTrace.ENABLED) {
+                StartupTrace.end(handler.getClass().getName() + "#registerRenderers", "events", start);
+            }
         }
     }
 
@@ -73,8 +78,12 @@ public class ModClientEvents {
      */
     @SubscribeEvent
     public static void registerParticles(RegisterParticleProvidersEvent event) {
-        for(ClientEventHandler handler : HANDLERS) {
+        for(ClientEventHandler handler : PhantomServices.handlers(ClientEventHandler.class)) {
+            long start = StartupTrace.begin();
             handler.registerParticles(new RegisterParticlesEventForge(event));
+            if(StartupTrace.ENABLED) {
+                StartupTrace.end(handler.getClass().getName() + "#registerParticles", "events", start);
+            }
         }
     }
 
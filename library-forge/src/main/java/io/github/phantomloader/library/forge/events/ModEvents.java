@@ -1,11 +1,13 @@
 package io.github.phantomloader.library.forge.events;
 
 import io.github.phantomloader.library.events.ModEventHandler;
+import io.github.phantomloader.library.profiling.RegistrationAudit;
+import io.github.phantomloader.library.profiling.StartupTrace;
+import io.github.phantomloader.library.services.PhantomServices;
 import net.minecraftforge.event.entity.EntityAttributeCreationEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
-
-import java.util.ServiceLoader;
+import net.minecraftforge.fml.event.lifecycle.FMLLoadCompleteEvent;
 
 /**
  * <p>
@@ -17,9 +19,6 @@ import java.util.ServiceLoader;
 @Mod.EventBusSubscriber(modid = "phantom", bus = Mod.EventBusSubscriber.Bus.MOD)
 public class ModEvents {
 
-    /** Event handlers loaded using service loader */
-    private static final ServiceLoader<ModEventHandler> HANDLERS = ServiceLoader.load(ModEventHandler.class);
-
     /**
      * <p>
      *     Forge event used to register entity attributes.
@@ -29,8 +28,27 @@ public class ModEvents {
      */
     @SubscribeEvent
     public static void onCreateAttributesEvent(EntityAttributeCreationEvent event) {
-        for(ModEventHandler handler : HANDLERS) {
+        for(ModEventHandler handler : PhantomServices.handlers(ModEventHandler.class)) {
+            long start = StartupTrace.begin();
             handler.registerEntityAttributes((entity, attributes) -> event.put(entity, attributes.build()));
+            if(StartupTrace.ENABLED) {
+                StartupTrace.end(handler.getClass().getName() + "#registerEntityAttributes", "events", start);
+            }
         }
     }
+
+    /**
+     * <p>
+     *     Forge event used to write the startup trace and the registry audit when mod loading is complete.
+     * </p>
+     *
+     * @param event Forge event.
+     * @see StartupTrace
+     * @see RegistrationAudit
+     */
+    @SubscribeEvent
+    public static void onLoadComplete(FMLLoadCompleteEvent event) {
+        StartupTrace.write();
+        RegistrationAudit.write();
+    }
 }
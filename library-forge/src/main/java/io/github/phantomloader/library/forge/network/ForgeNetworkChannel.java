@@ -0,0 +1,106 @@
+package io.github.phantomloader.library.forge.network;
+
+import io.github.phantomloader.library.network.ModPacket;
+import io.github.phantomloader.library.network.NetworkChannel;
+import io.github.phantomloader.library.network.Packet;
+import io.github.phantomloader.library.network.PacketCodec;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.network.simple.SimpleChannel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * <p>
+ *     Forge implementation of a {@link NetworkChannel}.
+ *     Packets are registered to a {@link SimpleChannel} with the id {@code <modid>:main} and are identified by the order in which they are defined.
+ * </p>
+ *
+ * @author Nico
+ */
+public class ForgeNetworkChannel implements NetworkChannel {
+
+    /** Packets defined in this channel */
+    private final ArrayList<Definition<?>> definitions = new ArrayList<>();
+    /** Forge's channel, created when this channel is registered */
+    private SimpleChannel channel;
+
+    @Override
+    public <T extends ModPacket> void definePacket(String name, Class<T> type, Packet.Direction direction, PacketCodec<T> codec) {
+        this.definitions.add(new Definition<>(type, direction, codec));
+    }
+
+    @Override
+    public void register(String mod, String protocol) {
+        this.channel = NetworkRegistry.newSimpleChannel(new ResourceLocation(mod, "main"), () -> protocol, protocol::equals, protocol::equals);
+        for(int i = 0; i < this.definitions.size(); i++) {
+            this.registerMessage(i, this.definitions.get(i));
+        }
+    }
+
+    /**
+     * <p>
+     *     Registers a packet to Forge's channel.
+     * </p>
+     *
+     * @param id Id of the packet.
+     * @param definition The packet's definition.
+     * @param <T> The packet type.
+     */
+    private <T extends ModPacket> void registerMessage(int id, Definition<T> definition) {
+        NetworkDirection direction = definition.direction() == Packet.Direction.TO_SERVER ? NetworkDirection.PLAY_TO_SERVER : NetworkDirection.PLAY_TO_CLIENT;
+        this.channel.messageBuilder(definition.type(), id, direction)
+                .encoder(definition.codec()::encode)
+                .decoder(definition.codec()::decode)
+                .consumerMainThread((packet, context) -> packet.handle(() -> context.get().getSender()))
+                .add();
+    }
+
+    @Override
+    public void sendToServer(ModPacket packet) {
+        this.channel().sendToServer(packet);
+    }
+
+    @Override
+    public void sendToPlayer(ServerPlayer player, ModPacket packet) {
+        this.channel().send(PacketDistributor.PLAYER.with(() -> player), packet);
+    }
+
+    @Override
+    public void sendToPlayers(Collection<ServerPlayer> players, ModPacket packet) {
+        this.channel().send(PacketDistributor.NMLIST.with(() -> players.stream().map(player -> player.connection.connection).toList()), packet);
+    }
+
+    /**
+     * <p>
+     *     Returns Forge's channel.
+     * </p>
+     *
+     * @return Forge's channel.
+     * @throws IllegalStateException If this channel has not been registered.
+     */
+    private SimpleChannel channel() {
+        if(this.channel == null) {
+            throw new IllegalStateException("Packets cannot be sent before the network channel is registered");
+        }
+        return this.channel;
+    }
+
+    /**
+     * <p>
+     *     Record used to store a packet defined in this channel until the channel is registered.
+     * </p>
+     *
+     * @param type The class of the packet.
+     * @param direction The direction of the packet.
+     * @param codec The packet's codec.
+     * @param <T> The packet type.
+     */
+    private record Definition<T extends ModPacket>(Class<T> type, Packet.Direction direction, PacketCodec<T> codec) {
+
+    }
+}
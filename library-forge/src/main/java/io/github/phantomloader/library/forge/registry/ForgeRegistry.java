@@ -1,7 +1,12 @@
 package io.github.phantomloader.library.forge.registry;
 
 import io.github.phantomloader.library.forge.items.BlockEntityItem;
+import io.github.phantomloader.library.profiling.StartupTrace;
+import io.github.phantomloader.library.registry.ConstructionBatch;
+import io.github.phantomloader.library.registry.CustomRegistry;
 import io.github.phantomloader.library.registry.ModRegistry;
+import io.github.phantomloader.library.registry.RegistrationTable;
+import io.github.phantomloader.library.registry.RegistryHandle;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Registry;
 import net.minecraft.core.particles.ParticleType;
@@ -9,6 +14,7 @@ import net.minecraft.core.registries.Registries;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.effect.MobEffect;
 import net.minecraft.world.entity.Entity;
@@ -32,13 +38,19 @@ import net.minecraft.world.level.material.Fluid;
 import net.minecraft.world.level.storage.loot.functions.LootItemFunctionType;
 import net.minecraftforge.common.ForgeSpawnEggItem;
 import net.minecraftforge.common.extensions.IForgeMenuType;
+import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import net.minecraftforge.registries.DeferredRegister;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.registries.IForgeRegistry;
+import net.minecraftforge.registries.RegisterEvent;
+import net.minecraftforge.registries.RegistryBuilder;
+import net.minecraftforge.registries.RegistryManager;
+import net.minecraftforge.registries.RegistryObject;
 import org.apache.commons.lang3.function.TriFunction;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Set;
@@ -63,6 +75,10 @@ public class ForgeRegistry extends ModRegistry {
      * </p>
      */
     private final HashMap<ResourceKey<?>, DeferredRegister<?>> registerMap = new HashMap<>();
+    /** Objects of thread-safe factories to create before registering each registry */
+    private final HashMap<ResourceKey<?>, ConstructionBatch> batches = new HashMap<>();
+    /** Handles to add to the index of each registry once their objects are registered */
+    private final HashMap<ResourceKey<?>, ArrayList<Named>> handles = new HashMap<>();
 
     /**
      * <p>
@@ -110,18 +126,91 @@ public class ForgeRegistry extends ModRegistry {
         return register;
     }
 
+    /**
+     * <p>
+     *     Returns the {@link ConstructionBatch} of the given registry or creates it.
+     * </p>
+     *
+     * @param type Registry type.
+     * @return The construction batch of that registry.
+     */
+    private ConstructionBatch batch(ResourceKey<?> type) {
+        return this.batches.computeIfAbsent(type, key -> new ConstructionBatch(this.mod + " " + key.location(), usesIntrusiveHolders(key)));
+    }
+
+    /**
+     * <p>
+     *     Helper function used to register objects whose factory may be {@link io.github.phantomloader.library.registry.ThreadSafeFactory thread-safe}.
+     * </p>
+     *
+     * @param type Registry type.
+     * @param name Name of the object to register.
+     * @param object A supplier returning the object to register.
+     * @return A handle to the registered object.
+     * @param <V> Registry object type.
+     * @param <T> Type of the object.
+     */
+    private <V, T extends V> RegistryHandle<T> register(IForgeRegistry<V> type, String name, Supplier<T> object) {
+        return this.register(type.getRegistryKey(), name, object);
+    }
+
+    /**
+     * <p>
+     *     Helper function used to register objects whose factory may be {@link io.github.phantomloader.library.registry.ThreadSafeFactory thread-safe}.
+     * </p>
+     *
+     * @param type Registry type.
+     * @param name Name of the object to register.
+     * @param object A supplier returning the object to register.
+     * @return A handle to the registered object.
+     * @param <V> Registry object type.
+     * @param <T> Type of the object.
+     */
+    private <V, T extends V> RegistryHandle<T> register(ResourceKey<Registry<V>> type, String name, Supplier<T> object) {
+        RegistryHandle<T> handle = RegistryHandle.bound(present(this.getRegister(type).register(name, this.batch(type).add(name, this.audited(type, name, object)))));
+        this.handles(type).add(new Named(name, handle));
+        return handle;
+    }
+
+    /**
+     * <p>
+     *     Helper function used to bind a {@link RegistryObject} to a {@link RegistryHandle}.
+     *     {@link RegistryObject#get()} throws if the object is not present,
+     *     so the returned supplier returns null instead until the object is registered, as required by {@link RegistryHandle#bind(Supplier)}.
+     * </p>
+     *
+     * @param object The registry object returned by a {@link DeferredRegister}.
+     * @return A supplier returning the registered object or null if it has not been registered yet.
+     * @param <T> Type of the object.
+     */
+    private static <T> Supplier<T> present(RegistryObject<T> object) {
+        return () -> object.isPresent() ? object.get() : null;
+    }
+
+    /**
+     * <p>
+     *     Returns the list of handles to add to the index of the given registry or creates it.
+     * </p>
+     *
+     * @param type Registry type.
+     * @return The list of handles registered in that registry.
+     */
+    private ArrayList<Named> handles(ResourceKey<?> type) {
+        return this.handles.computeIfAbsent(type, key -> new ArrayList<>());
+    }
+
     @Override
-    public <T extends Item> Supplier<T> registerItem(String name, Supplier<T> item) {
-        return this.getRegister(ForgeRegistries.ITEMS).register(name, item);
+    public <T extends Item> RegistryHandle<T> registerItem(String name, Supplier<T> item) {
+        return this.register(ForgeRegistries.ITEMS, name, item);
     }
 
     @Override
-    public <T extends Block> Supplier<T> registerBlock(String name, Supplier<T> block) {
-        return this.getRegister(ForgeRegistries.BLOCKS).register(name, block);
+    public <T extends Block> RegistryHandle<T> registerBlock(String name, Supplier<T> block) {
+        return this.register(ForgeRegistries.BLOCKS, name, block);
     }
 
     @Override
-    public Supplier<BlockItem> registerBlockItem(String name, Supplier<? extends Block> blockSupplier) {
+    public RegistryHandle<BlockItem> registerBlockItem(String name, Supplier<? extends Block> blockSupplier) {
         return this.registerItem(name, () -> {
             Block block = blockSupplier.get();
             if(block instanceof EntityBlock) {
@@ -133,14 +222,14 @@ public class ForgeRegistry extends ModRegistry {
 
     @Override
     @SuppressWarnings("DataFlowIssue")
-    public <T extends BlockEntity> Supplier<BlockEntityType<T>> registerBlockEntity(String name, BiFunction<BlockPos, BlockState, T> blockEntity, Set<Supplier<? extends Block>> blocks) {
+    public <T extends BlockEntity> RegistryHandle<BlockEntityType<T>> registerBlockEntity(String name, BiFunction<BlockPos, BlockState, T> blockEntity, Set<Supplier<? extends Block>> blocks) {
         // Block entity types must be created here because BlockEntityType.BlockEntitySupplier has private access in the common module
-        return this.getRegister(ForgeRegistries.BLOCK_ENTITY_TYPES).register(name, () -> BlockEntityType.Builder.of(blockEntity::apply, blocks.stream().map(Supplier::get).toArray(Block[]::new)).build(null));
+        return this.register(ForgeRegistries.BLOCK_ENTITY_TYPES, name, () -> BlockEntityType.Builder.of(blockEntity::apply, blocks.stream().map(Supplier::get).toArray(Block[]::new)).build(null));
     }
 
     @Override
-    public Supplier<CreativeModeTab> registerCreativeTab(String name, Supplier<? extends ItemLike> icon, Component title, Collection<Supplier<? extends ItemLike>> items) {
-        return this.getRegister(Registries.CREATIVE_MODE_TAB).register(name, () -> CreativeModeTab.builder()
+    public RegistryHandle<CreativeModeTab> registerCreativeTab(String name, Supplier<? extends ItemLike> icon, Component title, Collection<Supplier<? extends ItemLike>> items) {
+        return this.register(Registries.CREATIVE_MODE_TAB, name, () -> CreativeModeTab.builder()
                 .title(title)
                 .icon(() -> new ItemStack(icon.get()))
                 .displayItems((params, output) -> items.forEach(item -> output.accept(item.get())))
@@ -149,70 +238,184 @@ public class ForgeRegistry extends ModRegistry {
     }
 
     @Override
-    public <T extends Entity> Supplier<EntityType<T>> registerEntity(String name, EntityType.Builder<T> builder) {
-        return this.getRegister(ForgeRegistries.ENTITY_TYPES).register(name, () -> builder.build(name));
+    public <T extends Entity> RegistryHandle<EntityType<T>> registerEntity(String name, EntityType.Builder<T> builder) {
+        return this.register(ForgeRegistries.ENTITY_TYPES, name, () -> builder.build(name));
     }
 
     @Override
-    public Supplier<SpawnEggItem> registerSpawnEgg(String name, Supplier<EntityType<? extends Mob>> entity, int primaryColor, int secondaryColor) {
+    public RegistryHandle<SpawnEggItem> registerSpawnEgg(String name, Supplier<EntityType<? extends Mob>> entity, int primaryColor, int secondaryColor) {
         return this.registerItem(name, () -> new ForgeSpawnEggItem(entity, primaryColor, secondaryColor, new Item.Properties()));
     }
 
     @Override
-    public <T extends MobEffect> Supplier<T> registerEffect(String name, Supplier<T> effect) {
-        return this.getRegister(ForgeRegistries.MOB_EFFECTS).register(name, effect);
+    public <T extends MobEffect> RegistryHandle<T> registerEffect(String name, Supplier<T> effect) {
+        return this.register(ForgeRegistries.MOB_EFFECTS, name, effect);
+    }
+
+    @Override
+    public <T extends Enchantment> RegistryHandle<T> registerEnchantment(String name, Supplier<T> enchantment) {
+        return this.register(ForgeRegistries.ENCHANTMENTS, name, enchantment);
+    }
+
+    @Override
+    public <T extends LootItemFunctionType> RegistryHandle<T> registerLootItemFunction(String name, Supplier<T> lootItemFunction) {
+        return this.register(Registries.LOOT_FUNCTION_TYPE, name, lootItemFunction);
     }
 
     @Override
-    public <T extends Enchantment> Supplier<T> registerEnchantment(String name, Supplier<T> enchantment) {
-        return this.getRegister(ForgeRegistries.ENCHANTMENTS).register(name, enchantment);
+    public <T extends Feature<?>> RegistryHandle<T> registerFeature(String name, Supplier<T> feature) {
+        return this.register(ForgeRegistries.FEATURES, name, feature);
     }
 
     @Override
-    public <T extends LootItemFunctionType> Supplier<T> registerLootItemFunction(String name, Supplier<T> lootItemFunction) {
-        return this.getRegister(Registries.LOOT_FUNCTION_TYPE).register(name, lootItemFunction);
+    public <T extends AbstractContainerMenu> RegistryHandle<MenuType<T>> registerMenu(String name, TriFunction<Integer, Inventory, FriendlyByteBuf, T> menu) {
+        return this.register(ForgeRegistries.MENU_TYPES, name, () -> IForgeMenuType.create(menu::apply));
     }
 
     @Override
-    public <T extends Feature<?>> Supplier<T> registerFeature(String name, Supplier<T> feature) {
-        return this.getRegister(ForgeRegistries.FEATURES).register(name, feature);
+    public <T extends ParticleType<?>> RegistryHandle<T> registerParticles(String name, Supplier<T> particles) {
+        return this.register(ForgeRegistries.PARTICLE_TYPES, name, particles);
     }
 
     @Override
-    public <T extends AbstractContainerMenu> Supplier<MenuType<T>> registerMenu(String name, TriFunction<Integer, Inventory, FriendlyByteBuf, T> menu) {
-        return this.getRegister(ForgeRegistries.MENU_TYPES).register(name, () -> IForgeMenuType.create(menu::apply));
+    public <T extends RecipeSerializer<?>> RegistryHandle<T> registerRecipeSerializer(String name, Supplier<T> recipeSerializer) {
+        return this.register(ForgeRegistries.RECIPE_SERIALIZERS, name, recipeSerializer);
     }
 
     @Override
-    public <T extends ParticleType<?>> Supplier<T> registerParticles(String name, Supplier<T> particles) {
-        return this.getRegister(ForgeRegistries.PARTICLE_TYPES).register(name, particles);
+    public <T extends RecipeType<?>> RegistryHandle<T> registerRecipeType(String name, Supplier<T> recipeType) {
+        return this.register(ForgeRegistries.RECIPE_TYPES, name, recipeType);
     }
 
     @Override
-    public <T extends RecipeSerializer<?>> Supplier<T> registerRecipeSerializer(String name, Supplier<T> recipeSerializer) {
-        return this.getRegister(ForgeRegistries.RECIPE_SERIALIZERS).register(name, recipeSerializer);
+    public <T extends SoundEvent> RegistryHandle<T> registerSound(String name, Supplier<T> sound) {
+        return this.register(ForgeRegistries.SOUND_EVENTS, name, sound);
     }
 
     @Override
-    public <T extends RecipeType<?>> Supplier<T> registerRecipeType(String name, Supplier<T> recipeType) {
-        return this.getRegister(ForgeRegistries.RECIPE_TYPES).register(name, recipeType);
+    public <T extends Fluid> RegistryHandle<T> registerFluid(String name, Supplier<T> fluid) {
+        return this.register(ForgeRegistries.FLUIDS, name, fluid);
     }
 
     @Override
-    public <T extends SoundEvent> Supplier<T> registerSound(String name, Supplier<T> sound) {
-        return this.getRegister(ForgeRegistries.SOUND_EVENTS).register(name, sound);
+    public <T> CustomRegistry<T> createRegistry(String name, boolean synced) {
+        ResourceKey<Registry<T>> key = ResourceKey.createRegistryKey(new ResourceLocation(this.mod, name));
+        CustomRegistry<T> registry = new CustomRegistry<>(key);
+        // Forge bakes registries once all mods have registered their objects and again when ids are synced from the server
+        RegistryBuilder<T> builder = new RegistryBuilder<T>().onBake((owner, stage) -> {
+            if(stage == RegistryManager.ACTIVE) {
+                registry.freeze(owner.getEntries());
+            }
+        });
+        if(!synced) {
+            builder.disableSync();
+        }
+        this.getRegister(key).makeRegistry(() -> builder);
+        return registry;
     }
 
     @Override
-    public <T extends Fluid> Supplier<T> registerFluid(String name, Supplier<T> fluid) {
-        return this.getRegister(ForgeRegistries.FLUIDS).register(name, fluid);
+    public <V, T extends V> RegistryHandle<T> registerCustom(CustomRegistry<V> registry, String name, Supplier<T> object) {
+        return this.register(registry.key(), name, object);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void registerTable(RegistrationTable table) {
+        switch (table.type()) {
+            case SOUND_EVENT -> this.registerTable(this.getRegister(ForgeRegistries.SOUND_EVENTS), table);
+            case FLUID -> this.registerTable(this.getRegister(ForgeRegistries.FLUIDS), table);
+            case MOB_EFFECT -> this.registerTable(this.getRegister(ForgeRegistries.MOB_EFFECTS), table);
+            case BLOCK -> this.registerTable(this.getRegister(ForgeRegistries.BLOCKS), table);
+            case ENCHANTMENT -> this.registerTable(this.getRegister(ForgeRegistries.ENCHANTMENTS), table);
+            case ITEM -> this.registerTable(this.getRegister(ForgeRegistries.ITEMS), table);
+            case BLOCK_ITEM -> {
+                // Block item tables contain the block entries
+                for(int i = 0; i < table.size(); i++) {
+                    this.registerBlockItem(table.names()[i], (Supplier<? extends Block>) table.entry(i));
+                }
+            }
+            case PARTICLE_TYPE -> this.registerTable(this.getRegister(ForgeRegistries.PARTICLE_TYPES), table);
+            case FEATURE -> this.registerTable(this.getRegister(ForgeRegistries.FEATURES), table);
+            case RECIPE_TYPE -> this.registerTable(this.getRegister(ForgeRegistries.RECIPE_TYPES), table);
+            case RECIPE_SERIALIZER -> this.registerTable(this.getRegister(ForgeRegistries.RECIPE_SERIALIZERS), table);
+            case LOOT_ITEM_FUNCTION -> this.registerTable(this.getRegister(Registries.LOOT_FUNCTION_TYPE), table);
+        }
+    }
+
+    /**
+     * <p>
+     *     Helper function used to add all the objects in a {@link RegistrationTable} to the given {@link DeferredRegister}.
+     *     The factory of each {@link RegistryHandle} is passed to the register and the returned registry object is bound to the entry.
+     *     Thread-safe factories are added to the {@link ConstructionBatch} of the registry.
+     * </p>
+     *
+     * @param register The deferred register to use.
+     * @param table The table to register.
+     * @param <V> Registry object type.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> void registerTable(DeferredRegister<V> register, RegistrationTable table) {
+        ConstructionBatch batch = this.batch(register.getRegistryKey());
+        batch.ensureCapacity(table.size());
+        ArrayList<Named> handles = this.handles(register.getRegistryKey());
+        handles.ensureCapacity(handles.size() + table.size());
+        for(int i = 0; i < table.size(); i++) {
+            RegistryHandle<V> entry = (RegistryHandle<V>) table.entry(i);
+            entry.bind(present(register.register(table.names()[i], batch.add(table.names()[i], this.audited(register.getRegistryKey(), table.names()[i], entry.factory())))));
+            handles.add(new Named(table.names()[i], entry));
+        }
     }
 
     @Override
     public void register() {
+        long start = StartupTrace.begin();
         IEventBus eventBus = FMLJavaModLoadingContext.get().getModEventBus();
         for(DeferredRegister<?> register : this.registerMap.values()) {
             register.register(eventBus);
         }
+        // Deferred registers bind their registry objects at normal priority, so handles can be indexed afterwards
+        eventBus.addListener(EventPriority.LOW, false, RegisterEvent.class, event -> {
+            ArrayList<Named> handles = this.handles.remove(event.getRegistryKey());
+            if(handles != null) {
+                for(Named named : handles) {
+                    this.addToIndex(event.getRegistryKey(), named.name(), named.handle());
+                }
+            }
+        });
+        if(ConstructionBatch.ENABLED) {
+            // Deferred registers listen at normal priority, so objects of thread-safe factories are created before their registry is registered
+            eventBus.addListener(EventPriority.HIGH, false, RegisterEvent.class, event -> {
+                ConstructionBatch batch = this.batches.get(event.getRegistryKey());
+                if(batch != null) {
+                    batch.construct();
+                }
+            });
+        }
+        if(StartupTrace.ENABLED) {
+            // Deferred registers listen at normal priority, so these listeners measure the time taken to register the objects of this mod
+            long[] flushStart = new long[1];
+            eventBus.addListener(EventPriority.HIGHEST, false, RegisterEvent.class, event -> flushStart[0] = StartupTrace.begin());
+            eventBus.addListener(EventPriority.LOWEST, false, RegisterEvent.class, event -> {
+                if(this.registerMap.containsKey(event.getRegistryKey())) {
+                    StartupTrace.end(this.mod + " " + event.getRegistryKey().location(), "registry", flushStart[0]);
+                }
+            });
+        }
+        if(StartupTrace.ENABLED) {
+            StartupTrace.end(this.mod + " registry", "registry", start);
+        }
+    }
+
+    /**
+     * <p>
+     *     Record used to store a handle until its object is registered.
+     * </p>
+     *
+     * @param name Registry name of the object.
+     * @param handle Handle to the object.
+     */
+    private record Named(String name, RegistryHandle<?> handle) {
+
     }
 }
@@ -0,0 +1,156 @@
+package io.github.phantomloader.benchmark;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.HashMap;
+
+/**
+ * <p>
+ *     File manager that keeps all generated files in memory.
+ *     Used to measure the annotation processors without writing to disk.
+ * </p>
+ *
+ * @author Nico
+ */
+public class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    /** Files written by the compiler, grouped by location and path */
+    private final HashMap<String, OutputFile> outputs = new HashMap<>();
+
+    /**
+     * <p>
+     *     Creates an in-memory file manager.
+     * </p>
+     *
+     * @param fileManager The standard file manager used to read the classpath.
+     */
+    public InMemoryFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+        return this.output(location, className.replace('.', '/') + kind.extension, kind);
+    }
+
+    @Override
+    public FileObject getFileForOutput(Location location, String packageName, String relativeName, FileObject sibling) {
+        return this.output(location, path(packageName, relativeName), JavaFileObject.Kind.OTHER);
+    }
+
+    @Override
+    public FileObject getFileForInput(Location location, String packageName, String relativeName) {
+        if(location == StandardLocation.SOURCE_OUTPUT || location == StandardLocation.CLASS_OUTPUT) {
+            // Returning null makes the filer report that the file does not exist
+            return this.outputs.get(location.getName() + "/" + path(packageName, relativeName));
+        }
+        return null;
+    }
+
+    @Override
+    public boolean hasLocation(Location location) {
+        return location == StandardLocation.SOURCE_OUTPUT || location == StandardLocation.CLASS_OUTPUT || super.hasLocation(location);
+    }
+
+    /**
+     * <p>
+     *     Returns the total size of the files written by the compiler.
+     * </p>
+     *
+     * @return The total size in bytes.
+     */
+    public long outputSize() {
+        return this.outputs.values().stream().mapToLong(file -> file.content.size()).sum();
+    }
+
+    /**
+     * <p>
+     *     Returns the number of files written by the compiler.
+     * </p>
+     *
+     * @return The number of files.
+     */
+    public int outputCount() {
+        return this.outputs.size();
+    }
+
+    /**
+     * <p>
+     *     Creates an output file and stores it in the map.
+     * </p>
+     *
+     * @param location The location of the file.
+     * @param path The path of the file relative to the location.
+     * @param kind The kind of file.
+     * @return The new file.
+     */
+    private OutputFile output(JavaFileManager.Location location, String path, JavaFileObject.Kind kind) {
+        OutputFile file = new OutputFile(location.getName() + "/" + path, kind);
+        this.outputs.put(location.getName() + "/" + path, file);
+        return file;
+    }
+
+    /**
+     * <p>
+     *     Helper function used to join a package name and a relative path.
+     * </p>
+     *
+     * @param packageName The package name, may be empty.
+     * @param relativeName The path relative to the package.
+     * @return The path relative to the location.
+     */
+    private static String path(String packageName, String relativeName) {
+        return packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + "/" + relativeName;
+    }
+
+    /**
+     * <p>
+     *     In-memory file written by the compiler.
+     * </p>
+     *
+     * @author Nico
+     */
+    private static class OutputFile extends SimpleJavaFileObject {
+
+        /** Content of the file */
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        /**
+         * <p>
+         *     Creates an in-memory file.
+         * </p>
+         *
+         * @param path Path of the file.
+         * @param kind Kind of file.
+         */
+        public OutputFile(String path, Kind kind) {
+            super(URI.create("memory:///" + path), kind);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            this.content.reset();
+            return this.content;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(this.content.toByteArray());
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return this.content.toString();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.phantomloader.benchmark;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ *     Annotation processor that delegates to another one and measures the time and the memory allocated in every round.
+ * </p>
+ *
+ * @author Nico
+ */
+public class MeasuringProcessor implements Processor {
+
+    /** Used to measure the memory allocated by the current thread */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** The measured annotation processor */
+    private final Processor processor;
+    /** Measurements of every round */
+    private final ArrayList<Round> rounds = new ArrayList<>();
+
+    /**
+     * <p>
+     *     Creates a measuring processor.
+     * </p>
+     *
+     * @param processor The annotation processor to measure.
+     */
+    public MeasuringProcessor(Processor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        long threadId = Thread.currentThread().getId();
+        long allocated = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        boolean result = this.processor.process(annotations, roundEnvironment);
+        this.rounds.add(new Round(System.nanoTime() - start, THREAD_BEAN.getThreadAllocatedBytes(threadId) - allocated));
+        return result;
+    }
+
+    /**
+     * <p>
+     *     Returns the measurements of every round.
+     * </p>
+     *
+     * @return A list containing one measurement per round.
+     */
+    public List<Round> rounds() {
+        return this.rounds;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return this.processor.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return this.processor.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return this.processor.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnvironment) {
+        this.processor.init(processingEnvironment);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+        return this.processor.getCompletions(element, annotation, member, userText);
+    }
+
+    /**
+     * <p>
+     *     Record used to store the measurements of a round.
+     * </p>
+     *
+     * @param nanos Time spent in the annotation processor in nanoseconds.
+     * @param allocatedBytes Memory allocated by the annotation processor in bytes.
+     */
+    public record Round(long nanos, long allocatedBytes) {
+
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.phantomloader.benchmark;
+
+import io.github.phantomloader.processor.fabric.FabricAnnotationProcessor;
+import io.github.phantomloader.processor.forge.ForgeAnnotationProcessor;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ *     Benchmark for {@link ForgeAnnotationProcessor} and {@link FabricAnnotationProcessor}.
+ * </p>
+ * <p>
+ *     Compiles synthetic sources with {@link JavaCompiler} and an {@link InMemoryFileManager} and reports the time spent in the annotation processor, the memory it allocated, and the size of the generated files.
+ *     Only annotation processing is performed, generated classes are not compiled.
+ * </p>
+ * <p>
+ *     Arguments, all optional:
+ * </p>
+ * <ul>
+ *     <li>{@code --loader forge|fabric|all}: the annotation processors to measure, default {@code all}.</li>
+ *     <li>{@code --sizes 100,1000,10000,50000}: the numbers of entry points to generate.</li>
+ *     <li>{@code --custom 10}: every how many entry points a custom entry point is generated, 0 for none.</li>
+ *     <li>{@code --warmup 2}: the number of compilations that are not measured.</li>
+ *     <li>{@code --iterations 5}: the number of measured compilations.</li>
+ * </ul>
+ *
+ * @author Nico
+ */
+public class ProcessorBenchmark {
+
+    /**
+     * <p>
+     *     Runs the benchmark.
+     * </p>
+     *
+     * @param args Command line arguments.
+     * @throws IOException If the file manager cannot be closed.
+     */
+    public static void main(String[] args) throws IOException {
+        String loader = "all";
+        int[] sizes = {100, 1000, 10000, 50000};
+        int custom = 10;
+        int warmup = 2;
+        int iterations = 5;
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--loader" -> loader = args[i + 1];
+                case "--sizes" -> sizes = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--custom" -> custom = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        System.out.printf("%-8s %8s %8s %12s %12s %12s %12s %10s %6s%n", "loader", "entries", "rounds", "process ms", "last rnd ms", "alloc MB", "javac ms", "output KB", "files");
+        for(Loader benchmarkLoader : Loader.values()) {
+            if(loader.equals("all") || loader.equalsIgnoreCase(benchmarkLoader.name())) {
+                for(int size : sizes) {
+                    List<JavaFileObject> sources = SyntheticSources.generate(size, custom);
+                    for(int i = 0; i < warmup; i++) {
+                        compile(benchmarkLoader, sources);
+                    }
+                    ArrayList<Result> results = new ArrayList<>();
+                    for(int i = 0; i < iterations; i++) {
+                        results.add(compile(benchmarkLoader, sources));
+                    }
+                    Result first = results.get(0);
+                    System.out.printf("%-8s %8d %8d %12.2f %12.2f %12.2f %12.2f %10.1f %6d%n",
+                            benchmarkLoader.name().toLowerCase(), size, first.rounds(),
+                            results.stream().mapToLong(Result::processNanos).average().orElse(0) / 1e6,
+                            results.stream().mapToLong(Result::lastRoundNanos).average().orElse(0) / 1e6,
+                            results.stream().mapToLong(Result::allocatedBytes).average().orElse(0) / (1024.0 * 1024.0),
+                            results.stream().mapToLong(Result::compileNanos).average().orElse(0) / 1e6,
+                            first.outputSize() / 1024.0, first.outputFiles());
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Runs annotation processing on the given sources.
+     * </p>
+     *
+     * @param loader The annotation processor to use.
+     * @param sources The sources to process.
+     * @return The measurements.
+     * @throws IOException If the file manager cannot be closed.
+     */
+    private static Result compile(Loader loader, List<JavaFileObject> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try(InMemoryFileManager fileManager = new InMemoryFileManager(compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8))) {
+            ArrayList<String> options = new ArrayList<>(List.of("-proc:only", "-classpath", System.getProperty("java.class.path")));
+            options.addAll(loader.options);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+            MeasuringProcessor processor = new MeasuringProcessor(loader.processor.get());
+            task.setProcessors(List.of(processor));
+            long start = System.nanoTime();
+            boolean success = task.call();
+            long compileNanos = System.nanoTime() - start;
+            if(!success) {
+                String errors = diagnostics.getDiagnostics().stream().filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR).map(Object::toString).collect(Collectors.joining("\n"));
+                throw new IllegalStateException("Compilation failed:\n" + errors);
+            }
+            List<MeasuringProcessor.Round> rounds = processor.rounds();
+            return new Result(
+                    rounds.size(),
+                    rounds.stream().mapToLong(MeasuringProcessor.Round::nanos).sum(),
+                    rounds.isEmpty() ? 0 : rounds.get(rounds.size() - 1).nanos(),
+                    rounds.stream().mapToLong(MeasuringProcessor.Round::allocatedBytes).sum(),
+                    compileNanos,
+                    fileManager.outputSize(),
+                    fileManager.outputCount()
+            );
+        }
+    }
+
+    /**
+     * <p>
+     *     Annotation processors that can be measured along with the compiler options they need.
+     * </p>
+     *
+     * @author Nico
+     */
+    private enum Loader {
+        /** Forge annotation processor */
+        FORGE(ForgeAnnotationProcessor::new, "-AforgeVersion=47.2.0"),
+        /** Fabric annotation processor */
+        FABRIC(FabricAnnotationProcessor::new, "-AfabricVersion=0.15.3");
+
+        /** Creates a new instance of the annotation processor */
+        private final Supplier<Processor> processor;
+        /** Compiler options needed by the annotation processor */
+        private final List<String> options;
+
+        /**
+         * <p>
+         *     Creates a loader.
+         * </p>
+         *
+         * @param processor Creates a new instance of the annotation processor.
+         * @param loaderVersion Option containing the version of the mod loader.
+         */
+        Loader(Supplier<Processor> processor, String loaderVersion) {
+            this.processor = processor;
+            this.options = List.of(loaderVersion, "-AphantomVersion=20.1.5", "-AminecraftVersion=1.20.1", "-AmodId=bench_mod", "-AmodGroupId=com.example", "-AmodVersion=1.0");
+        }
+    }
+
+    /**
+     * <p>
+     *     Record used to store the measurements of a compilation.
+     * </p>
+     *
+     * @param rounds Number of processing rounds.
+     * @param processNanos Total time spent in the annotation processor.
+     * @param lastRoundNanos Time spent in the last round, where code is generated.
+     * @param allocatedBytes Memory allocated by the annotation processor.
+     * @param compileNanos Total time of the compilation.
+     * @param outputSize Size of the generated files in bytes.
+     * @param outputFiles Number of generated files.
+     */
+    private record Result(int rounds, long processNanos, long lastRoundNanos, long allocatedBytes, long compileNanos, long outputSize, int outputFiles) {
+
+    }
+}
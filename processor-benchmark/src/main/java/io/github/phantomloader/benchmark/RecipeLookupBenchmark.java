@@ -0,0 +1,234 @@
+package io.github.phantomloader.benchmark;
+
+import io.github.phantomloader.library.recipe.InputIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ *     Benchmark for the {@link InputIndex} used by {@link io.github.phantomloader.library.recipe.RecipeIndex}.
+ * </p>
+ * <p>
+ *     Simulates machines that look up a recipe for their input every tick and compares a linear scan of all the recipes,
+ *     which is what {@code RecipeManager.getRecipeFor} does, with a lookup in an {@code InputIndex} with and without a per-machine {@link InputIndex.Memo}.
+ *     Recipes and items are synthetic so that the benchmark does not need Minecraft classes,
+ *     a recipe matches if the item in the input slot is its input item and the stack is large enough.
+ * </p>
+ * <p>
+ *     Arguments, all optional:
+ * </p>
+ * <ul>
+ *     <li>{@code --sizes 100,1000,10000}: the numbers of recipes to generate.</li>
+ *     <li>{@code --items 4}: how many recipes share the same input item on average.</li>
+ *     <li>{@code --wildcards 0}: every how many recipes a recipe without a primary input is generated, 0 for none.</li>
+ *     <li>{@code --machines 256}: the number of simulated machines.</li>
+ *     <li>{@code --repeat 20}: the number of ticks after which a machine changes its input.</li>
+ *     <li>{@code --ticks 2000}: the number of simulated ticks per iteration.</li>
+ *     <li>{@code --warmup 2}: the number of iterations that are not measured.</li>
+ *     <li>{@code --iterations 5}: the number of measured iterations.</li>
+ * </ul>
+ *
+ * @author Nico
+ */
+public class RecipeLookupBenchmark {
+
+    /**
+     * <p>
+     *     Runs the benchmark.
+     * </p>
+     *
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        int[] sizes = {100, 1000, 10000};
+        int items = 4;
+        int wildcards = 0;
+        int machines = 256;
+        int repeat = 20;
+        int ticks = 2000;
+        int warmup = 2;
+        int iterations = 5;
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes" -> sizes = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--items" -> items = Integer.parseInt(args[i + 1]);
+                case "--wildcards" -> wildcards = Integer.parseInt(args[i + 1]);
+                case "--machines" -> machines = Integer.parseInt(args[i + 1]);
+                case "--repeat" -> repeat = Integer.parseInt(args[i + 1]);
+                case "--ticks" -> ticks = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        System.out.printf("%-8s %8s %12s %12s %12s %12s %10s%n", "recipes", "lookups", "build ms", "linear ns", "index ns", "memo ns", "speedup");
+        for(int size : sizes) {
+            Random random = new Random(size);
+            Item[] itemTable = new Item[Math.max(1, size / items)];
+            for(int i = 0; i < itemTable.length; i++) {
+                itemTable[i] = new Item(i);
+            }
+            ArrayList<Recipe> recipes = new ArrayList<>(size);
+            for(int i = 0; i < size; i++) {
+                Item input = wildcards > 0 && i % wildcards == wildcards - 1 ? null : itemTable[random.nextInt(itemTable.length)];
+                recipes.add(new Recipe(input, 1 + random.nextInt(4)));
+            }
+            long buildStart = System.nanoTime();
+            InputIndex<Item, Recipe> index = new InputIndex<>(recipes, Recipe::keys);
+            double buildMillis = (System.nanoTime() - buildStart) / 1e6;
+            // Every machine gets a new input every few ticks, including inputs that do not match any recipe
+            Slot[][] inputs = new Slot[machines][ticks / repeat + 1];
+            for(Slot[] machine : inputs) {
+                for(int i = 0; i < machine.length; i++) {
+                    machine[i] = new Slot(itemTable[random.nextInt(itemTable.length)], 1 + random.nextInt(4));
+                }
+            }
+            for(int i = 0; i < warmup; i++) {
+                run(Mode.LINEAR, recipes, index, inputs, ticks, repeat);
+                run(Mode.INDEX, recipes, index, inputs, ticks, repeat);
+                run(Mode.MEMO, recipes, index, inputs, ticks, repeat);
+            }
+            long[] nanos = new long[Mode.values().length];
+            for(int i = 0; i < iterations; i++) {
+                for(Mode mode : Mode.values()) {
+                    nanos[mode.ordinal()] += run(mode, recipes, index, inputs, ticks, repeat);
+                }
+            }
+            double lookups = (double) machines * ticks * iterations;
+            System.out.printf("%-8d %8d %12.2f %12.1f %12.1f %12.1f %9.1fx%n",
+                    size, machines * ticks, buildMillis,
+                    nanos[Mode.LINEAR.ordinal()] / lookups,
+                    nanos[Mode.INDEX.ordinal()] / lookups,
+                    nanos[Mode.MEMO.ordinal()] / lookups,
+                    (double) nanos[Mode.LINEAR.ordinal()] / nanos[Mode.MEMO.ordinal()]);
+        }
+    }
+
+    /**
+     * <p>
+     *     Simulates all the machines for the given number of ticks.
+     * </p>
+     *
+     * @param mode How recipes are looked up.
+     * @param recipes All the recipes.
+     * @param index The index of the recipes.
+     * @param inputs The inputs of each machine.
+     * @param ticks Number of ticks to simulate.
+     * @param repeat Number of ticks after which a machine changes its input.
+     * @return The time taken in nanoseconds.
+     */
+    @SuppressWarnings("unchecked")
+    private static long run(Mode mode, List<Recipe> recipes, InputIndex<Item, Recipe> index, Slot[][] inputs, int ticks, int repeat) {
+        InputIndex.Memo<Recipe>[] memos = (InputIndex.Memo<Recipe>[]) new InputIndex.Memo<?>[inputs.length];
+        for(int i = 0; i < memos.length; i++) {
+            memos[i] = new InputIndex.Memo<>();
+        }
+        long found = 0;
+        long start = System.nanoTime();
+        for(int tick = 0; tick < ticks; tick++) {
+            for(int machine = 0; machine < inputs.length; machine++) {
+                Slot slot = inputs[machine][tick / repeat];
+                Recipe recipe = switch (mode) {
+                    case LINEAR -> recipes.stream().filter(candidate -> candidate.matches(slot)).findFirst().orElse(null);
+                    case INDEX -> index.find(slot.item(), candidate -> candidate.matches(slot));
+                    case MEMO -> index.find(slot.item(), candidate -> candidate.matches(slot), memos[machine]);
+                };
+                if(recipe != null) {
+                    found += recipe.count();
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        // Prevents the lookups from being optimized away
+        if(found == Long.MIN_VALUE) {
+            System.out.println(found);
+        }
+        return nanos;
+    }
+
+    /**
+     * <p>
+     *     Ways recipes can be looked up.
+     * </p>
+     *
+     * @author Nico
+     */
+    private enum Mode {
+        /** Linear scan of all the recipes */
+        LINEAR,
+        /** Lookup in the index */
+        INDEX,
+        /** Lookup in the index with a per-machine memo */
+        MEMO
+    }
+
+    /**
+     * <p>
+     *     Synthetic item, compared by identity like Minecraft items.
+     * </p>
+     *
+     * @param id Id of the item.
+     */
+    private record Item(int id) {
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    /**
+     * <p>
+     *     Synthetic input slot.
+     * </p>
+     *
+     * @param item The item in the slot.
+     * @param count The number of items in the slot.
+     */
+    private record Slot(Item item, int count) {
+
+    }
+
+    /**
+     * <p>
+     *     Synthetic recipe.
+     * </p>
+     *
+     * @param input The input item or null if the recipe has no primary input.
+     * @param count The number of input items needed.
+     */
+    private record Recipe(Item input, int count) {
+
+        /**
+         * <p>
+         *     Returns the keys of this recipe in the index.
+         * </p>
+         *
+         * @return The input item or an empty list if this recipe has no primary input.
+         */
+        private Collection<Item> keys() {
+            return this.input == null ? List.of() : List.of(this.input);
+        }
+
+        /**
+         * <p>
+         *     Checks if this recipe matches the given slot.
+         * </p>
+         *
+         * @param slot The input slot.
+         * @return True if the slot contains enough of the input item.
+         */
+        private boolean matches(Slot slot) {
+            return (this.input == null || this.input == slot.item()) && slot.count() >= this.count;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.phantomloader.benchmark;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ *     Generates synthetic mod sources with a given number of {@code ModEntryPoint} methods.
+ * </p>
+ * <p>
+ *     Methods are spread across classes and packages and use every side.
+ *     Some of them declare dependencies, some are off-thread, and some are {@code FabricCustomEntryPoint}s, so that every part of the annotation processors is exercised.
+ * </p>
+ *
+ * @author Nico
+ */
+public class SyntheticSources {
+
+    /** Number of entry point methods in each generated class */
+    private static final int METHODS_PER_CLASS = 50;
+    /** Number of generated classes in each package */
+    private static final int CLASSES_PER_PACKAGE = 20;
+    /** Interfaces used for custom entry points, they must be on the classpath */
+    private static final String[] CUSTOM_INTERFACES = {"java.lang.Runnable", "net.fabricmc.loader.api.entrypoint.PreLaunchEntrypoint"};
+    /** Names of the custom entry points */
+    private static final String[] CUSTOM_NAMES = {"runnable", "preLaunch"};
+
+    /**
+     * <p>
+     *     Generates the sources.
+     * </p>
+     *
+     * @param entryPoints Total number of entry point methods.
+     * @param customEntryPoints Every how many methods a custom entry point is generated, or 0 to generate none.
+     * @return A list of in-memory source files.
+     */
+    public static List<JavaFileObject> generate(int entryPoints, int customEntryPoints) {
+        ArrayList<JavaFileObject> sources = new ArrayList<>();
+        int classes = (entryPoints + METHODS_PER_CLASS - 1) / METHODS_PER_CLASS;
+        for(int classIndex = 0; classIndex < classes; classIndex++) {
+            String packageName = "com.example.bench.p" + (classIndex / CLASSES_PER_PACKAGE);
+            String className = "Entries" + classIndex;
+            StringBuilder source = new StringBuilder();
+            source.append("package ").append(packageName).append(";\n");
+            source.append("import io.github.phantomloader.library.ModEntryPoint;\n");
+            source.append("import io.github.phantomloader.library.integration.FabricCustomEntryPoint;\n");
+            source.append("public class ").append(className).append(" {\n");
+            int first = classIndex * METHODS_PER_CLASS;
+            int last = Math.min(entryPoints, first + METHODS_PER_CLASS);
+            for(int method = first; method < last; method++) {
+                if(isCustom(method, customEntryPoints)) {
+                    int custom = (method / customEntryPoints) % CUSTOM_INTERFACES.length;
+                    source.append("    @FabricCustomEntryPoint(name = \"").append(CUSTOM_NAMES[custom]).append("\", interfaceName = \"").append(CUSTOM_INTERFACES[custom]).append("\")\n");
+                }
+                source.append("    @ModEntryPoint(").append(attributes(method, first, customEntryPoints)).append(")\n");
+                source.append("    public static void entry").append(method).append("() {\n");
+                source.append("        System.out.println(").append(method).append(");\n");
+                source.append("    }\n");
+            }
+            source.append("}\n");
+            sources.add(new SourceFile(packageName.replace('.', '/') + "/" + className + ".java", source.toString()));
+        }
+        return sources;
+    }
+
+    /**
+     * <p>
+     *     Generates the attributes of the {@code ModEntryPoint} annotation for the given method.
+     * </p>
+     *
+     * @param method Index of the method.
+     * @param first Index of the first method in the same class.
+     * @param customEntryPoints Every how many methods a custom entry point is generated.
+     * @return The annotation attributes.
+     */
+    private static String attributes(int method, int first, int customEntryPoints) {
+        String side = switch (method % 4) {
+            case 0 -> "INIT";
+            case 1 -> "COMMON";
+            case 2 -> "CLIENT";
+            default -> "SERVER";
+        };
+        StringBuilder attributes = new StringBuilder("side = ModEntryPoint.Side." + side);
+        if(method % 7 == 0) {
+            attributes.append(", order = ").append(method % 3);
+        }
+        // Depend on the method with the same side declared just before this one, custom entry points are called separately
+        boolean hasDependency = method % 3 == 0 && method - 4 >= first && !isCustom(method, customEntryPoints) && !isCustom(method - 4, customEntryPoints);
+        if(hasDependency) {
+            attributes.append(", after = \"entry").append(method - 4).append("\"");
+        }
+        // Off-thread methods have no dependencies, so they never depend on main-thread methods
+        if(method % 4 == 1 && !hasDependency) {
+            attributes.append(", offThread = true");
+        }
+        return attributes.toString();
+    }
+
+    /**
+     * <p>
+     *     Checks if a custom entry point is generated for the given method.
+     * </p>
+     *
+     * @param method Index of the method.
+     * @param customEntryPoints Every how many methods a custom entry point is generated, or 0 to generate none.
+     * @return True if the method is a custom entry point, otherwise false.
+     */
+    private static boolean isCustom(int method, int customEntryPoints) {
+        return customEntryPoints > 0 && method % customEntryPoints == 0;
+    }
+
+    /**
+     * <p>
+     *     In-memory source file.
+     * </p>
+     *
+     * @author Nico
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        /** Content of the file */
+        private final String content;
+
+        /**
+         * <p>
+         *     Creates an in-memory source file.
+         * </p>
+         *
+         * @param path Path of the file, relative to the source root.
+         * @param content Content of the file.
+         */
+        public SourceFile(String path, String content) {
+            super(URI.create("memory:///" + path), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return this.content;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package io.github.phantomloader.processor;
+
+import io.github.phantomloader.library.blockentity.Persist;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ *     Helper class used by {@link ModAnnotationProcessor} to generate a {@code BlockEntityCodec} for every class that declares fields annotated with {@link Persist}.
+ * </p>
+ * <p>
+ *     Codecs are generated in the package of their block entity, so that they can access package-private fields, and save each field with a direct call to the matching tag class.
+ *     The codec of a class also saves the fields inherited from its superclasses, which keep the same index as in the codec of the superclass.
+ *     The {@code PhantomBlockEntityCodecs} class registers all the generated codecs.
+ * </p>
+ *
+ * @author Nico
+ */
+public class BlockEntityCodecGenerator {
+
+    /** Fully qualified name of the class block entities must extend */
+    private static final String BLOCK_ENTITY_CLASS = "io.github.phantomloader.library.blockentity.PersistentBlockEntity";
+    /** Maximum number of persistent fields in a block entity, one per bit of the dirty mask */
+    private static final int MAX_FIELDS = 64;
+    /** Keys written by the block entity itself or by the mod loader */
+    private static final Set<String> RESERVED_KEYS = Set.of("id", "x", "y", "z", "ForgeData", "ForgeCaps");
+    /** Expressions used to save and load the supported types, keyed by type name */
+    private static final Map<String, TagMethods> TAG_METHODS = Map.ofEntries(
+            Map.entry("boolean", new TagMethods("net.minecraft.nbt.ByteTag.valueOf(%s)", "tag.contains(%s, 99)", "tag.getBoolean(%s)", false)),
+            Map.entry("byte", new TagMethods("net.minecraft.nbt.ByteTag.valueOf(%s)", "tag.contains(%s, 99)", "tag.getByte(%s)", false)),
+            Map.entry("short", new TagMethods("net.minecraft.nbt.ShortTag.valueOf(%s)", "tag.contains(%s, 99)", "tag.getShort(%s)", false)),
+            Map.entry("int", new TagMethods("net.minecraft.nbt.IntTag.valueOf(%s)", "tag.contains(%s, 99)", "tag.getInt(%s)", false)),
+            Map.entry("long", new TagMethods("net.minecraft.nbt.LongTag.valueOf(%s)", "tag.contains(%s, 99)", "tag.getLong(%s)", false)),
+            Map.entry("float", new TagMethods("net.minecraft.nbt.FloatTag.valueOf(%s)", "tag.contains(%s, 99)", "tag.getFloat(%s)", false)),
+            Map.entry("double", new TagMethods("net.minecraft.nbt.DoubleTag.valueOf(%s)", "tag.contains(%s, 99)", "tag.getDouble(%s)", false)),
+            Map.entry("java.lang.String", new TagMethods("net.minecraft.nbt.StringTag.valueOf(%s)", "tag.contains(%s, 8)", "tag.getString(%s)", true)),
+            Map.entry("java.util.UUID", new TagMethods("net.minecraft.nbt.NbtUtils.createUUID(%s)", "tag.hasUUID(%s)", "tag.getUUID(%s)", true)),
+            Map.entry("net.minecraft.resources.ResourceLocation", new TagMethods("net.minecraft.nbt.StringTag.valueOf(%s.toString())", "tag.contains(%s, 8)", "net.minecraft.resources.ResourceLocation.tryParse(tag.getString(%s))", true)),
+            Map.entry("net.minecraft.core.BlockPos", new TagMethods("net.minecraft.nbt.NbtUtils.writeBlockPos(%s)", "tag.contains(%s, 10)", "net.minecraft.nbt.NbtUtils.readBlockPos(tag.getCompound(%s))", true)),
+            // Mutable values are copied so that saved tags are never shared with a field
+            Map.entry("net.minecraft.nbt.CompoundTag", new TagMethods("%s.copy()", "tag.contains(%s, 10)", "tag.getCompound(%s).copy()", true)),
+            Map.entry("net.minecraft.world.item.ItemStack", new TagMethods("%s.save(new net.minecraft.nbt.CompoundTag())", "tag.contains(%s, 10)", "net.minecraft.world.item.ItemStack.of(tag.getCompound(%s))", true)),
+            Map.entry("byte[]", new TagMethods("new net.minecraft.nbt.ByteArrayTag(%s.clone())", "tag.contains(%s, 7)", "tag.getByteArray(%s).clone()", true)),
+            Map.entry("int[]", new TagMethods("new net.minecraft.nbt.IntArrayTag(%s.clone())", "tag.contains(%s, 11)", "tag.getIntArray(%s).clone()", true)),
+            Map.entry("long[]", new TagMethods("new net.minecraft.nbt.LongArrayTag(%s.clone())", "tag.contains(%s, 12)", "tag.getLongArray(%s).clone()", true))
+    );
+
+    /** The annotation processor that uses this generator */
+    private final ModAnnotationProcessor processor;
+    /** Classes that declare fields annotated with {@link Persist}, keyed and sorted by qualified name */
+    private final TreeMap<String, TypeElement> blockEntities = new TreeMap<>();
+    /** Fields annotated with {@link Persist} that passed validation */
+    private final HashSet<Element> fields = new HashSet<>();
+
+    /**
+     * <p>
+     *     Creates a block entity codec generator.
+     * </p>
+     *
+     * @param processor The annotation processor that uses this generator.
+     */
+    public BlockEntityCodecGenerator(ModAnnotationProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * <p>
+     *     Checks that a field annotated with {@link Persist} can be saved by the generated code and adds its class to the generated codecs.
+     *     Prints an error if the field is private, static, or final, if its class does not extend {@code PersistentBlockEntity} or cannot be accessed from its package, or if its type is not supported.
+     * </p>
+     *
+     * @param element The annotated element.
+     */
+    public void add(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if(modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+            this.processor.printError("The field annotated with Persist cannot be private, static, or final", element);
+            return;
+        }
+        TypeElement type = (TypeElement) element.getEnclosingElement();
+        TypeElement blockEntityClass = this.processor.processingEnvironment().getElementUtils().getTypeElement(BLOCK_ENTITY_CLASS);
+        if(blockEntityClass != null && !this.processor.processingEnvironment().getTypeUtils().isSubtype(this.processor.processingEnvironment().getTypeUtils().erasure(type.asType()), this.processor.processingEnvironment().getTypeUtils().erasure(blockEntityClass.asType()))) {
+            this.processor.printError("Fields annotated with Persist can only be declared in classes that extend " + BLOCK_ENTITY_CLASS, element);
+            return;
+        }
+        if(!isAccessible(type)) {
+            this.processor.printError("The class " + type.getQualifiedName() + " declaring fields annotated with Persist cannot be private and must be static if it is a nested class", element);
+            return;
+        }
+        if(!isSupported(element.asType())) {
+            this.processor.printError("Unsupported type " + element.asType() + " of persistent field " + element.getSimpleName() + ", see the documentation of Persist for the supported types", element);
+            return;
+        }
+        this.fields.add(element);
+        this.blockEntities.put(type.getQualifiedName().toString(), type);
+    }
+
+    /**
+     * <p>
+     *     Checks if there are fields annotated with {@link Persist}.
+     *     If there are, the generated mod class must call {@code PhantomBlockEntityCodecs.register()} before any entry point.
+     * </p>
+     *
+     * @return True if no codec is generated, otherwise false.
+     */
+    public boolean isEmpty() {
+        return this.blockEntities.isEmpty();
+    }
+
+    /**
+     * <p>
+     *     Returns the fields annotated with {@link Persist}.
+     * </p>
+     *
+     * @return A collection containing the annotated fields.
+     */
+    public Collection<Element> fields() {
+        return this.fields;
+    }
+
+    /**
+     * <p>
+     *     Generates the codec of every block entity and the {@code PhantomBlockEntityCodecs} class in the given package.
+     *     Does nothing if there are no annotated fields.
+     * </p>
+     *
+     * @param packageName The package in which the registering class is generated.
+     */
+    public void generate(String packageName) {
+        if(!this.isEmpty()) {
+            HashMap<TypeElement, String> codecs = new HashMap<>();
+            for(TypeElement type : this.blockEntities.values()) {
+                List<VariableElement> persistentFields = this.persistentFields(type);
+                if(this.checkFields(type, persistentFields)) {
+                    codecs.put(type, this.generateCodec(type, persistentFields));
+                }
+            }
+            String className = packageName + ".PhantomBlockEntityCodecs";
+            try(PrintWriter writer = new PrintWriter(this.processor.createSourceFile(className, this.blockEntities.values()))) {
+                writer.println("package " + packageName + ";");
+                writer.println("public class PhantomBlockEntityCodecs {");
+                writer.println("    public static void register() {");
+                for(TypeElement type : this.blockEntities.values()) {
+                    if(codecs.containsKey(type)) {
+                        writer.println("        io.github.phantomloader.library.blockentity.PersistentBlockEntity.registerCodec(" + type.getQualifiedName() + ".class, new " + codecs.get(type) + "());");
+                    }
+                }
+                writer.println("    }");
+                writer.println("}");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not generate class " + className, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the fields of the given class and of its superclasses that are annotated with {@link Persist}.
+     *     Fields of superclasses come first, followed by the fields of the class in declaration order.
+     * </p>
+     *
+     * @param type The block entity class.
+     * @return A list containing the persistent fields.
+     */
+    private List<VariableElement> persistentFields(TypeElement type) {
+        ArrayDeque<TypeElement> hierarchy = new ArrayDeque<>();
+        for(TypeElement current = type; current != null && !current.getQualifiedName().contentEquals(BLOCK_ENTITY_CLASS); current = superclass(current)) {
+            hierarchy.push(current);
+        }
+        ArrayList<VariableElement> persistentFields = new ArrayList<>();
+        for(TypeElement current : hierarchy) {
+            for(VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if(field.getAnnotation(Persist.class) != null) {
+                    persistentFields.add(field);
+                }
+            }
+        }
+        return persistentFields;
+    }
+
+    /**
+     * <p>
+     *     Checks that the codec of the given class can save all of its fields.
+     *     Prints an error if the class has too many fields, if two fields use the same key or constant name, if a key is reserved, or if an inherited field cannot be accessed from the package of the class.
+     * </p>
+     *
+     * @param type The block entity class.
+     * @param persistentFields The persistent fields of the class and its superclasses.
+     * @return True if the codec can be generated, otherwise false.
+     */
+    private boolean checkFields(TypeElement type, List<VariableElement> persistentFields) {
+        if(persistentFields.size() > MAX_FIELDS) {
+            this.processor.printError("Block entity " + type.getQualifiedName() + " cannot have more than " + MAX_FIELDS + " persistent fields", type);
+            return false;
+        }
+        boolean valid = true;
+        HashMap<String, VariableElement> keys = new HashMap<>();
+        HashMap<String, VariableElement> constants = new HashMap<>();
+        PackageElement packageElement = this.processor.processingEnvironment().getElementUtils().getPackageOf(type);
+        for(VariableElement field : persistentFields) {
+            String key = key(field);
+            VariableElement other = keys.put(key, field);
+            if(RESERVED_KEYS.contains(key)) {
+                this.processor.printError("Persistent field " + field.getSimpleName() + " in " + type.getQualifiedName() + " cannot use reserved key " + key, type);
+                valid = false;
+            } else if(other != null) {
+                this.processor.printError("Persistent fields " + other.getSimpleName() + " and " + field.getSimpleName() + " in " + type.getQualifiedName() + " use the same key " + key, type);
+                valid = false;
+            } else if((other = constants.put(constantName(field), field)) != null) {
+                this.processor.printError("Persistent fields " + other.getSimpleName() + " and " + field.getSimpleName() + " in " + type.getQualifiedName() + " use the same constant name " + constantName(field), type);
+                valid = false;
+            }
+            Element declaringClass = field.getEnclosingElement();
+            if(!this.processor.processingEnvironment().getElementUtils().getPackageOf(declaringClass).equals(packageElement) && (!field.getModifiers().contains(Modifier.PUBLIC) || !declaringClass.getModifiers().contains(Modifier.PUBLIC))) {
+                this.processor.printError("Persistent field " + field.getSimpleName() + " inherited by " + type.getQualifiedName() + " from another package must be public and declared in a public class", type);
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * <p>
+     *     Generates the codec of the given block entity in its package.
+     * </p>
+     *
+     * @param type The block entity class.
+     * @param persistentFields The persistent fields of the class and its superclasses.
+     * @return The qualified name of the generated class.
+     */
+    private String generateCodec(TypeElement type, List<VariableElement> persistentFields) {
+        String packageName = this.processor.processingEnvironment().getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String simpleName = codecName(type);
+        String className = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        long syncedFields = 0L;
+        ArrayList<String> keys = new ArrayList<>();
+        for(int i = 0; i < persistentFields.size(); i++) {
+            if(persistentFields.get(i).getAnnotation(Persist.class).sync()) {
+                syncedFields |= 1L << i;
+            }
+            keys.add("\"" + key(persistentFields.get(i)) + "\"");
+        }
+        try(PrintWriter writer = new PrintWriter(this.processor.createSourceFile(className, List.of(type)))) {
+            if(!packageName.isEmpty()) {
+                writer.println("package " + packageName + ";");
+            }
+            writer.println("public final class " + simpleName + " implements io.github.phantomloader.library.blockentity.BlockEntityCodec<" + type.getQualifiedName() + "> {");
+            for(int i = 0; i < persistentFields.size(); i++) {
+                writer.println("    public static final int " + constantName(persistentFields.get(i)) + " = " + i + ";");
+            }
+            writer.println("    private static final String[] KEYS = {" + String.join(", ", keys) + "};");
+            writer.println("    @Override");
+            writer.println("    public String[] keys() {");
+            writer.println("        return KEYS;");
+            writer.println("    }");
+            writer.println("    @Override");
+            writer.println("    public long syncedFields() {");
+            writer.println("        return 0x" + Long.toHexString(syncedFields) + "L;");
+            writer.println("    }");
+            writer.println("    @Override");
+            writer.println("    public net.minecraft.nbt.Tag save(" + type.getQualifiedName() + " blockEntity, int field) {");
+            writer.println("        return switch (field) {");
+            for(int i = 0; i < persistentFields.size(); i++) {
+                VariableElement field = persistentFields.get(i);
+                String value = "blockEntity." + field.getSimpleName();
+                TagMethods methods = TAG_METHODS.get(typeName(field.asType()));
+                String tag = methods != null ? String.format(methods.save(), value) : "net.minecraft.nbt.StringTag.valueOf(" + value + ".name())";
+                // Enums and other objects may be null, in which case the field is not saved
+                boolean nullable = methods == null || methods.nullable();
+                writer.println("            case " + i + " -> " + (nullable ? value + " == null ? null : " + tag : tag) + ";");
+            }
+            writer.println("            default -> null;");
+            writer.println("        };");
+            writer.println("    }");
+            writer.println("    @Override");
+            writer.println("    public void load(" + type.getQualifiedName() + " blockEntity, net.minecraft.nbt.CompoundTag tag) {");
+            for(VariableElement field : persistentFields) {
+                String key = "\"" + key(field) + "\"";
+                String value = "blockEntity." + field.getSimpleName();
+                TagMethods methods = TAG_METHODS.get(typeName(field.asType()));
+                if(methods != null) {
+                    writer.println("        if(" + String.format(methods.check(), key) + ") {");
+                    writer.println("            " + value + " = " + String.format(methods.load(), key) + ";");
+                    writer.println("        }");
+                } else {
+                    writer.println("        if(tag.contains(" + key + ", 8)) {");
+                    writer.println("            try {");
+                    writer.println("                " + value + " = " + field.asType() + ".valueOf(tag.getString(" + key + "));");
+                    writer.println("            } catch (IllegalArgumentException e) {");
+                    writer.println("                // Constants that no longer exist keep the current value");
+                    writer.println("            }");
+                    writer.println("        }");
+                }
+            }
+            writer.println("    }");
+            writer.println("}");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not generate class " + className, e);
+        }
+        return className;
+    }
+
+    /**
+     * <p>
+     *     Returns the superclass of the given class.
+     * </p>
+     *
+     * @param type The class.
+     * @return The superclass or null if the class has no superclass.
+     */
+    private static TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    /**
+     * <p>
+     *     Checks if the generated codec can access the given class from its package.
+     * </p>
+     *
+     * @param type The class.
+     * @return True if the class and its enclosing classes are not private and nested classes are static, otherwise false.
+     */
+    private static boolean isAccessible(TypeElement type) {
+        for(Element current = type; current instanceof TypeElement typeElement; current = current.getEnclosingElement()) {
+            if(typeElement.getModifiers().contains(Modifier.PRIVATE) || (typeElement.getNestingKind() != NestingKind.TOP_LEVEL && (typeElement.getNestingKind() != NestingKind.MEMBER || !typeElement.getModifiers().contains(Modifier.STATIC)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>
+     *     Checks if a field of the given type can be saved by the generated code.
+     * </p>
+     *
+     * @param type The type of the field.
+     * @return True if the type is supported or is an enum, otherwise false.
+     */
+    private static boolean isSupported(TypeMirror type) {
+        return TAG_METHODS.containsKey(typeName(type)) || (type instanceof DeclaredType declaredType && declaredType.asElement().getKind() == ElementKind.ENUM);
+    }
+
+    /**
+     * <p>
+     *     Returns the key of the given field.
+     * </p>
+     *
+     * @param field The field annotated with {@link Persist}.
+     * @return The key specified in the annotation or the name of the field.
+     */
+    private static String key(VariableElement field) {
+        String key = field.getAnnotation(Persist.class).key();
+        return key.isEmpty() ? field.getSimpleName().toString() : key;
+    }
+
+    /**
+     * <p>
+     *     Returns the name of the constant that holds the index of the given field.
+     * </p>
+     *
+     * @param field The field annotated with {@link Persist}.
+     * @return The name of the field in upper snake case.
+     */
+    private static String constantName(VariableElement field) {
+        return field.getSimpleName().toString().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    /**
+     * <p>
+     *     Returns the simple name of the codec generated for the given class.
+     * </p>
+     *
+     * @param type The block entity class.
+     * @return {@code Phantom<name>Nbt}, where nested classes include the names of their enclosing classes.
+     */
+    private static String codecName(TypeElement type) {
+        StringBuilder name = new StringBuilder();
+        for(Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            name.insert(0, current.getSimpleName());
+        }
+        return "Phantom" + name + "Nbt";
+    }
+
+    /**
+     * <p>
+     *     Returns the name used to look up the tag methods of the given type.
+     * </p>
+     *
+     * @param type The type.
+     * @return The qualified name of a class, the name of a primitive type, or the name of a primitive array type.
+     */
+    private static String typeName(TypeMirror type) {
+        if(type instanceof DeclaredType declaredType) {
+            return ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+        } else if(type instanceof ArrayType arrayType) {
+            return arrayType.getComponentType().getKind().isPrimitive() ? arrayType.getComponentType().getKind().name().toLowerCase() + "[]" : "";
+        }
+        return type.getKind().isPrimitive() ? type.getKind().name().toLowerCase() : "";
+    }
+
+    /**
+     * <p>
+     *     Record used to store the expressions used to save and load a type.
+     * </p>
+     *
+     * @param save Expression that creates the tag of a value, where {@code %s} is the value.
+     * @param check Expression that checks if the loaded tag contains a value, where {@code %s} is the key.
+     * @param load Expression that reads a value from the loaded tag, where {@code %s} is the key.
+     * @param nullable True if values of the type may be null.
+     */
+    private record TagMethods(String save, String check, String load, boolean nullable) {
+
+    }
+}
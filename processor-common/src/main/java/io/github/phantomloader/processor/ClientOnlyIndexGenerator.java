@@ -0,0 +1,202 @@
+package io.github.phantomloader.processor;
+
+import io.github.phantomloader.library.ClientOnly;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ *     Helper class used by {@link ModAnnotationProcessor} to keep track of the elements annotated with {@link ClientOnly} and to generate the index read by {@code io.github.phantomloader.library.platform.ClientOnlyIndex}.
+ * </p>
+ * <p>
+ *     A class is client-only if it is annotated with {@link ClientOnly}, Forge's {@code @OnlyIn(Dist.CLIENT)}, or Fabric's {@code @Environment(EnvType.CLIENT)}, if it is nested in a client-only class, or if it extends or implements a client-only class.
+ *     The check that common code does not reach client-only classes is done by {@link PreloadManifestGenerator}, which already computes the classes reachable from each side.
+ * </p>
+ *
+ * @author Nico
+ */
+public class ClientOnlyIndexGenerator {
+
+    /** Fully qualified names of the annotations of other mod loaders that mark client-only classes when their value is {@code CLIENT} */
+    private static final List<String> LOADER_ANNOTATIONS = List.of(
+            "net.minecraftforge.api.distmarker.OnlyIn",
+            "net.fabricmc.api.Environment"
+    );
+
+    /** The annotation processor that uses this generator */
+    private final ModAnnotationProcessor processor;
+    /** Classes and methods annotated with {@link ClientOnly} */
+    private final HashSet<Element> annotatedElements = new HashSet<>();
+    /** Caches whether a class is client-only, keyed by qualified name */
+    private final HashMap<String, Boolean> clientOnlyTypes = new HashMap<>();
+    /** Whether an index was written by the last call to {@link ClientOnlyIndexGenerator#generate(String, Collection)} */
+    private boolean generated = false;
+
+    /**
+     * <p>
+     *     Creates a client-only index generator.
+     * </p>
+     *
+     * @param processor The annotation processor that uses this generator.
+     */
+    public ClientOnlyIndexGenerator(ModAnnotationProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * <p>
+     *     Adds an element annotated with {@link ClientOnly}.
+     * </p>
+     *
+     * @param element The annotated element.
+     */
+    public void add(Element element) {
+        this.annotatedElements.add(element);
+    }
+
+    /**
+     * <p>
+     *     Checks if the given element can only be used on the client.
+     *     Methods are client-only if they are annotated with {@link ClientOnly} or if they are declared in a client-only class.
+     * </p>
+     *
+     * @param element A class or a member of a class.
+     * @return True if the element is client-only, otherwise false.
+     */
+    public boolean isClientOnly(Element element) {
+        if(element instanceof TypeElement type) {
+            return this.isClientOnlyType(type);
+        }
+        return hasClientAnnotation(element) || (element.getEnclosingElement() instanceof TypeElement type && this.isClientOnlyType(type));
+    }
+
+    /**
+     * <p>
+     *     Generates the index for the given mod.
+     *     The index contains the binary names of the classes annotated with {@link ClientOnly}, of the classes nested in them, and of the given client-only services.
+     *     Does nothing if there are no client-only classes.
+     * </p>
+     *
+     * @param modId The mod id, used as the name of the index.
+     * @param services Classes annotated with {@link io.github.phantomloader.library.services.PhantomService}, only the client-only ones are added to the index.
+     */
+    public void generate(String modId, Collection<? extends TypeElement> services) {
+        TreeSet<String> classes = new TreeSet<>();
+        ArrayList<Element> originatingElements = new ArrayList<>();
+        for(Element element : this.annotatedElements) {
+            if(element instanceof TypeElement type) {
+                this.addNestedTypes(type, classes);
+                originatingElements.add(type);
+            }
+        }
+        for(TypeElement service : services) {
+            if(this.isClientOnlyType(service)) {
+                classes.add(this.processor.processingEnvironment().getElementUtils().getBinaryName(service).toString());
+                originatingElements.add(service);
+            }
+        }
+        this.generated = !classes.isEmpty();
+        if(this.generated) {
+            String path = "META-INF/phantom/client-only/" + modId + ".txt";
+            try(PrintWriter writer = new PrintWriter(this.processor.createResource(path, originatingElements))) {
+                writer.println("# Classes that are never loaded by Phantom Loader on a dedicated server");
+                classes.forEach(writer::println);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not generate client-only index " + path, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if an index was generated.
+     *     If it was, the generated mod class should call {@code ClientOnlyIndex.load} before any service is registered.
+     * </p>
+     *
+     * @return True if an index was generated, otherwise false.
+     */
+    public boolean isGenerated() {
+        return this.generated;
+    }
+
+    /**
+     * <p>
+     *     Checks if the given class is client-only.
+     *     Results are cached since the same library classes are checked many times.
+     * </p>
+     *
+     * @param type The class.
+     * @return True if the class, a class it is nested in, or one of its supertypes is client-only, otherwise false.
+     */
+    private boolean isClientOnlyType(TypeElement type) {
+        String name = type.getQualifiedName().toString();
+        Boolean cached = this.clientOnlyTypes.get(name);
+        if(cached == null) {
+            // Prevents infinite recursion while the supertypes are checked
+            this.clientOnlyTypes.put(name, false);
+            boolean clientOnly = hasClientAnnotation(type) || (type.getEnclosingElement() instanceof TypeElement enclosingType && this.isClientOnlyType(enclosingType));
+            for(TypeMirror supertype : this.processor.processingEnvironment().getTypeUtils().directSupertypes(type.asType())) {
+                if(!clientOnly && supertype instanceof DeclaredType declaredType) {
+                    clientOnly = this.isClientOnlyType((TypeElement) declaredType.asElement());
+                }
+            }
+            this.clientOnlyTypes.put(name, clientOnly);
+            return clientOnly;
+        }
+        return cached;
+    }
+
+    /**
+     * <p>
+     *     Adds the binary names of the given class and of all the classes nested in it to the given set.
+     * </p>
+     *
+     * @param type The class.
+     * @param classes The set of binary names.
+     */
+    private void addNestedTypes(TypeElement type, TreeSet<String> classes) {
+        classes.add(this.processor.processingEnvironment().getElementUtils().getBinaryName(type).toString());
+        for(TypeElement nestedType : ElementFilter.typesIn(type.getEnclosedElements())) {
+            this.addNestedTypes(nestedType, classes);
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if the given element is annotated with {@link ClientOnly} or with the client-only annotation of a mod loader.
+     *     Annotations of other mod loaders are compared by name since they may not be on the classpath.
+     * </p>
+     *
+     * @param element The element.
+     * @return True if the element has a client-only annotation, otherwise false.
+     */
+    private static boolean hasClientAnnotation(Element element) {
+        if(element.getKind() == ElementKind.PACKAGE) {
+            return false;
+        }
+        for(AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+            if(name.equals(ClientOnly.class.getName())) {
+                return true;
+            } else if(LOADER_ANNOTATIONS.contains(name) && annotation.getElementValues().values().stream().anyMatch(value -> value.getValue().toString().equals("CLIENT"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,374 @@
+package io.github.phantomloader.processor;
+
+import io.github.phantomloader.library.ModEntryPoint;
+import io.github.phantomloader.library.config.ConfigOption;
+import io.github.phantomloader.library.config.ConfigSchema;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ *     Helper class used by {@link ModAnnotationProcessor} to generate the {@code PhantomConfigs} class from the classes annotated with {@link ConfigSchema}.
+ * </p>
+ * <p>
+ *     The generated class defines one config file per schema with a {@code ConfigBuilder} and adds a load listener that copies the loaded values into the volatile fields of the schema.
+ *     Values are clamped to their range once per load so that reading a field is a single volatile read.
+ *     All the fields are written inside {@link io.github.phantomloader.library.config.ConfigVersion#write(Runnable)},
+ *     so that code that reads several fields with {@link io.github.phantomloader.library.config.ConfigVersion#read(java.util.function.Supplier)} never sees a partially applied config.
+ * </p>
+ *
+ * @author Nico
+ */
+public class ConfigGenerator {
+
+    /** The annotation processor that uses this generator */
+    private final ModAnnotationProcessor processor;
+    /** Classes annotated with {@link ConfigSchema} grouped by side */
+    private final TreeMap<ModEntryPoint.Side, TypeElement> schemas = new TreeMap<>();
+
+    /**
+     * <p>
+     *     Creates a config generator.
+     * </p>
+     *
+     * @param processor The annotation processor that uses this generator.
+     */
+    public ConfigGenerator(ModAnnotationProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * <p>
+     *     Checks that a class annotated with {@link ConfigSchema} can be used to generate a config file and adds it to the generated class.
+     *     Prints an error if the class is not public, if another class uses the same side, or if one of its options is invalid.
+     * </p>
+     *
+     * @param element The annotated element.
+     */
+    public void add(Element element) {
+        if(element.getKind() != ElementKind.CLASS || !element.getModifiers().contains(Modifier.PUBLIC)) {
+            this.processor.printError("Only public classes can be annotated with ConfigSchema", element);
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        ModEntryPoint.Side side = type.getAnnotation(ConfigSchema.class).side();
+        if(side == ModEntryPoint.Side.INIT) {
+            this.processor.printError("Config files cannot use side INIT, use COMMON instead", element);
+            return;
+        }
+        HashSet<String> keys = new HashSet<>();
+        for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if(isOption(field)) {
+                ConfigOption option = field.getAnnotation(ConfigOption.class);
+                String key = category(field) + "." + key(field);
+                if(!keys.add(key)) {
+                    this.processor.printError("Duplicate config option " + key(field) + (category(field).isEmpty() ? "" : " in category " + category(field)), field);
+                } else if(!field.getModifiers().contains(Modifier.VOLATILE)) {
+                    this.processor.printError("Config option " + key(field) + " must be volatile, otherwise other threads may not see reloaded values", field);
+                } else if(option != null && hasRange(option)) {
+                    this.checkRange(field, option);
+                }
+            } else if(field.getAnnotation(ConfigOption.class) != null) {
+                this.processor.printError("The field annotated with ConfigOption must be public static volatile, not final, and of type boolean, int, long, double, or String", field);
+            }
+        }
+        TypeElement other = this.schemas.get(side);
+        if(other != null && !other.getQualifiedName().contentEquals(type.getQualifiedName())) {
+            this.processor.printError("Only one class per side can be annotated with ConfigSchema, " + side + " is already used by " + other.getQualifiedName(), element);
+            return;
+        }
+        this.schemas.put(side, type);
+    }
+
+    /**
+     * <p>
+     *     Checks that the range of a numeric option is valid.
+     *     Prints an error if it is not.
+     * </p>
+     *
+     * @param field The option's field.
+     * @param option The option's annotation.
+     */
+    private void checkRange(VariableElement field, ConfigOption option) {
+        TypeKind kind = field.asType().getKind();
+        if(kind != TypeKind.INT && kind != TypeKind.LONG && kind != TypeKind.DOUBLE) {
+            this.processor.printError("Only numeric config options can have a range", field);
+        } else if(option.min() > option.max()) {
+            this.processor.printError("The minimum value of config option " + key(field) + " is greater than its maximum value", field);
+        } else if(kind != TypeKind.DOUBLE && (!isWhole(option.min()) || !isWhole(option.max()))) {
+            this.processor.printError("The range of config option " + key(field) + " must only contain whole numbers", field);
+        } else if(kind == TypeKind.INT && (option.min() > Integer.MAX_VALUE || option.max() < Integer.MIN_VALUE)) {
+            this.processor.printError("The range of config option " + key(field) + " does not contain any int", field);
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if there are classes annotated with {@link ConfigSchema}.
+     *     If there are, the generated mod class must call {@code PhantomConfigs.register()} before any entry point.
+     * </p>
+     *
+     * @return True if a {@code PhantomConfigs} class is generated, otherwise false.
+     */
+    public boolean isEmpty() {
+        return this.schemas.isEmpty();
+    }
+
+    /**
+     * <p>
+     *     Returns the classes annotated with {@link ConfigSchema}.
+     * </p>
+     *
+     * @return A collection containing the annotated classes.
+     */
+    public Collection<TypeElement> schemas() {
+        return this.schemas.values();
+    }
+
+    /**
+     * <p>
+     *     Generates the {@code PhantomConfigs} class in the given package.
+     *     Does nothing if there are no annotated classes.
+     * </p>
+     *
+     * @param packageName The package in which the class is generated.
+     * @param modId The mod id, used as the name of the config files.
+     */
+    public void generate(String packageName, String modId) {
+        if(!this.isEmpty()) {
+            String className = packageName + ".PhantomConfigs";
+            try(PrintWriter writer = new PrintWriter(this.processor.createSourceFile(className, this.schemas.values()))) {
+                writer.println("package " + packageName + ";");
+                writer.println("public class PhantomConfigs {");
+                writer.println("    public static void register() {");
+                for(ModEntryPoint.Side side : this.schemas.keySet()) {
+                    if(side == ModEntryPoint.Side.CLIENT) {
+                        // Client config files must not be created on a dedicated server
+                        writer.println("        if(io.github.phantomloader.library.platform.PlatformHelper.isClientSide()) {");
+                        writer.println("            " + methodName(side) + "();");
+                        writer.println("        }");
+                    } else {
+                        writer.println("        " + methodName(side) + "();");
+                    }
+                }
+                writer.println("    }");
+                for(ModEntryPoint.Side side : this.schemas.keySet()) {
+                    this.writeSchema(writer, side, this.schemas.get(side), modId);
+                }
+                writer.println("}");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not generate class " + className, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Writes the method that defines and registers the config file of the given schema.
+     * </p>
+     *
+     * @param writer The writer used to write the generated class.
+     * @param side The side of the config file.
+     * @param schema The class annotated with {@link ConfigSchema}.
+     * @param modId The mod id.
+     */
+    private void writeSchema(PrintWriter writer, ModEntryPoint.Side side, TypeElement schema, String modId) {
+        // Group options by category, keeping the declaration order
+        LinkedHashMap<String, List<VariableElement>> categories = new LinkedHashMap<>();
+        for(VariableElement field : ElementFilter.fieldsIn(schema.getEnclosedElements())) {
+            if(isOption(field)) {
+                categories.computeIfAbsent(category(field), key -> new ArrayList<>()).add(field);
+            }
+        }
+        ArrayList<String> assignments = new ArrayList<>();
+        writer.println("    private static void " + methodName(side) + "() {");
+        writer.println("        io.github.phantomloader.library.config.ConfigBuilder builder = io.github.phantomloader.library.config.ConfigBuilder.instantiate();");
+        for(String category : categories.keySet()) {
+            String indent = category.isEmpty() ? "        " : "            ";
+            if(!category.isEmpty()) {
+                writer.println("        builder.beginCategory(" + javaString(category) + ");");
+            }
+            for(VariableElement field : categories.get(category)) {
+                String variable = "option" + assignments.size();
+                String fieldName = schema.getQualifiedName() + "." + field.getSimpleName();
+                ConfigOption option = field.getAnnotation(ConfigOption.class);
+                StringBuilder arguments = new StringBuilder(javaString(key(field)) + ", " + fieldName);
+                String value = variable + ".get()";
+                if(option != null && hasRange(option)) {
+                    String min = literal(field.asType(), option.min());
+                    String max = literal(field.asType(), option.max());
+                    arguments.append(", ").append(min).append(", ").append(max);
+                    value = "Math.max(" + min + ", Math.min(" + max + ", " + value + "))";
+                }
+                if(option != null) {
+                    for(String line : option.comment()) {
+                        arguments.append(", ").append(javaString(line));
+                    }
+                }
+                writer.println(indent + "java.util.function.Supplier<" + boxedType(field.asType()) + "> " + variable + " = builder.define(" + arguments + ");");
+                assignments.add(fieldName + " = " + value + ";");
+            }
+            if(!category.isEmpty()) {
+                writer.println("        builder.endCategory();");
+            }
+        }
+        // All the fields are written inside a single version so that readers can check that they did not read a partially applied config
+        writer.println("        io.github.phantomloader.library.config.ConfigVersion version = io.github.phantomloader.library.config.ConfigVersion.of(" + schema.getQualifiedName() + ".class);");
+        writer.println("        builder.addLoadListener(() -> version.write(() -> {");
+        for(String assignment : assignments) {
+            writer.println("            " + assignment);
+        }
+        writer.println("        }));");
+        writer.println("        builder.register(" + javaString(modId) + ", io.github.phantomloader.library.ModEntryPoint.Side." + side + ");");
+        writer.println("    }");
+    }
+
+    /**
+     * <p>
+     *     Checks if a field of a class annotated with {@link ConfigSchema} is a config option.
+     * </p>
+     *
+     * @param field The field.
+     * @return True if the field is public static, not final, and of a supported type, otherwise false.
+     */
+    private static boolean isOption(VariableElement field) {
+        Set<Modifier> modifiers = field.getModifiers();
+        return modifiers.contains(Modifier.PUBLIC) && modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.FINAL) && boxedType(field.asType()) != null;
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the type of the supplier returned by {@code ConfigBuilder#define} for a field.
+     * </p>
+     *
+     * @param type The type of the field.
+     * @return The boxed type of the field or null if the type is not supported.
+     */
+    private static String boxedType(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "Boolean";
+            case INT -> "Integer";
+            case LONG -> "Long";
+            case DOUBLE -> "Double";
+            case DECLARED -> type.toString().equals("java.lang.String") ? "String" : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the key of a config option.
+     * </p>
+     *
+     * @param field The option's field.
+     * @return The key specified by {@link ConfigOption#key()} or the name of the field.
+     */
+    private static String key(VariableElement field) {
+        ConfigOption option = field.getAnnotation(ConfigOption.class);
+        return option == null || option.key().isEmpty() ? field.getSimpleName().toString() : option.key();
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the category of a config option.
+     * </p>
+     *
+     * @param field The option's field.
+     * @return The category specified by {@link ConfigOption#category()} or an empty string.
+     */
+    private static String category(VariableElement field) {
+        ConfigOption option = field.getAnnotation(ConfigOption.class);
+        return option == null ? "" : option.category();
+    }
+
+    /**
+     * <p>
+     *     Checks if a config option has a minimum or a maximum value.
+     * </p>
+     *
+     * @param option The option's annotation.
+     * @return True if the option has a range, otherwise false.
+     */
+    private static boolean hasRange(ConfigOption option) {
+        return option.min() != Double.NEGATIVE_INFINITY || option.max() != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * <p>
+     *     Helper function used to check if a bound of a range is a whole number or infinity.
+     * </p>
+     *
+     * @param value The bound.
+     * @return True if the value is a whole number or infinity, otherwise false.
+     */
+    private static boolean isWhole(double value) {
+        return Double.isInfinite(value) || value == Math.rint(value);
+    }
+
+    /**
+     * <p>
+     *     Helper function used to write a bound of a range as a java literal of the given type.
+     *     Infinite bounds are written as the minimum or maximum value of the type.
+     * </p>
+     *
+     * @param type The type of the option.
+     * @param value The bound.
+     * @return A java expression.
+     */
+    private static String literal(TypeMirror type, double value) {
+        return switch (type.getKind()) {
+            case INT -> value <= Integer.MIN_VALUE ? "Integer.MIN_VALUE" : value >= Integer.MAX_VALUE ? "Integer.MAX_VALUE" : String.valueOf((int) value);
+            case LONG -> value <= Long.MIN_VALUE ? "Long.MIN_VALUE" : value >= Long.MAX_VALUE ? "Long.MAX_VALUE" : (long) value + "L";
+            default -> value == Double.NEGATIVE_INFINITY ? "Double.NEGATIVE_INFINITY" : value == Double.POSITIVE_INFINITY ? "Double.POSITIVE_INFINITY" : String.valueOf(value);
+        };
+    }
+
+    /**
+     * <p>
+     *     Helper function used to write a string as a java string literal.
+     * </p>
+     *
+     * @param string The string.
+     * @return A java string literal.
+     */
+    private static String javaString(String string) {
+        return "\"" + string.chars().mapToObj(c -> switch (c) {
+            case '\\' -> "\\\\";
+            case '"' -> "\\\"";
+            case '\n' -> "\\n";
+            case '\r' -> "\\r";
+            case '\t' -> "\\t";
+            default -> String.valueOf((char) c);
+        }).collect(Collectors.joining()) + "\"";
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the name of the generated method that registers the config file of the given side.
+     * </p>
+     *
+     * @param side The side of the config file.
+     * @return The name of the method.
+     */
+    private static String methodName(ModEntryPoint.Side side) {
+        return "register" + side.name().charAt(0) + side.name().substring(1).toLowerCase();
+    }
+}
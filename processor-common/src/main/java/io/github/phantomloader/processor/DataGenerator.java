@@ -0,0 +1,348 @@
+package io.github.phantomloader.processor;
+
+import io.github.phantomloader.library.registry.DataGen;
+import io.github.phantomloader.library.registry.Register;
+
+import javax.lang.model.element.Element;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ *     Helper class used by {@link ModAnnotationProcessor} to generate blockstates, models, loot tables, and language files from the fields annotated with {@link Register} and {@link DataGen}.
+ * </p>
+ * <p>
+ *     Resources are computed from the registry name and type of each field, without starting the game.
+ *     They are written in parallel to the directory specified by the {@code dataOutput} option and files whose content did not change are left untouched.
+ *     The list of written files is kept in a {@code .phantom-data} file so that resources that are no longer generated can be deleted.
+ * </p>
+ * <p>
+ *     The output directory must be a resource root used only by this generator, such as {@code src/generated/resources}.
+ *     Resources are never written to the class output, where they would clash with the hand-written resources of the mod,
+ *     and files that are not listed in the {@code .phantom-data} file are never overwritten or deleted.
+ * </p>
+ *
+ * @author Nico
+ */
+public class DataGenerator {
+
+    /** Name of the file that lists the resources generated in the output directory */
+    private static final String MANIFEST = ".phantom-data";
+
+    /** The annotation processor that uses this generator */
+    private final ModAnnotationProcessor processor;
+    /** Fields annotated with {@link DataGen} */
+    private final HashSet<Element> fields = new HashSet<>();
+
+    /**
+     * <p>
+     *     Creates a data generator.
+     * </p>
+     *
+     * @param processor The annotation processor that uses this generator.
+     */
+    public DataGenerator(ModAnnotationProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * <p>
+     *     Adds a field annotated with {@link DataGen} to the generated resources.
+     *     Prints an error if the field is not annotated with {@link Register}.
+     * </p>
+     *
+     * @param element The annotated element.
+     */
+    public void add(Element element) {
+        if(element.getAnnotation(Register.class) == null) {
+            this.processor.printError("DataGen can only be used on fields annotated with Register", element);
+        } else {
+            this.fields.add(element);
+        }
+    }
+
+    /**
+     * <p>
+     *     Generates the resources of the annotated blocks and items.
+     *     Does nothing if there are no annotated fields, unless resources were generated before and must be deleted.
+     * </p>
+     * <p>
+     *     Prints an error if a model cannot be used for the type of its field and a warning if a block drops itself but no item with the same name is registered.
+     * </p>
+     *
+     * @param modId The mod id, used as the namespace of the resources.
+     * @param registeredFields The fields annotated with {@link Register}, grouped by registry type and then by registry name.
+     * @param dataOutput The directory in which resources are written or null if the option is not set, in which case an error is printed if there are annotated fields.
+     */
+    public void generate(String modId, Map<String, HashMap<String, Element>> registeredFields, String dataOutput) {
+        if(dataOutput == null) {
+            if(!this.fields.isEmpty()) {
+                this.processor.printError("DataGen requires the dataOutput compiler option to be set to a resource root used only for generated resources, such as src/generated/resources");
+            }
+            return;
+        }
+        TreeMap<String, String> resources = new TreeMap<>();
+        TreeMap<String, String> lang = new TreeMap<>();
+        registeredFields.getOrDefault("BLOCK", new HashMap<>()).forEach((name, field) -> {
+            if(this.fields.contains(field)) {
+                DataGen annotation = field.getAnnotation(DataGen.class);
+                String texture = texture(modId, annotation, "block/" + name);
+                DataGen.Model model = annotation.model() == DataGen.Model.DEFAULT ? DataGen.Model.CUBE_ALL : annotation.model();
+                if(model == DataGen.Model.CUBE_ALL) {
+                    resources.put("assets/" + modId + "/blockstates/" + name + ".json", json(Map.of("variants", Map.of("", Map.of("model", modId + ":block/" + name)))));
+                    resources.put("assets/" + modId + "/models/block/" + name + ".json", json(object("parent", "minecraft:block/cube_all", "textures", Map.of("all", texture))));
+                } else if(model == DataGen.Model.PILLAR) {
+                    String blockModel = modId + ":block/" + name;
+                    resources.put("assets/" + modId + "/blockstates/" + name + ".json", json(Map.of("variants", object(
+                            "axis=x", object("model", blockModel, "x", 90, "y", 90),
+                            "axis=y", object("model", blockModel),
+                            "axis=z", object("model", blockModel, "x", 90)
+                    ))));
+                    resources.put("assets/" + modId + "/models/block/" + name + ".json", json(object("parent", "minecraft:block/cube_column", "textures", object("end", texture + "_top", "side", texture))));
+                } else if(model != DataGen.Model.NONE) {
+                    this.processor.printError("Model " + model + " cannot be used for block " + name + ", use CUBE_ALL, PILLAR, or NONE", field);
+                }
+                if(annotation.dropSelf()) {
+                    if(!registeredFields.getOrDefault("BLOCK_ITEM", new HashMap<>()).containsKey(name) && !registeredFields.getOrDefault("ITEM", new HashMap<>()).containsKey(name)) {
+                        this.processor.printWarning("Block " + name + " drops itself but no item is registered with Register using the same name");
+                    }
+                    resources.put("data/" + modId + "/loot_tables/blocks/" + name + ".json", json(object("type", "minecraft:block", "pools", List.of(object(
+                            "rolls", 1.0,
+                            "bonus_rolls", 0.0,
+                            "entries", List.of(object("type", "minecraft:item", "name", modId + ":" + name)),
+                            "conditions", List.of(object("condition", "minecraft:survives_explosion"))
+                    )))));
+                }
+                lang.put("block." + modId + "." + name.replace('/', '.'), displayName(annotation, name));
+            }
+        });
+        registeredFields.getOrDefault("BLOCK_ITEM", new HashMap<>()).forEach((name, field) -> {
+            if(this.fields.contains(field) && field.getAnnotation(DataGen.class).model() != DataGen.Model.NONE) {
+                resources.put("assets/" + modId + "/models/item/" + name + ".json", json(object("parent", modId + ":block/" + name)));
+            }
+        });
+        registeredFields.getOrDefault("ITEM", new HashMap<>()).forEach((name, field) -> {
+            if(this.fields.contains(field)) {
+                DataGen annotation = field.getAnnotation(DataGen.class);
+                DataGen.Model model = annotation.model() == DataGen.Model.DEFAULT ? DataGen.Model.GENERATED : annotation.model();
+                if(model == DataGen.Model.GENERATED || model == DataGen.Model.HANDHELD) {
+                    String parent = model == DataGen.Model.GENERATED ? "minecraft:item/generated" : "minecraft:item/handheld";
+                    resources.put("assets/" + modId + "/models/item/" + name + ".json", json(object("parent", parent, "textures", Map.of("layer0", texture(modId, annotation, "item/" + name)))));
+                } else if(model != DataGen.Model.NONE) {
+                    this.processor.printError("Model " + model + " cannot be used for item " + name + ", use GENERATED, HANDHELD, or NONE", field);
+                }
+                lang.put("item." + modId + "." + name.replace('/', '.'), displayName(annotation, name));
+            }
+        });
+        for(Element field : this.fields) {
+            if(registeredFields.values().stream().noneMatch(fields -> fields.containsValue(field))) {
+                this.processor.printError("DataGen can only be used on blocks and items", field);
+            }
+        }
+        if(!lang.isEmpty()) {
+            resources.put("assets/" + modId + "/lang/en_us.json", json(lang));
+        }
+        this.write(Path.of(dataOutput), resources);
+    }
+
+    /**
+     * <p>
+     *     Writes the given resources to the given directory in parallel.
+     *     Files whose content is the same as the generated one are not written, files that were generated by the previous compilation and are no longer generated are deleted.
+     * </p>
+     * <p>
+     *     Prints an error and writes nothing if the directory is not empty and does not have a {@code .phantom-data} file, since it is then not a dedicated resource root.
+     *     Prints an error for every generated file that already exists but is not listed in the {@code .phantom-data} file, and leaves that file untouched.
+     * </p>
+     *
+     * @param output The output directory.
+     * @param resources The content of the resources, keyed by path relative to the output directory.
+     */
+    private void write(Path output, Map<String, String> resources) {
+        try {
+            Path manifest = output.resolve(MANIFEST);
+            HashSet<String> previous = new HashSet<>();
+            if(Files.exists(manifest)) {
+                for(String path : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                    if(!path.isBlank()) {
+                        previous.add(path);
+                    }
+                }
+            } else if(Files.isDirectory(output)) {
+                try(Stream<Path> files = Files.list(output)) {
+                    if(files.findAny().isPresent()) {
+                        this.processor.printError("The dataOutput directory " + output + " must be a resource root used only for generated resources, such as src/generated/resources, but it contains files that were not generated");
+                        return;
+                    }
+                }
+            }
+            TreeMap<String, String> owned = new TreeMap<>();
+            for(Map.Entry<String, String> resource : resources.entrySet()) {
+                if(previous.contains(resource.getKey()) || !Files.exists(output.resolve(resource.getKey()))) {
+                    owned.put(resource.getKey(), resource.getValue());
+                } else {
+                    this.processor.printError("Resource " + output.resolve(resource.getKey()) + " was not generated and will not be overwritten, move it out of the dataOutput directory");
+                }
+            }
+            for(String path : previous) {
+                if(!owned.containsKey(path)) {
+                    Files.deleteIfExists(output.resolve(path));
+                }
+            }
+            AtomicInteger written = new AtomicInteger();
+            owned.entrySet().parallelStream().forEach(resource -> {
+                if(writeIfChanged(output.resolve(resource.getKey()), resource.getValue())) {
+                    written.incrementAndGet();
+                }
+            });
+            writeIfChanged(manifest, String.join("\n", owned.keySet()) + "\n");
+            if(written.get() > 0) {
+                this.processor.printNote("Generated " + written.get() + " of " + owned.size() + " resources in " + output);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write resources to " + output, e);
+        }
+    }
+
+    /**
+     * <p>
+     *     Writes the given content to the given file if the file does not already contain it.
+     *     The file is written to a temporary file first and then moved, so that concurrent builds never read a partially written file.
+     * </p>
+     *
+     * @param file The file to write.
+     * @param content The content of the file.
+     * @return True if the file was written, false if it already had the same content.
+     * @throws UncheckedIOException If the file cannot be read or written.
+     */
+    private static boolean writeIfChanged(Path file, String content) {
+        try {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            if(Files.isRegularFile(file) && Files.size(file) == bytes.length && Arrays.equals(Files.readAllBytes(file), bytes)) {
+                return false;
+            }
+            Files.createDirectories(file.getParent());
+            Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temporary, bytes);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write resource " + file, e);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the texture of a block or an item.
+     * </p>
+     *
+     * @param modId The mod id.
+     * @param annotation The annotation on the field.
+     * @param defaultTexture The texture to use if the annotation does not specify one, without namespace.
+     * @return A resource location.
+     */
+    private static String texture(String modId, DataGen annotation, String defaultTexture) {
+        String texture = annotation.texture().isEmpty() ? defaultTexture : annotation.texture();
+        return texture.contains(":") ? texture : modId + ":" + texture;
+    }
+
+    /**
+     * <p>
+     *     Returns the English name of a block or an item.
+     * </p>
+     *
+     * @param annotation The annotation on the field.
+     * @param name The registry name.
+     * @return The name specified in the annotation or the last part of the registry name in title case.
+     */
+    private static String displayName(DataGen annotation, String name) {
+        if(!annotation.name().isEmpty()) {
+            return annotation.name();
+        }
+        return Arrays.stream(name.substring(name.lastIndexOf('/') + 1).split("_"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> Character.toUpperCase(word.charAt(0)) + word.substring(1))
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * <p>
+     *     Creates a JSON object whose keys keep the order in which they are given.
+     * </p>
+     *
+     * @param entries Keys followed by their values.
+     * @return An ordered map.
+     */
+    private static Map<String, Object> object(Object... entries) {
+        LinkedHashMap<String, Object> object = new LinkedHashMap<>();
+        for(int i = 0; i < entries.length; i += 2) {
+            object.put((String) entries[i], entries[i + 1]);
+        }
+        return object;
+    }
+
+    /**
+     * <p>
+     *     Converts the given value to JSON indented with two spaces, like the files produced by the game's data generator.
+     * </p>
+     *
+     * @param value A map, a list, a string, or a number.
+     * @return The JSON string followed by a new line.
+     */
+    private static String json(Object value) {
+        StringBuilder builder = new StringBuilder();
+        json(builder, value, "");
+        return builder.append('\n').toString();
+    }
+
+    /**
+     * <p>
+     *     Appends the given value as JSON to the given builder.
+     * </p>
+     *
+     * @param builder The builder.
+     * @param value A map, a list, a string, or a number.
+     * @param indent The indentation of the line the value is on.
+     */
+    private static void json(StringBuilder builder, Object value, String indent) {
+        if(value instanceof Map<?, ?> map) {
+            builder.append('{');
+            List<? extends Map.Entry<?, ?>> entries = new ArrayList<>(map.entrySet());
+            for(int i = 0; i < entries.size(); i++) {
+                builder.append('\n').append(indent).append("  ");
+                json(builder, entries.get(i).getKey(), indent + "  ");
+                builder.append(": ");
+                json(builder, entries.get(i).getValue(), indent + "  ");
+                builder.append(i == entries.size() - 1 ? "\n" + indent : ",");
+            }
+            builder.append('}');
+        } else if(value instanceof List<?> list) {
+            builder.append('[');
+            for(int i = 0; i < list.size(); i++) {
+                builder.append('\n').append(indent).append("  ");
+                json(builder, list.get(i), indent + "  ");
+                builder.append(i == list.size() - 1 ? "\n" + indent : ",");
+            }
+            builder.append(']');
+        } else if(value instanceof String string) {
+            builder.append('"').append(string.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        } else {
+            builder.append(value);
+        }
+    }
+}
@@ -1,17 +1,45 @@
 package io.github.phantomloader.processor;
 
+import io.github.phantomloader.library.ClientOnly;
 import io.github.phantomloader.library.ModEntryPoint;
+import io.github.phantomloader.library.blockentity.Persist;
+import io.github.phantomloader.library.config.ConfigSchema;
+import io.github.phantomloader.library.integration.ModIntegration;
+import io.github.phantomloader.library.network.Packet;
+import io.github.phantomloader.library.registry.DataGen;
+import io.github.phantomloader.library.registry.Register;
+import io.github.phantomloader.library.services.PhantomService;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 /**
@@ -23,6 +51,32 @@ import java.util.Set;
  */
 public abstract class ModAnnotationProcessor extends AbstractProcessor {
 
+    /** Fully qualified names of the service interfaces that can be implemented by classes annotated with {@link PhantomService} */
+    private static final List<String> SERVICE_INTERFACES = List.of(
+            "io.github.phantomloader.library.events.ModEventHandler",
+            "io.github.phantomloader.library.events.ClientEventHandler",
+            "io.github.phantomloader.library.registry.RegistryProvider",
+            "io.github.phantomloader.library.config.ConfigBuilder",
+            "io.github.phantomloader.library.network.NetworkChannel",
+            "io.github.phantomloader.library.platform.Platform"
+    );
+    /** Service interfaces that must only be registered on the client */
+    private static final Set<String> CLIENT_SERVICE_INTERFACES = Set.of("io.github.phantomloader.library.events.ClientEventHandler");
+    /** Registries that can be used by fields annotated with {@link Register}, in the order of {@code RegistrationTable.Type} */
+    private static final List<RegistryType> REGISTRY_TYPES = List.of(
+            new RegistryType("SOUND_EVENT", "net.minecraft.sounds.SoundEvent"),
+            new RegistryType("FLUID", "net.minecraft.world.level.material.Fluid"),
+            new RegistryType("MOB_EFFECT", "net.minecraft.world.effect.MobEffect"),
+            new RegistryType("BLOCK", "net.minecraft.world.level.block.Block"),
+            new RegistryType("ENCHANTMENT", "net.minecraft.world.item.enchantment.Enchantment"),
+            new RegistryType("ITEM", "net.minecraft.world.item.Item"),
+            new RegistryType("PARTICLE_TYPE", "net.minecraft.core.particles.ParticleType"),
+            new RegistryType("FEATURE", "net.minecraft.world.level.levelgen.feature.Feature"),
+            new RegistryType("RECIPE_TYPE", "net.minecraft.world.item.crafting.RecipeType"),
+            new RegistryType("RECIPE_SERIALIZER", "net.minecraft.world.item.crafting.RecipeSerializer"),
+            new RegistryType("LOOT_ITEM_FUNCTION", "net.minecraft.world.level.storage.loot.functions.LootItemFunctionType")
+    );
+
     /**
      * <p>
      *     Keeps track of all methods annotated with {@link ModEntryPoint} and groups them by {@link ModEntryPoint.Side}.
@@ -30,11 +84,108 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
      */
     protected final HashMap<ModEntryPoint.Side, HashSet<Element>> annotatedMethods = new HashMap<>();
 
+    /**
+     * <p>
+     *     Keeps track of the methods annotated with {@link ModEntryPoint} that are not used by this mod loader.
+     *     Dependencies on these methods are ignored.
+     * </p>
+     */
+    private final HashSet<Element> otherLoaderMethods = new HashSet<>();
+
+    /**
+     * <p>
+     *     Groups all methods annotated with {@link ModEntryPoint}, including the ones that are not used by this mod loader, by their simple name.
+     *     Used to resolve dependencies without going through all entry points.
+     * </p>
+     */
+    private final HashMap<String, List<Element>> entryPointsByName = new HashMap<>();
+
+    /**
+     * <p>
+     *     Caches the resolved dependencies of entry points so that errors are only printed once.
+     * </p>
+     */
+    private final HashMap<Element, List<Element>> dependencies = new HashMap<>();
+
+    /**
+     * <p>
+     *     Keeps track of the methods and classes annotated with {@link ModIntegration}.
+     * </p>
+     */
+    private final HashSet<Element> integrations = new HashSet<>();
+
+    /**
+     * <p>
+     *     Keeps track of all classes annotated with {@link PhantomService} along with the service interfaces they implement.
+     * </p>
+     */
+    protected final HashMap<TypeElement, List<String>> services = new HashMap<>();
+
+    /**
+     * <p>
+     *     Keeps track of all fields annotated with {@link Register}.
+     *     Fields are grouped by the name of their {@code RegistrationTable.Type} and then by registry name.
+     *     Blocks that also register a block item are added to both the {@code BLOCK} and the {@code BLOCK_ITEM} group.
+     * </p>
+     */
+    protected final HashMap<String, HashMap<String, Element>> registeredFields = new HashMap<>();
+
+    /**
+     * <p>
+     *     Generates the {@code PhantomConfigs} class from the classes annotated with {@link ConfigSchema}.
+     * </p>
+     */
+    protected final ConfigGenerator configs = new ConfigGenerator(this);
+
+    /**
+     * <p>
+     *     Generates the {@code PhantomNetwork} class from the records annotated with {@link Packet}.
+     * </p>
+     */
+    protected final PacketGenerator packets = new PacketGenerator(this);
+
+    /**
+     * <p>
+     *     Generates the codecs of the block entities that declare fields annotated with {@link Persist}.
+     * </p>
+     */
+    protected final BlockEntityCodecGenerator blockEntityCodecs = new BlockEntityCodecGenerator(this);
+
+    /**
+     * <p>
+     *     Generates the resources of the blocks and items annotated with {@link DataGen}.
+     * </p>
+     */
+    protected final DataGenerator data = new DataGenerator(this);
+
+    /**
+     * <p>
+     *     Generates the manifest of the classes that are loaded in the background by {@code ClassPreloader}.
+     * </p>
+     */
+    protected final PreloadManifestGenerator preloadManifest = new PreloadManifestGenerator(this);
+
+    /**
+     * <p>
+     *     Keeps track of the elements annotated with {@link ClientOnly} and generates the index of client-only classes.
+     * </p>
+     */
+    protected final ClientOnlyIndexGenerator clientOnly = new ClientOnlyIndexGenerator(this);
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
         if(roundEnvironment.processingOver()) {
             if(this.checkRequiredOptions()) {
-                // Annotated methods have been found, generate code
+                // Always regenerate everything, Gradle deletes the outputs of aggregating processors before reprocessing
+                // and the preload manifest and the side checks depend on classes that are not annotated
+                this.generateServiceIndex();
+                this.generateRegistrationTable();
+                this.configs.generate(this.generatedPackage(), this.processingEnv.getOptions().get("modId"));
+                this.packets.generate(this.generatedPackage(), this.processingEnv.getOptions().get("modId"));
+                this.blockEntityCodecs.generate(this.generatedPackage());
+                this.data.generate(this.processingEnv.getOptions().get("modId"), this.registeredFields, this.processingEnv.getOptions().get("dataOutput"));
+                this.generatePreloadManifest();
+                this.clientOnly.generate(this.processingEnv.getOptions().get("modId"), this.services.keySet());
                 this.generateModClass();
                 this.generateModFile();
             }
@@ -42,7 +193,11 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
             // Look for annotated methods
             for(TypeElement typeElement : annotations) {
                 for(Element element : roundEnvironment.getElementsAnnotatedWith(typeElement)) {
-                    if(element.getKind() == ElementKind.METHOD) {
+                    if(typeElement.getQualifiedName().contentEquals(ClientOnly.class.getName())) {
+                        this.clientOnly.add(element);
+                    } else if(typeElement.getQualifiedName().contentEquals(ModIntegration.class.getName())) {
+                        this.addIntegration(element);
+                    } else if(element.getKind() == ElementKind.METHOD) {
                         // Add the method to the map if it is supposed to run on this loader
                         ModEntryPoint annotation = element.getAnnotation(ModEntryPoint.class);
                         if(annotation.modLoader() == ModEntryPoint.Loader.COMMON || annotation.modLoader() == this.loader()) {
@@ -50,6 +205,8 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
                             Set<Modifier> modifiers = element.getModifiers();
                             if(!modifiers.contains(Modifier.STATIC) || !modifiers.contains(Modifier.PUBLIC)) {
                                 this.printError("The method annotated with ModEntryPoint must be public static", element);
+                            } else if(!((ExecutableElement) element).getParameters().isEmpty() && !this.acceptsParameters(element)) {
+                                this.printError("The method annotated with ModEntryPoint cannot have parameters unless it is a FabricCustomEntryPoint with modLoader = FABRIC", element);
                             } else {
                                 // Group methods by side
                                 if(this.annotatedMethods.containsKey(annotation.side())) {
@@ -59,8 +216,24 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
                                     set.add(element);
                                     this.annotatedMethods.put(annotation.side(), set);
                                 }
+                                this.entryPointsByName.computeIfAbsent(element.getSimpleName().toString(), key -> new ArrayList<>()).add(element);
                             }
+                        } else {
+                            this.otherLoaderMethods.add(element);
+                            this.entryPointsByName.computeIfAbsent(element.getSimpleName().toString(), key -> new ArrayList<>()).add(element);
                         }
+                    } else if(typeElement.getQualifiedName().contentEquals(PhantomService.class.getName())) {
+                        this.addService(element);
+                    } else if(typeElement.getQualifiedName().contentEquals(Register.class.getName())) {
+                        this.addRegisteredField(element);
+                    } else if(typeElement.getQualifiedName().contentEquals(ConfigSchema.class.getName())) {
+                        this.configs.add(element);
+                    } else if(typeElement.getQualifiedName().contentEquals(Packet.class.getName())) {
+                        this.packets.add(element);
+                    } else if(typeElement.getQualifiedName().contentEquals(Persist.class.getName())) {
+                        this.blockEntityCodecs.add(element);
+                    } else if(typeElement.getQualifiedName().contentEquals(DataGen.class.getName())) {
+                        this.data.add(element);
                     }
                 }
             }
@@ -68,6 +241,830 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
         return true;
     }
 
+    /**
+     * <p>
+     *     Sorts the given entry points so that every entry point comes after the ones it depends on.
+     *     Entry points that can be called at the same time are sorted by {@link ModEntryPoint#order()} and then by name, so the result does not depend on the order in which methods were found.
+     * </p>
+     * <p>
+     *     Prints an error if a dependency cannot be resolved, if it is not called before the entry point that depends on it, if an off-thread entry point depends on a main-thread entry point, or if there is a cycle.
+     * </p>
+     *
+     * @param methods The entry points that are called together.
+     * @return A sorted list containing the given entry points.
+     */
+    protected List<Element> sortEntryPoints(Collection<? extends Element> methods) {
+        // Annotation values and names are computed once since they are slow to get
+        HashMap<Element, Integer> orders = new HashMap<>();
+        HashMap<Element, String> names = new HashMap<>();
+        for(Element method : methods) {
+            orders.put(method, method.getAnnotation(ModEntryPoint.class).order());
+            names.put(method, entryPointName(method));
+        }
+        Comparator<Element> entryPointOrder = Comparator.<Element>comparingInt(orders::get).thenComparing(names::get);
+        List<Element> group = methods.stream().sorted(entryPointOrder).map(method -> (Element) method).toList();
+        HashMap<Element, List<Element>> dependents = new HashMap<>();
+        HashMap<Element, Integer> remainingDependencies = new HashMap<>();
+        for(Element method : group) {
+            remainingDependencies.put(method, 0);
+        }
+        for(Element method : group) {
+            for(Element dependency : this.entryPointDependencies(method)) {
+                if(remainingDependencies.containsKey(dependency)) {
+                    if(method.getAnnotation(ModEntryPoint.class).offThread() && !dependency.getAnnotation(ModEntryPoint.class).offThread()) {
+                        this.printError("Off-thread entry point " + entryPointName(method) + " cannot depend on main-thread entry point " + entryPointName(dependency), method);
+                    }
+                    dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(method);
+                    remainingDependencies.merge(method, 1, Integer::sum);
+                } else if(!this.runsBefore(dependency, method)) {
+                    this.printError("Entry point " + entryPointName(method) + " cannot depend on " + entryPointName(dependency) + " because it is not called before it", method);
+                }
+            }
+        }
+        // Kahn's algorithm, always picking the first entry point that is ready
+        PriorityQueue<Element> ready = new PriorityQueue<>(entryPointOrder);
+        group.stream().filter(method -> remainingDependencies.get(method) == 0).forEach(ready::add);
+        ArrayList<Element> sorted = new ArrayList<>();
+        while(!ready.isEmpty()) {
+            Element method = ready.poll();
+            sorted.add(method);
+            for(Element dependent : dependents.getOrDefault(method, List.of())) {
+                if(remainingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if(sorted.size() < group.size()) {
+            HashSet<Element> sortedSet = new HashSet<>(sorted);
+            for(Element method : group) {
+                if(!sortedSet.contains(method)) {
+                    this.printError("Entry point " + entryPointName(method) + " is part of a dependency cycle or depends on one", method);
+                }
+            }
+            // Keep going so that the generated class can still be written
+            group.stream().filter(method -> !sortedSet.contains(method)).forEach(sorted::add);
+        }
+        return sorted;
+    }
+
+    /**
+     * <p>
+     *     Resolves the dependencies declared with {@link ModEntryPoint#after()}.
+     *     Prints an error if a dependency cannot be resolved.
+     *     Dependencies on entry points that are not used by this mod loader are left out.
+     * </p>
+     *
+     * @param method The entry point.
+     * @return A list containing the entry points the given one depends on.
+     */
+    protected List<Element> entryPointDependencies(Element method) {
+        return this.dependencies.computeIfAbsent(method, this::resolveDependencies);
+    }
+
+    /**
+     * <p>
+     *     Resolves the dependencies declared with {@link ModEntryPoint#after()} without caching them.
+     * </p>
+     *
+     * @param method The entry point.
+     * @return A list containing the entry points the given one depends on.
+     * @see ModAnnotationProcessor#entryPointDependencies(Element)
+     */
+    private List<Element> resolveDependencies(Element method) {
+        ArrayList<Element> dependencies = new ArrayList<>();
+        for(String reference : method.getAnnotation(ModEntryPoint.class).after()) {
+            String className;
+            String methodName;
+            int separator = reference.indexOf('#');
+            if(separator < 0) {
+                className = ((TypeElement) method.getEnclosingElement()).getQualifiedName().toString();
+                methodName = reference;
+            } else {
+                className = reference.substring(0, separator);
+                methodName = reference.substring(separator + 1);
+            }
+            List<Element> sameName = this.entryPointsByName.getOrDefault(methodName, List.of());
+            List<Element> candidates = sameName.stream().filter(entryPoint -> !this.otherLoaderMethods.contains(entryPoint) && isEntryPoint(entryPoint, className, methodName)).toList();
+            if(candidates.size() == 1) {
+                if(candidates.get(0).equals(method)) {
+                    this.printError("Entry point " + entryPointName(method) + " cannot depend on itself", method);
+                } else {
+                    dependencies.add(candidates.get(0));
+                }
+            } else if(candidates.size() > 1) {
+                this.printError("Ambiguous entry point dependency " + reference + ", use the fully qualified class name", method);
+            } else if(sameName.stream().noneMatch(entryPoint -> isEntryPoint(entryPoint, className, methodName))) {
+                this.printError("Unknown entry point dependency " + reference, method);
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * <p>
+     *     Checks if the given entry point matches a reference from {@link ModEntryPoint#after()}.
+     * </p>
+     *
+     * @param entryPoint The entry point.
+     * @param className The simple, partially qualified, or fully qualified name of the class.
+     * @param methodName The name of the method.
+     * @return True if the reference refers to the given entry point, otherwise false.
+     */
+    private static boolean isEntryPoint(Element entryPoint, String className, String methodName) {
+        String qualifiedName = ((TypeElement) entryPoint.getEnclosingElement()).getQualifiedName().toString();
+        return entryPoint.getSimpleName().contentEquals(methodName) && (qualifiedName.equals(className) || qualifiedName.endsWith("." + className));
+    }
+
+    /**
+     * <p>
+     *     Checks if an entry point is always called before another one that is not called together with it.
+     *     By default, {@link ModEntryPoint.Side#INIT} entry points are called before all other entry points and {@link ModEntryPoint.Side#COMMON} entry points are called before client and server ones.
+     * </p>
+     *
+     * @param dependency The entry point that should be called first.
+     * @param method The entry point that depends on it.
+     * @return True if {@code dependency} is always called before {@code method}, otherwise false.
+     */
+    protected boolean runsBefore(Element dependency, Element method) {
+        return setupPhase(dependency.getAnnotation(ModEntryPoint.class).side()) < setupPhase(method.getAnnotation(ModEntryPoint.class).side());
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the setup phase of a side.
+     *     Client and server entry points are in the same phase.
+     * </p>
+     *
+     * @param side The side.
+     * @return The index of the setup phase.
+     */
+    private static int setupPhase(ModEntryPoint.Side side) {
+        return switch (side) {
+            case INIT -> 0;
+            case COMMON -> 1;
+            case CLIENT, SERVER -> 2;
+        };
+    }
+
+    /**
+     * <p>
+     *     Writes the code that calls the given entry points, which must already be sorted with {@link ModAnnotationProcessor#sortEntryPoints(Collection)}.
+     * </p>
+     * <p>
+     *     If none of the entry points are off-thread, they are called one after another.
+     *     Otherwise, they are called with {@code io.github.phantomloader.library.EntryPointExecutor}.
+     *     Every call is timed with {@code io.github.phantomloader.library.profiling.StartupTrace}.
+     *     Entry points annotated with {@link ModIntegration} are only called if the required mod is loaded.
+     * </p>
+     *
+     * @param writer The writer used to write the generated class.
+     * @param indent The indentation of the generated code.
+     * @param methods The sorted entry points.
+     * @param enqueueWork The method used to run work on the main thread, such as {@code setupEvent.enqueueWork}, or null to call entry points from the current thread.
+     */
+    protected void writeEntryPoints(PrintWriter writer, String indent, List<Element> methods, String enqueueWork) {
+        this.writeEntryPoints(writer, indent, methods, enqueueWork, "");
+    }
+
+    /**
+     * <p>
+     *     Writes the code that calls the given entry points passing the given arguments to them.
+     * </p>
+     *
+     * @param writer The writer used to write the generated class.
+     * @param indent The indentation of the generated code.
+     * @param methods The sorted entry points.
+     * @param enqueueWork The method used to run work on the main thread, such as {@code setupEvent.enqueueWork}, or null to call entry points from the current thread.
+     * @param arguments The arguments passed to every entry point, separated by commas.
+     * @see ModAnnotationProcessor#writeEntryPoints(PrintWriter, String, List, String)
+     */
+    protected void writeEntryPoints(PrintWriter writer, String indent, List<Element> methods, String enqueueWork, String arguments) {
+        if(methods.stream().noneMatch(method -> method.getAnnotation(ModEntryPoint.class).offThread())) {
+            String callIndent = enqueueWork == null ? indent : indent + "    ";
+            if(enqueueWork != null) {
+                writer.println(indent + enqueueWork + "(() -> {");
+            }
+            for(Element method : methods) {
+                String requiredMod = this.requiredMod(method);
+                if(requiredMod == null) {
+                    writer.println(callIndent + "io.github.phantomloader.library.profiling.StartupTrace.run(\"" + entryPointName(method) + "\", \"entrypoint\", () -> " + this.entryPointCall(method, arguments) + ");");
+                } else {
+                    // The class of the entry point is only loaded if the call is reached
+                    writer.println(callIndent + "if(io.github.phantomloader.library.platform.PlatformHelper.isModLoaded(\"" + requiredMod + "\")) {");
+                    writer.println(callIndent + "    io.github.phantomloader.library.profiling.StartupTrace.run(\"" + entryPointName(method) + "\", \"entrypoint\", () -> " + this.entryPointCall(method, arguments) + ");");
+                    writer.println(callIndent + "}");
+                }
+            }
+            if(enqueueWork != null) {
+                writer.println(indent + "});");
+            }
+        } else {
+            writer.println(indent + "io.github.phantomloader.library.EntryPointExecutor.execute(" + (enqueueWork == null ? "Runnable::run" : "work -> " + enqueueWork + "(work)") + ",");
+            HashMap<Element, Integer> indexes = new HashMap<>();
+            for(int i = 0; i < methods.size(); i++) {
+                indexes.put(methods.get(i), i);
+            }
+            for(int i = 0; i < methods.size(); i++) {
+                Element method = methods.get(i);
+                String requiredMod = this.requiredMod(method);
+                String action = requiredMod == null ? this.entryPointCall(method, arguments) : "{ if(io.github.phantomloader.library.platform.PlatformHelper.isModLoaded(\"" + requiredMod + "\")) " + this.entryPointCall(method, arguments) + "; }";
+                StringBuilder task = new StringBuilder(indent + "        new io.github.phantomloader.library.EntryPointExecutor.Task(\"" + entryPointName(method) + "\", () -> " + action + ", " + method.getAnnotation(ModEntryPoint.class).offThread());
+                for(Element dependency : this.entryPointDependencies(method)) {
+                    if(indexes.containsKey(dependency)) {
+                        task.append(", ").append(indexes.get(dependency));
+                    }
+                }
+                writer.println(task.append(i == methods.size() - 1 ? ")" : "),"));
+            }
+            writer.println(indent + ");");
+        }
+    }
+
+    /**
+     * <p>
+     *     Writes the code that calls the given entry points directly, one after another, passing the given arguments to them.
+     * </p>
+     * <p>
+     *     Unlike {@link ModAnnotationProcessor#writeEntryPoints(PrintWriter, String, List, String, String)}, entry points are not called from a lambda,
+     *     so they may throw the checked exceptions declared by the generated method.
+     *     Off-thread entry points are called on the current thread like the other ones.
+     *     Every call is timed with {@code io.github.phantomloader.library.profiling.StartupTrace}, calls that throw an exception are not recorded.
+     * </p>
+     *
+     * @param writer The writer used to write the generated class.
+     * @param indent The indentation of the generated code.
+     * @param methods The sorted entry points.
+     * @param arguments The arguments passed to every entry point, separated by commas.
+     */
+    protected void writeDirectEntryPoints(PrintWriter writer, String indent, List<Element> methods, String arguments) {
+        for(Element method : methods) {
+            String requiredMod = this.requiredMod(method);
+            // Every call is in its own block so that the start variables do not clash
+            writer.println(indent + (requiredMod == null ? "{" : "if(io.github.phantomloader.library.platform.PlatformHelper.isModLoaded(\"" + requiredMod + "\")) {"));
+            writer.println(indent + "    long start = io.github.phantomloader.library.profiling.StartupTrace.begin();");
+            writer.println(indent + "    " + this.entryPointCall(method, arguments) + ";");
+            writer.println(indent + "    io.github.phantomloader.library.profiling.StartupTrace.end(\"" + entryPointName(method) + "\", \"entrypoint\", start);");
+            writer.println(indent + "}");
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks that an element annotated with {@link ModIntegration} specifies a mod id and keeps track of it.
+     *     Prints an error if the mod id is empty or if the element is a method that is not annotated with {@link ModEntryPoint}.
+     * </p>
+     *
+     * @param element The annotated element.
+     */
+    private void addIntegration(Element element) {
+        if(element.getAnnotation(ModIntegration.class).value().isBlank()) {
+            this.printError("The mod id of ModIntegration cannot be empty", element);
+        } else if(element.getKind() == ElementKind.METHOD && element.getAnnotation(ModEntryPoint.class) == null) {
+            this.printError("ModIntegration can only be used on methods annotated with ModEntryPoint and on classes", element);
+        } else {
+            this.integrations.add(element);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the mod that must be loaded for the given element to be used.
+     * </p>
+     *
+     * @param element A method or a class.
+     * @return The mod id specified by the closest {@link ModIntegration} annotation on the element or on its enclosing classes or null if there is none.
+     */
+    protected String requiredMod(Element element) {
+        for(Element current = element; current != null && current.getKind() != ElementKind.PACKAGE; current = current.getEnclosingElement()) {
+            ModIntegration annotation = current.getAnnotation(ModIntegration.class);
+            if(annotation != null) {
+                return annotation.value();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p>
+     *     Returns the code used to call the given entry point.
+     * </p>
+     *
+     * @param method The entry point.
+     * @param arguments The arguments passed to the entry point, separated by commas.
+     * @return A method call expression.
+     */
+    protected String entryPointCall(Element method, String arguments) {
+        return ((TypeElement) method.getEnclosingElement()).getQualifiedName() + "." + method.getSimpleName() + "(" + arguments + ")";
+    }
+
+    /**
+     * <p>
+     *     Checks if the given entry point may have parameters.
+     *     Parameters are only allowed if the generated code can pass arguments to the entry point.
+     * </p>
+     *
+     * @param method The entry point.
+     * @return True if the entry point may have parameters, false by default.
+     */
+    protected boolean acceptsParameters(Element method) {
+        return false;
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the name of an entry point in the format used by {@link ModEntryPoint#after()}.
+     * </p>
+     *
+     * @param method The entry point.
+     * @return The name of the entry point.
+     */
+    protected static String entryPointName(Element method) {
+        return ((TypeElement) method.getEnclosingElement()).getQualifiedName() + "#" + method.getSimpleName();
+    }
+
+    /**
+     * <p>
+     *     Checks that a class annotated with {@link PhantomService} can be instantiated with a direct constructor call and adds it to the {@link ModAnnotationProcessor#services} map.
+     * </p>
+     *
+     * @param element The annotated element.
+     */
+    private void addService(Element element) {
+        if(element.getKind() != ElementKind.CLASS) {
+            this.printError("Only classes can be annotated with PhantomService", element);
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        Set<Modifier> modifiers = type.getModifiers();
+        if(!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT) || (type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC))) {
+            this.printError("The class annotated with PhantomService must be public, non-abstract, and static if it is a nested class", element);
+            return;
+        }
+        boolean hasConstructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream().anyMatch(constructor -> constructor.getModifiers().contains(Modifier.PUBLIC) && constructor.getParameters().isEmpty());
+        if(!hasConstructor) {
+            this.printError("The class annotated with PhantomService must have a public constructor with no arguments", element);
+            return;
+        }
+        ArrayList<String> interfaces = new ArrayList<>();
+        TypeMirror serviceType = this.processingEnv.getTypeUtils().erasure(type.asType());
+        for(String interfaceName : SERVICE_INTERFACES) {
+            TypeElement interfaceElement = this.processingEnv.getElementUtils().getTypeElement(interfaceName);
+            if(interfaceElement != null && this.processingEnv.getTypeUtils().isAssignable(serviceType, this.processingEnv.getTypeUtils().erasure(interfaceElement.asType()))) {
+                interfaces.add(interfaceName);
+            }
+        }
+        if(interfaces.isEmpty()) {
+            this.printError("The class annotated with PhantomService must implement one of " + SERVICE_INTERFACES, element);
+        } else {
+            this.services.put(type, interfaces);
+        }
+    }
+
+    /**
+     * <p>
+     *     Generates the {@code PhantomServiceIndex} class that registers all the classes annotated with {@link PhantomService}.
+     *     Does nothing if there are no annotated classes.
+     * </p>
+     * <p>
+     *     The generated mod class must call this index before any service is used.
+     * </p>
+     *
+     * @see ModAnnotationProcessor#hasServiceIndex()
+     */
+    private void generateServiceIndex() {
+        if(this.hasServiceIndex()) {
+            String className = this.generatedPackage() + ".PhantomServiceIndex";
+            // Sort services to generate the same class every time
+            List<TypeElement> sortedServices = this.services.keySet().stream().sorted(Comparator.comparing(type -> type.getQualifiedName().toString())).toList();
+            try(PrintWriter writer = new PrintWriter(this.createSourceFile(className, sortedServices))) {
+                writer.println("package " + this.generatedPackage() + ";");
+                writer.println("public class PhantomServiceIndex implements io.github.phantomloader.library.services.ServiceIndex {");
+                writer.println("    @Override");
+                writer.println("    public void registerServices() {");
+                for(TypeElement service : sortedServices) {
+                    String binaryName = this.processingEnv.getElementUtils().getBinaryName(service).toString();
+                    for(String interfaceName : this.services.get(service)) {
+                        String registration = "io.github.phantomloader.library.services.PhantomServices.register(" + interfaceName + ".class, \"" + binaryName + "\", " + service.getQualifiedName() + "::new);";
+                        if(CLIENT_SERVICE_INTERFACES.contains(interfaceName) || this.clientOnly.isClientOnly(service)) {
+                            // Client classes must not be loaded on a dedicated server
+                            writer.println("        if(io.github.phantomloader.library.platform.PlatformHelper.isClientSide()) {");
+                            writer.println("            " + registration);
+                            writer.println("        }");
+                        } else {
+                            writer.println("        " + registration);
+                        }
+                    }
+                }
+                writer.println("    }");
+                writer.println("}");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not generate class " + className, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if a {@code PhantomServiceIndex} class is generated.
+     *     If it is, the generated mod class must call {@code new PhantomServiceIndex().registerServices()} first.
+     * </p>
+     *
+     * @return True if there are classes annotated with {@link PhantomService}, otherwise false.
+     */
+    protected boolean hasServiceIndex() {
+        return !this.services.isEmpty();
+    }
+
+    /**
+     * <p>
+     *     Checks that a field annotated with {@link Register} can be read by the generated registration table and adds it to the {@link ModAnnotationProcessor#registeredFields} map.
+     *     The registry is chosen from the type argument of the field's {@code Supplier} or {@code RegistryHandle}.
+     * </p>
+     *
+     * @param element The annotated element.
+     */
+    private void addRegisteredField(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if(!modifiers.contains(Modifier.PUBLIC) || !modifiers.contains(Modifier.STATIC) || !modifiers.contains(Modifier.FINAL)) {
+            this.printError("The field annotated with Register must be public static final", element);
+            return;
+        }
+        TypeMirror objectType = this.suppliedType(element.asType());
+        if(objectType == null) {
+            this.printError("The field annotated with Register must be a java.util.function.Supplier or a RegistryHandle of a registry object", element);
+            return;
+        }
+        TypeMirror erasedType = this.processingEnv.getTypeUtils().erasure(objectType);
+        RegistryType registryType = null;
+        for(RegistryType type : REGISTRY_TYPES) {
+            TypeElement typeElement = this.processingEnv.getElementUtils().getTypeElement(type.className());
+            if(typeElement != null && this.processingEnv.getTypeUtils().isAssignable(erasedType, this.processingEnv.getTypeUtils().erasure(typeElement.asType()))) {
+                registryType = type;
+                break;
+            }
+        }
+        if(registryType == null) {
+            this.printError("Type " + objectType + " cannot be registered with Register, use one of " + REGISTRY_TYPES.stream().map(RegistryType::className).toList(), element);
+            return;
+        }
+        Register annotation = element.getAnnotation(Register.class);
+        String name = annotation.value().isEmpty() ? element.getSimpleName().toString().toLowerCase() : annotation.value();
+        if(!name.matches("[a-z0-9/._-]+")) {
+            this.printError("Invalid registry name " + name + ", registry names may only contain lowercase letters, digits, and the characters '/', '.', '_', and '-'", element);
+            return;
+        }
+        if(annotation.blockItem() && !registryType.name().equals("BLOCK")) {
+            this.printError("Only blocks can be registered with blockItem = true", element);
+            return;
+        }
+        if(this.checkRegistryName(registryType.name(), name, element) && (!annotation.blockItem() || this.checkRegistryName("BLOCK_ITEM", name, element))) {
+            this.registeredFields.computeIfAbsent(registryType.name(), key -> new HashMap<>()).put(name, element);
+            if(annotation.blockItem()) {
+                this.registeredFields.computeIfAbsent("BLOCK_ITEM", key -> new HashMap<>()).put(name, element);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Helper function used to get the type of the objects supplied by a field annotated with {@link Register}.
+     * </p>
+     *
+     * @param fieldType Type of the field.
+     * @return The type argument of the field's {@code Supplier} or {@code RegistryHandle} or its upper bound if it is a wildcard, or null if the field is neither.
+     */
+    private TypeMirror suppliedType(TypeMirror fieldType) {
+        if(fieldType.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        DeclaredType declaredType = (DeclaredType) fieldType;
+        Name typeName = ((TypeElement) declaredType.asElement()).getQualifiedName();
+        if(!(typeName.contentEquals("java.util.function.Supplier") || typeName.contentEquals("io.github.phantomloader.library.registry.RegistryHandle")) || declaredType.getTypeArguments().size() != 1) {
+            return null;
+        }
+        TypeMirror typeArgument = declaredType.getTypeArguments().get(0);
+        if(typeArgument.getKind() == TypeKind.WILDCARD) {
+            typeArgument = ((WildcardType) typeArgument).getExtendsBound();
+        }
+        return typeArgument == null || typeArgument.getKind() != TypeKind.DECLARED ? null : typeArgument;
+    }
+
+    /**
+     * <p>
+     *     Checks that no other field annotated with {@link Register} uses the same registry name in the same registry.
+     *     Block items are registered in the item registry, so their names are checked against the names of items.
+     *     Prints an error if the name is already used.
+     * </p>
+     *
+     * @param type Name of the registry type.
+     * @param name The registry name.
+     * @param element The annotated field.
+     * @return True if the name is not used yet, otherwise false.
+     */
+    private boolean checkRegistryName(String type, String name, Element element) {
+        List<String> registry = type.equals("ITEM") || type.equals("BLOCK_ITEM") ? List.of("ITEM", "BLOCK_ITEM") : List.of(type);
+        for(String registryType : registry) {
+            Element other = this.registeredFields.getOrDefault(registryType, new HashMap<>()).get(name);
+            if(other != null && !other.equals(element)) {
+                this.printError("Registry name " + name + " is already used by " + ((TypeElement) other.getEnclosingElement()).getQualifiedName() + "." + other.getSimpleName(), element);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>
+     *     Generates the {@code PhantomRegistrationTable} class that registers all the fields annotated with {@link Register}.
+     *     Does nothing if there are no annotated fields.
+     * </p>
+     * <p>
+     *     One {@code RegistrationTable} is written for each registry type, in the order of {@code RegistrationTable.Type}.
+     *     Fields are sorted by class name and then by declaration order so that objects can depend on objects declared before them.
+     * </p>
+     *
+     * @see ModAnnotationProcessor#hasRegistrationTable()
+     */
+    private void generateRegistrationTable() {
+        if(this.hasRegistrationTable()) {
+            String className = this.generatedPackage() + ".PhantomRegistrationTable";
+            try(PrintWriter writer = new PrintWriter(this.createSourceFile(className, this.allRegisteredFields()))) {
+                writer.println("package " + this.generatedPackage() + ";");
+                writer.println("public class PhantomRegistrationTable {");
+                writer.println("    public static void register() {");
+                writer.println("        io.github.phantomloader.library.registry.ModRegistry registry = io.github.phantomloader.library.registry.ModRegistry.instantiate(\"" + this.processingEnv.getOptions().get("modId") + "\");");
+                for(RegistryType type : REGISTRY_TYPES) {
+                    this.writeRegistrationTable(writer, type.name());
+                    if(type.name().equals("ITEM")) {
+                        // Block items are registered after items like in registerBlockAndItem
+                        this.writeRegistrationTable(writer, "BLOCK_ITEM");
+                    }
+                }
+                writer.println("        registry.register();");
+                writer.println("    }");
+                writer.println("}");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not generate class " + className, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Writes the code that registers the {@code RegistrationTable} of the given type.
+     *     Does nothing if there are no fields of that type.
+     * </p>
+     *
+     * @param writer The writer used to write the generated class.
+     * @param type Name of the registry type.
+     */
+    private void writeRegistrationTable(PrintWriter writer, String type) {
+        HashMap<String, Element> fields = this.registeredFields.get(type);
+        if(fields != null && !fields.isEmpty()) {
+            // Declaration order is computed once per class since it is slow to get
+            HashMap<String, Integer> positions = new HashMap<>();
+            for(Element field : fields.values()) {
+                String className = ((TypeElement) field.getEnclosingElement()).getQualifiedName().toString();
+                if(!positions.containsKey(className + "." + field.getSimpleName())) {
+                    List<? extends Element> enclosedElements = field.getEnclosingElement().getEnclosedElements();
+                    for(int i = 0; i < enclosedElements.size(); i++) {
+                        positions.put(className + "." + enclosedElements.get(i).getSimpleName(), i);
+                    }
+                }
+            }
+            List<Element> sortedFields = fields.values().stream().sorted(Comparator.<Element, String>comparing(field -> ((TypeElement) field.getEnclosingElement()).getQualifiedName().toString()).thenComparingInt(field -> positions.get(((TypeElement) field.getEnclosingElement()).getQualifiedName() + "." + field.getSimpleName()))).toList();
+            HashMap<Element, String> names = new HashMap<>();
+            fields.forEach((name, field) -> names.put(field, name));
+            writer.println("        registry.registerTable(new io.github.phantomloader.library.registry.RegistrationTable(io.github.phantomloader.library.registry.RegistrationTable.Type." + type + ", new String[] {");
+            for(int i = 0; i < sortedFields.size(); i++) {
+                writer.println("                \"" + names.get(sortedFields.get(i)) + "\"" + (i == sortedFields.size() - 1 ? "" : ","));
+            }
+            writer.println("        }, new java.util.function.Supplier<?>[] {");
+            for(int i = 0; i < sortedFields.size(); i++) {
+                Element field = sortedFields.get(i);
+                writer.println("                " + ((TypeElement) field.getEnclosingElement()).getQualifiedName() + "." + field.getSimpleName() + (i == sortedFields.size() - 1 ? "" : ","));
+            }
+            writer.println("        }));");
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if a {@code PhantomRegistrationTable} class is generated.
+     *     If it is, the generated mod class must call {@code PhantomRegistrationTable.register()} before any entry point.
+     * </p>
+     *
+     * @return True if there are fields annotated with {@link Register}, otherwise false.
+     */
+    protected boolean hasRegistrationTable() {
+        return !this.registeredFields.isEmpty();
+    }
+
+    /**
+     * <p>
+     *     Generates the preload manifest from the annotated elements.
+     *     Client entry points, client-only services, and services that only implement client interfaces are only preloaded on the client, server entry points are only preloaded on the dedicated server.
+     *     Elements annotated with {@link ModIntegration} are never preloaded.
+     * </p>
+     */
+    private void generatePreloadManifest() {
+        ArrayList<Element> commonElements = new ArrayList<>();
+        ArrayList<Element> clientElements = new ArrayList<>(this.annotatedMethods.getOrDefault(ModEntryPoint.Side.CLIENT, new HashSet<>()));
+        ArrayList<Element> serverElements = new ArrayList<>(this.annotatedMethods.getOrDefault(ModEntryPoint.Side.SERVER, new HashSet<>()));
+        commonElements.addAll(this.annotatedMethods.getOrDefault(ModEntryPoint.Side.INIT, new HashSet<>()));
+        commonElements.addAll(this.annotatedMethods.getOrDefault(ModEntryPoint.Side.COMMON, new HashSet<>()));
+        commonElements.addAll(this.allRegisteredFields());
+        commonElements.addAll(this.configs.schemas());
+        commonElements.addAll(this.packets.packets());
+        commonElements.addAll(this.blockEntityCodecs.fields());
+        this.services.forEach((service, interfaces) -> {
+            if(CLIENT_SERVICE_INTERFACES.containsAll(interfaces) || this.clientOnly.isClientOnly(service)) {
+                clientElements.add(service);
+            } else {
+                commonElements.add(service);
+            }
+        });
+        // Integrations are not preloaded since the mod they use may not be loaded
+        commonElements.removeIf(element -> this.requiredMod(element) != null);
+        clientElements.removeIf(element -> this.requiredMod(element) != null);
+        serverElements.removeIf(element -> this.requiredMod(element) != null);
+        this.preloadManifest.generate(this.processingEnv.getOptions().get("modId"), this.processingEnv.getOptions().get("modGroupId"), commonElements, clientElements, serverElements);
+    }
+
+    /**
+     * <p>
+     *     Checks if the generated mod class needs to register the service index or the registration table before calling entry points.
+     * </p>
+     *
+     * @return True if {@link ModAnnotationProcessor#writeSetup(PrintWriter, String)} writes any code, otherwise false.
+     */
+    protected boolean hasSetup() {
+        return this.clientOnly.isGenerated() || this.preloadManifest.isGenerated() || this.hasServiceIndex() || !this.configs.isEmpty() || !this.packets.isEmpty() || !this.blockEntityCodecs.isEmpty() || this.hasRegistrationTable();
+    }
+
+    /**
+     * <p>
+     *     Writes the code that loads the client-only index, starts preloading classes, and registers the generated service index, the generated config files, the generated network channel, the generated block entity codecs, and the generated registration table.
+     *     Must be written at the beginning of the initializer before any entry point is called.
+     * </p>
+     *
+     * @param writer The writer used to write the generated class.
+     * @param indent The indentation of the generated code.
+     */
+    protected void writeSetup(PrintWriter writer, String indent) {
+        if(this.clientOnly.isGenerated()) {
+            writer.println(indent + "io.github.phantomloader.library.platform.ClientOnlyIndex.load(\"" + this.processingEnv.getOptions().get("modId") + "\", this.getClass().getClassLoader());");
+        }
+        if(this.preloadManifest.isGenerated()) {
+            writer.println(indent + "io.github.phantomloader.library.ClassPreloader.start(\"" + this.processingEnv.getOptions().get("modId") + "\", this.getClass().getClassLoader());");
+        }
+        if(this.hasServiceIndex()) {
+            writer.println(indent + "new PhantomServiceIndex().registerServices();");
+        }
+        if(!this.configs.isEmpty()) {
+            writer.println(indent + "PhantomConfigs.register();");
+        }
+        if(!this.packets.isEmpty()) {
+            writer.println(indent + "PhantomNetwork.register();");
+        }
+        if(!this.blockEntityCodecs.isEmpty()) {
+            writer.println(indent + "PhantomBlockEntityCodecs.register();");
+        }
+        if(this.hasRegistrationTable()) {
+            writer.println(indent + "PhantomRegistrationTable.register();");
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the classes annotated with {@link PhantomService}, {@link ConfigSchema}, or {@link Packet} and the fields annotated with {@link Register} or {@link Persist}, which are used by the code written by {@link ModAnnotationProcessor#writeSetup(PrintWriter, String)}.
+     * </p>
+     *
+     * @return A list containing the elements used by the setup code.
+     */
+    protected List<Element> setupElements() {
+        ArrayList<Element> elements = new ArrayList<>(this.services.keySet());
+        elements.addAll(this.configs.schemas());
+        elements.addAll(this.packets.packets());
+        elements.addAll(this.blockEntityCodecs.fields());
+        elements.addAll(this.allRegisteredFields());
+        return elements;
+    }
+
+    /**
+     * <p>
+     *     Returns all fields annotated with {@link Register}.
+     * </p>
+     *
+     * @return A set containing all the annotated fields.
+     */
+    private Set<Element> allRegisteredFields() {
+        HashSet<Element> fields = new HashSet<>();
+        this.registeredFields.values().forEach(map -> fields.addAll(map.values()));
+        return fields;
+    }
+
+    /**
+     * <p>
+     *     Returns the package in which classes are generated.
+     *     The package is {@code <modGroupId>.<modId>.<loader>}, where the mod id is lowercase and without underscores.
+     * </p>
+     *
+     * @return The fully qualified name of the package in which classes are generated.
+     */
+    protected String generatedPackage() {
+        return this.processingEnv.getOptions().get("modGroupId") + "." + this.processingEnv.getOptions().get("modId").toLowerCase().replace("_", "") + "." + this.loader().name().toLowerCase();
+    }
+
+    /**
+     * <p>
+     *     Returns all methods annotated with {@link ModEntryPoint} regardless of their side.
+     * </p>
+     *
+     * @return A list containing all the annotated methods.
+     */
+    protected List<Element> allAnnotatedMethods() {
+        ArrayList<Element> methods = new ArrayList<>();
+        this.annotatedMethods.values().forEach(methods::addAll);
+        return methods;
+    }
+
+    /**
+     * <p>
+     *     Returns all methods annotated with {@link ModEntryPoint}, all classes annotated with {@link PhantomService}, {@link ConfigSchema}, or {@link Packet}, and all fields annotated with {@link Register} or {@link Persist}.
+     * </p>
+     *
+     * @return A list containing all the annotated elements.
+     */
+    protected List<Element> allAnnotatedElements() {
+        List<Element> elements = this.allAnnotatedMethods();
+        elements.addAll(this.services.keySet());
+        elements.addAll(this.configs.schemas());
+        elements.addAll(this.packets.packets());
+        elements.addAll(this.blockEntityCodecs.fields());
+        elements.addAll(this.allRegisteredFields());
+        return elements;
+    }
+
+    /**
+     * <p>
+     *     Converts the given collection to an array that can be passed as originating elements to the {@link javax.annotation.processing.Filer}.
+     * </p>
+     * <p>
+     *     Originating elements are needed by Gradle to know which files should be regenerated during incremental compilation.
+     * </p>
+     *
+     * @param elements The elements the generated file is created from.
+     * @return An array containing the given elements.
+     */
+    protected Element[] originatingElements(Collection<? extends Element> elements) {
+        return elements.toArray(Element[]::new);
+    }
+
+    /**
+     * <p>
+     *     Creates a source file with the given class name and opens a writer to it.
+     * </p>
+     *
+     * @param className The fully qualified name of the class to generate.
+     * @param originatingElements The elements the class is generated from.
+     * @return A writer to the newly created source file.
+     * @throws IOException If the file cannot be created.
+     * @see javax.annotation.processing.Filer#createSourceFile(CharSequence, Element...)
+     */
+    protected Writer createSourceFile(String className, Collection<? extends Element> originatingElements) throws IOException {
+        FileObject file = this.processingEnv.getFiler().createSourceFile(className, this.originatingElements(originatingElements));
+        return file.openWriter();
+    }
+
+    /**
+     * <p>
+     *     Returns the processing environment this processor was initialized with.
+     *     Used by the helper classes that generate code for this processor.
+     * </p>
+     *
+     * @return The processing environment.
+     */
+    ProcessingEnvironment processingEnvironment() {
+        return this.processingEnv;
+    }
+
+    /**
+     * <p>
+     *     Creates a resource file in the class output and opens a writer to it.
+     * </p>
+     *
+     * @param path Path to the resource file, relative to the class output.
+     * @param originatingElements The elements the resource is generated from.
+     * @return A writer to the newly created resource file.
+     * @throws IOException If the file cannot be created.
+     * @see javax.annotation.processing.Filer#createResource(javax.tools.JavaFileManager.Location, CharSequence, CharSequence, Element...)
+     */
+    protected Writer createResource(String path, Collection<? extends Element> originatingElements) throws IOException {
+        FileObject file = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path, this.originatingElements(originatingElements));
+        return file.openWriter();
+    }
+
     /**
      * <p>
      *     Determines the mod loader that corresponds to this annotation processor.
@@ -97,7 +1094,7 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
-        return Set.of(ModEntryPoint.class.getName());
+        return Set.of(ModEntryPoint.class.getName(), PhantomService.class.getName(), Register.class.getName(), ConfigSchema.class.getName(), Packet.class.getName(), Persist.class.getName(), ClientOnly.class.getName(), ModIntegration.class.getName(), DataGen.class.getName());
     }
 
     @Override
@@ -140,6 +1137,19 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
         this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message);
     }
 
+    /**
+     * <p>
+     *     Helper function used to print a warning message.
+     * </p>
+     *
+     * @param message The message to print.
+     * @param element The corresponding element.
+     * @see javax.annotation.processing.Messager#printMessage(Diagnostic.Kind, CharSequence, Element)
+     */
+    public void printWarning(String message, Element element) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
     /**
      * <p>
      *     Helper function used to print an error message.
@@ -152,6 +1162,18 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
         this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message);
     }
 
+    /**
+     * <p>
+     *     Helper function used to print an informative message.
+     * </p>
+     *
+     * @param message The message to print.
+     * @see javax.annotation.processing.Messager#printMessage(Diagnostic.Kind, CharSequence)
+     */
+    public void printNote(String message) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message);
+    }
+
     /**
      * <p>
      *     Checks if all options listed in {@link ModAnnotationProcessor#getRequiredOptions()} are in the processing environment.
@@ -169,4 +1191,16 @@ public abstract class ModAnnotationProcessor extends AbstractProcessor {
         }
         return true;
     }
+
+    /**
+     * <p>
+     *     Record used to map the name of a {@code RegistrationTable.Type} to the class of the objects in that registry.
+     * </p>
+     *
+     * @param name Name of the {@code RegistrationTable.Type} constant.
+     * @param className Fully qualified name of the base class of the registry objects.
+     */
+    private record RegistryType(String name, String className) {
+
+    }
 }
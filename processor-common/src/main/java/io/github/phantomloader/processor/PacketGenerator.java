@@ -0,0 +1,500 @@
+package io.github.phantomloader.processor;
+
+import io.github.phantomloader.library.network.Packet;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ *     Helper class used by {@link ModAnnotationProcessor} to generate the {@code PhantomNetwork} class from the records annotated with {@link Packet}.
+ * </p>
+ * <p>
+ *     The generated class contains one {@code PacketCodec} per packet that reads and writes the components of the record with direct calls to {@code FriendlyByteBuf}, without reflection.
+ *     The presence of the {@code Optional} components of a packet is written as a single varint bit mask before the other components.
+ *     Packets are defined in the order of their names, so that the ids assigned by the mod loader are the same on both sides.
+ * </p>
+ *
+ * @author Nico
+ */
+public class PacketGenerator {
+
+    /** Fully qualified name of the interface packets must implement */
+    private static final String PACKET_INTERFACE = "io.github.phantomloader.library.network.ModPacket";
+    /** Pattern that packet names must match so that they can be used in a resource location */
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-z0-9/._-]+");
+    /** Maximum number of {@code Optional} components in a packet, one per bit of the presence mask */
+    private static final int MAX_OPTIONALS = 31;
+    /** Methods of {@code FriendlyByteBuf} used to write and read the supported types, keyed by type name */
+    private static final Map<String, BufferMethods> BUFFER_METHODS = Map.ofEntries(
+            Map.entry("boolean", new BufferMethods("writeBoolean", "readBoolean")),
+            Map.entry("java.lang.Boolean", new BufferMethods("writeBoolean", "readBoolean")),
+            Map.entry("byte", new BufferMethods("writeByte", "readByte")),
+            Map.entry("java.lang.Byte", new BufferMethods("writeByte", "readByte")),
+            Map.entry("short", new BufferMethods("writeShort", "readShort")),
+            Map.entry("java.lang.Short", new BufferMethods("writeShort", "readShort")),
+            Map.entry("char", new BufferMethods("writeChar", "readChar")),
+            Map.entry("java.lang.Character", new BufferMethods("writeChar", "readChar")),
+            Map.entry("int", new BufferMethods("writeVarInt", "readVarInt")),
+            Map.entry("java.lang.Integer", new BufferMethods("writeVarInt", "readVarInt")),
+            Map.entry("long", new BufferMethods("writeVarLong", "readVarLong")),
+            Map.entry("java.lang.Long", new BufferMethods("writeVarLong", "readVarLong")),
+            Map.entry("float", new BufferMethods("writeFloat", "readFloat")),
+            Map.entry("java.lang.Float", new BufferMethods("writeFloat", "readFloat")),
+            Map.entry("double", new BufferMethods("writeDouble", "readDouble")),
+            Map.entry("java.lang.Double", new BufferMethods("writeDouble", "readDouble")),
+            Map.entry("java.lang.String", new BufferMethods("writeUtf", "readUtf")),
+            Map.entry("java.util.UUID", new BufferMethods("writeUUID", "readUUID")),
+            Map.entry("net.minecraft.resources.ResourceLocation", new BufferMethods("writeResourceLocation", "readResourceLocation")),
+            Map.entry("net.minecraft.core.BlockPos", new BufferMethods("writeBlockPos", "readBlockPos")),
+            Map.entry("net.minecraft.nbt.CompoundTag", new BufferMethods("writeNbt", "readNbt")),
+            Map.entry("net.minecraft.world.item.ItemStack", new BufferMethods("writeItem", "readItem")),
+            Map.entry("net.minecraft.network.chat.Component", new BufferMethods("writeComponent", "readComponent")),
+            Map.entry("byte[]", new BufferMethods("writeByteArray", "readByteArray")),
+            Map.entry("int[]", new BufferMethods("writeVarIntArray", "readVarIntArray"))
+    );
+
+    /** The annotation processor that uses this generator */
+    private final ModAnnotationProcessor processor;
+    /** Records annotated with {@link Packet}, keyed and sorted by packet name */
+    private final TreeMap<String, TypeElement> packets = new TreeMap<>();
+
+    /**
+     * <p>
+     *     Creates a packet generator.
+     * </p>
+     *
+     * @param processor The annotation processor that uses this generator.
+     */
+    public PacketGenerator(ModAnnotationProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * <p>
+     *     Checks that a record annotated with {@link Packet} can be encoded by the generated code and adds it to the generated class.
+     *     Prints an error if the element is not a public record, if it does not implement {@code ModPacket}, if its name is invalid or already used, or if one of its components has an unsupported type.
+     * </p>
+     *
+     * @param element The annotated element.
+     */
+    public void add(Element element) {
+        if(element.getKind() != ElementKind.RECORD || !element.getModifiers().contains(Modifier.PUBLIC)) {
+            this.processor.printError("Only public records can be annotated with Packet", element);
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        TypeElement packetInterface = this.processor.processingEnvironment().getElementUtils().getTypeElement(PACKET_INTERFACE);
+        if(packetInterface != null && !this.processor.processingEnvironment().getTypeUtils().isAssignable(type.asType(), packetInterface.asType())) {
+            this.processor.printError("The record annotated with Packet must implement " + PACKET_INTERFACE, element);
+            return;
+        }
+        String name = name(type);
+        if(!NAME_PATTERN.matcher(name).matches()) {
+            this.processor.printError("Invalid packet name " + name + ", names can only contain lowercase letters, digits, '/', '.', '_', and '-'", element);
+            return;
+        }
+        TypeElement other = this.packets.get(name);
+        if(other != null && !other.getQualifiedName().contentEquals(type.getQualifiedName())) {
+            this.processor.printError("Duplicate packet name " + name + ", already used by " + other.getQualifiedName(), element);
+            return;
+        }
+        boolean valid = true;
+        int optionals = 0;
+        ArrayDeque<String> records = new ArrayDeque<>();
+        records.push(type.getQualifiedName().toString());
+        for(RecordComponentElement component : type.getRecordComponents()) {
+            valid &= this.checkType(component.asType(), type, component, records);
+            if(isOptional(component.asType())) {
+                optionals++;
+            }
+        }
+        if(optionals > MAX_OPTIONALS) {
+            this.processor.printError("Packets cannot have more than " + MAX_OPTIONALS + " Optional components", element);
+        } else if(valid) {
+            this.packets.put(name, type);
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks that the given type can be written by the generated code.
+     *     Prints an error on the given packet if it cannot.
+     * </p>
+     *
+     * @param type The type to check.
+     * @param packet The record annotated with {@link Packet}.
+     * @param component The component of the packet that uses the type.
+     * @param records Qualified names of the records that contain the component, used to detect recursive records.
+     * @return True if the type is supported, otherwise false.
+     */
+    private boolean checkType(TypeMirror type, TypeElement packet, Element component, ArrayDeque<String> records) {
+        if(BUFFER_METHODS.containsKey(typeName(type))) {
+            return true;
+        } else if(type instanceof DeclaredType declaredType) {
+            TypeElement element = (TypeElement) declaredType.asElement();
+            if(element.getKind() == ElementKind.ENUM) {
+                return true;
+            } else if((isList(type) || isOptional(type)) && declaredType.getTypeArguments().size() == 1 && declaredType.getTypeArguments().get(0).getKind() == TypeKind.DECLARED) {
+                return this.checkType(declaredType.getTypeArguments().get(0), packet, component, records);
+            } else if(element.getKind() == ElementKind.RECORD && element.getModifiers().contains(Modifier.PUBLIC) && element.getTypeParameters().isEmpty()) {
+                if(records.contains(element.getQualifiedName().toString())) {
+                    this.processor.printError("Packet component " + component.getSimpleName() + " cannot contain record " + element.getQualifiedName() + " recursively", packet);
+                    return false;
+                }
+                records.push(element.getQualifiedName().toString());
+                boolean valid = true;
+                for(RecordComponentElement recordComponent : element.getRecordComponents()) {
+                    valid &= this.checkType(recordComponent.asType(), packet, component, records);
+                }
+                records.pop();
+                return valid;
+            }
+        }
+        this.processor.printError("Unsupported type " + type + " in packet component " + component.getSimpleName() + ", see the documentation of Packet for the supported types", packet);
+        return false;
+    }
+
+    /**
+     * <p>
+     *     Checks if there are records annotated with {@link Packet}.
+     *     If there are, the generated mod class must call {@code PhantomNetwork.register()} before any entry point.
+     * </p>
+     *
+     * @return True if a {@code PhantomNetwork} class is generated, otherwise false.
+     */
+    public boolean isEmpty() {
+        return this.packets.isEmpty();
+    }
+
+    /**
+     * <p>
+     *     Returns the records annotated with {@link Packet}.
+     * </p>
+     *
+     * @return A collection containing the annotated records.
+     */
+    public Collection<TypeElement> packets() {
+        return this.packets.values();
+    }
+
+    /**
+     * <p>
+     *     Generates the {@code PhantomNetwork} class in the given package.
+     *     Does nothing if there are no annotated records.
+     * </p>
+     *
+     * @param packageName The package in which the class is generated.
+     * @param modId The mod id, used as the namespace of the network channel.
+     */
+    public void generate(String packageName, String modId) {
+        if(!this.isEmpty()) {
+            String className = packageName + ".PhantomNetwork";
+            try(PrintWriter writer = new PrintWriter(this.processor.createSourceFile(className, this.packets.values()))) {
+                // The protocol changes whenever a packet is added, removed, or changed
+                StringBuilder protocol = new StringBuilder();
+                this.packets.forEach((name, type) -> protocol.append(this.describe(name, type)).append(';'));
+                writer.println("package " + packageName + ";");
+                writer.println("public class PhantomNetwork {");
+                writer.println("    public static void register() {");
+                writer.println("        io.github.phantomloader.library.network.NetworkChannel channel = io.github.phantomloader.library.network.NetworkChannel.instantiate();");
+                int index = 0;
+                for(String name : this.packets.keySet()) {
+                    TypeElement type = this.packets.get(name);
+                    writer.println("        channel.definePacket(\"" + name + "\", " + type.getQualifiedName() + ".class, io.github.phantomloader.library.network.Packet.Direction." + type.getAnnotation(Packet.class).direction() + ", new Codec" + index++ + "());");
+                }
+                writer.println("        channel.register(\"" + modId + "\", \"" + String.format("%08x", protocol.toString().hashCode()) + "\");");
+                for(TypeElement type : this.packets.values()) {
+                    writer.println("        io.github.phantomloader.library.network.Packets.bind(" + type.getQualifiedName() + ".class, channel);");
+                }
+                writer.println("    }");
+                index = 0;
+                for(TypeElement type : this.packets.values()) {
+                    this.writeCodec(writer, "Codec" + index++, type);
+                }
+                writer.println("}");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not generate class " + className, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Writes the codec of the given packet as a nested class.
+     * </p>
+     *
+     * @param writer The writer used to write the generated class.
+     * @param className The name of the nested class.
+     * @param type The record annotated with {@link Packet}.
+     */
+    private void writeCodec(PrintWriter writer, String className, TypeElement type) {
+        List<? extends RecordComponentElement> components = type.getRecordComponents();
+        ArrayList<String> presence = new ArrayList<>();
+        for(RecordComponentElement component : components) {
+            if(isOptional(component.asType())) {
+                presence.add("(packet." + component.getSimpleName() + "().isPresent() ? " + (1 << presence.size()) + " : 0)");
+            }
+        }
+        writer.println("    private static class " + className + " implements io.github.phantomloader.library.network.PacketCodec<" + type.getQualifiedName() + "> {");
+        writer.println("        @Override");
+        writer.println("        public void encode(" + type.getQualifiedName() + " packet, net.minecraft.network.FriendlyByteBuf buf) {");
+        if(!presence.isEmpty()) {
+            writer.println("            buf.writeVarInt(" + String.join(" | ", presence) + ");");
+        }
+        for(RecordComponentElement component : components) {
+            String value = "packet." + component.getSimpleName() + "()";
+            if(isOptional(component.asType())) {
+                // Absent values are only written in the presence mask
+                writer.println("            if(" + value + ".isPresent()) {");
+                for(String statement : this.encode(typeArgument(component.asType()), value + ".get()", "buf", 0)) {
+                    writer.println("                " + statement);
+                }
+                writer.println("            }");
+            } else {
+                for(String statement : this.encode(component.asType(), value, "buf", 0)) {
+                    writer.println("            " + statement);
+                }
+            }
+        }
+        writer.println("        }");
+        writer.println("        @Override");
+        writer.println("        public " + type.getQualifiedName() + " decode(net.minecraft.network.FriendlyByteBuf buf) {");
+        if(!presence.isEmpty()) {
+            writer.println("            int present = buf.readVarInt();");
+        }
+        ArrayList<String> arguments = new ArrayList<>();
+        int bit = 0;
+        for(RecordComponentElement component : components) {
+            if(isOptional(component.asType())) {
+                TypeMirror argument = typeArgument(component.asType());
+                arguments.add("(present & " + (1 << bit++) + ") != 0 ? java.util.Optional.of(" + this.decode(argument, "buf", 0) + ") : java.util.Optional.<" + argument + ">empty()");
+            } else {
+                arguments.add(this.decode(component.asType(), "buf", 0));
+            }
+        }
+        if(arguments.isEmpty()) {
+            writer.println("            return new " + type.getQualifiedName() + "();");
+        } else {
+            // Arguments are evaluated from left to right, which is the order in which components are written
+            writer.println("            return new " + type.getQualifiedName() + "(");
+            for(int i = 0; i < arguments.size(); i++) {
+                writer.println("                    " + arguments.get(i) + (i == arguments.size() - 1 ? "" : ","));
+            }
+            writer.println("            );");
+        }
+        writer.println("        }");
+        writer.println("    }");
+    }
+
+    /**
+     * <p>
+     *     Returns the statements that write a value of the given type.
+     * </p>
+     *
+     * @param type The type of the value.
+     * @param value Expression that evaluates to the value.
+     * @param buf Name of the buffer variable.
+     * @param depth Nesting depth of lambda expressions, used to name their parameters.
+     * @return A list of statements.
+     */
+    private List<String> encode(TypeMirror type, String value, String buf, int depth) {
+        BufferMethods methods = BUFFER_METHODS.get(typeName(type));
+        if(methods != null) {
+            return List.of(buf + "." + methods.write() + "(" + value + ");");
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        if(element.getKind() == ElementKind.ENUM) {
+            return List.of(buf + ".writeEnum(" + value + ");");
+        } else if(isList(type)) {
+            return List.of(buf + ".writeCollection(" + value + ", (b" + depth + ", v" + depth + ") -> " + lambdaBody(this.encode(typeArgument(type), "v" + depth, "b" + depth, depth + 1)) + ");");
+        } else if(isOptional(type)) {
+            return List.of(buf + ".writeOptional(" + value + ", (b" + depth + ", v" + depth + ") -> " + lambdaBody(this.encode(typeArgument(type), "v" + depth, "b" + depth, depth + 1)) + ");");
+        }
+        ArrayList<String> statements = new ArrayList<>();
+        for(RecordComponentElement component : element.getRecordComponents()) {
+            statements.addAll(this.encode(component.asType(), value + "." + component.getSimpleName() + "()", buf, depth));
+        }
+        return statements;
+    }
+
+    /**
+     * <p>
+     *     Returns an expression that reads a value of the given type.
+     * </p>
+     *
+     * @param type The type of the value.
+     * @param buf Name of the buffer variable.
+     * @param depth Nesting depth of lambda expressions, used to name their parameters.
+     * @return An expression.
+     */
+    private String decode(TypeMirror type, String buf, int depth) {
+        BufferMethods methods = BUFFER_METHODS.get(typeName(type));
+        if(methods != null) {
+            return buf + "." + methods.read() + "()";
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        if(element.getKind() == ElementKind.ENUM) {
+            return buf + ".readEnum(" + element.getQualifiedName() + ".class)";
+        } else if(isList(type)) {
+            return buf + ".<" + typeArgument(type) + ">readList(b" + depth + " -> " + this.decode(typeArgument(type), "b" + depth, depth + 1) + ")";
+        } else if(isOptional(type)) {
+            return buf + ".<" + typeArgument(type) + ">readOptional(b" + depth + " -> " + this.decode(typeArgument(type), "b" + depth, depth + 1) + ")";
+        }
+        ArrayList<String> arguments = new ArrayList<>();
+        for(RecordComponentElement component : element.getRecordComponents()) {
+            arguments.add(this.decode(component.asType(), buf, depth));
+        }
+        return "new " + element.getQualifiedName() + "(" + String.join(", ", arguments) + ")";
+    }
+
+    /**
+     * <p>
+     *     Returns a string that describes the given packet, used to compute the protocol version and the index entries.
+     * </p>
+     *
+     * @param name The name of the packet.
+     * @param type The record annotated with {@link Packet}.
+     * @return A string containing the name, class, direction, and components of the packet.
+     */
+    private String describe(String name, TypeElement type) {
+        StringBuilder description = new StringBuilder(name + " " + type.getQualifiedName() + " " + type.getAnnotation(Packet.class).direction());
+        for(RecordComponentElement component : type.getRecordComponents()) {
+            description.append(' ').append(this.describe(component.asType()));
+        }
+        return description.toString();
+    }
+
+    /**
+     * <p>
+     *     Returns a string that describes the given type, including the components of records.
+     * </p>
+     *
+     * @param type The type.
+     * @return A string describing how the type is written.
+     */
+    private String describe(TypeMirror type) {
+        if(type instanceof DeclaredType declaredType && declaredType.asElement().getKind() == ElementKind.RECORD) {
+            StringBuilder description = new StringBuilder(typeName(type) + "(");
+            for(RecordComponentElement component : ((TypeElement) declaredType.asElement()).getRecordComponents()) {
+                description.append(this.describe(component.asType())).append(',');
+            }
+            return description.append(')').toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * <p>
+     *     Returns the name of the given packet.
+     * </p>
+     *
+     * @param type The record annotated with {@link Packet}.
+     * @return The name specified in the annotation or the name of the record in snake case.
+     */
+    private static String name(TypeElement type) {
+        String name = type.getAnnotation(Packet.class).name();
+        if(name.isEmpty()) {
+            return type.getSimpleName().toString().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+        }
+        return name;
+    }
+
+    /**
+     * <p>
+     *     Returns the name used to look up the buffer methods of the given type.
+     * </p>
+     *
+     * @param type The type.
+     * @return The qualified name of a class without type arguments, the name of a primitive type, or the name of a primitive array type.
+     */
+    private static String typeName(TypeMirror type) {
+        if(type instanceof DeclaredType declaredType) {
+            return ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+        } else if(type instanceof ArrayType arrayType) {
+            return arrayType.getComponentType().getKind().isPrimitive() ? arrayType.getComponentType().getKind().name().toLowerCase() + "[]" : "";
+        }
+        return type.getKind().isPrimitive() ? type.getKind().name().toLowerCase() : "";
+    }
+
+    /**
+     * <p>
+     *     Checks if the given type is a {@code List}.
+     * </p>
+     *
+     * @param type The type.
+     * @return True if the type is {@code java.util.List}, otherwise false.
+     */
+    private static boolean isList(TypeMirror type) {
+        return typeName(type).equals("java.util.List");
+    }
+
+    /**
+     * <p>
+     *     Checks if the given type is an {@code Optional}.
+     * </p>
+     *
+     * @param type The type.
+     * @return True if the type is {@code java.util.Optional}, otherwise false.
+     */
+    private static boolean isOptional(TypeMirror type) {
+        return typeName(type).equals("java.util.Optional");
+    }
+
+    /**
+     * <p>
+     *     Returns the type argument of a {@code List} or an {@code Optional}.
+     * </p>
+     *
+     * @param type The type.
+     * @return The first type argument.
+     */
+    private static TypeMirror typeArgument(TypeMirror type) {
+        return ((DeclaredType) type).getTypeArguments().get(0);
+    }
+
+    /**
+     * <p>
+     *     Converts the given statements to the body of a lambda expression.
+     * </p>
+     *
+     * @param statements The statements.
+     * @return A single expression or a block.
+     */
+    private static String lambdaBody(List<String> statements) {
+        if(statements.size() == 1) {
+            String statement = statements.get(0);
+            return statement.substring(0, statement.length() - 1);
+        }
+        return "{ " + String.join(" ", statements) + " }";
+    }
+
+    /**
+     * <p>
+     *     Record used to store the methods of {@code FriendlyByteBuf} used to write and read a type.
+     * </p>
+     *
+     * @param write Name of the method used to write the type.
+     * @param read Name of the method used to read the type.
+     */
+    private record BufferMethods(String write, String read) {
+
+    }
+}
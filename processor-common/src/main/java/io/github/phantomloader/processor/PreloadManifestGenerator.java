@@ -0,0 +1,226 @@
+package io.github.phantomloader.processor;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ *     Helper class used by {@link ModAnnotationProcessor} to generate the manifest read by {@code io.github.phantomloader.library.ClassPreloader}.
+ * </p>
+ * <p>
+ *     The manifest lists the classes of the mod that are reachable from the annotated elements.
+ *     A class is reachable if it declares an annotated element, if it is used in the signature of an annotated element, or if it is used in the superclass, interfaces, fields, or method signatures of another reachable class.
+ *     Method bodies are not visible to annotation processors, therefore classes that are only used inside of methods are not listed.
+ *     Only classes in the package of the mod's group id or in its subpackages are listed, so that classes of Minecraft and other libraries are left out.
+ * </p>
+ * <p>
+ *     Since this generator visits every class that is loaded on a dedicated server, it also checks that common and server code does not use client-only classes.
+ * </p>
+ *
+ * @author Nico
+ */
+public class PreloadManifestGenerator {
+
+    /** The annotation processor that uses this generator */
+    private final ModAnnotationProcessor processor;
+    /** Whether a manifest was written by the last call to {@link PreloadManifestGenerator#generate(String, String, Collection, Collection, Collection)} */
+    private boolean generated = false;
+
+    /**
+     * <p>
+     *     Creates a preload manifest generator.
+     * </p>
+     *
+     * @param processor The annotation processor that uses this generator.
+     */
+    public PreloadManifestGenerator(ModAnnotationProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * <p>
+     *     Generates the manifest for the given mod.
+     *     Classes that are reachable from common elements are loaded on both sides, classes that are only reachable from client or server elements are only loaded on that side.
+     *     Does nothing if no class is reachable.
+     *     Prints an error if common or server elements use client-only classes.
+     * </p>
+     *
+     * @param modId The mod id, used as the name of the manifest.
+     * @param groupId The mod's group id, only classes in this package or in its subpackages are listed.
+     * @param commonElements Annotated elements used on both sides.
+     * @param clientElements Annotated elements only used on the client.
+     * @param serverElements Annotated elements only used on the dedicated server.
+     */
+    public void generate(String modId, String groupId, Collection<? extends Element> commonElements, Collection<? extends Element> clientElements, Collection<? extends Element> serverElements) {
+        HashSet<String> visited = new HashSet<>();
+        TreeSet<String> common = this.reachableClasses(groupId, commonElements, visited, true);
+        TreeSet<String> client = this.reachableClasses(groupId, clientElements, new HashSet<>(visited), false);
+        TreeSet<String> server = this.reachableClasses(groupId, serverElements, new HashSet<>(visited), true);
+        this.generated = !common.isEmpty() || !client.isEmpty() || !server.isEmpty();
+        if(this.generated) {
+            ArrayList<Element> originatingElements = new ArrayList<>(commonElements);
+            originatingElements.addAll(clientElements);
+            originatingElements.addAll(serverElements);
+            String path = "META-INF/phantom/preload/" + modId + ".txt";
+            try(PrintWriter writer = new PrintWriter(this.processor.createResource(path, originatingElements))) {
+                writer.println("# Classes preloaded by Phantom Loader when -Dphantom.preload=true is set");
+                common.forEach(className -> writer.println("common " + className));
+                client.forEach(className -> writer.println("client " + className));
+                server.forEach(className -> writer.println("server " + className));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not generate preload manifest " + path, e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if a manifest was generated.
+     *     If it was, the generated mod class should call {@code ClassPreloader.start} before anything else.
+     * </p>
+     *
+     * @return True if a manifest was generated, otherwise false.
+     */
+    public boolean isGenerated() {
+        return this.generated;
+    }
+
+    /**
+     * <p>
+     *     Finds the classes reachable from the given elements.
+     * </p>
+     * <p>
+     *     If the elements are used on a dedicated server, methods annotated with {@link io.github.phantomloader.library.ClientOnly} are not visited and an error is printed on every element that uses a client-only class.
+     *     Classes and methods annotated with {@link io.github.phantomloader.library.integration.ModIntegration} are never visited, since they may use classes from mods that are not loaded.
+     * </p>
+     *
+     * @param groupId The mod's group id.
+     * @param elements The annotated elements.
+     * @param visited Qualified names of the classes that should not be visited, updated with the visited classes.
+     * @param server Whether the elements are used on a dedicated server.
+     * @return A sorted set containing the binary names of the reachable classes.
+     */
+    private TreeSet<String> reachableClasses(String groupId, Collection<? extends Element> elements, HashSet<String> visited, boolean server) {
+        ArrayDeque<Reference> queue = new ArrayDeque<>();
+        for(Element element : elements) {
+            if(server && this.processor.clientOnly.isClientOnly(element)) {
+                this.processor.printError("Client-only element " + element + " can only be used by client entry points and client services", element);
+            } else if(element instanceof TypeElement type) {
+                queue.add(new Reference(type, type));
+            } else {
+                if(element.getEnclosingElement() instanceof TypeElement type) {
+                    queue.add(new Reference(type, element));
+                }
+                this.addTypes(element.asType(), element, queue);
+            }
+        }
+        TreeSet<String> classes = new TreeSet<>();
+        HashSet<Element> reported = new HashSet<>();
+        while(!queue.isEmpty()) {
+            Reference reference = queue.poll();
+            TypeElement type = reference.type();
+            if(server && this.processor.clientOnly.isClientOnly(type)) {
+                // Only report the first client-only class used by each element
+                if(reported.add(reference.referrer())) {
+                    this.processor.printError("Client-only class " + type.getQualifiedName() + " cannot be used by code that runs on a dedicated server", reference.referrer());
+                }
+            } else if(this.processor.requiredMod(type) == null && visited.add(type.getQualifiedName().toString()) && this.isInGroup(type, groupId)) {
+                classes.add(this.processor.processingEnvironment().getElementUtils().getBinaryName(type).toString());
+                this.addTypes(type.getSuperclass(), type, queue);
+                type.getInterfaces().forEach(interfaceType -> this.addTypes(interfaceType, type, queue));
+                for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                    this.addTypes(field.asType(), field, queue);
+                }
+                for(ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                    if((!server || !this.processor.clientOnly.isClientOnly(method)) && this.processor.requiredMod(method) == null) {
+                        this.addTypes(method.asType(), method, queue);
+                    }
+                }
+                if(type.getEnclosingElement() instanceof TypeElement enclosingType) {
+                    queue.add(new Reference(enclosingType, type));
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * <p>
+     *     Adds the classes used by the given type to the queue, including type arguments, array components, wildcard bounds, and the parameters, return type, and thrown types of methods.
+     * </p>
+     *
+     * @param type The type.
+     * @param referrer The element whose declaration uses the type.
+     * @param queue The queue of classes to visit.
+     */
+    private void addTypes(TypeMirror type, Element referrer, ArrayDeque<Reference> queue) {
+        switch (type.getKind()) {
+            case DECLARED -> {
+                DeclaredType declaredType = (DeclaredType) type;
+                queue.add(new Reference((TypeElement) declaredType.asElement(), referrer));
+                declaredType.getTypeArguments().forEach(typeArgument -> this.addTypes(typeArgument, referrer, queue));
+            }
+            case ARRAY -> this.addTypes(((ArrayType) type).getComponentType(), referrer, queue);
+            case WILDCARD -> {
+                WildcardType wildcardType = (WildcardType) type;
+                if(wildcardType.getExtendsBound() != null) {
+                    this.addTypes(wildcardType.getExtendsBound(), referrer, queue);
+                }
+                if(wildcardType.getSuperBound() != null) {
+                    this.addTypes(wildcardType.getSuperBound(), referrer, queue);
+                }
+            }
+            case EXECUTABLE -> {
+                ExecutableType executableType = (ExecutableType) type;
+                executableType.getParameterTypes().forEach(parameterType -> this.addTypes(parameterType, referrer, queue));
+                this.addTypes(executableType.getReturnType(), referrer, queue);
+                executableType.getThrownTypes().forEach(thrownType -> this.addTypes(thrownType, referrer, queue));
+            }
+            default -> {}
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks if the given class is in the package of the given group id or in one of its subpackages.
+     * </p>
+     *
+     * @param type The class.
+     * @param groupId The mod's group id.
+     * @return True if the class belongs to the mod's group, otherwise false.
+     */
+    private boolean isInGroup(TypeElement type, String groupId) {
+        PackageElement packageElement = this.processor.processingEnvironment().getElementUtils().getPackageOf(type);
+        String packageName = packageElement.getQualifiedName().toString();
+        return packageName.equals(groupId) || packageName.startsWith(groupId + ".");
+    }
+
+    /**
+     * <p>
+     *     Record used to store a class that must be visited along with the element that uses it, so that errors can be printed on that element.
+     * </p>
+     *
+     * @param type The class to visit.
+     * @param referrer The element whose declaration uses the class.
+     */
+    private record Reference(TypeElement type, Element referrer) {
+
+    }
+}
@@ -5,11 +5,18 @@ import io.github.phantomloader.library.integration.FabricCustomEntryPoint;
 import io.github.phantomloader.processor.ModAnnotationProcessor;
 
 import javax.lang.model.element.Element;
-import javax.tools.StandardLocation;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.UncheckedIOException;
-import java.lang.reflect.Method;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,6 +36,14 @@ public class FabricAnnotationProcessor extends ModAnnotationProcessor {
      */
     private final HashMap<String, String> fabricInitializers = new HashMap<>();
 
+    /**
+     * <p>
+     *     Caches the single abstract method of the interfaces used by the generated initializers.
+     *     Contains null for interfaces that cannot be used.
+     * </p>
+     */
+    private final HashMap<String, ExecutableElement> interfaceMethods = new HashMap<>();
+
     @Override
     protected ModEntryPoint.Loader loader() {
         return ModEntryPoint.Loader.FABRIC;
@@ -45,18 +60,19 @@ public class FabricAnnotationProcessor extends ModAnnotationProcessor {
             commonMethods.addAll(this.annotatedMethods.get(ModEntryPoint.Side.COMMON));
         }
         commonMethods.removeIf(method -> method.getAnnotation(FabricCustomEntryPoint.class) != null);
-        this.generateFabricInitializer("main", "FabricInitializer", "net.fabricmc.api.ModInitializer", commonMethods);
+        // The main initializer is also needed to register the service index and the registration table
+        this.generateFabricInitializer("main", "FabricInitializer", "net.fabricmc.api.ModInitializer", commonMethods, this.hasSetup());
         // Generate client initializer
         if(this.annotatedMethods.containsKey(ModEntryPoint.Side.CLIENT)) {
             ArrayList<Element> clientMethods = new ArrayList<>(this.annotatedMethods.get(ModEntryPoint.Side.CLIENT));
             clientMethods.removeIf(method -> method.getAnnotation(FabricCustomEntryPoint.class) != null);
-            this.generateFabricInitializer("client", "FabricClientInitializer", "net.fabricmc.api.ClientModInitializer", clientMethods);
+            this.generateFabricInitializer("client", "FabricClientInitializer", "net.fabricmc.api.ClientModInitializer", clientMethods, false);
         }
         // Generate server initializer
         if(this.annotatedMethods.containsKey(ModEntryPoint.Side.SERVER)) {
             ArrayList<Element> serverMethods = new ArrayList<>(this.annotatedMethods.get(ModEntryPoint.Side.SERVER));
             serverMethods.removeIf(method -> method.getAnnotation(FabricCustomEntryPoint.class) != null);
-            this.generateFabricInitializer("server", "FabricServerInitializer", "net.fabricmc.api.DedicatedServerModInitializer", serverMethods);
+            this.generateFabricInitializer("server", "FabricServerInitializer", "net.fabricmc.api.DedicatedServerModInitializer", serverMethods, false);
         }
         // Generate custom initializers
         HashMap<NameInterfacePair, HashSet<Element>> customInitializers = new HashMap<>();
@@ -77,37 +93,176 @@ public class FabricAnnotationProcessor extends ModAnnotationProcessor {
         }
         for(NameInterfacePair pair : customInitializers.keySet()) {
             String className = pair.name().substring(0, 1).toUpperCase() + pair.name().substring(1) + "Initializer";
-            this.generateFabricInitializer(pair.name(), className, pair.interfaceName(), customInitializers.get(pair));
+            this.generateFabricInitializer(pair.name(), className, pair.interfaceName(), customInitializers.get(pair), false);
         }
     }
 
-    private void generateFabricInitializer(String name, String className, String interfaceName, Collection<Element> methods) {
-        if(methods != null && !methods.isEmpty()) {
-            String packageName = this.processingEnv.getOptions().get("modGroupId") + "." + this.lowercaseModId() + ".fabric";
-            try(PrintWriter writer = new PrintWriter(this.processingEnv.getFiler().createSourceFile(packageName + "." + className).openWriter())) {
+    private void generateFabricInitializer(String name, String className, String interfaceName, Collection<Element> methods, boolean setup) {
+        if(setup || (methods != null && !methods.isEmpty())) {
+            String packageName = this.generatedPackage();
+            ArrayList<Element> originatingElements = new ArrayList<>(methods);
+            if(setup) {
+                originatingElements.addAll(this.setupElements());
+            }
+            ExecutableElement interfaceMethod = this.interfaceMethod(interfaceName);
+            if(interfaceMethod == null) {
+                this.printError("Interface " + interfaceName + " used by the " + name + " entry point must be on the classpath and must have exactly one abstract method that returns void");
+                return;
+            }
+            // Parameter types are erased so that the class can implement generic interfaces as raw types
+            ArrayList<String> parameters = new ArrayList<>();
+            ArrayList<String> arguments = new ArrayList<>();
+            List<? extends VariableElement> interfaceParameters = interfaceMethod.getParameters();
+            for(int i = 0; i < interfaceParameters.size(); i++) {
+                parameters.add(this.processingEnv.getTypeUtils().erasure(interfaceParameters.get(i).asType()) + " arg" + i);
+                arguments.add("arg" + i);
+            }
+            for(Element method : methods) {
+                this.checkParameters(method, interfaceMethod, interfaceName);
+            }
+            try(PrintWriter writer = new PrintWriter(this.createSourceFile(packageName + "." + className, originatingElements))) {
                 writer.println("package " + packageName + ";");
                 writer.println("public class " + className + " implements " + interfaceName + " {");
-                Method[] interfaceMethods = Class.forName(interfaceName).getMethods();
-                if(interfaceMethods.length > 0) {
-                    writer.println("    @Override");
-                    writer.println("    public void " + interfaceMethods[0].getName() + "() {");
-                    for(Element method : methods) {
-                        String methodClass = method.getEnclosingElement().getSimpleName().toString();
-                        String methodPackage = this.processingEnv.getElementUtils().getPackageOf(method).getQualifiedName().toString();
-                        writer.println("        " + methodPackage + "." + methodClass + "." + method.getSimpleName() + "();");
+                writer.println("    @Override");
+                String thrownTypes = interfaceMethod.getThrownTypes().isEmpty() ? "" : " throws " + interfaceMethod.getThrownTypes().stream().map(Object::toString).collect(Collectors.joining(", "));
+                writer.println("    public void " + interfaceMethod.getSimpleName() + "(" + String.join(", ", parameters) + ")" + thrownTypes + " {");
+                if(setup) {
+                    this.writeSetup(writer, "        ");
+                }
+                // Entry points are called from lambdas unless they may throw the checked exceptions declared by the interface
+                boolean direct = !interfaceMethod.getThrownTypes().isEmpty();
+                if(name.equals("main")) {
+                    // Init entry points are always called before common ones
+                    for(ModEntryPoint.Side side : ModEntryPoint.Side.values()) {
+                        List<Element> sideMethods = methods.stream().filter(method -> method.getAnnotation(ModEntryPoint.class).side() == side).toList();
+                        if(!sideMethods.isEmpty()) {
+                            this.writeInitializerCalls(writer, this.sortEntryPoints(sideMethods), "", direct, interfaceName);
+                        }
                     }
-                    writer.println("    }");
+                } else if(!methods.isEmpty()) {
+                    this.writeInitializerCalls(writer, this.sortEntryPoints(methods), String.join(", ", arguments), direct, interfaceName);
                 }
+                writer.println("    }");
                 writer.println("}");
             } catch(IOException e) {
                 throw new UncheckedIOException("Could not generate class " + packageName + "." + className, e);
-            } catch(ClassNotFoundException e) {
-                throw new RuntimeException("Could not find interface " + interfaceName, e);
             }
             this.fabricInitializers.put(name, packageName + "." + className);
         }
     }
 
+    /**
+     * <p>
+     *     Writes the code that calls the given entry points in the method of a generated initializer.
+     *     Prints a warning for off-thread entry points that are called directly, since they are called on the current thread.
+     * </p>
+     *
+     * @param writer The writer used to write the generated class.
+     * @param methods The sorted entry points.
+     * @param arguments The arguments passed to every entry point, separated by commas.
+     * @param direct True if the entry points must be called directly because the interface declares checked exceptions.
+     * @param interfaceName The fully qualified name of the interface, used in warnings.
+     */
+    private void writeInitializerCalls(PrintWriter writer, List<Element> methods, String arguments, boolean direct, String interfaceName) {
+        if(direct) {
+            for(Element method : methods) {
+                if(method.getAnnotation(ModEntryPoint.class).offThread()) {
+                    this.printWarning("Off-thread entry point " + entryPointName(method) + " is called on the current thread because " + interfaceName + " declares checked exceptions", method);
+                }
+            }
+            this.writeDirectEntryPoints(writer, "        ", methods, arguments);
+        } else {
+            this.writeEntryPoints(writer, "        ", methods, null, arguments);
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the single abstract method of the given interface.
+     *     The interface is looked up with {@link javax.lang.model.util.Elements} so that it does not need to be loaded by the annotation processor.
+     *     Results are cached since the same interfaces are used by many entry points.
+     * </p>
+     *
+     * @param interfaceName The fully qualified name of the interface.
+     * @return The single abstract method of the interface or null if the interface cannot be found, does not have exactly one abstract method, or its method does not return void.
+     */
+    private ExecutableElement interfaceMethod(String interfaceName) {
+        if(!this.interfaceMethods.containsKey(interfaceName)) {
+            this.interfaceMethods.put(interfaceName, this.findInterfaceMethod(interfaceName));
+        }
+        return this.interfaceMethods.get(interfaceName);
+    }
+
+    /**
+     * <p>
+     *     Looks for the single abstract method of the given interface without caching it.
+     * </p>
+     *
+     * @param interfaceName The fully qualified name of the interface.
+     * @return The single abstract method of the interface or null if there is none.
+     * @see FabricAnnotationProcessor#interfaceMethod(String)
+     */
+    private ExecutableElement findInterfaceMethod(String interfaceName) {
+        TypeElement interfaceElement = this.processingEnv.getElementUtils().getTypeElement(interfaceName);
+        if(interfaceElement == null || interfaceElement.getKind() != ElementKind.INTERFACE) {
+            return null;
+        }
+        // Abstract methods that override public methods of Object are already implemented
+        List<ExecutableElement> objectMethods = ElementFilter.methodsIn(this.processingEnv.getElementUtils().getTypeElement("java.lang.Object").getEnclosedElements());
+        List<ExecutableElement> abstractMethods = ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(interfaceElement)).stream()
+                .filter(method -> method.getModifiers().contains(Modifier.ABSTRACT))
+                .filter(method -> objectMethods.stream().noneMatch(objectMethod -> this.processingEnv.getElementUtils().overrides(method, objectMethod, interfaceElement)))
+                .toList();
+        if(abstractMethods.size() != 1 || abstractMethods.get(0).getReturnType().getKind() != TypeKind.VOID) {
+            return null;
+        }
+        return abstractMethods.get(0);
+    }
+
+    /**
+     * <p>
+     *     Checks that an entry point can receive the arguments of the method of the interface it is called from
+     *     and that it does not throw checked exceptions that are not declared by that method.
+     *     Prints an error if it does not.
+     * </p>
+     *
+     * @param method The entry point.
+     * @param interfaceMethod The method of the interface.
+     * @param interfaceName The fully qualified name of the interface.
+     */
+    private void checkParameters(Element method, ExecutableElement interfaceMethod, String interfaceName) {
+        List<? extends VariableElement> parameters = ((ExecutableElement) method).getParameters();
+        List<? extends VariableElement> interfaceParameters = interfaceMethod.getParameters();
+        boolean matches = parameters.size() == interfaceParameters.size();
+        for(int i = 0; matches && i < parameters.size(); i++) {
+            TypeMirror argument = this.processingEnv.getTypeUtils().erasure(interfaceParameters.get(i).asType());
+            matches = this.processingEnv.getTypeUtils().isAssignable(argument, this.processingEnv.getTypeUtils().erasure(parameters.get(i).asType()));
+        }
+        if(!matches) {
+            this.printError("Entry point " + entryPointName(method) + " must have the same parameters as " + interfaceName + "#" + interfaceMethod.getSimpleName() + interfaceParameters.stream().map(parameter -> parameter.asType().toString()).collect(Collectors.joining(", ", "(", ")")), method);
+        }
+        Types types = this.processingEnv.getTypeUtils();
+        TypeMirror runtimeException = this.processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+        TypeMirror error = this.processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+        for(TypeMirror thrown : ((ExecutableElement) method).getThrownTypes()) {
+            boolean unchecked = types.isSubtype(thrown, runtimeException) || types.isSubtype(thrown, error);
+            if(!unchecked && interfaceMethod.getThrownTypes().stream().noneMatch(declared -> types.isSubtype(thrown, types.erasure(declared)))) {
+                this.printError("Entry point " + entryPointName(method) + " throws " + thrown + ", which is not declared by " + interfaceName + "#" + interfaceMethod.getSimpleName(), method);
+            }
+        }
+    }
+
+    @Override
+    protected boolean acceptsParameters(Element method) {
+        return method.getAnnotation(FabricCustomEntryPoint.class) != null;
+    }
+
+    @Override
+    protected boolean runsBefore(Element dependency, Element method) {
+        // Custom entry points may be called at any time
+        return super.runsBefore(dependency, method) && dependency.getAnnotation(FabricCustomEntryPoint.class) == null && method.getAnnotation(FabricCustomEntryPoint.class) == null;
+    }
+
     /**
      * <p>
      *     Converts the {@link ModEntryPoint.Side} enum into the string used by Fabric.
@@ -126,7 +281,7 @@ public class FabricAnnotationProcessor extends ModAnnotationProcessor {
 
     @Override
     protected void generateModFile() {
-        try(PrintWriter writer = new PrintWriter(this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "fabric.mod.json").openWriter())) {
+        try(PrintWriter writer = new PrintWriter(this.createResource("fabric.mod.json", this.allAnnotatedElements()))) {
             writer.println("{");
             writer.println("  \"schemaVersion\": 1,");
             writer.println("  \"id\": \"" + this.processingEnv.getOptions().get("modId") + "\",");
@@ -201,7 +356,7 @@ public class FabricAnnotationProcessor extends ModAnnotationProcessor {
 
     @Override
     public Set<String> getSupportedOptions() {
-        return Set.of("fabricVersion", "phantomVersion", "minecraftVersion", "modId", "modGroupId", "modVersion", "modName", "modLicense", "modAuthors", "modDescription", "modUrl", "modSource", "modIcon");
+        return Set.of("fabricVersion", "phantomVersion", "minecraftVersion", "modId", "modGroupId", "modVersion", "modName", "modLicense", "modAuthors", "modDescription", "modUrl", "modSource", "modIcon", "dataOutput");
     }
 
     @Override
@@ -209,10 +364,6 @@ public class FabricAnnotationProcessor extends ModAnnotationProcessor {
         return Set.of("fabricVersion", "phantomVersion", "minecraftVersion", "modId", "modGroupId", "modVersion");
     }
 
-    private String lowercaseModId() {
-        return this.processingEnv.getOptions().get("modId").toLowerCase().replace("_", "");
-    }
-
     /**
      * <p>
      *     Record used to pair the name of a custom entry point with its interface.
@@ -3,8 +3,6 @@ package io.github.phantomloader.processor.forge;
 import io.github.phantomloader.library.ModEntryPoint;
 import io.github.phantomloader.processor.ModAnnotationProcessor;
 
-import javax.lang.model.element.Element;
-import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.UncheckedIOException;
@@ -27,18 +25,15 @@ public class ForgeAnnotationProcessor extends ModAnnotationProcessor {
     @Override
     protected void generateModClass() {
         String modId = this.processingEnv.getOptions().get("modId");
-        String packageName = this.processingEnv.getOptions().get("modGroupId") + "." + modId.toLowerCase().replace("_", "") + ".forge";
-        try(PrintWriter writer = new PrintWriter(this.processingEnv.getFiler().createSourceFile(packageName + ".ForgeInitializer").openWriter())) {
+        String packageName = this.generatedPackage();
+        try(PrintWriter writer = new PrintWriter(this.createSourceFile(packageName + ".ForgeInitializer", this.allAnnotatedElements()))) {
             writer.println("package " + packageName + ";");
             writer.println("@net.minecraftforge.fml.common.Mod(\"" + modId + "\")");
             writer.println("public class ForgeInitializer {");
             writer.println("    public ForgeInitializer() {");
+            this.writeSetup(writer, "        ");
             if(this.annotatedMethods.containsKey(ModEntryPoint.Side.INIT)) {
-                for(Element method : this.annotatedMethods.get(ModEntryPoint.Side.INIT)) {
-                    String methodClass = method.getEnclosingElement().getSimpleName().toString();
-                    String methodPackage = this.processingEnv.getElementUtils().getPackageOf(method).getQualifiedName().toString();
-                    writer.println("        " + methodPackage + "." + methodClass + "." + method.getSimpleName() + "();");
-                }
+                this.writeEntryPoints(writer, "        ", this.sortEntryPoints(this.annotatedMethods.get(ModEntryPoint.Side.INIT)), null);
             }
             if(this.annotatedMethods.containsKey(ModEntryPoint.Side.COMMON) || this.annotatedMethods.containsKey(ModEntryPoint.Side.CLIENT) || this.annotatedMethods.containsKey(ModEntryPoint.Side.SERVER)) {
                 writer.println("        net.minecraftforge.eventbus.api.IEventBus eventBus = net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext.get().getModEventBus();");
@@ -56,35 +51,17 @@ public class ForgeAnnotationProcessor extends ModAnnotationProcessor {
             writer.println("    }");
             if(this.annotatedMethods.containsKey(ModEntryPoint.Side.COMMON)) {
                 writer.println("    private void commonSetup(net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent setupEvent) {");
-                writer.println("        setupEvent.enqueueWork(() -> {");
-                for(Element method : this.annotatedMethods.get(ModEntryPoint.Side.COMMON)) {
-                    String methodClass = method.getEnclosingElement().getSimpleName().toString();
-                    String methodPackage = this.processingEnv.getElementUtils().getPackageOf(method).getQualifiedName().toString();
-                    writer.println("            " + methodPackage + "." + methodClass + "." + method.getSimpleName() + "();");
-                }
-                writer.println("        });");
+                this.writeEntryPoints(writer, "        ", this.sortEntryPoints(this.annotatedMethods.get(ModEntryPoint.Side.COMMON)), "setupEvent.enqueueWork");
                 writer.println("    }");
             }
             if(this.annotatedMethods.containsKey(ModEntryPoint.Side.CLIENT)) {
                 writer.println("    private void clientSetup(net.minecraftforge.fml.event.lifecycle.FMLClientSetupEvent setupEvent) {");
-                writer.println("        setupEvent.enqueueWork(() -> {");
-                for(Element method : this.annotatedMethods.get(ModEntryPoint.Side.CLIENT)) {
-                    String methodClass = method.getEnclosingElement().getSimpleName().toString();
-                    String methodPackage = this.processingEnv.getElementUtils().getPackageOf(method).getQualifiedName().toString();
-                    writer.println("            " + methodPackage + "." + methodClass + "." + method.getSimpleName() + "();");
-                }
-                writer.println("        });");
+                this.writeEntryPoints(writer, "        ", this.sortEntryPoints(this.annotatedMethods.get(ModEntryPoint.Side.CLIENT)), "setupEvent.enqueueWork");
                 writer.println("    }");
             }
             if(this.annotatedMethods.containsKey(ModEntryPoint.Side.SERVER)) {
                 writer.println("    private void serverSetup(net.minecraftforge.fml.event.lifecycle.FMLDedicatedServerSetupEvent setupEvent) {");
-                writer.println("        setupEvent.enqueueWork(() -> {");
-                for(Element method : this.annotatedMethods.get(ModEntryPoint.Side.SERVER)) {
-                    String methodClass = method.getEnclosingElement().getSimpleName().toString();
-                    String methodPackage = this.processingEnv.getElementUtils().getPackageOf(method).getQualifiedName().toString();
-                    writer.println("            " + methodPackage + "." + methodClass + "." + method.getSimpleName() + "();");
-                }
-                writer.println("        });");
+                this.writeEntryPoints(writer, "        ", this.sortEntryPoints(this.annotatedMethods.get(ModEntryPoint.Side.SERVER)), "setupEvent.enqueueWork");
                 writer.println("    }");
             }
             writer.println("}");
@@ -95,7 +72,7 @@ public class ForgeAnnotationProcessor extends ModAnnotationProcessor {
 
     @Override
     protected void generateModFile() {
-        try(PrintWriter writer = new PrintWriter(this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/mods.toml").openWriter())) {
+        try(PrintWriter writer = new PrintWriter(this.createResource("META-INF/mods.toml", this.allAnnotatedMethods()))) {
             writer.println(tomlLine("modLoader", "javafml"));
             String forgeVersion = this.forgeVersion();
             writer.println(tomlLine("loaderVersion", forgeVersion));
@@ -168,7 +145,7 @@ public class ForgeAnnotationProcessor extends ModAnnotationProcessor {
 
     @Override
     public Set<String> getSupportedOptions() {
-        return Set.of("forgeVersion", "phantomVersion", "minecraftVersion", "modId", "modGroupId", "modVersion", "modName", "modLicense", "modAuthors", "modCredits", "modDescription", "modUrl", "modSource", "modLogo", "issueTracker");
+        return Set.of("forgeVersion", "phantomVersion", "minecraftVersion", "modId", "modGroupId", "modVersion", "modName", "modLicense", "modAuthors", "modCredits", "modDescription", "modUrl", "modSource", "modLogo", "issueTracker", "dataOutput");
     }
 
     @Override